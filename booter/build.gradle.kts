@@ -34,9 +34,15 @@ dependencies {
     implementation(project(":lib:common"))
     implementation(libs.kotlinx.serialization.json)
     implementation(libs.picocli)
+
+    testImplementation(testLibs.kotest.junit5)
 }
 
 tasks {
+    test {
+        useJUnitPlatform()
+    }
+
     jar {
         dependsOn(":lib:common:jar")
 
@@ -1,4 +1,5 @@
 -libraryjar <java.home>/jmods/java.base.jmod(!**.jar;!module-info.class)
+-libraryjar <java.home>/jmods/java.compiler.jmod(!**.jar;!module-info.class)
 
 -dontoptimize
 -dontobfuscate
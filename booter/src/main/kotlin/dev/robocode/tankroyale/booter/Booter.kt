@@ -116,7 +116,7 @@ class Booter : Callable<Int> {
             "Information about each started bot process is written to standard out with a line per process in the following format:",
             "{pid};{dir}",
             "where",
-            "  {pid} is the process id",
+            "  {pid} is the process id, or a negative id for a bot hosted by the booter",
             "  {dir} is the bot directory",
             "",
             "The following commands can be given via standard in:",
@@ -134,9 +134,32 @@ class Booter : Callable<Int> {
             paramLabel = "BOT_DIRS",
             description = ["Absolute file paths, where each path is a bot directory containing a bot or team that must be run"]
         )
-        botDirectories: Array<String>?
+        botDirectories: Array<String>?,
+
+        @Option(
+            names = ["--host", "-H"],
+            description = ["Flag set when Java bots should run within the booter with a class loader per bot, " +
+                    "instead of running each bot in its own process. Other bots still run in their own process."]
+        )
+        host: Boolean? = false,
+
+        @Option(
+            names = ["--no-cache"],
+            description = ["Flag set when Java bots should be run by their boot scripts as is, instead of being " +
+                    "compiled once into a cache and run from the cached jar and class data sharing archive."]
+        )
+        noCache: Boolean? = false,
+
+        @Option(
+            names = ["--java"],
+            paramLabel = "JAVA",
+            description = ["Java executable running the Java bots from the cache, which must be the same or a later " +
+                    "version of Java than the one running the booter. Default is the Java running the booter, and not " +
+                    "the java command on the PATH used by the boot scripts."]
+        )
+        java: String?,
     ) {
-        BootCommand().boot(botDirectories)
+        BootCommand(host == true, noCache != true, java?.let { Paths.get(it) }).boot(botDirectories)
     }
 
     companion object {
@@ -0,0 +1,267 @@
+package dev.robocode.tankroyale.booter.cache
+
+import dev.robocode.tankroyale.booter.util.Log
+import java.io.File
+import java.io.StringWriter
+import java.net.URI
+import java.nio.file.FileSystems
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+import java.nio.file.attribute.FileTime
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.jar.Attributes
+import java.util.jar.JarEntry
+import java.util.jar.JarFile
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+import java.util.stream.Collectors.toList
+import javax.tools.JavaCompiler
+import javax.tools.ToolProvider
+import kotlin.io.path.absolutePathString
+import kotlin.io.path.exists
+import kotlin.io.path.fileSize
+import kotlin.io.path.getLastModifiedTime
+import kotlin.io.path.name
+
+/**
+ * Cache of compiled Java bots, so a Java bot run from its source file is compiled once instead of on every boot.
+ *
+ * The main source file of a bot is compiled into a jar, which is cached under a key that is a hash of the source file,
+ * the class path, and the JVM. Hence, a bot is only recompiled when its source, its libraries, or the JVM changes.
+ * Besides the jar, a class data sharing (AppCDS) archive is created for the bot in the background, which contains the
+ * classes of the bot, the Bot API and its dependencies, and the JDK classes used at startup. The archive lets the JVM
+ * map the classes from the archive instead of loading and verifying them at every boot.
+ *
+ * Cached bots are run with the Java executable of the booter's own JVM by default, and not with the `java` command
+ * found on the PATH like their boot scripts, as the bots are compiled for the JVM of the booter.
+ *
+ * @param cacheDir is the directory containing the cached bots.
+ * @param javaExecutable is the Java executable running the cached bots and creating their archives, which must be a
+ * JVM of the same or a later version than the JVM of the booter.
+ */
+class BotCache(
+    private val cacheDir: Path = Paths.get(System.getProperty("java.io.tmpdir"), CACHE_DIR_NAME),
+    val javaExecutable: Path = Paths.get(System.getProperty("java.home"), "bin", "java"),
+) {
+
+    private val compiler: JavaCompiler? = ToolProvider.getSystemJavaCompiler()
+
+    /** Entries with an archive being created or created, so each archive is created only once */
+    private val archivedEntries = ConcurrentHashMap.newKeySet<Path>()
+
+    /** Creates one archive at a time, as each archive is dumped by a JVM of its own */
+    private val archiveExecutor = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "ArchiveCreator").apply { isDaemon = true }
+    }
+
+    /**
+     * Cached bot.
+     *
+     * @param jar is the jar containing the compiled classes of the bot.
+     * @param archive is the class data sharing archive of the bot, which exists when it has been created.
+     * @param mainClass is the name of the main class of the bot.
+     */
+    class Entry(val jar: Path, val archive: Path, val mainClass: String)
+
+    /** True if bots can be compiled, which requires the booter to run on a JDK */
+    val isAvailable: Boolean get() = compiler != null
+
+    /**
+     * Returns the cached bot compiled from a main source file, where the bot is compiled if it is not cached already.
+     *
+     * @param sourceFile is the main source file of the bot, which is named after the main class.
+     * @param classPath is the class path of the bot.
+     * @return the cached bot, or `null` if bots cannot be compiled.
+     * @throws IllegalStateException if the bot could not be compiled.
+     */
+    fun getEntry(sourceFile: Path, classPath: List<Path>): Entry? {
+        val compiler = compiler ?: return null
+
+        val mainClass = sourceFile.name.removeSuffix(".java")
+        val entryDir = cacheDir.resolve("$mainClass-${hash(sourceFile, classPath)}")
+        val entry = Entry(entryDir.resolve("$mainClass.jar"), entryDir.resolve("$mainClass.jsa"), mainClass)
+
+        if (entry.jar.exists()) {
+            Files.setLastModifiedTime(entryDir, FileTime.fromMillis(System.currentTimeMillis())) // still in use
+        } else {
+            Files.createDirectories(entryDir)
+            removeStaleEntries(entryDir, mainClass)
+            compile(compiler, sourceFile, classPath, entry)
+        }
+        return entry
+    }
+
+    /**
+     * Creates the class data sharing archive of a cached bot in the background, unless it exists already. The archive
+     * is a static AppCDS archive dumped with the default class list of the JDK and all classes on the class path.
+     *
+     * @param entry is the cached bot.
+     * @param classPath is the class path of the bot, where the bot jar must be the first entry.
+     */
+    fun createArchiveAsync(entry: Entry, classPath: List<Path>) {
+        if (entry.archive.exists() || !archivedEntries.add(entry.archive)) return
+
+        archiveExecutor.execute {
+            try {
+                createArchive(entry, classPath)
+            } catch (ex: Exception) {
+                Log.error(ex, entry.jar.parent)
+            }
+        }
+    }
+
+    private fun createArchive(entry: Entry, classPath: List<Path>) {
+        val entryDir = entry.jar.parent
+        val classList = entryDir.resolve("classlist")
+        val classes = defaultClassList() + jdkModuleClasses(JDK_MODULES) + classPath.flatMap { jarClasses(it) }
+        Files.write(classList, classes)
+
+        val tempArchive = Files.createTempFile(entryDir, entry.mainClass, ".jsa.tmp")
+        try {
+            val process = ProcessBuilder(
+                javaExecutable.toString(),
+                "-Xshare:dump",
+                "-XX:SharedClassListFile=$classList",
+                "-XX:SharedArchiveFile=$tempArchive",
+                "-cp", classPath.joinToString(File.pathSeparator) { it.absolutePathString() },
+            ).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start()
+
+            if (process.waitFor() == 0) {
+                Files.move(tempArchive, entry.archive, ATOMIC_MOVE, REPLACE_EXISTING)
+            }
+        } finally {
+            Files.deleteIfExists(tempArchive)
+            Files.deleteIfExists(classList)
+        }
+    }
+
+    private fun compile(compiler: JavaCompiler, sourceFile: Path, classPath: List<Path>, entry: Entry) {
+        val classesDir = Files.createTempDirectory(entry.jar.parent, "classes")
+        try {
+            val output = StringWriter()
+            compiler.getStandardFileManager(null, null, Charsets.UTF_8).use { fileManager ->
+                val options = listOf(
+                    "-d", classesDir.absolutePathString(),
+                    "-classpath", classPath.joinToString(File.pathSeparator) { it.absolutePathString() },
+                    "-nowarn",
+                )
+                val compilationUnits = fileManager.getJavaFileObjects(sourceFile.toFile())
+                if (compiler.getTask(output, fileManager, null, options, null, compilationUnits).call() != true) {
+                    throw IllegalStateException("Could not compile bot: $sourceFile\n$output")
+                }
+            }
+            check(classesDir.resolve("${entry.mainClass}.class").exists()) {
+                "Main class not found in the compiled bot: ${entry.mainClass}"
+            }
+
+            // The jar is written to a temporary file first, so a jar in the cache is always complete
+            val tempJar = Files.createTempFile(entry.jar.parent, entry.mainClass, ".jar.tmp")
+            writeJar(classesDir, tempJar, entry.mainClass)
+            Files.move(tempJar, entry.jar, ATOMIC_MOVE, REPLACE_EXISTING)
+        } finally {
+            classesDir.toFile().deleteRecursively()
+        }
+    }
+
+    private fun writeJar(classesDir: Path, jar: Path, mainClass: String) {
+        val manifest = Manifest().apply {
+            mainAttributes[Attributes.Name.MANIFEST_VERSION] = "1.0"
+            mainAttributes[Attributes.Name.MAIN_CLASS] = mainClass
+        }
+        val classFiles = Files.walk(classesDir).use { files ->
+            files.filter { Files.isRegularFile(it) }.collect(toList())
+        }
+
+        JarOutputStream(Files.newOutputStream(jar), manifest).use { out ->
+            classFiles.sorted().forEach { file ->
+                out.putNextEntry(JarEntry(classesDir.relativize(file).joinToString("/")))
+                Files.copy(file, out)
+                out.closeEntry()
+            }
+        }
+    }
+
+    /**
+     * Removes cached entries of older versions of a bot, i.e. entries for the same main class that have not been used
+     * for a day. Recently used entries are kept, as entries for the same main class can belong to different bots.
+     */
+    private fun removeStaleEntries(entryDir: Path, mainClass: String) {
+        val expiry = System.currentTimeMillis() - STALE_ENTRY_MILLIS
+        Files.list(cacheDir).use { dirs ->
+            dirs.filter { it != entryDir && it.name.startsWith("$mainClass-") }
+                .filter { it.getLastModifiedTime().toMillis() < expiry }
+                .forEach { it.toFile().deleteRecursively() }
+        }
+    }
+
+    /**
+     * Hash of everything a compiled bot and its archive depend on: the JVMs compiling and running the bot, the source
+     * file, and the class path.
+     */
+    private fun hash(sourceFile: Path, classPath: List<Path>): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        fun update(value: String) = digest.update(value.toByteArray(Charsets.UTF_8))
+
+        update(System.getProperty("java.home"))
+        update(System.getProperty("java.vm.version"))
+        update(javaExecutable.absolutePathString())
+        update(sourceFile.absolutePathString())
+        digest.update(Files.readAllBytes(sourceFile))
+        classPath.forEach {
+            update(it.absolutePathString())
+            if (it.exists()) {
+                update("${it.fileSize()}:${it.getLastModifiedTime().toMillis()}")
+            }
+        }
+        return digest.digest().take(HASH_BYTES).joinToString("") { "%02x".format(it) }
+    }
+
+    /** Default class list of the JDK, which lists the JDK classes loaded when starting a JVM */
+    private fun defaultClassList(): List<String> {
+        val classList = Paths.get(System.getProperty("java.home"), "lib", "classlist")
+        return if (classList.exists()) Files.readAllLines(classList) else emptyList()
+    }
+
+    /** Classes of JDK modules used by the Bot API, which are not in the default class list */
+    private fun jdkModuleClasses(modules: List<String>): List<String> {
+        val jrt = FileSystems.getFileSystem(URI.create("jrt:/"))
+        return modules.map { jrt.getPath("modules", it) }.filter { it.exists() }.flatMap { moduleDir ->
+            Files.walk(moduleDir).use { files ->
+                files.map { moduleDir.relativize(it).joinToString("/") }
+                    .filter { it.endsWith(".class") && it != "module-info.class" }
+                    .map { it.removeSuffix(".class") }
+                    .collect(toList())
+            }
+        }
+    }
+
+    /** Classes of a jar in the format of a class list */
+    private fun jarClasses(jar: Path): List<String> {
+        if (!Files.isRegularFile(jar)) return emptyList()
+        return JarFile(jar.toFile()).use { jarFile ->
+            jarFile.stream()
+                .map { it.name }
+                .filter { it.endsWith(".class") && !it.startsWith("META-INF/") && !it.endsWith("module-info.class") }
+                .map { it.removeSuffix(".class") }
+                .collect(toList())
+        }
+    }
+
+    private companion object {
+        const val CACHE_DIR_NAME = "robocode-tankroyale-bot-cache"
+
+        const val HASH_BYTES = 8
+
+        const val STALE_ENTRY_MILLIS = 24 * 60 * 60 * 1000L
+
+        /** JDK modules used by the Bot API for its WebSocket connection */
+        val JDK_MODULES = listOf("java.net.http")
+    }
+}
@@ -1,15 +1,31 @@
 package dev.robocode.tankroyale.booter.commands
 
+import dev.robocode.tankroyale.booter.cache.BotCache
+import dev.robocode.tankroyale.booter.host.BotHost
 import dev.robocode.tankroyale.booter.process.ProcessManager
+import java.nio.file.Path
 import java.util.*
 import kotlin.io.path.Path
 
 /**
  * Command for running bots and managing their processes.
+ *
+ * @param isHostEnabled is true if Java bots are hosted in this JVM instead of running in a process per bot.
+ * @param isCacheEnabled is true if Java bots run from their source files are compiled once into a cache.
+ * @param javaExecutable is the Java executable running the cached Java bots, or `null` for the JVM of the booter.
  */
-class BootCommand : Command() {
+class BootCommand(
+    isHostEnabled: Boolean = false,
+    isCacheEnabled: Boolean = true,
+    javaExecutable: Path? = null,
+) : Command() {
 
-    private val processManager = ProcessManager()
+    private val botCache = javaExecutable?.let { BotCache(javaExecutable = it) } ?: BotCache()
+
+    private val processManager = ProcessManager(
+        botHost = if (isHostEnabled) BotHost(botCache) else null,
+        botCache = if (isCacheEnabled) botCache else null
+    )
 
     /**
      * Main entry point to boot bots from specified paths and process command line input.
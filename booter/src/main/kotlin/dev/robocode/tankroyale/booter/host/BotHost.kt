@@ -0,0 +1,160 @@
+package dev.robocode.tankroyale.booter.host
+
+import dev.robocode.tankroyale.booter.cache.BotCache
+import dev.robocode.tankroyale.booter.util.Log
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.net.URLClassLoader
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListMap
+import java.util.concurrent.atomic.AtomicLong
+import java.util.stream.Collectors.toList
+import kotlin.io.path.absolutePathString
+import kotlin.io.path.exists
+import kotlin.io.path.isDirectory
+import kotlin.io.path.name
+
+/**
+ * Hosts Java bots in the JVM of the booter instead of running a process per bot.
+ *
+ * The Bot API and other libraries of the bots are loaded once by a class loader that is shared by all bots using the
+ * same libraries, and the classes of each bot are loaded by a class loader of its own, so bots cannot see each other's
+ * classes. The source file of a bot is compiled in-process into the [BotCache], like a bot run from its cached jar in
+ * a process of its own. Each bot runs its main method on a thread of its own and connects to the server with its own
+ * WebSocket. A bot that crashes only stops itself, and is logged like a bot process writing to standard error.
+ *
+ * A bot can only be hosted if it is a Java bot with a main class named after the bot, and the Bot API supports being
+ * hosted. Other bots must be booted as processes.
+ *
+ * Hosted bots are identified by negative ids, so the ids can be used in place of process ids without clashing.
+ */
+class BotHost(private val botCache: BotCache) {
+
+    /** Class loaders of the libraries shared by bots, by the library jars */
+    private val libraryLoaders = ConcurrentHashMap<List<Path>, URLClassLoader>()
+
+    private val hostedBots = ConcurrentSkipListMap<HostId, HostedBot>()
+    private val nextId = AtomicLong(-1)
+
+    private class HostedBot(val botDir: Path) {
+        /** Context of the bot in the Bot API, which is set when the bot thread has entered it */
+        var context: Any? = null
+        var isStopped = false
+    }
+
+    /**
+     * Boots a bot in this JVM.
+     *
+     * @param botDir is the directory of the bot.
+     * @param botName is the name of the bot, which is also the name of its main class.
+     * @param env is the environment variables of the bot.
+     * @return the host id of the bot, or `null` if the bot cannot be hosted.
+     */
+    fun boot(botDir: Path, botName: String, env: Map<String, String?>): HostId? {
+        val sourceFile = botDir.resolve("$botName.java")
+        if (!botCache.isAvailable || !sourceFile.exists()) return null
+
+        val libraryJars = findLibraryJars(botDir).ifEmpty { return null }
+        val libraryLoader = libraryLoaders.computeIfAbsent(libraryJars) {
+            URLClassLoader("bot-libraries", it.map { jar -> jar.toUri().toURL() }.toTypedArray(), platformClassLoader)
+        }
+        val contextClass = try {
+            libraryLoader.loadClass(BOT_HOST_CONTEXT_CLASS)
+        } catch (ex: ClassNotFoundException) {
+            return null // the Bot API does not support being hosted
+        }
+
+        val botJar = botCache.getEntry(sourceFile, libraryJars)?.jar ?: return null
+        val botLoader = URLClassLoader(botName, arrayOf(botJar.toUri().toURL()), libraryLoader)
+        val mainMethod = botLoader.loadClass(botName).getMethod("main", Array<String>::class.java)
+
+        val id = nextId.getAndDecrement()
+        val hostedBot = HostedBot(botDir)
+        hostedBots[id] = hostedBot
+
+        Thread({ runBot(id, hostedBot, contextClass, mainMethod, env) }, "BotHost-$botName-$id").apply {
+            contextClassLoader = botLoader
+            start()
+        }
+        return id
+    }
+
+    /**
+     * Stops a hosted bot.
+     * @return true if the bot was found and stopped, false otherwise
+     */
+    fun stop(id: HostId): Boolean {
+        val hostedBot = hostedBots.remove(id) ?: return false
+        synchronized(hostedBot) {
+            hostedBot.isStopped = true
+            hostedBot.context?.let { stopContext(it) } // otherwise stopped when entering the context
+        }
+        println("stopped $id")
+        return true
+    }
+
+    /**
+     * Stops all hosted bots.
+     */
+    fun stopAll() {
+        hostedBots.keys.forEach { stop(it) }
+    }
+
+    private fun runBot(
+        id: HostId,
+        hostedBot: HostedBot,
+        contextClass: Class<*>,
+        mainMethod: Method,
+        env: Map<String, String?>
+    ) {
+        try {
+            val context = contextClass.getMethod("enter", Map::class.java, String::class.java)
+                .invoke(null, env.filterValues { it != null }, hostedBot.botDir.absolutePathString())
+            synchronized(hostedBot) {
+                hostedBot.context = context
+                if (hostedBot.isStopped) stopContext(context)
+            }
+            mainMethod.invoke(null, arrayOf<String>())
+        } catch (ex: InvocationTargetException) {
+            logError(ex.targetException, hostedBot.botDir)
+        } catch (ex: Exception) {
+            Log.error(ex, hostedBot.botDir)
+        } finally {
+            hostedBots.remove(id)
+        }
+    }
+
+    private fun stopContext(context: Any) {
+        context.javaClass.getMethod("stop").invoke(context)
+    }
+
+    private fun logError(throwable: Throwable, botDir: Path) {
+        Log.error(throwable as? Exception ?: RuntimeException(throwable), botDir)
+    }
+
+    /**
+     * Finds the library jars of a bot, which are the jars in the `lib` directory next to the bot directories, like
+     * the class path `../lib/*` used by the scripts of the sample bots, and the jars in the `lib` directory of the bot.
+     */
+    private fun findLibraryJars(botDir: Path): List<Path> =
+        listOfNotNull(botDir.parent?.resolve(LIB_DIR_NAME), botDir.resolve(LIB_DIR_NAME))
+            .filter { it.isDirectory() }
+            .flatMap { dir -> Files.list(dir).use { it.collect(toList()) } }
+            .filter { it.name.endsWith(".jar") }
+            .map { it.toAbsolutePath().normalize() }
+            .sorted()
+
+    private companion object {
+        const val BOT_HOST_CONTEXT_CLASS = "dev.robocode.tankroyale.botapi.internal.BotHostContext"
+        const val LIB_DIR_NAME = "lib"
+
+        val platformClassLoader: ClassLoader = ClassLoader.getPlatformClassLoader()
+    }
+}
+
+/**
+ * Id of a hosted bot, which is negative to distinguish it from a process id.
+ */
+typealias HostId = Long
@@ -0,0 +1,97 @@
+package dev.robocode.tankroyale.booter.process
+
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.stream.Collectors.toList
+import kotlin.io.path.exists
+import kotlin.io.path.isDirectory
+import kotlin.io.path.name
+
+/**
+ * Java command of a boot script that runs a bot from its source file in source-file mode, e.g.
+ * `java -cp ../lib/* MyBot.java`, which is used for running the bot from a compiled jar instead.
+ *
+ * @param jvmOptions is the options for the JVM given before the source file, except the class path.
+ * @param classPath is the class path, where wildcards have been expanded into the jars of the directory.
+ * @param sourceFile is the source file of the bot.
+ * @param args is the arguments for the bot given after the source file.
+ */
+class JavaBotCommand(
+    val jvmOptions: List<String>,
+    val classPath: List<Path>,
+    val sourceFile: Path,
+    val args: List<String>,
+) {
+    companion object {
+        private val javaCommands = setOf("java", "java.exe")
+        private val classPathOptions = setOf("-cp", "-classpath", "--class-path")
+
+        /** Characters of shell features like variables and quoting, which cannot be interpreted outside the shell */
+        private val shellChars = setOf('"', '\'', '$', '%', '`', '(', ')', '&', '|')
+
+        /** Extensions of Windows scripts, where a semicolon is the path separator instead of a command separator */
+        private val windowsScriptExtensions = setOf("cmd", "bat")
+
+        /**
+         * Parses the Java command of a boot script.
+         *
+         * @param script is the boot script of the bot, where relative paths are resolved against its directory.
+         * @return the Java command, or `null` if the script does not run the bot from a source file with a plain Java
+         * command.
+         */
+        fun parse(script: Path): JavaBotCommand? {
+            val lines = Files.readAllLines(script).map { it.trim() }
+                .filter { it.isNotEmpty() && !it.startsWith("#") && !it.startsWith("@") }
+                .filter { !it.lowercase().startsWith("rem ") }
+
+            // The script must consist of the Java command only
+            val line = lines.singleOrNull() ?: return null
+            val isWindowsScript = script.name.substringAfterLast('.').lowercase() in windowsScriptExtensions
+            if (line.any { it in shellChars || (it == ';' && !isWindowsScript) }) return null
+
+            val tokens = line.split("\\s+".toRegex())
+            if (tokens.first().lowercase() !in javaCommands) return null
+
+            val sourceIndex = tokens.indexOfFirst { it.endsWith(".java") }
+            if (sourceIndex < 0) return null
+
+            val baseDir = script.parent
+            val sourceFile = baseDir.resolve(tokens[sourceIndex])
+            if (!sourceFile.exists()) return null
+
+            val jvmOptions = mutableListOf<String>()
+            var classPath = emptyList<Path>()
+            var i = 1
+            while (i < sourceIndex) {
+                val token = tokens[i++]
+                if (token in classPathOptions) {
+                    if (i >= sourceIndex) return null
+                    classPath = expandClassPath(baseDir, tokens[i++])
+                } else {
+                    jvmOptions += token
+                }
+            }
+
+            // Arguments end where redirections start, like the `>nul` used in scripts for Windows
+            val args = tokens.drop(sourceIndex + 1).takeWhile { !it.startsWith(">") && !it.startsWith("<") }
+
+            return JavaBotCommand(jvmOptions, classPath, sourceFile, args)
+        }
+
+        private fun expandClassPath(baseDir: Path, classPath: String): List<Path> =
+            classPath.split(File.pathSeparatorChar).filter { it.isNotEmpty() }.flatMap { entry ->
+                if (entry == "*" || entry.endsWith("/*") || entry.endsWith("\\*")) {
+                    val dir = baseDir.resolve(entry.dropLast(1)).normalize()
+                    if (dir.isDirectory()) {
+                        val files = Files.list(dir).use { it.collect(toList()) }
+                        files.filter { it.name.endsWith(".jar") }.sorted()
+                    } else {
+                        emptyList()
+                    }
+                } else {
+                    listOf(baseDir.resolve(entry).normalize())
+                }
+            }
+    }
+}
@@ -1,11 +1,14 @@
 package dev.robocode.tankroyale.booter.process
 
+import dev.robocode.tankroyale.booter.cache.BotCache
+import dev.robocode.tankroyale.booter.host.BotHost
 import dev.robocode.tankroyale.booter.model.BootEntry
 import dev.robocode.tankroyale.booter.util.Env
 import dev.robocode.tankroyale.booter.util.Log
 import dev.robocode.tankroyale.booter.util.OperatingSystemCheck
 import dev.robocode.tankroyale.booter.util.OperatingSystemCheck.OperatingSystemType.Mac
 import dev.robocode.tankroyale.booter.util.OperatingSystemCheck.OperatingSystemType.Windows
+import java.io.File
 import java.nio.file.Files
 import java.nio.file.Files.list
 import java.nio.file.Path
@@ -16,8 +19,13 @@ import kotlin.io.path.exists
 
 /**
  * Manages processes for running bots.
+ *
+ * @param botHost is the host for running Java bots in this JVM instead of a process per bot, or `null` if every bot
+ * must run in its own process.
+ * @param botCache is the cache for running Java bots from compiled jars instead of their source files, or `null` if
+ * the boot scripts of Java bots must be run as is.
  */
-class ProcessManager {
+class ProcessManager(private val botHost: BotHost? = null, private val botCache: BotCache? = null) {
 
     private val processes = ConcurrentSkipListMap<Pid, Process>()
     private var teamId: TeamId = 1
@@ -26,7 +34,10 @@ class ProcessManager {
      * Register a shutdown hook to clean up processes when JVM exits.
      */
     fun registerShutdownHook() {
-        Runtime.getRuntime().addShutdownHook(Thread { killAllProcesses() })
+        Runtime.getRuntime().addShutdownHook(Thread {
+            botHost?.stopAll()
+            killAllProcesses()
+        })
     }
 
     /**
@@ -36,9 +47,7 @@ class ProcessManager {
         if (!isValidBotDirectory(bootDir)) {
             return
         }
-        boot(bootDir, getBootEntry).forEach { process ->
-            processes[process.pid()] = process
-        }
+        boot(bootDir, getBootEntry)
     }
 
     /**
@@ -62,6 +71,9 @@ class ProcessManager {
      * @return true if the process was found and stopped, false otherwise
      */
     fun stopBotProcess(pid: Pid): Boolean {
+        if (pid < 0 && botHost != null) { // hosted bot
+            return botHost.stop(pid).also { if (!it) println("lost: $pid") }
+        }
         val process = processes[pid] ?: run {
             println("lost: $pid")
             return false
@@ -97,29 +109,28 @@ class ProcessManager {
 
     /**
      * Boot either a single bot or a team from the specified directory.
-     * Returns a set of started processes.
      */
-    private fun boot(bootDir: Path, getBootEntry: (Path) -> BootEntry?): Set<Process> {
+    private fun boot(bootDir: Path, getBootEntry: (Path) -> BootEntry?) {
         try {
             val bootEntry = getBootEntry(bootDir) ?: run {
                 Log.error("No valid boot entry found", bootDir)
-                return emptySet()
+                return
             }
 
             // If this is a team entry, boot as a team
             if (isTeamEntry(bootEntry)) {
-                return bootTeam(
+                bootTeam(
                     bootDir,
                     createTeam(bootEntry),
                     getBootEntry
                 )
+                return
             }
 
             // Otherwise boot as a single bot
-            return bootSingleBot(bootDir, getBootEntry)
+            bootSingleBot(bootDir, getBootEntry)
         } catch (ex: Exception) {
             Log.error(ex, bootDir)
-            return emptySet()
         }
     }
 
@@ -140,32 +151,27 @@ class ProcessManager {
     /**
      * Boots a single bot (not part of a team)
      */
-    private fun bootSingleBot(bootDir: Path, getBootEntry: (Path) -> BootEntry?): Set<Process> {
-        bootBot(bootDir, null, getBootEntry)?.let { return setOf(it) }
+    private fun bootSingleBot(bootDir: Path, getBootEntry: (Path) -> BootEntry?) {
+        if (bootBot(bootDir, null, getBootEntry)) return
 
         // If we got here, the bot couldn't be booted, but no exception was thrown
         Log.error("Failed to boot bot - no suitable boot method found", bootDir)
-        return emptySet()
     }
 
     /**
      * Boot a team of bots with the specified team information.
-     * Returns a set of started processes.
      */
-    private fun bootTeam(bootDir: Path, team: Team, getBootEntry: (Path) -> BootEntry?): Set<Process> {
+    private fun bootTeam(bootDir: Path, team: Team, getBootEntry: (Path) -> BootEntry?) {
         val parentPath = bootDir.parent
-        val botProcesses = HashSet<Process>()
 
         try {
             team.members.forEach { botName ->
-                bootTeamMember(parentPath, botName, team, getBootEntry, botProcesses)
+                bootTeamMember(parentPath, botName, team, getBootEntry)
             }
 
             teamId++
-            return botProcesses
         } catch (ex: Exception) {
             Log.error(ex, bootDir)
-            return botProcesses
         }
     }
 
@@ -176,8 +182,7 @@ class ProcessManager {
         parentPath: Path,
         botName: String,
         team: Team,
-        getBootEntry: (Path) -> BootEntry?,
-        botProcesses: MutableSet<Process>
+        getBootEntry: (Path) -> BootEntry?
     ) {
         try {
             val botDir = parentPath.resolve(botName)
@@ -187,9 +192,7 @@ class ProcessManager {
             }
 
             findBootScriptOrNull(botDir)?.let { _ ->
-                bootBot(botDir, team, getBootEntry)?.let { process ->
-                    botProcesses.add(process)
-                } ?: run {
+                if (!bootBot(botDir, team, getBootEntry)) {
                     Log.error("Failed to boot team member bot", botDir)
                 }
             }
@@ -201,26 +204,46 @@ class ProcessManager {
 
     /**
      * Boot a single bot with optional team information.
-     * Returns the started process or null if booting failed.
+     * Returns true if the bot was started, or false if booting failed.
      */
-    private fun bootBot(botDir: Path, team: Team? = null, getBootEntry: (Path) -> BootEntry?): Process? {
+    private fun bootBot(botDir: Path, team: Team? = null, getBootEntry: (Path) -> BootEntry?): Boolean {
         try {
             // Get the boot entry
             val botEntry = getBootEntry(botDir) ?: run {
                 Log.error("Failed to get boot entry for bot", botDir)
-                return null
+                return false
+            }
+
+            // Host the bot in this JVM if it is a Java bot that can be hosted
+            if (botHost != null && hostBot(botHost, botDir, botEntry, team)) {
+                return true
             }
 
             // Find the boot script
-            val scriptPath = findOsScript(botDir) ?: return null
+            val scriptPath = findOsScript(botDir) ?: return false
 
-            return createAndStartBotProcess(scriptPath, botDir, botEntry, team)
+            return createAndStartBotProcess(scriptPath, botDir, botEntry, team) != null
         } catch (ex: Exception) {
             Log.error(ex, botDir)
-            return null
+            return false
         }
     }
 
+    /**
+     * Boots a bot in the bot host, where the host id of the bot is written out in place of a process id.
+     * Returns true if the bot was started, or false if the bot cannot be hosted.
+     */
+    private fun hostBot(botHost: BotHost, botDir: Path, botEntry: BootEntry, team: Team?): Boolean {
+        val botName = getBotBaseName(botDir) ?: return false
+
+        val env = HashMap<String, String?>(System.getenv())
+        setupBotEnvironment(env, botEntry, team)
+
+        val id = botHost.boot(botDir, botName, env) ?: return false
+        println("$id;${botDir.absolutePathString()}")
+        return true
+    }
+
     /**
      * Creates and starts a bot process
      */
@@ -231,7 +254,8 @@ class ProcessManager {
         team: Team?
     ): Process? {
         try {
-            val processBuilder = createProcessBuilder(scriptPath.toString())
+            val processBuilder =
+                createCachedJavaProcessBuilder(scriptPath) ?: createProcessBuilder(scriptPath.toString())
             processBuilder.directory(scriptPath.parent.toFile())
 
             // Set up environment variables
@@ -415,6 +439,37 @@ class ProcessManager {
 
     // PROCESS CREATION
 
+    /**
+     * Create a process builder that runs a Java bot from its cached jar and class data sharing archive, if the boot
+     * script runs the bot from its source file. This saves compiling the bot on every boot, and loading and verifying
+     * the classes once the archive has been created.
+     * Returns null if the bot cannot be run from the cache, so the boot script must be run instead.
+     */
+    private fun createCachedJavaProcessBuilder(scriptPath: Path): ProcessBuilder? {
+        val botCache = botCache?.takeIf { it.isAvailable } ?: return null
+        val javaCommand = JavaBotCommand.parse(scriptPath) ?: return null
+
+        val entry = try {
+            botCache.getEntry(javaCommand.sourceFile, javaCommand.classPath) ?: return null
+        } catch (ex: IllegalStateException) {
+            return null // the boot script reports the compile errors when compiling the bot itself
+        }
+        val classPath = listOf(entry.jar) + javaCommand.classPath
+        botCache.createArchiveAsync(entry, classPath)
+
+        val command = mutableListOf(botCache.javaExecutable.toString())
+        if (entry.archive.exists()) {
+            command += "-XX:SharedArchiveFile=${entry.archive.absolutePathString()}"
+            command += "-Xshare:auto" // the archive is ignored if it cannot be used
+        }
+        command += javaCommand.jvmOptions
+        command += listOf("-cp", classPath.joinToString(File.pathSeparator) { it.absolutePathString() })
+        command += entry.mainClass
+        command += javaCommand.args
+
+        return ProcessBuilder(command)
+    }
+
     /**
      * Create a process builder for the given command, handling different script types.
      */
@@ -0,0 +1,107 @@
+package dev.robocode.tankroyale.booter.cache
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.booleans.shouldBeFalse
+import io.kotest.matchers.booleans.shouldBeTrue
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.attribute.FileTime
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import kotlin.io.path.exists
+import kotlin.io.path.getLastModifiedTime
+
+class BotCacheTest : FunSpec({
+
+    val rootDir = Files.createTempDirectory("bot-cache")
+    val cacheDir = Files.createDirectories(rootDir.resolve("cache"))
+    val sourceFile = Files.createDirectories(rootDir.resolve("MyBot")).resolve("MyBot.java")
+    val libraryJar = rootDir.resolve("library.jar")
+
+    afterSpec { rootDir.toFile().deleteRecursively() }
+
+    fun writeSource(message: String) {
+        Files.writeString(
+            sourceFile,
+            "public class MyBot { public static void main(String[] args) { System.out.println(\"$message\"); } }"
+        )
+    }
+
+    fun writeLibraryJar(vararg entries: String) {
+        JarOutputStream(Files.newOutputStream(libraryJar)).use { out ->
+            entries.forEach {
+                out.putNextEntry(JarEntry(it))
+                out.closeEntry()
+            }
+        }
+    }
+
+    fun BotCache.entryOf(): BotCache.Entry = getEntry(sourceFile, listOf(libraryJar)).shouldNotBeNull()
+
+    fun Path.markAsOld(): Path = apply {
+        Files.setLastModifiedTime(this, FileTime.fromMillis(System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000L))
+    }
+
+    beforeTest {
+        cacheDir.toFile().listFiles()?.forEach { it.deleteRecursively() }
+        writeSource("Hello")
+        writeLibraryJar("a.txt")
+    }
+
+    context("BotCache") {
+
+        test("bot is compiled into a jar once, and is reused while nothing has changed") {
+            val cache = BotCache(cacheDir)
+
+            val entry = cache.entryOf()
+            entry.jar.exists().shouldBeTrue()
+            entry.mainClass shouldBe "MyBot"
+
+            val compiledTime = entry.jar.getLastModifiedTime()
+            cache.entryOf().jar shouldBe entry.jar
+            entry.jar.getLastModifiedTime() shouldBe compiledTime
+        }
+
+        test("bot is compiled again when its source file has changed") {
+            val cache = BotCache(cacheDir)
+            val entry = cache.entryOf()
+
+            writeSource("Hello again")
+
+            cache.entryOf().jar shouldNotBe entry.jar
+        }
+
+        test("bot is compiled again when a jar on its class path has changed") {
+            val cache = BotCache(cacheDir)
+            val entry = cache.entryOf()
+
+            writeLibraryJar("a.txt", "b.txt")
+
+            cache.entryOf().jar shouldNotBe entry.jar
+        }
+
+        test("bot is compiled again for another Java executable, as its archive belongs to that JVM") {
+            val entry = BotCache(cacheDir).entryOf()
+
+            val otherJava = Paths.get("other-jdk", "bin", "java")
+            BotCache(cacheDir, otherJava).entryOf().jar shouldNotBe entry.jar
+        }
+
+        test("entries of older versions of the bot are removed when unused for a day") {
+            val cache = BotCache(cacheDir)
+            val oldEntryDir = cache.entryOf().jar.parent.markAsOld()
+            writeSource("Recent")
+            val recentEntryDir = cache.entryOf().jar.parent
+
+            writeSource("Latest")
+            cache.entryOf()
+
+            oldEntryDir.exists().shouldBeFalse()
+            recentEntryDir.exists().shouldBeTrue()
+        }
+    }
+})
@@ -0,0 +1,79 @@
+package dev.robocode.tankroyale.booter.process
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import java.nio.file.Files
+import java.nio.file.Path
+
+class JavaBotCommandTest : FunSpec({
+
+    val rootDir = Files.createTempDirectory("java-bot-command")
+    val botDir = Files.createDirectories(rootDir.resolve("MyBot"))
+    val libDir = Files.createDirectories(rootDir.resolve("lib"))
+    listOf("b.jar", "a.jar", "readme.txt").forEach { Files.createFile(libDir.resolve(it)) }
+    Files.createFile(botDir.resolve("MyBot.java"))
+
+    afterSpec { rootDir.toFile().deleteRecursively() }
+
+    fun parse(script: String, scriptName: String = "MyBot.sh"): JavaBotCommand? {
+        val scriptFile = botDir.resolve(scriptName)
+        Files.writeString(scriptFile, script)
+        return JavaBotCommand.parse(scriptFile)
+    }
+
+    fun Path.normalizedJar(name: String): Path = resolve(name).normalize()
+
+    context("JavaBotCommand") {
+
+        test("class path wildcard is expanded into the jars of the directory in order") {
+            val command = parse("#!/bin/sh\njava -cp ../lib/* MyBot.java\n").shouldNotBeNull()
+
+            command.sourceFile shouldBe botDir.resolve("MyBot.java")
+            command.classPath shouldContainExactly listOf(libDir.normalizedJar("a.jar"), libDir.normalizedJar("b.jar"))
+            command.jvmOptions.shouldBeEmpty()
+            command.args.shouldBeEmpty()
+        }
+
+        test("class path options of all forms are read") {
+            listOf("-cp", "-classpath", "--class-path").forEach { option ->
+                val command = parse("java $option ../lib/a.jar MyBot.java").shouldNotBeNull()
+
+                command.classPath shouldContainExactly listOf(libDir.normalizedJar("a.jar"))
+            }
+        }
+
+        test("JVM options and arguments are kept, and redirections are left out") {
+            val script = listOf(
+                "@echo off",
+                "rem Boots the bot",
+                "java.exe -Xmx64m -cp ../lib/a.jar MyBot.java one two >nul",
+            ).joinToString("\r\n")
+            val command = parse(script, "MyBot.cmd").shouldNotBeNull()
+
+            command.jvmOptions shouldContainExactly listOf("-Xmx64m")
+            command.args shouldContainExactly listOf("one", "two")
+        }
+
+        test("quoting, variables and command separators are left to the shell") {
+            parse("java -cp \"../lib/*\" MyBot.java").shouldBeNull()
+            parse("java -cp '../lib/*' MyBot.java").shouldBeNull()
+            parse("\$JAVA_HOME/bin/java -cp ../lib/* MyBot.java").shouldBeNull()
+            parse("java -cp %LIB% MyBot.java", "MyBot.cmd").shouldBeNull()
+            parse("cd .. ; java -cp lib/* MyBot/MyBot.java").shouldBeNull()
+            parse("java -cp ../lib/* MyBot.java && echo done").shouldBeNull()
+        }
+
+        test("scripts that do not run a bot from its source file with a plain Java command are run as is") {
+            parse("cd ..\njava -cp lib/* MyBot/MyBot.java").shouldBeNull() // more than one command
+            parse("java -cp ../lib/* -jar MyBot.jar").shouldBeNull() // no source file
+            parse("java -cp ../lib/* Missing.java").shouldBeNull() // source file does not exist
+            parse("javaw -cp ../lib/* MyBot.java").shouldBeNull() // not the java command
+            parse("java MyBot.java -cp").shouldNotBeNull().classPath.shouldBeEmpty() // option belongs to the bot
+            parse("java -cp MyBot.java").shouldBeNull() // class path without a value
+        }
+    }
+})
@@ -18,6 +18,7 @@ plugins {
     `java-library`
     alias(libs.plugins.jsonschema2pojo)
     alias(libs.plugins.shadow)
+    alias(libs.plugins.jmh)
     `maven-publish`
 }
 
@@ -32,6 +33,12 @@ dependencies {
     testImplementation(libs.java.websocket) // for mocked server
 }
 
+// Micro benchmarks are placed in src/jmh/java and run with: gradlew :bot-api:java:jmh
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    profilers.add("gc") // reports the allocations per operation
+}
+
 jsonSchema2Pojo {
     val schemaDir = layout.projectDirectory.dir("../../schema/schemas").asFile
     if (!schemaDir.exists() || !schemaDir.isDirectory) {
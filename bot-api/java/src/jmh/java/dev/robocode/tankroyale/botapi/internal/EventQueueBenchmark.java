@@ -0,0 +1,77 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import dev.robocode.tankroyale.botapi.BaseBot;
+import dev.robocode.tankroyale.botapi.BotInfo;
+import dev.robocode.tankroyale.botapi.BotState;
+import dev.robocode.tankroyale.botapi.events.BotEvent;
+import dev.robocode.tankroyale.botapi.events.Condition;
+import dev.robocode.tankroyale.botapi.events.ScannedBotEvent;
+import dev.robocode.tankroyale.botapi.events.TickEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a turn of the {@link EventQueue}: the events of a tick are queued together with the custom events of the
+ * conditions that are met, and all events are dispatched to the (empty) event handlers of the bot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+    @Param({"10", "100"})
+    int scanCount;
+
+    @Param({"0", "50"})
+    int conditionCount;
+
+    private BaseBotInternals baseBotInternals;
+    private EventQueue eventQueue;
+    private BotState botState;
+
+    private int turnNumber;
+
+    @Setup
+    public void setup() {
+        var botInfo = BotInfo.builder().setName("Benchmark").setVersion("1.0").addAuthor("Benchmark").build();
+        var serverUrl = URI.create("ws://localhost:7654");
+        var bot = new BaseBot(botInfo, serverUrl) {
+        };
+        baseBotInternals = new BaseBotInternals(bot, botInfo, serverUrl, null);
+        baseBotInternals.setRunning(true);
+
+        eventQueue = new EventQueue(baseBotInternals, new BotEventHandlers(bot));
+        eventQueue.clear();
+
+        // Every other condition is met on every turn
+        for (int i = 0; i < conditionCount; i++) {
+            boolean isMet = i % 2 == 0;
+            baseBotInternals.getConditions().add(new Condition("condition-" + i, () -> isMet));
+        }
+
+        botState = new BotState(false, 100, 400, 300, 0, 0, 0, 0, 0, 0, 0, 0, 0, scanCount,
+                null, null, null, null, null, null, null, false);
+    }
+
+    @Benchmark
+    public void queueAndDispatchTurn() {
+        turnNumber++;
+
+        List<BotEvent> events = new ArrayList<>(scanCount);
+        for (int i = 0; i < scanCount; i++) {
+            events.add(new ScannedBotEvent(turnNumber, 1, i + 2, 100, i * 10, i * 5, 0, 8));
+        }
+        var tickEvent = new TickEvent(turnNumber, 1, botState, List.of(), events);
+
+        baseBotInternals.setTickEvent(tickEvent);
+        eventQueue.addEventsFromTick(tickEvent);
+        eventQueue.dispatchEvents(turnNumber);
+    }
+}
@@ -3,6 +3,7 @@ package dev.robocode.tankroyale.botapi;
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 import com.neovisionaries.i18n.CountryCode;
+import dev.robocode.tankroyale.botapi.internal.BotHostContext;
 
 import java.io.*;
 import java.util.*;
@@ -291,7 +292,7 @@ public final class BotInfo {
      * @see #fromInputStream
      */
     public static BotInfo fromFile(String filename) {
-        try (InputStream is = new FileInputStream(filename)) {
+        try (InputStream is = new FileInputStream(BotHostContext.resolveFile(filename))) {
             return fromInputStream(is);
         } catch (IOException ioe) {
             throw new BotException("Could not read the file: " + filename, ioe);
@@ -4,6 +4,7 @@ import dev.robocode.tankroyale.botapi.*;
 import dev.robocode.tankroyale.botapi.events.*;
 import dev.robocode.tankroyale.botapi.graphics.Color;
 import dev.robocode.tankroyale.botapi.graphics.IGraphics;
+import dev.robocode.tankroyale.botapi.internal.json.CborConverter;
 import dev.robocode.tankroyale.botapi.internal.json.JsonConverter;
 import dev.robocode.tankroyale.botapi.util.ColorUtil;
 import dev.robocode.tankroyale.schema.BotIntent;
@@ -22,6 +23,7 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 import static dev.robocode.tankroyale.botapi.Constants.*;
 import static dev.robocode.tankroyale.botapi.IBaseBot.MAX_NUMBER_OF_TEAM_MESSAGES_PER_TURN;
@@ -49,6 +51,11 @@ public final class BaseBotInternals {
     private final String serverSecret;
     private WebSocket socket;
     private ServerHandshake serverHandshake;
+
+    // CBOR is requested in the handshake if enabled, but only sent once the server has sent a CBOR message itself
+    private final boolean cborEnabled = EnvVars.isCborEnabled();
+    private final boolean virtualThreadEnabled = EnvVars.isVirtualThreadEnabled();
+    private volatile boolean cborActive;
     private final CountDownLatch closedLatch = new CountDownLatch(1);
 
     private final IBaseBot baseBot;
@@ -61,7 +68,7 @@ public final class BaseBotInternals {
 
     private InitialPosition initialPosition;
 
-    private TickEvent tickEvent;
+    private volatile TickEvent tickEvent; // read by the bot thread when woken up for the next turn
     private Long tickStartNanoTime;
 
     private final EventQueue eventQueue;
@@ -70,9 +77,7 @@ public final class BaseBotInternals {
     private final InternalEventHandlers internalEventHandlers = new InternalEventHandlers();
     private final Set<Condition> conditions = new CopyOnWriteArraySet<>();
 
-    private final Object nextTurnMonitor = new Object();
-
-    private Thread thread;
+    private volatile Thread thread;
 
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     private boolean isStopped;
@@ -126,6 +131,14 @@ public final class BaseBotInternals {
 
     @SuppressWarnings("java:S106") // Standard outputs should not be used directly to log anything
     private void redirectStdOutAndStdErr() {
+        var hostContext = BotHostContext.current();
+        if (hostContext != null) {
+            // Hosted bots share System.out and System.err, which route the output to the streams of each bot
+            recordedStdOut = new RecordingPrintStream(hostContext.getOut());
+            recordedStdErr = new RecordingPrintStream(hostContext.getErr());
+            hostContext.setOutput(recordedStdOut, recordedStdErr);
+            return;
+        }
         recordedStdOut = new RecordingPrintStream(System.out);
         recordedStdErr = new RecordingPrintStream(System.err);
 
@@ -148,8 +161,9 @@ public final class BaseBotInternals {
     }
 
     void startThread(IBot bot) {
-        thread = new Thread(createRunnable(bot));
-        thread.start();
+        var botThread = BotThreads.newThread(createRunnable(bot), virtualThreadEnabled);
+        thread = botThread;
+        botThread.start();
     }
 
     private Runnable createRunnable(IBot bot) {
@@ -184,9 +198,10 @@ public final class BaseBotInternals {
 
         setRunning(false);
 
-        if (thread != null) {
-            thread.interrupt();
+        var botThread = thread;
+        if (botThread != null) {
             thread = null;
+            botThread.interrupt();
         }
     }
 
@@ -247,9 +262,10 @@ public final class BaseBotInternals {
     }
 
     private void onNextTurn(TickEvent e) {
-        synchronized (nextTurnMonitor) {
-            // Unblock methods waiting for the next turn
-            nextTurnMonitor.notifyAll();
+        // Unblock methods waiting for the next turn, which only the bot thread does
+        var botThread = thread;
+        if (botThread != null) {
+            LockSupport.unpark(botThread);
         }
     }
 
@@ -258,6 +274,10 @@ public final class BaseBotInternals {
     }
 
     public void start() {
+        var hostContext = BotHostContext.current();
+        if (hostContext != null) {
+            hostContext.setStopAction(this::disconnect);
+        }
         connect();
         try {
             closedLatch.await();
@@ -266,6 +286,14 @@ public final class BaseBotInternals {
         }
     }
 
+    private void disconnect() {
+        stopThread();
+        if (socket != null) {
+            socket.abort();
+        }
+        closedLatch.countDown();
+    }
+
     private void connect() {
         sanitizeUrl(serverUrl);
         try {
@@ -312,7 +340,11 @@ public final class BaseBotInternals {
         synchronized (this) {
             renderGraphicsToBotIntent();
             transferStdOutToBotIntent();
-            socket.sendText(JsonConverter.toJson(botIntent), true);
+            if (cborActive) {
+                socket.sendBinary(CborConverter.toCbor(botIntent), true);
+            } else {
+                socket.sendText(JsonConverter.toJson(botIntent), true);
+            }
             botIntent.getTeamMessages().clear();
         }
     }
@@ -340,17 +372,17 @@ public final class BaseBotInternals {
         // cannot be killed any other way.
         stopRogueThread();
 
-        synchronized (nextTurnMonitor) {
-            while (isRunning() &&
-                    turnNumber == getCurrentTickOrThrow().getTurnNumber() &&
-                    Thread.currentThread() == thread &&
-                    !Thread.currentThread().isInterrupted()
-            ) {
-                try {
-                    nextTurnMonitor.wait(); // Wait for the next turn
-                } catch (InterruptedException ex) {
-                    throw new ThreadInterruptedException();
-                }
+        // The bot thread is parked instead of waiting on a monitor, so a virtual thread does not pin its carrier
+        // thread while waiting. An unpark for the next turn that happens before parking is not lost, as it leaves a
+        // permit that makes the next park return immediately.
+        while (isRunning() &&
+                turnNumber == getCurrentTickOrThrow().getTurnNumber() &&
+                Thread.currentThread() == thread &&
+                !Thread.currentThread().isInterrupted()
+        ) {
+            LockSupport.park(this); // Wait for the next turn
+            if (Thread.interrupted()) {
+                throw new ThreadInterruptedException();
             }
         }
     }
@@ -763,6 +795,18 @@ public final class BaseBotInternals {
         this.serverHandshake = serverHandshake;
     }
 
+    boolean isCborEnabled() {
+        return cborEnabled;
+    }
+
+    boolean isCborActive() {
+        return cborActive;
+    }
+
+    void setCborActive() {
+        cborActive = true;
+    }
+
     private URI getServerUrlFromSetting() {
         String url = System.getProperty(SERVER_URL_PROPERTY_KEY);
         if (url == null) {
@@ -16,7 +16,8 @@ final class BotHandshakeFactory {
     private BotHandshakeFactory() {
     }
 
-    static BotHandshake create(String sessionId, BotInfo botInfo, boolean isDroid, String secret) {
+    static BotHandshake create(
+            String sessionId, BotInfo botInfo, boolean isDroid, String secret, boolean isCborEnabled) {
         BotHandshake handshake = new BotHandshake();
         handshake.setSessionId(sessionId);
         handshake.setType(Type.BOT_HANDSHAKE);
@@ -35,6 +36,9 @@ final class BotHandshakeFactory {
         handshake.setTeamVersion(EnvVars.getTeamVersion());
         handshake.setIsDroid(isDroid);
         handshake.setSecret(secret);
+        if (isCborEnabled) {
+            handshake.setIsCborEnabled(true);
+        }
         return handshake;
     }
 }
@@ -0,0 +1,187 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Context of a bot that is hosted together with other bots in the same JVM, e.g. by the host mode of the booter.
+ * <p>
+ * Environment variables, the working directory, and the standard output streams are shared by all bots in a JVM.
+ * Hence, a hosted bot reads its environment variables from its context instead, resolves relative file names against
+ * its bot directory, and gets its standard output routed to its own streams. The context is set by the host on the
+ * thread that runs the main method of the bot, and is inherited by the threads created from it. Threads that are not
+ * created by the bot, like the threads of the HTTP client calling the WebSocket listener, do not inherit the context,
+ * so code run by such threads on behalf of the bot must be run {@link #within} the context of the bot.
+ * <p>
+ * The host uses this class via reflection, as the Bot API is loaded by a class loader of the host.
+ */
+public final class BotHostContext {
+
+    private static final InheritableThreadLocal<BotHostContext> current = new InheritableThreadLocal<>();
+
+    private static PrintStream hostOut;
+    private static PrintStream hostErr;
+
+    private final Map<String, String> env;
+    private final File botDir;
+
+    private volatile PrintStream out;
+    private volatile PrintStream err;
+
+    private volatile Runnable stopAction;
+    private volatile boolean isStopped;
+
+    private BotHostContext(Map<String, String> env, File botDir) {
+        this.env = new HashMap<>(env);
+        this.botDir = botDir;
+        this.out = new PrintStream(OutputStream.nullOutputStream()); // the host owns the standard output
+        this.err = hostErr;
+    }
+
+    /**
+     * Enters the context of a hosted bot on the current thread, which must be the thread running the main method
+     * of the bot.
+     *
+     * @param env is the environment variables of the bot.
+     * @param botDir is the directory of the bot.
+     * @return the context of the bot, which is used for stopping the bot.
+     */
+    public static BotHostContext enter(Map<String, String> env, String botDir) {
+        installRoutingStreams();
+        var context = new BotHostContext(env, new File(botDir));
+        current.set(context);
+        return context;
+    }
+
+    /**
+     * Returns the context of the hosted bot running on the current thread.
+     *
+     * @return the context of the bot, or {@code null} if the bot is not hosted.
+     */
+    static BotHostContext current() {
+        return current.get();
+    }
+
+    /**
+     * Runs code within the context of a hosted bot on the current thread, where the context of the current thread is
+     * restored afterwards.
+     *
+     * @param context is the context of the bot, or {@code null} if the bot is not hosted.
+     * @param action is the code to run.
+     * @param <T> is the type of the result.
+     * @return the result of the code.
+     */
+    static <T> T within(BotHostContext context, Supplier<T> action) {
+        if (context == null) {
+            return action.get();
+        }
+        var previous = current.get();
+        current.set(context);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Resolves the file name of a bot file. Relative file names of a hosted bot are resolved against the bot
+     * directory, as hosted bots share the working directory of the host.
+     *
+     * @param filename is the file name.
+     * @return the file.
+     */
+    public static File resolveFile(String filename) {
+        var file = new File(filename);
+        var context = current();
+        return context == null || file.isAbsolute() ? file : new File(context.botDir, filename);
+    }
+
+    /**
+     * Stops the hosted bot by disconnecting it from the server.
+     */
+    public void stop() {
+        isStopped = true;
+        var action = stopAction;
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    String getenv(String name) {
+        return env.get(name);
+    }
+
+    PrintStream getOut() {
+        return out;
+    }
+
+    PrintStream getErr() {
+        return err;
+    }
+
+    void setOutput(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    void setStopAction(Runnable stopAction) {
+        this.stopAction = stopAction;
+        if (isStopped) { // stopped before the bot was started
+            stopAction.run();
+        }
+    }
+
+    private static synchronized void installRoutingStreams() {
+        if (hostOut != null) return;
+
+        hostOut = System.out;
+        hostErr = System.err;
+
+        System.setOut(new PrintStream(new RoutingOutputStream(hostOut, context -> context.out), true));
+        System.setErr(new PrintStream(new RoutingOutputStream(hostErr, context -> context.err), true));
+    }
+
+    /**
+     * Output stream that writes to the stream of the hosted bot running on the current thread, or to the stream of
+     * the host if the current thread does not belong to a hosted bot.
+     */
+    private static final class RoutingOutputStream extends OutputStream {
+        private final PrintStream hostStream;
+        private final Function<BotHostContext, PrintStream> botStream;
+
+        RoutingOutputStream(PrintStream hostStream, Function<BotHostContext, PrintStream> botStream) {
+            this.hostStream = hostStream;
+            this.botStream = botStream;
+        }
+
+        private PrintStream target() {
+            var context = current();
+            return context == null ? hostStream : botStream.apply(context);
+        }
+
+        @Override
+        public void write(int b) {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            target().flush();
+        }
+    }
+}
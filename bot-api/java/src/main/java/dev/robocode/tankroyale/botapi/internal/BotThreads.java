@@ -0,0 +1,64 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Factory for the threads running the {@code run()} method of bots.
+ * <p>
+ * A bot thread is either a platform thread or a virtual thread. Virtual threads are cheap to create and to block, so
+ * thousands of bots hosted in the same JVM can share a few carrier threads instead of each occupying a platform thread
+ * that is blocked most of the time waiting for the next turn. Virtual threads are created via reflection, as the
+ * Bot API is compiled for Java 11, and are only available when the bot runs on Java 21 or newer.
+ */
+final class BotThreads {
+
+    /** {@code Thread.ofVirtual()}, or {@code null} if virtual threads are not available */
+    private static final Method OF_VIRTUAL;
+    /** {@code Thread.Builder.unstarted(Runnable)}, or {@code null} if virtual threads are not available */
+    private static final Method UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method unstarted = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+        } catch (NoSuchMethodException | ClassNotFoundException ex) {
+            // Virtual threads are not available on this Java version
+        }
+        OF_VIRTUAL = ofVirtual;
+        UNSTARTED = unstarted;
+    }
+
+    private BotThreads() {
+    }
+
+    /**
+     * Checks if virtual threads are available on the running Java version.
+     *
+     * @return true if virtual threads are available, false otherwise.
+     */
+    static boolean isVirtualThreadAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates an unstarted thread for running a bot.
+     *
+     * @param runnable is the runnable of the bot.
+     * @param isVirtual is true if a virtual thread should be created. A platform thread is created instead if virtual
+     *                  threads are not available.
+     * @return the thread.
+     */
+    static Thread newThread(Runnable runnable, boolean isVirtual) {
+        if (isVirtual && isVirtualThreadAvailable()) {
+            try {
+                return (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null), runnable);
+            } catch (IllegalAccessException | InvocationTargetException ex) {
+                // Virtual threads are a preview feature that has not been enabled on Java 19 and 20
+            }
+        }
+        return new Thread(runnable);
+    }
+}
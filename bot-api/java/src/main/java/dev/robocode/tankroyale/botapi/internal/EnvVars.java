@@ -79,6 +79,14 @@ final class EnvVars {
      * Name of the environment variable that is set if the bot is being booted.
      */
     private static final String BOT_BOOTED = "BOT_BOOTED";
+    /**
+     * Name of the environment variable that is set to true if the bot exchanges CBOR messages with the server.
+     */
+    private static final String CBOR_ENABLED = "CBOR_ENABLED";
+    /**
+     * Name of the environment variable that is set to true if the bot runs on a virtual thread.
+     */
+    private static final String VIRTUAL_THREAD_ENABLED = "VIRTUAL_THREAD_ENABLED";
 
     private static final String MISSING_ENV_VALUE = "Missing environment variable: ";
 
@@ -112,28 +120,28 @@ final class EnvVars {
      * Server URL
      */
     static String getServerUrl() {
-        return System.getenv(SERVER_URL);
+        return getenv(SERVER_URL);
     }
 
     /**
      * Server secret
      */
     static String getServerSecret() {
-        return System.getenv(SERVER_SECRET);
+        return getenv(SERVER_SECRET);
     }
 
     /**
      * Bot name
      */
     static String getBotName() {
-        return System.getenv(BOT_NAME);
+        return getenv(BOT_NAME);
     }
 
     /**
      * Bot version
      */
     static String getBotVersion() {
-        return System.getenv(BOT_VERSION);
+        return getenv(BOT_VERSION);
     }
 
     /**
@@ -147,14 +155,14 @@ final class EnvVars {
      * Bot description
      */
     static String getBotDescription() {
-        return System.getenv(BOT_DESCRIPTION);
+        return getenv(BOT_DESCRIPTION);
     }
 
     /**
      * Bot homepage URL.
      */
     static String getBotHomepage() {
-        return System.getenv(BOT_HOMEPAGE);
+        return getenv(BOT_HOMEPAGE);
     }
 
     /**
@@ -175,28 +183,28 @@ final class EnvVars {
      * Platform used for running the bot
      */
     static String getBotPlatform() {
-        return System.getenv(BOT_PLATFORM);
+        return getenv(BOT_PLATFORM);
     }
 
     /**
      * Language used for programming the bot
      */
     static String getBotProgrammingLang() {
-        return System.getenv(BOT_PROG_LANG);
+        return getenv(BOT_PROG_LANG);
     }
 
     /**
      * Initial starting position used for debugging the bot
      */
     static InitialPosition getBotInitialPosition() {
-        return InitialPosition.fromString(System.getenv(BOT_INITIAL_POS));
+        return InitialPosition.fromString(getenv(BOT_INITIAL_POS));
     }
 
     /**
      * Bot team id
      */
     static Integer getTeamId() {
-        String teamId = System.getenv(TEAM_ID);
+        String teamId = getenv(TEAM_ID);
         return teamId != null ? Integer.parseInt(teamId) : null;
     }
 
@@ -204,21 +212,40 @@ final class EnvVars {
      * Bot team name
      */
     static String getTeamName() {
-        return System.getenv(TEAM_NAME);
+        return getenv(TEAM_NAME);
     }
 
     /**
      * Bot team version
      */
     static String getTeamVersion() {
-        return System.getenv(TEAM_VERSION);
+        return getenv(TEAM_VERSION);
     }
 
     /**
      * Checks if the bot is being booted.
      */
     public static boolean isBotBooted() {
-        return System.getenv(BOT_BOOTED) != null; // Set by Booter. Currently, not being used
+        return getenv(BOT_BOOTED) != null; // Set by Booter. Currently, not being used
+    }
+
+    /**
+     * Checks if the bot exchanges binary CBOR messages with the server instead of JSON text messages.
+     */
+    static boolean isCborEnabled() {
+        return Boolean.parseBoolean(getenv(CBOR_ENABLED));
+    }
+
+    /**
+     * Checks if the bot runs on a virtual thread instead of a platform thread, when supported by the Java version.
+     */
+    static boolean isVirtualThreadEnabled() {
+        return Boolean.parseBoolean(getenv(VIRTUAL_THREAD_ENABLED));
+    }
+
+    private static String getenv(String name) {
+        var hostContext = BotHostContext.current();
+        return hostContext != null ? hostContext.getenv(name) : System.getenv(name);
     }
 
     private static boolean isBlank(String s) {
@@ -230,7 +257,7 @@ final class EnvVars {
     }
 
     private static List<String> propertyAsList(String propertyName) {
-        String value = System.getenv(propertyName);
+        String value = getenv(propertyName);
         if (value == null || value.trim().isEmpty()) {
             return Collections.emptyList();
         }
@@ -21,16 +21,30 @@ import static java.lang.Integer.MIN_VALUE;
  * The queue has a maximum size of {@value #MAX_QUEUE_SIZE} events and maintains
  * events for up to {@value #MAX_EVENT_AGE} turns before they are considered old
  * and removed (unless they are critical events).
+ * <p>
+ * Events are kept in a priority heap ordered by a sort key, which is computed once when an event is queued.
+ * The key puts critical events before non-critical events, then events from older turns before events from newer
+ * turns, and then events with higher priority before events with lower priority. Events with the same key are
+ * dispatched in the order they were queued. As the priority of an event is looked up when it is queued, changing
+ * the priority of an event class only affects events queued afterward.
  */
 final class EventQueue {
 
     private static final int MAX_QUEUE_SIZE = 4096;
     private static final int MAX_EVENT_AGE = 2;
 
+    /** Maximum turn number in the sort key, which has 30 bits for the turn number */
+    private static final int MAX_KEY_TURN_NUMBER = (1 << 30) - 1;
+
     private final BaseBotInternals baseBotInternals;
     private final BotEventHandlers botEventHandlers;
 
-    private final List<BotEvent> events = Collections.synchronizedList(new ArrayList<>());
+    private final PriorityQueue<QueuedEvent> events = new PriorityQueue<>(); // guarded by itself
+
+    private long nextSequenceNumber;
+
+    /** Lowest turn number of the non-critical events in the queue, which tells if there are old events to remove */
+    private int oldestTurnNumber = Integer.MAX_VALUE;
 
     private BotEvent currentTopEvent;
     private int currentTopEventPriority;
@@ -63,7 +77,15 @@ final class EventQueue {
      */
     List<BotEvent> getEvents(int turnNumber) {
         removeOldEvents(turnNumber);
-        return new ArrayList<>(events);
+
+        List<QueuedEvent> queuedEvents;
+        synchronized (events) {
+            queuedEvents = new ArrayList<>(events);
+        }
+        Collections.sort(queuedEvents); // the heap is only partially ordered
+        var botEvents = new ArrayList<BotEvent>(queuedEvents.size());
+        queuedEvents.forEach(queuedEvent -> botEvents.add(queuedEvent.event));
+        return botEvents;
     }
 
     /**
@@ -72,6 +94,7 @@ final class EventQueue {
     void clearEvents() {
         synchronized (events) {
             events.clear();
+            oldestTurnNumber = Integer.MAX_VALUE;
         }
     }
 
@@ -109,14 +132,14 @@ final class EventQueue {
 //        dumpEvents(turnNumber); // for debugging purposes
 
         removeOldEvents(turnNumber);
-        sortEvents();
 
         while (isBotRunning()) {
-            BotEvent currentEvent = getNextEvent();
-            if (currentEvent == null) {
+            QueuedEvent queuedEvent = getNextEvent();
+            if (queuedEvent == null) {
                 break;
             }
-            if (isSameEvent(currentEvent)) {
+            BotEvent currentEvent = queuedEvent.event;
+            if (queuedEvent.priority == currentTopEventPriority) {
                 if (isCurrentEventInterruptible()) {
                     EventInterruption.setInterruptible(currentEvent.getClass(), false); // clear interruptible flag
 
@@ -129,11 +152,9 @@ final class EventQueue {
 
             int oldTopEventPriority = currentTopEventPriority;
 
-            currentTopEventPriority = getPriority(currentEvent);
+            currentTopEventPriority = queuedEvent.priority;
             currentTopEvent = currentEvent;
 
-            events.remove(currentEvent);
-
             try {
                 dispatch(currentEvent, turnNumber);
             } catch (ThreadInterruptedException ignore) {
@@ -146,42 +167,31 @@ final class EventQueue {
 
     private void removeOldEvents(int turnNumber) {
         synchronized (events) {
-            events.removeIf(event -> isOldAndNonCriticalEvent(event, turnNumber));
-        }
-    }
-
-    private void sortEvents() {
-        events.sort((botEvent1, botEvent2) -> {
-            // Critical must be placed before non-critical
-            int diff = (botEvent2.isCritical() ? 1 : 0) - (botEvent1.isCritical() ? 1 : 0);
-            if (diff != 0) {
-                return diff;
+            if (oldestTurnNumber >= turnNumber - MAX_EVENT_AGE) {
+                return; // no old events, so the heap is not traversed
             }
-            // Lower (older) turn number must be placed before higher (newer) turn number
-            diff = botEvent1.getTurnNumber() - botEvent2.getTurnNumber();
-            if (diff != 0) {
-                return diff;
+            events.removeIf(queuedEvent -> isOldAndNonCriticalEvent(queuedEvent.event, turnNumber));
+
+            oldestTurnNumber = Integer.MAX_VALUE;
+            for (var queuedEvent : events) {
+                if (!queuedEvent.event.isCritical()) {
+                    oldestTurnNumber = Math.min(oldestTurnNumber, queuedEvent.event.getTurnNumber());
+                }
             }
-            // Higher priority value must be placed before lower priority value
-            return getPriority(botEvent2) - getPriority(botEvent1);
-        });
+        }
     }
 
     private boolean isBotRunning() {
         return baseBotInternals.isRunning();
     }
 
-    private BotEvent getNextEvent() {
+    private QueuedEvent getNextEvent() {
         synchronized (events) {
-            return events.isEmpty() ? null : events.remove(0);
+            return events.poll();
         }
     }
 
-    private boolean isSameEvent(BotEvent botEvent) {
-        return getPriority(botEvent) == currentTopEventPriority;
-    }
-
-    private int getPriority(BotEvent botEvent) {
+    private static int getPriority(BotEvent botEvent) {
         @SuppressWarnings("unchecked")
         var eventClass = (Class<BotEvent>) botEvent.getClass();
         return EventPriorities.getPriority(eventClass);
@@ -210,7 +220,10 @@ final class EventQueue {
     private void addEvent(BotEvent botEvent) {
         synchronized (events) {
             if (events.size() <= MAX_QUEUE_SIZE) {
-                events.add(botEvent);
+                events.add(new QueuedEvent(botEvent, getPriority(botEvent), nextSequenceNumber++));
+                if (!botEvent.isCritical()) {
+                    oldestTurnNumber = Math.min(oldestTurnNumber, botEvent.getTurnNumber());
+                }
             } else {
                 System.err.println("Maximum event queue size has been reached: " + MAX_QUEUE_SIZE);
             }
@@ -218,15 +231,64 @@ final class EventQueue {
     }
 
     private void addCustomEvents() {
-        baseBotInternals.getConditions().stream().filter(Condition::test).forEach(condition ->
-                addEvent(new CustomEvent(baseBotInternals.getCurrentTickOrThrow().getTurnNumber(), condition))
-        );
+        var conditions = baseBotInternals.getConditions();
+        if (conditions.isEmpty()) {
+            return;
+        }
+        int turnNumber = baseBotInternals.getCurrentTickOrThrow().getTurnNumber();
+        for (var condition : conditions) {
+            if (condition.test()) {
+                addEvent(new CustomEvent(turnNumber, condition));
+            }
+        }
     }
 
     // Used for debugging purposes
     private void dumpEvents(int turnNumber) {
         StringJoiner stringJoiner = new StringJoiner(", ");
-        events.forEach(event -> stringJoiner.add(event.getClass().getSimpleName() + "(" + event.getTurnNumber() + ")"));
+        getEvents(turnNumber).forEach(event ->
+                stringJoiner.add(event.getClass().getSimpleName() + "(" + event.getTurnNumber() + ")"));
         System.out.println(turnNumber + " events: " + stringJoiner);
     }
+
+    /**
+     * Computes the sort key of an event, where events with lower keys are dispatched first.
+     * <p>
+     * The key is made of a bit that is set for non-critical events, followed by 30 bits for the turn number, and
+     * 32 bits for the priority, which is inverted, so higher priorities get lower keys.
+     *
+     * @param isCritical true if the event is critical, false otherwise
+     * @param turnNumber the turn number of the event
+     * @param priority   the priority of the event
+     * @return the sort key
+     */
+    static long sortKey(boolean isCritical, int turnNumber, int priority) {
+        long nonCritical = isCritical ? 0 : 1;
+        long turn = Math.max(0, Math.min(turnNumber, MAX_KEY_TURN_NUMBER));
+        long inversePriority = (long) Integer.MAX_VALUE - priority; // 0 for the highest priority
+        return (nonCritical << 62) | (turn << 32) | inversePriority;
+    }
+
+    /**
+     * Event in the queue together with its sort key, where the sequence number orders events with the same key.
+     */
+    private static final class QueuedEvent implements Comparable<QueuedEvent> {
+        final BotEvent event;
+        final int priority;
+        final long key;
+        final long sequenceNumber;
+
+        QueuedEvent(BotEvent event, int priority, long sequenceNumber) {
+            this.event = event;
+            this.priority = priority;
+            this.key = sortKey(event.isCritical(), event.getTurnNumber(), priority);
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(QueuedEvent other) {
+            int diff = Long.compare(key, other.key);
+            return diff != 0 ? diff : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import dev.robocode.tankroyale.botapi.events.GameStartedEvent;
 import dev.robocode.tankroyale.botapi.events.RoundEndedEvent;
 import dev.robocode.tankroyale.botapi.events.RoundStartedEvent;
 import dev.robocode.tankroyale.botapi.events.SkippedTurnEvent;
+import dev.robocode.tankroyale.botapi.internal.json.CborConverter;
 import dev.robocode.tankroyale.botapi.internal.json.JsonConverter;
 import dev.robocode.tankroyale.botapi.mapper.EventMapper;
 import dev.robocode.tankroyale.botapi.mapper.GameSetupMapper;
@@ -21,8 +22,10 @@ import dev.robocode.tankroyale.schema.Message;
 import dev.robocode.tankroyale.schema.ServerHandshake;
 import dev.robocode.tankroyale.schema.TickEventForBot;
 
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
@@ -41,8 +44,12 @@ final class WebSocketHandler implements WebSocket.Listener {
     private final InternalEventHandlers internalEventHandlers;
     private final CountDownLatch closedLatch;
 
+    /** Context of the bot if hosted, which the threads of the HTTP client calling this listener do not inherit */
+    private final BotHostContext hostContext;
+
     private WebSocket socket;
     private final StringBuilder payload = new StringBuilder();
+    private final ByteArrayOutputStream binaryPayload = new ByteArrayOutputStream();
 
     WebSocketHandler(
             BaseBotInternals baseBotInternals,
@@ -61,13 +68,14 @@ final class WebSocketHandler implements WebSocket.Listener {
         this.botEventHandlers = botEventHandlers;
         this.internalEventHandlers = internalEventHandlers;
         this.closedLatch = closedLatch;
+        this.hostContext = BotHostContext.current(); // created by the thread of the bot
     }
 
     @Override
     public void onOpen(WebSocket websocket) {
         this.socket = websocket; // To prevent null pointer exception
 
-        botEventHandlers.onConnected.publish(new ConnectedEvent(serverUrl));
+        withinHostContext(() -> botEventHandlers.onConnected.publish(new ConnectedEvent(serverUrl)));
         WebSocket.Listener.super.onOpen(websocket);
     }
 
@@ -75,8 +83,10 @@ final class WebSocketHandler implements WebSocket.Listener {
     public CompletionStage<?> onClose(WebSocket websocket, int statusCode, String reason) {
         var disconnectedEvent = new DisconnectedEvent(serverUrl, true, statusCode, reason);
 
-        botEventHandlers.onDisconnected.publish(disconnectedEvent);
-        internalEventHandlers.onDisconnected.publish(disconnectedEvent);
+        withinHostContext(() -> {
+            botEventHandlers.onDisconnected.publish(disconnectedEvent);
+            internalEventHandlers.onDisconnected.publish(disconnectedEvent);
+        });
 
         closedLatch.countDown();
         return null;
@@ -84,7 +94,7 @@ final class WebSocketHandler implements WebSocket.Listener {
 
     @Override
     public void onError(WebSocket websocket, Throwable error) {
-        botEventHandlers.onConnectionError.publish(new ConnectionErrorEvent(serverUrl, error));
+        withinHostContext(() -> botEventHandlers.onConnectionError.publish(new ConnectionErrorEvent(serverUrl, error)));
 
         closedLatch.countDown();
     }
@@ -93,52 +103,115 @@ final class WebSocketHandler implements WebSocket.Listener {
     public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
         payload.append(data);
         if (last) {
-            JsonObject jsonMsg = JsonConverter.fromJson(payload.toString(), JsonObject.class);
+            String json = payload.toString();
             payload.delete(0, payload.length()); // clear payload buffer
 
+            // Only the type is read up front, so the message is bound directly from the JSON text without a JSON tree
+            withinHostContext(() -> handleMessage(JsonConverter.peekType(json), fromJson(json)));
+        }
+        return WebSocket.Listener.super.onText(webSocket, data, last);
+    }
+
+    @Override
+    public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+        JsonObject jsonMsg = null;
+        if (last && binaryPayload.size() == 0) {
+            jsonMsg = CborConverter.fromCbor(data); // message received in one piece
+        } else {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            binaryPayload.writeBytes(bytes);
+            if (last) {
+                jsonMsg = CborConverter.fromCbor(ByteBuffer.wrap(binaryPayload.toByteArray()));
+                binaryPayload.reset(); // clear payload buffer
+            }
+        }
+        if (jsonMsg != null) {
+            // The server sends CBOR messages only if CBOR was enabled in the handshake, so the bot can send them too
+            baseBotInternals.setCborActive();
+
             JsonElement jsonType = jsonMsg.get("type");
-            if (jsonType != null) {
-                String type = jsonType.getAsString();
-
-                switch (dev.robocode.tankroyale.schema.Message.Type.fromValue(type)) {
-                    case TICK_EVENT_FOR_BOT:
-                        handleTick(jsonMsg);
-                        break;
-                    case ROUND_STARTED_EVENT:
-                        handleRoundStarted(jsonMsg);
-                        break;
-                    case ROUND_ENDED_EVENT_FOR_BOT:
-                        handleRoundEnded(jsonMsg);
-                        break;
-                    case GAME_STARTED_EVENT_FOR_BOT:
-                        handleGameStarted(jsonMsg);
-                        break;
-                    case GAME_ENDED_EVENT_FOR_BOT:
-                        handleGameEnded(jsonMsg);
-                        break;
-                    case SKIPPED_TURN_EVENT:
-                        handleSkippedTurn(jsonMsg);
-                        break;
-                    case SERVER_HANDSHAKE:
-                        handleServerHandshake(jsonMsg);
-                        break;
-                    case GAME_ABORTED_EVENT:
-                        handleGameAborted();
-                        break;
-                    default:
-                        throw new BotException("Unsupported WebSocket message type: " + type);
-                }
+            var binder = fromJsonTree(jsonMsg);
+            withinHostContext(() -> handleMessage(jsonType == null ? null : jsonType.getAsString(), binder));
+        }
+        return WebSocket.Listener.super.onBinary(webSocket, data, last);
+    }
+
+    /**
+     * Runs code within the context of the bot if hosted, so the bot reads its own environment variables, e.g. for the
+     * team of the bot handshake, and the output of the event handlers is routed to the streams of the bot.
+     */
+    private void withinHostContext(Runnable action) {
+        BotHostContext.within(hostContext, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Binds a received message to its message class, so each message is bound only when it is handled.
+     */
+    private interface MessageBinder {
+        <T> T bind(Class<T> type);
+    }
+
+    private static MessageBinder fromJson(String json) {
+        return new MessageBinder() {
+            @Override
+            public <T> T bind(Class<T> type) {
+                return JsonConverter.fromJson(json, type);
+            }
+        };
+    }
+
+    private static MessageBinder fromJsonTree(JsonObject jsonObject) {
+        return new MessageBinder() {
+            @Override
+            public <T> T bind(Class<T> type) {
+                return JsonConverter.fromJson(jsonObject, type);
+            }
+        };
+    }
+
+    private void handleMessage(String type, MessageBinder message) {
+        if (type != null) {
+            switch (dev.robocode.tankroyale.schema.Message.Type.fromValue(type)) {
+                case TICK_EVENT_FOR_BOT:
+                    handleTick(message);
+                    break;
+                case ROUND_STARTED_EVENT:
+                    handleRoundStarted(message);
+                    break;
+                case ROUND_ENDED_EVENT_FOR_BOT:
+                    handleRoundEnded(message);
+                    break;
+                case GAME_STARTED_EVENT_FOR_BOT:
+                    handleGameStarted(message);
+                    break;
+                case GAME_ENDED_EVENT_FOR_BOT:
+                    handleGameEnded(message);
+                    break;
+                case SKIPPED_TURN_EVENT:
+                    handleSkippedTurn(message);
+                    break;
+                case SERVER_HANDSHAKE:
+                    handleServerHandshake(message);
+                    break;
+                case GAME_ABORTED_EVENT:
+                    handleGameAborted();
+                    break;
+                default:
+                    throw new BotException("Unsupported WebSocket message type: " + type);
             }
         }
-        return WebSocket.Listener.super.onText(webSocket, data, last);
     }
 
-    private void handleTick(JsonObject jsonMsg) {
+    private void handleTick(MessageBinder message) {
         if (baseBotInternals.getEventHandlingDisabledTurn()) return;
 
         baseBotInternals.setTickStartNanoTime(System.nanoTime());
 
-        var tickEventForBot = JsonConverter.fromJson(jsonMsg, TickEventForBot.class);
+        var tickEventForBot = message.bind(TickEventForBot.class);
 
         var mappedTickEvent = EventMapper.map(tickEventForBot, baseBot);
         baseBotInternals.addEventsFromTick(mappedTickEvent);
@@ -155,8 +228,8 @@ final class WebSocketHandler implements WebSocket.Listener {
         internalEventHandlers.onNextTurn.publish(mappedTickEvent);
     }
 
-    private void handleRoundStarted(JsonObject jsonMsg) {
-        var roundStartedEvent = JsonConverter.fromJson(jsonMsg, RoundStartedEvent.class);
+    private void handleRoundStarted(MessageBinder message) {
+        var roundStartedEvent = message.bind(RoundStartedEvent.class);
 
         var mappedRoundStartedEvent = new RoundStartedEvent(roundStartedEvent.getRoundNumber());
 
@@ -164,8 +237,8 @@ final class WebSocketHandler implements WebSocket.Listener {
         internalEventHandlers.onRoundStarted.publish(mappedRoundStartedEvent);
     }
 
-    private void handleRoundEnded(JsonObject jsonMsg) {
-        var roundEndedEvent = JsonConverter.fromJson(jsonMsg, RoundEndedEvent.class);
+    private void handleRoundEnded(MessageBinder message) {
+        var roundEndedEvent = message.bind(RoundEndedEvent.class);
 
         var mappedRoundEndedEvent = new RoundEndedEvent(
                 roundEndedEvent.getRoundNumber(), roundEndedEvent.getTurnNumber(), roundEndedEvent.getResults());
@@ -174,8 +247,8 @@ final class WebSocketHandler implements WebSocket.Listener {
         internalEventHandlers.onRoundEnded.publish(mappedRoundEndedEvent);
     }
 
-    private void handleGameStarted(JsonObject jsonMsg) {
-        var gameStartedEventForBot = JsonConverter.fromJson(jsonMsg, GameStartedEventForBot.class);
+    private void handleGameStarted(MessageBinder message) {
+        var gameStartedEventForBot = message.bind(GameStartedEventForBot.class);
 
         baseBotInternals.setMyId(gameStartedEventForBot.getMyId());
 
@@ -195,16 +268,19 @@ final class WebSocketHandler implements WebSocket.Listener {
         var ready = new BotReady();
         ready.setType(Message.Type.BOT_READY);
 
-        String msg = JsonConverter.toJson(ready);
-        socket.sendText(msg, true);
+        if (baseBotInternals.isCborActive()) {
+            socket.sendBinary(CborConverter.toCbor(ready), true);
+        } else {
+            socket.sendText(JsonConverter.toJson(ready), true);
+        }
 
         botEventHandlers.onGameStarted.publish(
                 new GameStartedEvent(gameStartedEventForBot.getMyId(), initialPosition, baseBotInternals.getGameSetup()));
     }
 
-    private void handleGameEnded(JsonObject jsonMsg) {
+    private void handleGameEnded(MessageBinder message) {
         // Send the game ended event
-        var gameEndedEventForBot = JsonConverter.fromJson(jsonMsg, GameEndedEventForBot.class);
+        var gameEndedEventForBot = message.bind(GameEndedEventForBot.class);
 
         var mappedGameEnded = new GameEndedEvent(
                 gameEndedEventForBot.getNumberOfRounds(),
@@ -219,21 +295,22 @@ final class WebSocketHandler implements WebSocket.Listener {
         internalEventHandlers.onGameAborted.publish(null);
     }
 
-    private void handleSkippedTurn(JsonObject jsonMsg) {
+    private void handleSkippedTurn(MessageBinder message) {
         if (baseBotInternals.getEventHandlingDisabledTurn()) return;
 
-        var skippedTurnEvent = JsonConverter.fromJson(jsonMsg, dev.robocode.tankroyale.schema.SkippedTurnEvent.class);
+        var skippedTurnEvent = message.bind(dev.robocode.tankroyale.schema.SkippedTurnEvent.class);
 
         botEventHandlers.onSkippedTurn.publish((SkippedTurnEvent) EventMapper.map(skippedTurnEvent, baseBot));
     }
 
-    private void handleServerHandshake(JsonObject jsonMsg) {
-        var serverHandshake = JsonConverter.fromJson(jsonMsg, ServerHandshake.class);
+    private void handleServerHandshake(MessageBinder message) {
+        var serverHandshake = message.bind(ServerHandshake.class);
         baseBotInternals.setServerHandshake(serverHandshake);
 
         // Reply by sending bot handshake
         var isDroid = baseBot instanceof Droid;
-        var botHandshake = BotHandshakeFactory.create(serverHandshake.getSessionId(), botInfo, isDroid, serverSecret);
+        var botHandshake = BotHandshakeFactory.create(
+                serverHandshake.getSessionId(), botInfo, isDroid, serverSecret, baseBotInternals.isCborEnabled());
         String msg = JsonConverter.toJson(botHandshake);
 
         socket.sendText(msg, true);
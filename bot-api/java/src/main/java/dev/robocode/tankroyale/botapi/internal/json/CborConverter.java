@@ -0,0 +1,407 @@
+package dev.robocode.tankroyale.botapi.internal.json;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Converts messages to and from CBOR (RFC 8949), which is used instead of JSON text when CBOR has been enabled in
+ * the bot handshake. The CBOR messages have the same data model as the JSON messages, so messages are converted via
+ * the same JSON tree.
+ * <p>
+ * The server and the other clients share a CBOR reader in the common lib, which the Bot API does not depend on, as it
+ * is published on its own without the Kotlin runtime. Hence, this converter has its own copy of the reader, which must
+ * be kept in line with the shared one, including its nesting limit.
+ */
+public final class CborConverter {
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+    private static final int MAJOR_SIMPLE = 7;
+
+    private static final int INDEFINITE = 31;
+    private static final int BREAK = 0xFF;
+
+    private static final int FALSE = 20;
+    private static final int TRUE = 21;
+    private static final int NULL = 22;
+    private static final int UNDEFINED = 23;
+    private static final int FLOAT16 = 25;
+    private static final int FLOAT32 = 26;
+    private static final int FLOAT64 = 27;
+
+    /** Largest integral value of a double that is written as an integer, where all smaller values are exact */
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    /** Maximum number of nested arrays, maps and tags, which is far deeper than any message */
+    private static final int MAX_DEPTH = 64;
+
+    // Hide constructor to prevent instantiation
+    private CborConverter() {
+    }
+
+    /**
+     * Converts a message into CBOR.
+     *
+     * @param obj is the message.
+     * @return the CBOR bytes of the message.
+     */
+    public static ByteBuffer toCbor(Object obj) {
+        var writer = new Writer();
+        writer.write(GsonFactory.getGson().toJsonTree(obj));
+        return writer.toByteBuffer();
+    }
+
+    /**
+     * Converts CBOR into the JSON tree of a message.
+     *
+     * @param bytes is the CBOR bytes of the message.
+     * @return the JSON object of the message.
+     * @throws IllegalArgumentException if the CBOR is not a supported message, or is nested too deep.
+     */
+    public static JsonObject fromCbor(ByteBuffer bytes) {
+        JsonElement element = new Reader(bytes).read();
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("CBOR message is not a map");
+        }
+        return element.getAsJsonObject();
+    }
+
+    /**
+     * Writes a JSON tree as CBOR, where numbers with an integral value are written as integers, and other numbers as
+     * single-precision floats if no precision is lost, and as double-precision floats otherwise.
+     */
+    private static final class Writer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        void write(JsonElement element) {
+            if (element == null || element.isJsonNull()) {
+                writeByte(0xF6);
+            } else if (element.isJsonObject()) {
+                var entries = element.getAsJsonObject().entrySet();
+                writeHead(MAJOR_MAP, entries.size());
+                for (Map.Entry<String, JsonElement> entry : entries) {
+                    writeText(entry.getKey());
+                    write(entry.getValue());
+                }
+            } else if (element.isJsonArray()) {
+                var array = element.getAsJsonArray();
+                writeHead(MAJOR_ARRAY, array.size());
+                for (JsonElement item : array) {
+                    write(item);
+                }
+            } else {
+                writePrimitive(element.getAsJsonPrimitive());
+            }
+        }
+
+        private void writePrimitive(JsonPrimitive primitive) {
+            if (primitive.isBoolean()) {
+                writeByte(primitive.getAsBoolean() ? 0xF5 : 0xF4);
+            } else if (primitive.isString()) {
+                writeText(primitive.getAsString());
+            } else {
+                Number number = primitive.getAsNumber();
+                if (number instanceof Long || number instanceof Integer || number instanceof Short
+                        || number instanceof Byte) {
+                    writeInteger(number.longValue());
+                } else if (number instanceof Double || number instanceof Float) {
+                    writeDouble(number.doubleValue());
+                } else { // e.g. lazily parsed numbers
+                    writeNumber(number.toString());
+                }
+            }
+        }
+
+        private void writeNumber(String number) {
+            try {
+                writeInteger(Long.parseLong(number));
+            } catch (NumberFormatException e) {
+                writeDouble(Double.parseDouble(number));
+            }
+        }
+
+        private void writeDouble(double value) {
+            long asLong = (long) value;
+            // Integral values are written as integers, except for negative zero, which is not an integer in CBOR
+            if (asLong == value && Math.abs(asLong) <= MAX_EXACT_LONG && !(asLong == 0 && 1.0 / value < 0)) {
+                writeInteger(asLong);
+            } else if ((float) value == value || Double.isNaN(value)) {
+                writeByte(0xFA);
+                writeBits(Float.floatToRawIntBits((float) value), 4);
+            } else {
+                writeByte(0xFB);
+                writeBits(Double.doubleToRawLongBits(value), 8);
+            }
+        }
+
+        private void writeInteger(long value) {
+            if (value >= 0) {
+                writeHead(MAJOR_UNSIGNED, value);
+            } else {
+                writeHead(MAJOR_NEGATIVE, -1 - value);
+            }
+        }
+
+        private void writeText(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeHead(MAJOR_TEXT, utf8.length);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        private void writeHead(int majorType, long argument) {
+            int major = majorType << 5;
+            if (argument < 24) {
+                writeByte(major | (int) argument);
+            } else if (argument <= 0xFF) {
+                writeByte(major | 24);
+                writeBits(argument, 1);
+            } else if (argument <= 0xFFFF) {
+                writeByte(major | 25);
+                writeBits(argument, 2);
+            } else if (argument <= 0xFFFFFFFFL) {
+                writeByte(major | 26);
+                writeBits(argument, 4);
+            } else {
+                writeByte(major | 27);
+                writeBits(argument, 8);
+            }
+        }
+
+        private void writeBits(long value, int byteCount) {
+            ensureCapacity(byteCount);
+            for (int i = byteCount - 1; i >= 0; i--) {
+                bytes[size++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int count) {
+            if (size + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + count));
+            }
+        }
+    }
+
+    /**
+     * Reads CBOR into a JSON tree. Supports the data items that have a JSON counterpart with both definite and
+     * indefinite lengths, and skips tags. Arrays, maps and tags are read recursively, so their nesting is limited to
+     * prevent a small message of nested arrays from exhausting the stack.
+     */
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private int depth;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        JsonElement read() {
+            int initial = readUnsignedByte();
+            if (initial == BREAK) {
+                throw new IllegalArgumentException("Unexpected break");
+            }
+            return read(initial);
+        }
+
+        private JsonElement read(int initial) {
+            int info = initial & 0x1F;
+            switch (initial >>> 5) {
+                case MAJOR_UNSIGNED:
+                    return new JsonPrimitive(readArgument(info));
+                case MAJOR_NEGATIVE:
+                    return new JsonPrimitive(-1 - readArgument(info));
+                case MAJOR_TEXT:
+                    return new JsonPrimitive(readText(info));
+                case MAJOR_ARRAY:
+                case MAJOR_MAP:
+                case MAJOR_TAG:
+                    return readNested(initial >>> 5, info);
+                case MAJOR_SIMPLE:
+                    return readSimple(info);
+                default:
+                    throw new IllegalArgumentException("Unsupported CBOR major type: " + (initial >>> 5));
+            }
+        }
+
+        private JsonElement readNested(int majorType, int info) {
+            if (++depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("CBOR data is nested deeper than " + MAX_DEPTH + " levels");
+            }
+            try {
+                if (majorType == MAJOR_ARRAY) {
+                    return readArray(info);
+                }
+                if (majorType == MAJOR_MAP) {
+                    return readMap(info);
+                }
+                readArgument(info); // the tag has no meaning in JSON
+                return read();
+            } finally {
+                depth--;
+            }
+        }
+
+        private JsonArray readArray(int info) {
+            if (info == INDEFINITE) {
+                var array = new JsonArray();
+                for (int initial = readUnsignedByte(); initial != BREAK; initial = readUnsignedByte()) {
+                    array.add(read(initial));
+                }
+                return array;
+            }
+            int length = readLength(info);
+            // Each item takes at least one byte, so the length cannot exceed the remaining data
+            if (length > buffer.remaining()) {
+                throw new IllegalArgumentException("Array exceeds the data");
+            }
+            var array = new JsonArray(length);
+            for (int i = 0; i < length; i++) {
+                array.add(read());
+            }
+            return array;
+        }
+
+        private JsonObject readMap(int info) {
+            var map = new JsonObject();
+            if (info == INDEFINITE) {
+                for (int initial = readUnsignedByte(); initial != BREAK; initial = readUnsignedByte()) {
+                    String key = readKey(initial);
+                    map.add(key, read());
+                }
+                return map;
+            }
+            int length = readLength(info);
+            for (int i = 0; i < length; i++) {
+                String key = readKey(readUnsignedByte());
+                map.add(key, read());
+            }
+            return map;
+        }
+
+        private String readKey(int initial) {
+            if (initial >>> 5 != MAJOR_TEXT) {
+                throw new IllegalArgumentException("Map keys must be text strings");
+            }
+            return readText(initial & 0x1F);
+        }
+
+        private String readText(int info) {
+            if (info == INDEFINITE) { // text split into chunks
+                var text = new StringBuilder();
+                for (int initial = readUnsignedByte(); initial != BREAK; initial = readUnsignedByte()) {
+                    text.append(readKey(initial));
+                }
+                return text.toString();
+            }
+            int length = readLength(info);
+            if (length > buffer.remaining()) {
+                throw new IllegalArgumentException("Text exceeds the data");
+            }
+            byte[] utf8 = new byte[length];
+            buffer.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        private JsonElement readSimple(int info) {
+            switch (info) {
+                case FALSE:
+                    return new JsonPrimitive(false);
+                case TRUE:
+                    return new JsonPrimitive(true);
+                case NULL:
+                case UNDEFINED:
+                    return JsonNull.INSTANCE;
+                case FLOAT16:
+                    return new JsonPrimitive(halfToDouble((int) readBits(2)));
+                case FLOAT32:
+                    return new JsonPrimitive((double) Float.intBitsToFloat((int) readBits(4)));
+                case FLOAT64:
+                    return new JsonPrimitive(Double.longBitsToDouble(readBits(8)));
+                default:
+                    throw new IllegalArgumentException("Unsupported CBOR simple value: " + info);
+            }
+        }
+
+        private int readLength(int info) {
+            long length = readArgument(info);
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Unsupported CBOR length: " + length);
+            }
+            return (int) length;
+        }
+
+        private long readArgument(int info) {
+            if (info < 24) {
+                return info;
+            }
+            switch (info) {
+                case 24:
+                    return readBits(1);
+                case 25:
+                    return readBits(2);
+                case 26:
+                    return readBits(4);
+                case 27:
+                    long value = readBits(8);
+                    if (value < 0) {
+                        throw new IllegalArgumentException("Unsupported CBOR integer: " + Long.toUnsignedString(value));
+                    }
+                    return value;
+                default:
+                    throw new IllegalArgumentException("Unsupported CBOR argument: " + info);
+            }
+        }
+
+        private long readBits(int byteCount) {
+            long value = 0;
+            for (int i = 0; i < byteCount; i++) {
+                value = (value << 8) | readUnsignedByte();
+            }
+            return value;
+        }
+
+        private int readUnsignedByte() {
+            if (!buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Unexpected end of CBOR data");
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        private static double halfToDouble(int half) {
+            int exponent = (half >> 10) & 0x1F;
+            int mantissa = half & 0x3FF;
+            double value;
+            if (exponent == 0) {
+                value = mantissa * 0x1p-24;
+            } else if (exponent == 0x1F) {
+                value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+            } else {
+                value = (mantissa + 1024) * Math.scalb(1.0, exponent - 25);
+            }
+            return (half & 0x8000) != 0 ? -value : value;
+        }
+    }
+}
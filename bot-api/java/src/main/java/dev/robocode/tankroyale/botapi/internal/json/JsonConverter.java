@@ -1,9 +1,17 @@
 package dev.robocode.tankroyale.botapi.internal.json;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
 
 public final class JsonConverter {
 
+    private static final String TYPE = "type";
+
     public static String toJson(Object obj) {
         return GsonFactory.getGson().toJson(obj);
     }
@@ -15,4 +23,27 @@ public final class JsonConverter {
     public static <T> T fromJson(JsonObject jsonObject, Class<T> type) {
         return GsonFactory.getGson().fromJson(jsonObject, type);
     }
+
+    /**
+     * Reads the type of a message from its JSON without building a JSON tree, so the message can be bound directly
+     * to its message class afterwards. Values before the type are skipped without being parsed into objects.
+     *
+     * @param json is the JSON of the message.
+     * @return the type of the message, or {@code null} if the message has no type.
+     * @throws JsonSyntaxException if the JSON is not a JSON object.
+     */
+    public static String peekType(String json) {
+        try (var reader = new JsonReader(new StringReader(json))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (TYPE.equals(reader.nextName())) {
+                    return reader.peek() == JsonToken.STRING ? reader.nextString() : null;
+                }
+                reader.skipValue();
+            }
+            return null;
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
 }
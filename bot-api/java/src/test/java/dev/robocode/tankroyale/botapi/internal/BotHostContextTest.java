@@ -0,0 +1,98 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import dev.robocode.tankroyale.botapi.BaseBot;
+import dev.robocode.tankroyale.botapi.BotInfo;
+import dev.robocode.tankroyale.botapi.events.ConnectedEvent;
+import org.junit.jupiter.api.Test;
+import test_utils.MockedServer;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BotHostContextTest {
+
+    private static <T> T runHosted(Map<String, String> env, String botDir, Callable<T> callable) throws Exception {
+        // The context is entered on a thread of its own, like the host does for each bot
+        var task = new FutureTask<>(() -> {
+            BotHostContext.enter(env, botDir);
+            return callable.call();
+        });
+        new Thread(task).start();
+        return task.get();
+    }
+
+    @Test
+    void givenHostedBots_whenReadingEnvVars_thenEachBotReadsItsOwnEnvVars() throws Exception {
+        var env1 = Map.of("BOT_NAME", "Bot1", "BOT_VERSION", "1.0", "BOT_AUTHORS", "Author 1");
+        var env2 = Map.of("BOT_NAME", "Bot2", "BOT_VERSION", "2.0", "BOT_AUTHORS", "Author 2");
+
+        assertThat(runHosted(env1, "bot1", () -> EnvVars.getBotInfo().getName())).isEqualTo("Bot1");
+        assertThat(runHosted(env2, "bot2", () -> EnvVars.getBotInfo().getVersion())).isEqualTo("2.0");
+    }
+
+    @Test
+    void givenHostedBot_whenCreatingThread_thenThreadInheritsContext() throws Exception {
+        var env = Map.of("SERVER_URL", "ws://hosted:1234");
+
+        var serverUrl = runHosted(env, "bot", () -> {
+            var task = new FutureTask<>(EnvVars::getServerUrl);
+            new Thread(task).start();
+            return task.get();
+        });
+        assertThat(serverUrl).isEqualTo("ws://hosted:1234");
+    }
+
+    @Test
+    void givenHostedBot_whenReceivingMessagesFromServer_thenListenerRunsWithinContextOfBot() throws Exception {
+        var server = new MockedServer();
+        server.start();
+        try {
+            var env = Map.of("TEAM_ID", "5", "TEAM_NAME", "Hosted Team", "TEAM_VERSION", "1.2");
+            var botInfo = BotInfo.builder().setName("HostedBot").setVersion("1.0").addAuthor("Author").build();
+            var hostContext = new AtomicReference<BotHostContext>();
+            var connectedContext = new AtomicReference<BotHostContext>();
+
+            // The WebSocket listener is called by threads of the HTTP client, which do not inherit the context
+            var botThread = new Thread(() -> {
+                hostContext.set(BotHostContext.enter(env, "bot"));
+                new BaseBot(botInfo, MockedServer.getServerUrl()) {
+                    @Override
+                    public void onConnected(ConnectedEvent connectedEvent) {
+                        connectedContext.set(BotHostContext.current());
+                    }
+                }.start();
+            });
+            botThread.start();
+
+            assertThat(server.awaitBotHandshake(1000)).isTrue();
+            var botHandshake = server.getBotHandshake();
+            assertThat(botHandshake.getTeamId()).isEqualTo(5);
+            assertThat(botHandshake.getTeamName()).isEqualTo("Hosted Team");
+            assertThat(botHandshake.getTeamVersion()).isEqualTo("1.2");
+            assertThat(connectedContext.get()).isNotNull().isSameAs(hostContext.get());
+
+            hostContext.get().stop();
+            botThread.join(1000);
+            assertThat(botThread.isAlive()).isFalse();
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void givenHostedBot_whenResolvingRelativeFile_thenFileIsWithinBotDir() throws Exception {
+        var file = runHosted(Map.of(), "bots/MyBot", () -> BotHostContext.resolveFile("MyBot.json"));
+
+        assertThat(file).isEqualTo(new File("bots/MyBot", "MyBot.json"));
+    }
+
+    @Test
+    void givenBotThatIsNotHosted_whenResolvingRelativeFile_thenFileIsUnchanged() {
+        assertThat(BotHostContext.resolveFile("MyBot.json")).isEqualTo(new File("MyBot.json"));
+    }
+}
@@ -0,0 +1,51 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BotThreadsTest {
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    @Test
+    void givenPlatformThread_whenCreatingThread_thenThreadIsNotStartedAndRunsRunnable() throws Exception {
+        var task = new FutureTask<>(() -> "ran");
+        var thread = BotThreads.newThread(task, false);
+
+        assertThat(thread.getState()).isEqualTo(Thread.State.NEW);
+        thread.start();
+        assertThat(task.get(5, TimeUnit.SECONDS)).isEqualTo("ran");
+    }
+
+    @Test
+    void givenVirtualThread_whenCreatingThread_thenThreadIsVirtualIfAvailable() throws Exception {
+        var task = new FutureTask<>(() -> "ran");
+        var thread = BotThreads.newThread(task, true);
+
+        thread.start();
+        assertThat(task.get(5, TimeUnit.SECONDS)).isEqualTo("ran");
+        if (BotThreads.isVirtualThreadAvailable()) {
+            assertThat(isVirtual(thread)).isTrue();
+        }
+    }
+
+    @Test
+    void givenParkedVirtualThread_whenUnparked_thenThreadContinues() throws Exception {
+        var task = new FutureTask<>(() -> {
+            LockSupport.park(this);
+            return "continued";
+        });
+        var thread = BotThreads.newThread(task, true);
+        thread.start();
+
+        LockSupport.unpark(thread); // a permit given before parking is not lost
+        assertThat(task.get(5, TimeUnit.SECONDS)).isEqualTo("continued");
+    }
+}
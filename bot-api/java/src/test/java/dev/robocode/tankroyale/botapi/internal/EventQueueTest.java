@@ -0,0 +1,36 @@
+package dev.robocode.tankroyale.botapi.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static dev.robocode.tankroyale.botapi.internal.EventQueue.sortKey;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventQueueTest {
+
+    @Test
+    void givenCriticalAndNonCriticalEvents_whenComputingSortKeys_thenCriticalEventComesFirst() {
+        assertThat(sortKey(true, 100, -50)).isLessThan(sortKey(false, 1, 150));
+    }
+
+    @Test
+    void givenEventsFromDifferentTurns_whenComputingSortKeys_thenOlderEventComesFirst() {
+        assertThat(sortKey(false, 9, -50)).isLessThan(sortKey(false, 10, 150));
+        assertThat(sortKey(true, 9, -50)).isLessThan(sortKey(true, 10, 150));
+    }
+
+    @Test
+    void givenEventsWithDifferentPriorities_whenComputingSortKeys_thenHigherPriorityComesFirst() {
+        assertThat(sortKey(false, 10, 150)).isLessThan(sortKey(false, 10, 140));
+        assertThat(sortKey(false, 10, Integer.MAX_VALUE)).isLessThan(sortKey(false, 10, Integer.MIN_VALUE));
+        assertThat(sortKey(false, 10, 0)).isLessThan(sortKey(false, 10, -1));
+    }
+
+    @Test
+    void givenExtremeValues_whenComputingSortKeys_thenKeysArePositiveAndOrdered() {
+        long highest = sortKey(true, 0, Integer.MAX_VALUE);
+        long lowest = sortKey(false, Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+        assertThat(highest).isZero();
+        assertThat(lowest).isPositive().isGreaterThan(sortKey(false, 1_000_000, Integer.MIN_VALUE));
+    }
+}
@@ -0,0 +1,85 @@
+package dev.robocode.tankroyale.botapi.internal.json;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import dev.robocode.tankroyale.schema.BotIntent;
+import dev.robocode.tankroyale.schema.Message;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+
+class CborConverterTest {
+
+    @Test
+    void givenBotIntent_whenConvertingToCborAndBack_thenJsonTreeIsTheSame() {
+        var intent = new BotIntent();
+        intent.setType(Message.Type.BOT_INTENT);
+        intent.setTurnRate(-7.5);
+        intent.setGunTurnRate(0.1);
+        intent.setTargetSpeed(8.0);
+        intent.setFirepower(3.0);
+        intent.setBodyColor("#FF00FF");
+        intent.setStdOut("æøå ☃");
+
+        JsonObject json = JsonConverter.fromJson(JsonConverter.toJson(intent), JsonObject.class);
+
+        assertThat(CborConverter.fromCbor(CborConverter.toCbor(intent))).isEqualTo(json);
+    }
+
+    @Test
+    void givenBotIntent_whenConvertingToCbor_thenCborIsSmallerThanJson() {
+        var intent = new BotIntent();
+        intent.setType(Message.Type.BOT_INTENT);
+        intent.setTurnRate(10.0);
+        intent.setGunTurnRate(-20.0);
+        intent.setRadarTurnRate(45.0);
+        intent.setTargetSpeed(-8.0);
+        intent.setFirepower(0.1);
+
+        assertThat(CborConverter.toCbor(intent).remaining()).isLessThan(JsonConverter.toJson(intent).length());
+    }
+
+    @Test
+    void givenIndefiniteLengthsAndHalfFloats_whenConvertingFromCbor_thenJsonTreeIsRead() {
+        // {_ "a": [_ 1, -2], "b": 1.5 (half), "c": null}
+        var cbor = bytes(0xBF, 0x61, 0x61, 0x9F, 0x01, 0x21, 0xFF, 0x61, 0x62, 0xF9, 0x3E, 0x00, 0x61, 0x63, 0xF6,
+                0xFF);
+
+        assertThat(CborConverter.fromCbor(cbor))
+                .isEqualTo(JsonParser.parseString("{\"a\":[1,-2],\"b\":1.5,\"c\":null}"));
+    }
+
+    @Test
+    void givenCborThatIsNotAMap_whenConvertingFromCbor_thenThrowIllegalArgumentException() {
+        var thrown = catchThrowable(() -> CborConverter.fromCbor(bytes(0x82, 0x01, 0x02)));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenDeeplyNestedArrays_whenConvertingFromCbor_thenThrowIllegalArgumentException() {
+        // A map holding 100,000 nested arrays, which would overflow the stack without a nesting limit
+        var bytes = new byte[100_004];
+        bytes[0] = (byte) 0xA1;
+        bytes[1] = 0x61;
+        bytes[2] = 0x61;
+        Arrays.fill(bytes, 3, bytes.length - 1, (byte) 0x81);
+        bytes[bytes.length - 1] = 0x01;
+
+        var thrown = catchThrowable(() -> CborConverter.fromCbor(ByteBuffer.wrap(bytes)));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ByteBuffer bytes(int... values) {
+        var bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+}
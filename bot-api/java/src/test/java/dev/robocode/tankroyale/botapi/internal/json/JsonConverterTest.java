@@ -0,0 +1,36 @@
+package dev.robocode.tankroyale.botapi.internal.json;
+
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+
+class JsonConverterTest {
+
+    @Test
+    void givenTypeAfterOtherFields_whenPeekingType_thenTypeIsReturned() {
+        var json = "{\"turnNumber\":3,\"botState\":{\"type\":\"nested\",\"energy\":100.0},"
+                + "\"events\":[{\"type\":\"ScannedBotEvent\"}],\"type\":\"TickEventForBot\"}";
+
+        assertThat(JsonConverter.peekType(json)).isEqualTo("TickEventForBot");
+    }
+
+    @Test
+    void givenTypeAsFirstField_whenPeekingType_thenTypeIsReturned() {
+        assertThat(JsonConverter.peekType("{\"type\":\"GameAbortedEvent\",\"x\":[1,2]}"))
+                .isEqualTo("GameAbortedEvent");
+    }
+
+    @Test
+    void givenNoType_whenPeekingType_thenNullIsReturned() {
+        assertThat(JsonConverter.peekType("{\"turnNumber\":3}")).isNull();
+    }
+
+    @Test
+    void givenJsonArray_whenPeekingType_thenThrowJsonSyntaxException() {
+        var thrown = catchThrowable(() -> JsonConverter.peekType("[1,2]"));
+
+        assertThat(thrown).isInstanceOf(JsonSyntaxException.class);
+    }
+}
@@ -1,5 +1,6 @@
 package dev.robocode.tankroyale.gui.player
 
+import dev.robocode.tankroyale.client.TickDeltaDecoder
 import dev.robocode.tankroyale.client.WebSocketClient
 import dev.robocode.tankroyale.client.WebSocketClientEvents
 import dev.robocode.tankroyale.client.model.*
@@ -36,6 +37,9 @@ class LiveBattlePlayer : BattlePlayer {
 
     private val json = MessageConstants.json
 
+    /** Decoder of the tick deltas enabled in the controller handshake */
+    private val tickDeltaDecoder = TickDeltaDecoder()
+
     private var gameTypes = setOf<String>()
 
     private lateinit var lastStartGame: StartGame
@@ -222,21 +226,15 @@ class LiveBattlePlayer : BattlePlayer {
         send(botPolicyUpdate)
     }
 
-    private fun onMessage(msg: String) {
-        //        println("msg: $msg")
-        // Check if this is a TickEvent with tickScores
-        try {
-            val jsonObject = kotlinx.serialization.json.Json.parseToJsonElement(msg).jsonObject
-            if (jsonObject.containsKey("type") &&
-                "TickEventForObserver" == jsonObject["type"]?.jsonPrimitive?.content &&
-                jsonObject.containsKey("tickScores")) {
-                // Forward to UI manager
-                UIManager.updateLiveScores(msg)
-            }
-        } catch (e: Exception) {
-            // Ignore parsing errors
+    private fun onMessage(message: JsonElement) {
+        // Tick deltas are merged into full ticks, which are skipped until the first keyframe has been received
+        val msg = (message as? JsonObject)?.let { tickDeltaDecoder.decode(it) ?: return } ?: message
+
+        // Forward the tick scores of a tick to the UI manager
+        if (msg is JsonObject && msg["type"]?.jsonPrimitive?.content == TickDeltaDecoder.TICK_EVENT_TYPE) {
+            (msg["tickScores"] as? JsonArray)?.let { UIManager.updateLiveScores(it) }
         }
-        when (val type = json.decodeFromString(PolymorphicSerializer(Message::class), msg)) {
+        when (val type = json.decodeFromJsonElement(PolymorphicSerializer(Message::class), msg)) {
             is TickEvent -> handleTickEvent(type)
             is ServerHandshake -> handleServerHandshake(type)
             is BotListUpdate -> handleBotListUpdate(type)
@@ -263,8 +261,10 @@ class LiveBattlePlayer : BattlePlayer {
             name = "Robocode Tank Royale UI",
             version = "${Version.version}",
             author = "Flemming N. Larsen",
-            secret = ServerSettings.controllerSecret()
+            secret = ServerSettings.controllerSecret(),
+            isTickDeltaEnabled = true
         )
+        tickDeltaDecoder.reset()
         send(handshake)
     }
 
@@ -2,11 +2,9 @@ package dev.robocode.tankroyale.gui.ui.livescore
 
 import dev.robocode.tankroyale.client.model.Participant
 import dev.robocode.tankroyale.gui.client.ClientEvents
-import kotlinx.serialization.json.Json
 import kotlinx.serialization.json.JsonArray
 import kotlinx.serialization.json.doubleOrNull
 import kotlinx.serialization.json.int
-import kotlinx.serialization.json.jsonArray
 import kotlinx.serialization.json.jsonObject
 import kotlinx.serialization.json.jsonPrimitive
 import java.awt.*
@@ -94,13 +92,8 @@ class LiveScorePanel : JPanel() {
         }
     }
 
-    fun updateWithTickScores(tickScoresJson: String) {
-        try {
-            val obj = Json.parseToJsonElement(tickScoresJson).jsonObject
-            pendingTickScores = obj["tickScores"]?.jsonArray
-        } catch (e: Exception) {
-            e.printStackTrace()
-        }
+    fun updateWithTickScores(tickScores: JsonArray) {
+        pendingTickScores = tickScores
     }
 
     private fun processScores(tickScores: JsonArray) {
@@ -3,6 +3,7 @@ package dev.robocode.tankroyale.gui.ui.livescore
 import dev.robocode.tankroyale.client.model.Participant
 import dev.robocode.tankroyale.gui.client.ClientEvents
 import dev.robocode.tankroyale.gui.ui.arena.BattlePanel
+import kotlinx.serialization.json.JsonArray
 
 object UIManager {
     // The live score panel is now part of the BattlePanel
@@ -44,8 +45,8 @@ object UIManager {
         liveScorePanel.isVisible = false
     }
 
-    fun updateLiveScores(tickScoresJson: String) {
-        liveScorePanel.updateWithTickScores(tickScoresJson)
+    fun updateLiveScores(tickScores: JsonArray) {
+        liveScorePanel.updateWithTickScores(tickScores)
     }
 
     fun getCurrentParticipants(): List<Participant> {
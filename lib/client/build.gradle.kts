@@ -20,6 +20,7 @@ dependencies {
     api(project(":lib:common"))
     implementation(libs.kotlinx.serialization.json)
 
+    testImplementation(testLibs.kotest.junit5)
 }
 
 tasks {
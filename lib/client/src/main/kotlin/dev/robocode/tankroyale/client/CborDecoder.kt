@@ -0,0 +1,46 @@
+package dev.robocode.tankroyale.client
+
+import dev.robocode.tankroyale.common.cbor.CborReader
+import dev.robocode.tankroyale.common.cbor.CborTreeBuilder
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonNull
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.JsonPrimitive
+import java.nio.ByteBuffer
+
+/**
+ * Decodes binary CBOR (RFC 8949) messages, which the server sends instead of JSON text when CBOR has been enabled in
+ * the handshake. The CBOR messages have the same data model as the JSON messages, so a message is decoded into the
+ * same JSON tree as its JSON text.
+ *
+ * The CBOR is read by the [CborReader] shared with the server, where this decoder builds the kotlinx JSON tree.
+ */
+object CborDecoder {
+
+    /**
+     * Decodes a CBOR message.
+     * @param bytes is the CBOR bytes of the message, starting at the position of the buffer.
+     * @return the JSON tree of the message.
+     * @throws IllegalArgumentException if the data is not supported, malformed, or nested too deep.
+     */
+    fun decode(bytes: ByteBuffer): JsonElement = CborReader(bytes, JsonTreeBuilder).read()
+
+    /** Builds the kotlinx JSON tree of the data items */
+    private object JsonTreeBuilder : CborTreeBuilder<JsonElement> {
+
+        override fun integer(value: Long) = JsonPrimitive(value)
+
+        override fun float(value: Double) = JsonPrimitive(value)
+
+        override fun text(value: String) = JsonPrimitive(value)
+
+        override fun boolean(value: Boolean) = JsonPrimitive(value)
+
+        override fun nullValue() = JsonNull
+
+        override fun array(items: List<JsonElement>) = JsonArray(items)
+
+        override fun map(entries: Map<String, JsonElement>) = JsonObject(entries)
+    }
+}
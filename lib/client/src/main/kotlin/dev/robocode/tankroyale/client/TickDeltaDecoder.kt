@@ -0,0 +1,95 @@
+package dev.robocode.tankroyale.client
+
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonNull
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.int
+import kotlinx.serialization.json.jsonArray
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+
+/**
+ * Decodes tick delta events into full tick events for observers, so clients that enabled tick deltas in their
+ * handshake can handle ticks like clients receiving full ticks.
+ *
+ * The decoder keeps the bot and bullet states of the last tick. A full tick (keyframe) replaces the states, and a tick
+ * delta is merged into the states, where a field set to `null` is removed. Deltas received before the first keyframe
+ * cannot be decoded, which happens when joining a battle in progress. An instance is not thread-safe, so messages
+ * must be decoded one at a time in the order they were received.
+ */
+class TickDeltaDecoder {
+
+    companion object {
+        const val TICK_EVENT_TYPE = "TickEventForObserver"
+        const val TICK_DELTA_EVENT_TYPE = "TickDeltaEventForObserver"
+    }
+
+    /** Bot states of the last tick by bot id */
+    private val botStates = LinkedHashMap<Int, JsonObject>()
+
+    /** Bullet states of the last tick by bullet id */
+    private val bulletStates = LinkedHashMap<Int, JsonObject>()
+
+    private var hasKeyframe = false
+
+    /** Forgets the last tick, so tick deltas cannot be decoded until the next keyframe has been received. */
+    fun reset() {
+        botStates.clear()
+        bulletStates.clear()
+        hasKeyframe = false
+    }
+
+    /**
+     * Decodes a JSON message, where a tick delta is turned into a full tick.
+     * @param message is the JSON message.
+     * @return the full tick if the message is a tick delta, the message itself if it is any other message, or `null`
+     * if the message is a tick delta that cannot be decoded, as no keyframe has been received yet.
+     */
+    fun decode(message: JsonObject): JsonObject? =
+        when ((message["type"] as? JsonPrimitive)?.content) {
+            TICK_EVENT_TYPE -> message.also { keyframe(it) }
+            TICK_DELTA_EVENT_TYPE -> if (hasKeyframe) applyDelta(message) else null
+            else -> message
+        }
+
+    private fun keyframe(tick: JsonObject) {
+        botStates.clear()
+        tick["botStates"]?.jsonArray?.forEach { putState(botStates, it.jsonObject, "id") }
+        bulletStates.clear()
+        tick["bulletStates"]?.jsonArray?.forEach { putState(bulletStates, it.jsonObject, "bulletId") }
+        hasKeyframe = true
+    }
+
+    private fun applyDelta(delta: JsonObject): JsonObject {
+        delta["removedBotIds"]?.jsonArray?.forEach { botStates.remove(it.jsonPrimitive.int) }
+        delta["botStates"]?.jsonArray?.forEach { mergeState(botStates, it.jsonObject, "id") }
+
+        delta["removedBulletIds"]?.jsonArray?.forEach { bulletStates.remove(it.jsonPrimitive.int) }
+        delta["bulletStates"]?.jsonArray?.forEach { mergeState(bulletStates, it.jsonObject, "bulletId") }
+
+        val tick = LinkedHashMap<String, JsonElement>()
+        tick["type"] = JsonPrimitive(TICK_EVENT_TYPE)
+        delta["turnNumber"]?.let { tick["turnNumber"] = it }
+        delta["roundNumber"]?.let { tick["roundNumber"] = it }
+        tick["botStates"] = JsonArray(botStates.values.toList())
+        tick["bulletStates"] = JsonArray(bulletStates.values.toList())
+        tick["events"] = delta["events"] ?: JsonArray(emptyList())
+        delta["tickScores"]?.let { tick["tickScores"] = it }
+        return JsonObject(tick)
+    }
+
+    private fun putState(states: MutableMap<Int, JsonObject>, state: JsonObject, idName: String) {
+        states[state.getValue(idName).jsonPrimitive.int] = state
+    }
+
+    private fun mergeState(states: MutableMap<Int, JsonObject>, delta: JsonObject, idName: String) {
+        val id = delta.getValue(idName).jsonPrimitive.int
+        val state = LinkedHashMap<String, JsonElement>(states[id] ?: emptyMap())
+        delta.forEach { (name, value) ->
+            if (value is JsonNull) state.remove(name) else state[name] = value
+        }
+        states[id] = JsonObject(state)
+    }
+}
@@ -5,7 +5,9 @@ import dev.robocode.tankroyale.client.model.MessageConstants
 import kotlinx.serialization.PolymorphicSerializer
 import java.net.URI
 import java.net.http.HttpClient
+import java.io.ByteArrayOutputStream
 import java.net.http.WebSocket
+import java.nio.ByteBuffer
 import java.util.concurrent.CompletionStage
 
 
@@ -42,6 +44,7 @@ class WebSocketClient(private val uri: URI) {
     private inner class WebSocketListener : WebSocket.Listener {
         var websocket: WebSocket? = null
         private var payload = StringBuffer()
+        private val binaryPayload = ByteArrayOutputStream()
 
         override fun onOpen(webSocket: WebSocket) {
             this.websocket = webSocket
@@ -62,10 +65,24 @@ class WebSocketClient(private val uri: URI) {
         override fun onText(webSocket: WebSocket, data: CharSequence?, last: Boolean): CompletionStage<*>? {
             payload.append(data)
             if (last) {
-                WebSocketClientEvents.onMessage.fire(payload.toString())
+                val text = payload.toString()
                 payload.delete(0, payload.length) // clear payload buffer
+                WebSocketClientEvents.onMessage.fire(json.parseToJsonElement(text))
             }
             return super.onText(webSocket, data, last)
         }
+
+        // Binary messages are CBOR, which the server sends if CBOR has been enabled in the handshake. The CBOR is
+        // decoded into the same JSON tree as JSON text, so it is not turned into text only to be parsed again
+        override fun onBinary(webSocket: WebSocket, data: ByteBuffer, last: Boolean): CompletionStage<*>? {
+            val bytes = ByteArray(data.remaining()).also { data.get(it) }
+            binaryPayload.writeBytes(bytes)
+            if (last) {
+                val cbor = ByteBuffer.wrap(binaryPayload.toByteArray())
+                binaryPayload.reset() // clear payload buffer
+                WebSocketClientEvents.onMessage.fire(CborDecoder.decode(cbor))
+            }
+            return super.onBinary(webSocket, data, last)
+        }
     }
 }
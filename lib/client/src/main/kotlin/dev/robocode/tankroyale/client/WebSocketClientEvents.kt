@@ -1,10 +1,12 @@
 package dev.robocode.tankroyale.client
 
 import dev.robocode.tankroyale.common.Event
+import kotlinx.serialization.json.JsonElement
 
 object WebSocketClientEvents {
     val onOpen = Event<Unit>()
     val onClose = Event<Unit>()
-    val onMessage = Event<String>()
+    /** Fired with the JSON tree of each message, which is received as either JSON text or CBOR */
+    val onMessage = Event<JsonElement>()
     val onError = Event<Throwable>()
 }
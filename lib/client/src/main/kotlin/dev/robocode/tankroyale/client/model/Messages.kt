@@ -180,7 +180,9 @@ data class ControllerHandshake(
     val name: String,
     val version: String,
     val author: String?,
-    val secret: String?
+    val secret: String?,
+    val isTickDeltaEnabled: Boolean? = null,
+    val isCborEnabled: Boolean? = null
 ) : Message()
 
 @Serializable
@@ -190,7 +192,9 @@ data class ObserverHandshake(
     val name: String,
     val version: String,
     val author: String?,
-    val secret: String?
+    val secret: String?,
+    val isTickDeltaEnabled: Boolean? = null,
+    val isCborEnabled: Boolean? = null
 ) : Message()
 
 @Serializable
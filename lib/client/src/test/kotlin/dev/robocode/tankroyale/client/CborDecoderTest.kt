@@ -0,0 +1,63 @@
+package dev.robocode.tankroyale.client
+
+import dev.robocode.tankroyale.common.cbor.CborReader
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import kotlinx.serialization.json.Json
+import java.nio.ByteBuffer
+
+class CborDecoderTest : FunSpec({
+
+    fun bytes(vararg values: Int): ByteBuffer = ByteBuffer.wrap(values.map { it.toByte() }.toByteArray())
+
+    fun nestedArrays(depth: Int): ByteBuffer = ByteBuffer.wrap(ByteArray(depth) { 0x81.toByte() } + 0x01)
+
+    context("CborDecoder") {
+
+        test("definite lengths, integers, half-precision floats and null are decoded") {
+            // {"a": [1, -2], "b": 1.5 (half), "c": null}
+            val cbor = bytes(0xA3, 0x61, 0x61, 0x82, 0x01, 0x21, 0x61, 0x62, 0xF9, 0x3E, 0x00, 0x61, 0x63, 0xF6)
+
+            CborDecoder.decode(cbor) shouldBe Json.parseToJsonElement("""{"a":[1,-2],"b":1.5,"c":null}""")
+        }
+
+        test("indefinite lengths, chunked text and booleans are decoded") {
+            // {_ "l": [_ 1, 2], "t": (_ "ab", "c"), "f": true}
+            val cbor = bytes(
+                0xBF, 0x61, 0x6C, 0x9F, 0x01, 0x02, 0xFF, 0x61, 0x74, 0x7F, 0x62, 0x61, 0x62, 0x61, 0x63, 0xFF,
+                0x61, 0x66, 0xF5, 0xFF
+            )
+
+            CborDecoder.decode(cbor) shouldBe Json.parseToJsonElement("""{"l":[1,2],"t":"abc","f":true}""")
+        }
+
+        test("single and double-precision floats, 64-bit integers and tags are decoded") {
+            // [1.5 (single), 0.1 (double), 4294967296, 1(42)]
+            val cbor = bytes(
+                0x84, 0xFA, 0x3F, 0xC0, 0x00, 0x00, 0xFB, 0x3F, 0xB9, 0x99, 0x99, 0x99, 0x99, 0x99, 0x9A,
+                0x1B, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0xC1, 0x18, 0x2A
+            )
+
+            CborDecoder.decode(cbor) shouldBe Json.parseToJsonElement("""[1.5,0.1,4294967296,42]""")
+        }
+
+        test("nesting up to the maximum depth is decoded, and deeper nesting is rejected") {
+            val maxDepth = CborReader.DEFAULT_MAX_DEPTH
+
+            CborDecoder.decode(nestedArrays(maxDepth)).toString() shouldBe
+                    "[".repeat(maxDepth) + "1" + "]".repeat(maxDepth)
+
+            shouldThrow<IllegalArgumentException> { CborDecoder.decode(nestedArrays(maxDepth + 1)) }
+            // Far deeper than the stack of the reading thread would allow without the limit
+            shouldThrow<IllegalArgumentException> { CborDecoder.decode(nestedArrays(100_000)) }
+        }
+
+        test("malformed data is rejected") {
+            shouldThrow<IllegalArgumentException> { CborDecoder.decode(bytes(0x62, 0x61)) } // text exceeds the data
+            shouldThrow<IllegalArgumentException> { CborDecoder.decode(bytes(0xA1, 0x01, 0x02)) } // integer map key
+            shouldThrow<IllegalArgumentException> { CborDecoder.decode(bytes(0x9A, 0x7F, 0xFF, 0xFF, 0xFF)) } // length
+            shouldThrow<IllegalArgumentException> { CborDecoder.decode(bytes(0xFF)) } // unexpected break
+        }
+    }
+})
@@ -0,0 +1,60 @@
+package dev.robocode.tankroyale.client
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import kotlinx.serialization.json.Json
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.jsonObject
+
+class TickDeltaDecoderTest : FunSpec({
+
+    fun json(text: String): JsonObject = Json.parseToJsonElement(text).jsonObject
+
+    val keyframe = json(
+        """{"type":"TickEventForObserver","turnNumber":1,"roundNumber":1,
+            "botStates":[{"id":1,"x":10.0,"stdOut":"a"},{"id":2,"x":50.0}],
+            "bulletStates":[{"bulletId":1,"x":5.0}],"events":[]}"""
+    )
+
+    context("TickDeltaDecoder") {
+
+        test("other messages and full ticks are returned as they are") {
+            val decoder = TickDeltaDecoder()
+            val message = json("""{"type":"RoundStartedEvent","roundNumber":1}""")
+
+            decoder.decode(message) shouldBeSameInstanceAs message
+            decoder.decode(keyframe) shouldBeSameInstanceAs keyframe
+        }
+
+        test("delta cannot be decoded before the first keyframe") {
+            val decoder = TickDeltaDecoder()
+            val delta = json("""{"type":"TickDeltaEventForObserver","turnNumber":2,"roundNumber":1}""")
+
+            decoder.decode(delta).shouldBeNull()
+            decoder.decode(keyframe)
+            decoder.reset()
+            decoder.decode(delta).shouldBeNull()
+        }
+
+        test("delta is merged into the states of the last tick") {
+            val decoder = TickDeltaDecoder()
+            decoder.decode(keyframe)
+
+            val tick = decoder.decode(
+                json(
+                    """{"type":"TickDeltaEventForObserver","turnNumber":2,"roundNumber":1,
+                        "botStates":[{"id":1,"x":11.0,"stdOut":null},{"id":3,"x":80.0}],"removedBotIds":[2],
+                        "bulletStates":[],"removedBulletIds":[1],"events":[{"type":"BotDeathEvent","victimId":2}]}"""
+                )
+            )
+
+            tick shouldBe json(
+                """{"type":"TickEventForObserver","turnNumber":2,"roundNumber":1,
+                    "botStates":[{"id":1,"x":11.0},{"id":3,"x":80.0}],"bulletStates":[],
+                    "events":[{"type":"BotDeathEvent","victimId":2}]}"""
+            )
+        }
+    }
+})
@@ -0,0 +1,195 @@
+package dev.robocode.tankroyale.common.cbor
+
+import java.nio.ByteBuffer
+
+/**
+ * Reads a CBOR (RFC 8949) data item into a JSON tree, where the nodes of the tree are built by a [CborTreeBuilder].
+ *
+ * The reader supports the data items that have a JSON counterpart: integers, floats of any precision, text strings,
+ * arrays and maps with text keys of both definite and indefinite length, booleans, and null. Tags are skipped.
+ *
+ * Arrays, maps and tags are read recursively, so their nesting is limited to [maxDepth] levels. Otherwise, a small
+ * message of nested arrays could exhaust the stack of the thread reading it.
+ *
+ * @param buffer is the buffer to read from, starting at its position.
+ * @param builder is the builder of the nodes of the JSON tree.
+ * @param maxDepth is the maximum number of nested arrays, maps and tags.
+ */
+class CborReader<T>(
+    private val buffer: ByteBuffer,
+    private val builder: CborTreeBuilder<T>,
+    private val maxDepth: Int = DEFAULT_MAX_DEPTH,
+) {
+    private var depth = 0
+
+    /**
+     * Reads the next data item.
+     * @return the JSON node of the data item.
+     * @throws IllegalArgumentException if the data item is not supported, malformed, or nested too deep.
+     */
+    fun read(): T {
+        val initial = readUnsignedByte()
+        require(initial != BREAK) { "Unexpected break" }
+        return read(initial)
+    }
+
+    private fun read(initial: Int): T {
+        val info = initial and 0x1F
+        return when (val majorType = initial ushr 5) {
+            MAJOR_UNSIGNED -> builder.integer(readArgument(info))
+            MAJOR_NEGATIVE -> builder.integer(-1 - readArgument(info))
+            MAJOR_TEXT -> builder.text(readText(info))
+            MAJOR_ARRAY -> nested { readArray(info) }
+            MAJOR_MAP -> nested { readMap(info) }
+            MAJOR_TAG -> nested {
+                readArgument(info) // the tag has no meaning in JSON
+                read()
+            }
+
+            MAJOR_SIMPLE -> readSimple(info)
+            else -> throw IllegalArgumentException("Unsupported CBOR major type: $majorType")
+        }
+    }
+
+    /** Reads an array, map or tag within the depth limit */
+    private inline fun nested(block: () -> T): T {
+        require(++depth <= maxDepth) { "CBOR data is nested deeper than $maxDepth levels" }
+        try {
+            return block()
+        } finally {
+            depth--
+        }
+    }
+
+    private fun readArray(info: Int): T {
+        if (info == INDEFINITE) {
+            val items = ArrayList<T>()
+            while (true) {
+                val initial = readUnsignedByte()
+                if (initial == BREAK) return builder.array(items)
+                items += read(initial)
+            }
+        }
+        val length = readLength(info)
+        // Each item takes at least one byte, so the length cannot exceed the remaining data
+        require(length <= buffer.remaining()) { "Array exceeds the data" }
+        val items = ArrayList<T>(length)
+        repeat(length) { items += read() }
+        return builder.array(items)
+    }
+
+    private fun readMap(info: Int): T {
+        val entries = LinkedHashMap<String, T>()
+        if (info == INDEFINITE) {
+            while (true) {
+                val initial = readUnsignedByte()
+                if (initial == BREAK) return builder.map(entries)
+                entries[readKey(initial)] = read()
+            }
+        }
+        repeat(readLength(info)) { entries[readKey(readUnsignedByte())] = read() }
+        return builder.map(entries)
+    }
+
+    private fun readKey(initial: Int): String {
+        require(initial ushr 5 == MAJOR_TEXT) { "Map keys must be text strings" }
+        return readText(initial and 0x1F)
+    }
+
+    private fun readText(info: Int): String {
+        if (info == INDEFINITE) { // text split into chunks
+            val text = StringBuilder()
+            while (true) {
+                val initial = readUnsignedByte()
+                if (initial == BREAK) return text.toString()
+                text.append(readKey(initial))
+            }
+        }
+        val length = readLength(info)
+        require(length <= buffer.remaining()) { "Text exceeds the data" }
+        val text = if (buffer.hasArray()) {
+            String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, Charsets.UTF_8)
+        } else {
+            ByteArray(length).also { buffer.duplicate().get(it) }.toString(Charsets.UTF_8)
+        }
+        buffer.position(buffer.position() + length)
+        return text
+    }
+
+    private fun readSimple(info: Int): T =
+        when (info) {
+            FALSE -> builder.boolean(false)
+            TRUE -> builder.boolean(true)
+            NULL, UNDEFINED -> builder.nullValue()
+            FLOAT16 -> builder.float(halfToDouble(readBits(2).toInt()))
+            FLOAT32 -> builder.float(Float.fromBits(readBits(4).toInt()).toDouble())
+            FLOAT64 -> builder.float(Double.fromBits(readBits(8)))
+            else -> throw IllegalArgumentException("Unsupported CBOR simple value: $info")
+        }
+
+    private fun readLength(info: Int): Int {
+        val length = readArgument(info)
+        require(length <= Int.MAX_VALUE) { "Unsupported CBOR length: $length" }
+        return length.toInt()
+    }
+
+    private fun readArgument(info: Int): Long =
+        when {
+            info < 24 -> info.toLong()
+            info == 24 -> readBits(1)
+            info == 25 -> readBits(2)
+            info == 26 -> readBits(4)
+            info == 27 -> readBits(8).also { require(it >= 0) { "Unsupported CBOR integer: ${it.toULong()}" } }
+            else -> throw IllegalArgumentException("Unsupported CBOR argument: $info")
+        }
+
+    /** Reads an unsigned big-endian value of a number of bytes. */
+    private fun readBits(byteCount: Int): Long {
+        var value = 0L
+        repeat(byteCount) { value = (value shl 8) or readUnsignedByte().toLong() }
+        return value
+    }
+
+    private fun readUnsignedByte(): Int {
+        require(buffer.hasRemaining()) { "Unexpected end of CBOR data" }
+        return buffer.get().toInt() and 0xFF
+    }
+
+    private fun halfToDouble(half: Int): Double {
+        val exponent = (half shr 10) and 0x1F
+        val mantissa = half and 0x3FF
+        val value = when (exponent) {
+            0 -> mantissa * HALF_SUBNORMAL_SCALE
+            0x1F -> if (mantissa == 0) Double.POSITIVE_INFINITY else Double.NaN
+            else -> (mantissa + 1024) * Math.scalb(1.0, exponent - 25)
+        }
+        return if (half and 0x8000 != 0) -value else value
+    }
+
+    companion object {
+        /** Default maximum nesting, which is far deeper than any message, but shallow enough for any thread stack */
+        const val DEFAULT_MAX_DEPTH = 64
+
+        private const val MAJOR_UNSIGNED = 0
+        private const val MAJOR_NEGATIVE = 1
+        private const val MAJOR_TEXT = 3
+        private const val MAJOR_ARRAY = 4
+        private const val MAJOR_MAP = 5
+        private const val MAJOR_TAG = 6
+        private const val MAJOR_SIMPLE = 7
+
+        private const val INDEFINITE = 31
+        private const val BREAK = 0xFF
+
+        private const val FALSE = 20
+        private const val TRUE = 21
+        private const val NULL = 22
+        private const val UNDEFINED = 23
+        private const val FLOAT16 = 25
+        private const val FLOAT32 = 26
+        private const val FLOAT64 = 27
+
+        /** Scale of a subnormal half-precision float, which is 2^-24 */
+        private const val HALF_SUBNORMAL_SCALE = 5.9604644775390625E-8
+    }
+}
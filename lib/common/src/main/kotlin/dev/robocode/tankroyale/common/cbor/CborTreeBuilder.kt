@@ -0,0 +1,31 @@
+package dev.robocode.tankroyale.common.cbor
+
+/**
+ * Builds the nodes of a JSON tree for the data items read by a [CborReader], so the same reader can be used with
+ * different JSON libraries.
+ *
+ * @param T is the type of the nodes in the JSON tree.
+ */
+interface CborTreeBuilder<T> {
+
+    /** Returns the node of an integer */
+    fun integer(value: Long): T
+
+    /** Returns the node of a float of any precision */
+    fun float(value: Double): T
+
+    /** Returns the node of a text string */
+    fun text(value: String): T
+
+    /** Returns the node of a boolean */
+    fun boolean(value: Boolean): T
+
+    /** Returns the node of null, which is also used for undefined */
+    fun nullValue(): T
+
+    /** Returns the node of an array with its items in order */
+    fun array(items: List<T>): T
+
+    /** Returns the node of a map with its entries in order */
+    fun map(entries: Map<String, T>): T
+}
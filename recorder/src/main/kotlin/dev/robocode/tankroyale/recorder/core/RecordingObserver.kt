@@ -1,12 +1,12 @@
 package dev.robocode.tankroyale.recorder.core
 
+import dev.robocode.tankroyale.client.TickDeltaDecoder
 import dev.robocode.tankroyale.client.WebSocketClient
 import dev.robocode.tankroyale.client.WebSocketClientEvents
 import dev.robocode.tankroyale.client.model.MessageConstants
 import dev.robocode.tankroyale.client.model.ObserverHandshake
 import dev.robocode.tankroyale.client.model.ServerHandshake
 import dev.robocode.tankroyale.common.util.Version
-import kotlinx.serialization.json.Json
 import kotlinx.serialization.json.JsonElement
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.jsonPrimitive
@@ -37,6 +37,9 @@ class RecordingObserver(
     private val latch = CountDownLatch(1)
     private var recorder: GameRecorder? = null
 
+    /** Decoder of the tick deltas enabled in the observer handshake, so full ticks are recorded */
+    private val tickDeltaDecoder = TickDeltaDecoder()
+
     fun start() {
         WebSocketClientEvents.apply {
             onOpen.subscribe(client) { log.info("Connection to server established") }
@@ -72,9 +75,9 @@ class RecordingObserver(
         return null
     }
 
-    private fun onMessage(msg: String) {
+    private fun onMessage(msg: JsonElement) {
         log.debug("Received message: {}", msg)
-        val jsonElement: JsonElement = Json.parseToJsonElement(msg)
+        val jsonElement: JsonElement = if (msg is JsonObject) tickDeltaDecoder.decode(msg) ?: return else msg
         val type = extractType(jsonElement)
         if (type == "ServerHandshake") {
             handleServerHandshake(jsonElement)
@@ -106,8 +109,11 @@ class RecordingObserver(
             name = "Robocode Tank Royale Recorder",
             version = Version.version,
             author = "Jan Durovec",
-            secret = secret
+            secret = secret,
+            isTickDeltaEnabled = true,
+            isCborEnabled = true
         )
+        tickDeltaDecoder.reset()
         client.send(handshake)
     }
 
@@ -32,6 +32,7 @@ plugins {
     alias(libs.plugins.kotlin.jvm)
     alias(libs.plugins.kotlin.serialization)
     alias(libs.plugins.jsonschema2pojo)
+    alias(libs.plugins.jmh)
     `maven-publish`
 }
 
@@ -42,6 +43,8 @@ dependencies {
     implementation(libs.gson)
     implementation(libs.slf4j.api)
 
+    testImplementation(project(":lib:client")) // tick delta decoder for round trips
+    testImplementation(libs.kotlinx.serialization.json)
     testImplementation(testLibs.kotest.junit5)
     testImplementation(testLibs.kotest.datatest)
     testImplementation(testLibs.mockk)
@@ -70,6 +73,19 @@ sourceSets {
     }
 }
 
+// Micro benchmarks are placed in src/jmh/kotlin and run with: gradlew :server:jmh
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    profilers.add("gc") // reports the allocations per operation
+}
+
+// Let the benchmarks access internal declarations of the server
+kotlin {
+    target.compilations.named("jmh") {
+        associateWith(target.compilations.getByName("main"))
+    }
+}
+
 tasks {
     compileKotlin {
         dependsOn(generateJsonSchema2Pojo)
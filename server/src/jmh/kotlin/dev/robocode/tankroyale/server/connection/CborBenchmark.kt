@@ -0,0 +1,129 @@
+package dev.robocode.tankroyale.server.connection
+
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import dev.robocode.tankroyale.schema.Participant
+import dev.robocode.tankroyale.schema.TickEventForBot
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.ModelUpdaterBenchmark
+import dev.robocode.tankroyale.server.core.ObserverTickWriter
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForBotMapper
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForObserverMapper
+import dev.robocode.tankroyale.server.model.*
+import dev.robocode.tankroyale.server.rules.MIN_FIREPOWER
+import org.openjdk.jmh.annotations.*
+import java.nio.ByteBuffer
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares the JSON and CBOR encodings of the messages sent every turn: the tick event sent to each bot, which is
+ * encoded by the server and decoded by the bot like the Java Bot API does, and the tick event for observers, which is
+ * transcoded from its JSON.
+ *
+ * The `bytes` counter reports the encoded bytes per second, so the bytes per tick is the `bytes` counter divided by
+ * the operations per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class CborBenchmark {
+
+    @Param("50")
+    var botCount = 0
+
+    @Param("500")
+    var bulletCount = 0
+
+    private val gson = Gson()
+
+    private lateinit var botTick: TickEventForBot
+    private lateinit var botTickJson: String
+    private lateinit var botTickCbor: ByteBuffer
+
+    private lateinit var observerTickJson: String
+
+    /** Counts the encoded bytes, which is reported as bytes per second */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    open class ByteCounter {
+        @JvmField
+        var bytes = 0L
+
+        @Setup(Level.Iteration)
+        fun reset() {
+            bytes = 0
+        }
+    }
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        val participantIds = (1..botCount).map { ParticipantId(BotId(it)) }.toSet()
+
+        val modelUpdater =
+            ModelUpdater(ModelUpdaterBenchmark.createGameSetup(), participantIds, emptyMap(), emptyMap())
+        val intents = participantIds.associate {
+            it.botId to BotIntent(
+                targetSpeed = 8.0,
+                turnRate = random.nextDouble() * 20 - 10,
+                gunTurnRate = random.nextDouble() * 40 - 20,
+                firepower = MIN_FIREPOWER,
+                fireAssist = false,
+            )
+        }
+
+        // Advance the game until enough bullets are flying
+        var gameState: GameState
+        var turns = 0
+        do {
+            gameState = modelUpdater.update(intents)
+            val bullets = gameState.lastRound?.lastTurn?.bullets?.size ?: 0
+        } while (bullets < bulletCount && turns++ < 10_000)
+
+        val round = gameState.lastRound!!
+        val turn = round.lastTurn!!
+
+        // The bot with the most events, as a busy bot is the worst case
+        botTick = participantIds
+            .mapNotNull { TurnToTickEventForBotMapper.map(round.roundNumber, turn, it.botId, botCount - 1) }
+            .maxBy { it.events.size + it.bulletStates.size }
+        botTickJson = gson.toJson(botTick)
+        botTickCbor = Cbor.write(gson, botTick)
+
+        val participantMap = participantIds.associate {
+            it.botId to Participant().apply {
+                id = it.botId.value
+                sessionId = UUID.randomUUID().toString()
+                name = "Bot ${it.botId.value}"
+            }
+        }
+        val enemyCountMap = participantIds.associate { it.botId to botCount - 1 }
+        val observerTick = TurnToTickEventForObserverMapper
+            .map(round.roundNumber, turn, participantMap, enemyCountMap, emptyMap())
+        observerTickJson = ObserverTickWriter(gson).write(observerTick, modelUpdater.getTickScores())
+    }
+
+    @Benchmark
+    fun encodeBotTickJson(counter: ByteCounter): String =
+        gson.toJson(botTick).also { counter.bytes += it.length }
+
+    @Benchmark
+    fun encodeBotTickCbor(counter: ByteCounter): ByteBuffer =
+        Cbor.write(gson, botTick).also { counter.bytes += it.remaining() }
+
+    @Benchmark
+    fun decodeBotTickJson(): TickEventForBot =
+        gson.fromJson(gson.fromJson(botTickJson, JsonObject::class.java), TickEventForBot::class.java)
+
+    @Benchmark
+    fun decodeBotTickCbor(): TickEventForBot =
+        gson.fromJson(Cbor.read(botTickCbor.duplicate()), TickEventForBot::class.java)
+
+    @Benchmark
+    fun transcodeObserverTickCbor(counter: ByteCounter): ByteBuffer =
+        Cbor.transcode(observerTickJson).also { counter.bytes += it.remaining() }
+}
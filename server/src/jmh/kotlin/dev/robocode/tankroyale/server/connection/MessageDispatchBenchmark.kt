@@ -0,0 +1,101 @@
+package dev.robocode.tankroyale.server.connection
+
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.schema.Message
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Load test of the dispatching of incoming bot intents, where one operation is a turn in which every simulated bot
+ * sends an intent, and the turn is done when all intents have been decoded and handed to the handler.
+ *
+ * The previous dispatch submitted every message to a cached thread pool and parsed the message twice, first into a
+ * JsonObject to read the type, and then into the schema class. The new dispatch runs the messages of each client on
+ * its own lane of a [StripedExecutor] and parses the message once after sniffing the type.
+ *
+ * At 1,000 TPS a turn must be dispatched within 1 ms, which is checked with the p99 of the sample time mode, while the
+ * throughput mode reports the number of turns per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime, Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class MessageDispatchBenchmark {
+
+    @Param("200")
+    var botCount = 0
+
+    private val gson = Gson()
+
+    /** One object per simulated bot, which stands in for the socket of the bot */
+    private lateinit var clients: Array<Any>
+
+    private lateinit var intents: Array<String>
+
+    private lateinit var cachedPool: ExecutorService
+
+    private lateinit var lanes: StripedExecutor
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        clients = Array(botCount) { Any() }
+        intents = Array(botCount) {
+            gson.toJson(BotIntent().apply {
+                type = Message.Type.BOT_INTENT
+                turnRate = random.nextDouble() * 20 - 10
+                gunTurnRate = random.nextDouble() * 40 - 20
+                radarTurnRate = 45.0
+                targetSpeed = 8.0
+                firepower = 1.0
+            })
+        }
+        cachedPool = Executors.newCachedThreadPool()
+        lanes = StripedExecutor(Runtime.getRuntime().availableProcessors().coerceAtLeast(2), "BenchmarkLane")
+    }
+
+    @TearDown
+    fun tearDown() {
+        cachedPool.shutdownNow()
+        lanes.close()
+    }
+
+    @Benchmark
+    fun cachedPoolWithDoubleParse(blackhole: Blackhole) {
+        val turnDone = CountDownLatch(botCount)
+        intents.forEach { message ->
+            cachedPool.submit {
+                val type = Message.Type.fromValue(gson.fromJson(message, JsonObject::class.java)["type"].asString)
+                if (type == Message.Type.BOT_INTENT) {
+                    blackhole.consume(gson.fromJson(message, BotIntent::class.java))
+                }
+                turnDone.countDown()
+            }
+        }
+        turnDone.await()
+    }
+
+    @Benchmark
+    fun stripedLanesWithSniffedType(blackhole: Blackhole) {
+        val turnDone = CountDownLatch(botCount)
+        intents.forEachIndexed { i, message ->
+            lanes.execute(clients[i]) {
+                val type = Message.Type.fromValue(MessageTypeSniffer.sniffType(message))
+                if (type == Message.Type.BOT_INTENT) {
+                    blackhole.consume(gson.fromJson(message, BotIntent::class.java))
+                }
+                turnDone.countDown()
+            }
+        }
+        turnDone.await()
+    }
+}
@@ -0,0 +1,79 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.server.model.*
+import dev.robocode.tankroyale.server.rules.MAX_GUN_COOLING_RATE
+import dev.robocode.tankroyale.server.rules.MIN_FIREPOWER
+import org.openjdk.jmh.annotations.*
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures a full [ModelUpdater.update] turn for a melee battle with many live bullets.
+ *
+ * The bots fire with minimum firepower as fast as the gun heat allows while spinning around, and the game is advanced
+ * until the wanted number of bullets are in the air before the measurements are started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class ModelUpdaterBenchmark {
+
+    @Param("30")
+    var botCount = 0
+
+    @Param("500")
+    var bulletCount = 0
+
+    private lateinit var modelUpdater: ModelUpdater
+
+    private lateinit var intents: Map<BotId, IBotIntent>
+
+    @Setup(Level.Iteration)
+    fun setup() {
+        val random = Random(42)
+        val participantIds = (1..botCount).map { ParticipantId(BotId(it)) }.toSet()
+
+        modelUpdater = ModelUpdater(createGameSetup(), participantIds, emptyMap(), emptyMap())
+        intents = participantIds.associate {
+            it.botId to BotIntent(
+                targetSpeed = 8.0,
+                turnRate = random.nextDouble() * 20 - 10,
+                gunTurnRate = random.nextDouble() * 40 - 20,
+                firepower = MIN_FIREPOWER,
+                fireAssist = false,
+            )
+        }
+
+        // Advance the game until enough bullets are flying
+        var turns = 0
+        while (turns++ < 10_000) {
+            val bullets = modelUpdater.update(intents).lastRound?.lastTurn?.bullets?.size ?: 0
+            if (bullets >= bulletCount) break
+        }
+    }
+
+    @Benchmark
+    fun update(): GameState = modelUpdater.update(intents)
+
+    companion object {
+        fun createGameSetup() = GameSetup(
+            arenaWidth = 2000,
+            arenaHeight = 2000,
+            maxNumberOfParticipants = null,
+            numberOfRounds = 1000,
+            gunCoolingRate = MAX_GUN_COOLING_RATE,
+            isArenaWidthLocked = false,
+            isArenaHeightLocked = false,
+            isMinNumberOfParticipantsLocked = false,
+            isMaxNumberOfParticipantsLocked = false,
+            isNumberOfRoundsLocked = false,
+            isGunCoolingRateLocked = false,
+            isMaxInactivityTurnsLocked = false,
+            isTurnTimeoutLocked = false,
+            isReadyTimeoutLocked = false,
+        )
+    }
+}
@@ -0,0 +1,107 @@
+package dev.robocode.tankroyale.server.core
+
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import dev.robocode.tankroyale.schema.Participant
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.mapper.TickScoreMapper
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForObserverMapper
+import dev.robocode.tankroyale.server.model.*
+import dev.robocode.tankroyale.server.rules.MIN_FIREPOWER
+import org.openjdk.jmh.annotations.*
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares the single-pass [ObserverTickWriter] with the previous serialization of observer ticks, which serialized
+ * the tick event, parsed it back into a JSON tree to add the tick scores, and serialized it again.
+ *
+ * The `bytes` counter reports the serialized bytes per second, and the allocations per tick are reported by the `gc`
+ * profiler as `gc.alloc.rate.norm`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class ObserverTickWriterBenchmark {
+
+    @Param("50")
+    var botCount = 0
+
+    @Param("500")
+    var bulletCount = 0
+
+    private val gson = Gson()
+
+    private val tickWriter = ObserverTickWriter(gson)
+
+    private lateinit var tickEvent: TickEventForObserver
+
+    private lateinit var tickScores: List<TickScore>
+
+    /** Counts the serialized bytes, which is reported as bytes per second */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    open class ByteCounter {
+        @JvmField
+        var bytes = 0L
+
+        @Setup(Level.Iteration)
+        fun reset() {
+            bytes = 0
+        }
+    }
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        val participantIds = (1..botCount).map { ParticipantId(BotId(it)) }.toSet()
+
+        val modelUpdater =
+            ModelUpdater(ModelUpdaterBenchmark.createGameSetup(), participantIds, emptyMap(), emptyMap())
+        val intents = participantIds.associate {
+            it.botId to BotIntent(
+                targetSpeed = 8.0,
+                turnRate = random.nextDouble() * 20 - 10,
+                gunTurnRate = random.nextDouble() * 40 - 20,
+                firepower = MIN_FIREPOWER,
+                fireAssist = false,
+            )
+        }
+
+        // Advance the game until enough bullets are flying
+        var gameState: GameState
+        var turns = 0
+        do {
+            gameState = modelUpdater.update(intents)
+            val bullets = gameState.lastRound?.lastTurn?.bullets?.size ?: 0
+        } while (bullets < bulletCount && turns++ < 10_000)
+
+        val participantMap = participantIds.associate {
+            it.botId to Participant().apply {
+                id = it.botId.value
+                sessionId = UUID.randomUUID().toString()
+                name = "Bot ${it.botId.value}"
+            }
+        }
+        val enemyCountMap = participantIds.associate { it.botId to botCount - 1 }
+
+        val round = gameState.lastRound!!
+        tickEvent = TurnToTickEventForObserverMapper
+            .map(round.roundNumber, round.lastTurn!!, participantMap, enemyCountMap, emptyMap())
+        tickScores = modelUpdater.getTickScores()
+    }
+
+    @Benchmark
+    fun roundTrip(counter: ByteCounter): String {
+        val jsonObject = gson.fromJson(gson.toJson(tickEvent), JsonObject::class.java)
+        jsonObject.add("tickScores", TickScoreMapper.mapToJson(tickScores))
+        return jsonObject.toString().also { counter.bytes += it.length }
+    }
+
+    @Benchmark
+    fun singlePass(counter: ByteCounter): String =
+        tickWriter.write(tickEvent, tickScores).also { counter.bytes += it.length }
+}
@@ -0,0 +1,64 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.server.model.*
+import org.openjdk.jmh.annotations.*
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures how a full [ModelUpdater.update] turn scales with the number of threads running the per-bot phases of the
+ * turn, for a large battle where all bots move, scan and fire. A thread count of 1 runs all phases on the caller
+ * without a [TurnPhaseExecutor], which is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class TurnPhaseExecutorBenchmark {
+
+    @Param("1", "2", "4", "8", "16")
+    var threads = 0
+
+    @Param("200")
+    var botCount = 0
+
+    private var executor: TurnPhaseExecutor? = null
+
+    private lateinit var modelUpdater: ModelUpdater
+
+    private lateinit var intents: Map<BotId, IBotIntent>
+
+    @Setup(Level.Iteration)
+    fun setup() {
+        val random = Random(42)
+        val participantIds = (1..botCount).map { ParticipantId(BotId(it)) }.toSet()
+
+        executor = if (threads > 1) TurnPhaseExecutor(threads) else null
+        modelUpdater = ModelUpdater(
+            ModelUpdaterBenchmark.createGameSetup(), participantIds, emptyMap(), emptyMap(), phaseExecutor = executor
+        )
+        intents = participantIds.associate {
+            it.botId to BotIntent(
+                targetSpeed = 8.0,
+                turnRate = random.nextDouble() * 20 - 10,
+                gunTurnRate = random.nextDouble() * 40 - 20,
+                radarTurnRate = 45.0,
+                firepower = 1.0,
+                fireAssist = false,
+            )
+        }
+
+        // Let the bullets fill the arena before measuring
+        repeat(100) { modelUpdater.update(intents) }
+    }
+
+    @TearDown(Level.Iteration)
+    fun tearDown() {
+        executor?.close()
+    }
+
+    @Benchmark
+    fun update(): GameState = modelUpdater.update(intents)
+}
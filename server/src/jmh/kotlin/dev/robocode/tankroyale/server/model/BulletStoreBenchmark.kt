@@ -0,0 +1,92 @@
+package dev.robocode.tankroyale.server.model
+
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares the [BulletStore] with the set of mutable bullets previously kept by the ModelUpdater, when running the
+ * bullet phases of a turn: each bullet is moved, its line segment from the current to the next position is read, and
+ * a few bullets are removed and replaced by newly fired bullets. Run with the gc profiler, where the store must only
+ * allocate the start positions of the fired bullets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class BulletStoreBenchmark {
+
+    @Param("100", "1000")
+    var bulletCount = 0
+
+    private lateinit var directions: DoubleArray
+    private lateinit var startPositions: Array<Point>
+
+    private val bulletSet = mutableSetOf<MutableBullet>()
+    private val bulletStore = BulletStore()
+
+    private var nextBulletId = 0
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        directions = DoubleArray(bulletCount) { random.nextDouble() * 360 }
+        startPositions = Array(bulletCount) { Point(random.nextDouble() * 1200, random.nextDouble() * 1200) }
+
+        for (i in 0 until bulletCount) {
+            val id = BulletId(++nextBulletId)
+            bulletSet += MutableBullet(id, BotId(1), 1.0, directions[i], null, startPositions[i])
+            bulletStore.add(id, BotId(1), 1.0, directions[i], null, startPositions[i])
+        }
+    }
+
+    @Benchmark
+    fun bulletSet(blackhole: Blackhole) {
+        bulletSet.forEach { it.incrementTick() }
+
+        var removed = 0
+        val iterator = bulletSet.iterator()
+        while (iterator.hasNext()) {
+            val bullet = iterator.next()
+            blackhole.consume(bullet.x() + bullet.y() + bullet.x(bullet.tick + 1) + bullet.y(bullet.tick + 1))
+            if (bullet.id.value % REPLACE_EVERY == nextBulletId % REPLACE_EVERY) {
+                iterator.remove()
+                removed++
+            }
+        }
+        repeat(removed) {
+            val i = nextBulletId % bulletCount
+            bulletSet += MutableBullet(BulletId(++nextBulletId), BotId(1), 1.0, directions[i], null, startPositions[i])
+        }
+    }
+
+    @Benchmark
+    fun bulletStore(blackhole: Blackhole) {
+        bulletStore.incrementTicks()
+
+        var removed = 0
+        for (k in 0 until bulletStore.size) {
+            val slot = bulletStore.slotAt(k)
+            blackhole.consume(
+                bulletStore.x(slot) + bulletStore.y(slot) + bulletStore.nextX(slot) + bulletStore.nextY(slot)
+            )
+            if (k % REPLACE_EVERY == nextBulletId % REPLACE_EVERY) {
+                bulletStore.remove(slot)
+                removed++
+            }
+        }
+        bulletStore.compact()
+        repeat(removed) {
+            val i = nextBulletId % bulletCount
+            bulletStore.add(BulletId(++nextBulletId), BotId(1), 1.0, directions[i], null, startPositions[i])
+        }
+    }
+
+    private companion object {
+        /** One of this many bullets is replaced per turn */
+        const val REPLACE_EVERY = 50
+    }
+}
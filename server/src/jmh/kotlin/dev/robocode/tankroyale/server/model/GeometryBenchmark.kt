@@ -0,0 +1,107 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_RADIUS
+import dev.robocode.tankroyale.server.rules.RADAR_RADIUS
+import dev.robocode.tankroyale.server.util.WallConfig
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures each primitive of the geometry kernel over a batch of random inputs, so a regression of a single primitive
+ * is visible. Run with the gc profiler, where the kernel benchmarks must not allocate, which is compared against the
+ * line-circle check taking a newly created [Line] as done before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class GeometryBenchmark {
+
+    @Param("1000")
+    var batchSize = 0
+
+    private lateinit var x1: DoubleArray
+    private lateinit var y1: DoubleArray
+    private lateinit var x2: DoubleArray
+    private lateinit var y2: DoubleArray
+    private lateinit var angles: DoubleArray
+    private lateinit var walls: Array<Wall>
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        x1 = DoubleArray(batchSize) { random.nextDouble() * 1200 }
+        y1 = DoubleArray(batchSize) { random.nextDouble() * 1200 }
+        angles = DoubleArray(batchSize) { random.nextDouble() * 360 }
+        // Segments of bullet length
+        x2 = DoubleArray(batchSize) { x1[it] + Math.cos(Math.toRadians(angles[it])) * 17 }
+        y2 = DoubleArray(batchSize) { y1[it] + Math.sin(Math.toRadians(angles[it])) * 17 }
+
+        val mapWalls = WallConfig.MAP4_WALLS
+        walls = Array(batchSize) { mapWalls[it % mapWalls.size] }
+    }
+
+    @Benchmark
+    fun pointInsideCircle(blackhole: Blackhole) {
+        for (i in 0 until batchSize) {
+            blackhole.consume(isPointInsideCircle(x1[i], y1[i], 600.0, 600.0, 300.0))
+        }
+    }
+
+    @Benchmark
+    fun lineIntersectingCircle(blackhole: Blackhole) {
+        for (i in 0 until batchSize) {
+            blackhole.consume(
+                isLineIntersectingCircle(x1[i], y1[i], x2[i], y2[i], 600.0, 600.0, BOT_BOUNDING_CIRCLE_RADIUS)
+            )
+        }
+    }
+
+    @Benchmark
+    fun lineIntersectingCircleWithObjects(blackhole: Blackhole) {
+        val center = Point(600.0, 600.0)
+        for (i in 0 until batchSize) {
+            blackhole.consume(
+                isLineIntersectingCircle(Line(x1[i], y1[i], x2[i], y2[i]), center, BOT_BOUNDING_CIRCLE_RADIUS)
+            )
+        }
+    }
+
+    @Benchmark
+    fun lineIntersectingLine(blackhole: Blackhole) {
+        for (i in 1 until batchSize) {
+            blackhole.consume(
+                isLineIntersectingLine(x1[i], y1[i], x2[i], y2[i], x1[i - 1], y1[i - 1], x2[i - 1], y2[i - 1])
+            )
+        }
+    }
+
+    @Benchmark
+    fun circleIntersectingCircleSector(blackhole: Blackhole) {
+        for (i in 0 until batchSize) {
+            blackhole.consume(
+                isCircleIntersectingCircleSector(
+                    x1[i], y1[i], BOT_BOUNDING_CIRCLE_RADIUS, 600.0, 600.0, RADAR_RADIUS, angles[i], angles[i] + 45
+                )
+            )
+        }
+    }
+
+    @Benchmark
+    fun wallIntersectingLine(blackhole: Blackhole) {
+        for (i in 0 until batchSize) {
+            blackhole.consume(walls[i].intersects(x1[i], y1[i], x2[i], y2[i]))
+        }
+    }
+
+    @Benchmark
+    fun wallIntersectingCircle(blackhole: Blackhole) {
+        for (i in 0 until batchSize) {
+            blackhole.consume(walls[i].intersectsCircle(x1[i], y1[i], BOT_BOUNDING_CIRCLE_RADIUS))
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_RADIUS
+import dev.robocode.tankroyale.server.rules.RADAR_RADIUS
+import dev.robocode.tankroyale.server.util.WallConfig
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares the [RadarSweep] with the scan previously done by the ModelUpdater, when all bots scan a 45 degrees radar
+ * sector in a single turn on the 60-wall MAP4 map. A turn must be scanned within 1 ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class RadarSweepBenchmark {
+
+    @Param("50")
+    var botCount = 0
+
+    private val walls = WallConfig.MAP4_WALLS
+
+    private lateinit var botPositions: Array<Point>
+    private lateinit var radarDirections: DoubleArray
+
+    private lateinit var wallIndex: WallIndex
+    private lateinit var query: WallIndex.Query
+    private lateinit var radarSweep: RadarSweep
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        botPositions = Array(botCount) { Point(random.nextDouble() * 1200, random.nextDouble() * 1200) }
+        radarDirections = DoubleArray(botCount) { random.nextDouble() * 360 }
+
+        wallIndex = WallIndex(walls, 1200, 1200)
+        query = wallIndex.newQuery()
+        radarSweep = RadarSweep(wallIndex, 1200, 1200)
+    }
+
+    @Benchmark
+    fun legacyScan(blackhole: Blackhole) {
+        for (i in botPositions.indices) {
+            val startAngle = normalizeAbsoluteDegrees(radarDirections[i] - 45)
+            legacyScan(i, startAngle, radarDirections[i], blackhole)
+        }
+    }
+
+    @Benchmark
+    fun radarSweep(blackhole: Blackhole) {
+        radarSweep.clear()
+        botPositions.forEach { radarSweep.addBot(it.x, it.y) }
+        radarSweep.build()
+
+        for (i in botPositions.indices) {
+            val startAngle = normalizeAbsoluteDegrees(radarDirections[i] - 45)
+            val count = radarSweep.scan(i, startAngle, radarDirections[i])
+            for (k in 0 until count) {
+                blackhole.consume(if (radarSweep.isWall(k)) radarSweep.wallAt(k) else radarSweep.botAt(k))
+            }
+        }
+    }
+
+    /** The scan previously done by the ModelUpdater for a single bot, kept here as the baseline. */
+    private fun legacyScan(scanner: Int, startAngle: Double, endAngle: Double, blackhole: Blackhole) {
+        val position = botPositions[scanner]
+        val scannedObjects = mutableListOf<Pair<Any, Double>>()
+
+        val wallCount = query.near(position.x, position.y, RADAR_RADIUS)
+        for (i in 0 until wallCount) {
+            val wall = query[i]
+            if (isCircleIntersectingCircleSector(
+                    wall.position(), wall.boundsRadius, position, RADAR_RADIUS, startAngle, endAngle
+                )
+            ) {
+                val distance = (position.distanceTo(wall.position()) - wall.boundsRadius).coerceAtLeast(0.0)
+                scannedObjects += wall to distance
+            }
+        }
+        for (j in botPositions.indices) {
+            if (j == scanner) continue
+            val other = botPositions[j]
+            if (isCircleIntersectingCircleSector(
+                    other, BOT_BOUNDING_CIRCLE_RADIUS, position, RADAR_RADIUS, startAngle, endAngle
+                )
+            ) {
+                scannedObjects += other to position.distanceTo(other)
+            }
+        }
+        scannedObjects.sortBy { it.second }
+
+        val visibleOccluders = mutableListOf<Wall>()
+        scannedObjects.forEach { (scannedObject, _) ->
+            val center = if (scannedObject is Wall) scannedObject.position() else scannedObject as Point
+            val lineOfSight = Line(position, center)
+            if (visibleOccluders.none { it.intersects(lineOfSight) }) {
+                blackhole.consume(scannedObject)
+                if (scannedObject is Wall) visibleOccluders += scannedObject
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.event.BotDeathEvent
+import dev.robocode.tankroyale.server.event.Event
+import dev.robocode.tankroyale.server.event.ScannedBotEvent
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares the [MutableTurnEvents] log with the map of event sets per bot previously kept by the MutableTurn, when
+ * running the event bookkeeping of a busy turn: each bot scans a few other bots, one bot dies, which is sent to all
+ * bots, the turn is copied for the round history, and the events of each bot are read for its tick event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class TurnEventsBenchmark {
+
+    @Param("10", "100", "500")
+    var botCount = 0
+
+    private lateinit var bots: List<IBot>
+    private lateinit var scanEvents: List<ScannedBotEvent>
+
+    private val botEventSets = mutableMapOf<BotId, MutableSet<Event>>()
+    private val observerEventSet = mutableSetOf<Event>()
+
+    private val turnEvents = MutableTurnEvents()
+
+    @Setup
+    fun setup() {
+        bots = (1..botCount).map {
+            Bot(
+                id = BotId(it), sessionId = null, position = Point(0.0, 0.0), direction = 0.0, gunDirection = 0.0,
+                radarDirection = 0.0
+            )
+        }
+        scanEvents = (1..botCount).flatMap { scanner ->
+            (1..SCANS_PER_BOT).map { i ->
+                val scanned = (scanner + i) % botCount + 1
+                ScannedBotEvent(1, BotId(scanner), BotId(scanned), 100.0, 0.0, 0.0, 0.0, 0.0)
+            }
+        }
+    }
+
+    @Benchmark
+    fun eventSets(blackhole: Blackhole) {
+        botEventSets.clear()
+        observerEventSet.clear()
+
+        scanEvents.forEach {
+            botEventSets.getOrPut(it.scannedByBotId) { LinkedHashSet() }.add(it)
+            observerEventSet += it
+        }
+        val deathEvent = BotDeathEvent(1, BotId(1))
+        bots.forEach { botEventSets.getOrPut(it.id) { LinkedHashSet() }.add(deathEvent) }
+        observerEventSet += deathEvent
+
+        val copy = botEventSets.mapValues { (_, events) -> events.toSet() }
+        val observerCopy = observerEventSet.toSet()
+        bots.forEach { bot -> copy[bot.id]?.forEach { blackhole.consume(it) } }
+        blackhole.consume(observerCopy)
+    }
+
+    @Benchmark
+    fun eventLog(blackhole: Blackhole) {
+        turnEvents.clear()
+
+        scanEvents.forEach {
+            turnEvents.addPrivateBotEvent(it.scannedByBotId, it)
+            turnEvents.addObserverEvent(it)
+        }
+        val deathEvent = BotDeathEvent(1, BotId(1))
+        turnEvents.addPublicBotEvent(bots, deathEvent)
+        turnEvents.addObserverEvent(deathEvent)
+
+        val copy = turnEvents.toTurnEvents()
+        bots.forEach { bot -> copy.botEvents(bot.id).forEach { blackhole.consume(it) } }
+        blackhole.consume(copy.observerEvents)
+    }
+
+    private companion object {
+        const val SCANS_PER_BOT = 3
+    }
+}
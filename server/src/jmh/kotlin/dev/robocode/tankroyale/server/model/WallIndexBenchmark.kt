@@ -0,0 +1,113 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_RADIUS
+import dev.robocode.tankroyale.server.util.WallConfig
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.*
+import java.util.concurrent.TimeUnit
+import kotlin.math.ceil
+import kotlin.math.floor
+
+/**
+ * Compares the static [WallIndex] with the spatial partition that was rebuilt every turn, when running the bot-wall
+ * and bullet-wall passes of a single turn on the 60-wall MAP4 map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class WallIndexBenchmark {
+
+    @Param("30")
+    var botCount = 0
+
+    @Param("300")
+    var bulletCount = 0
+
+    private val walls = WallConfig.MAP4_WALLS
+
+    private lateinit var botPositions: Array<Point>
+    private lateinit var bulletLines: Array<Line>
+
+    private lateinit var wallIndex: WallIndex
+    private lateinit var query: WallIndex.Query
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        botPositions = Array(botCount) { Point(random.nextDouble() * 1200, random.nextDouble() * 1200) }
+        bulletLines = Array(bulletCount) {
+            val x = random.nextDouble() * 1200
+            val y = random.nextDouble() * 1200
+            val angle = random.nextDouble() * 2 * Math.PI
+            Line(x, y, x + Math.cos(angle) * 17, y + Math.sin(angle) * 17)
+        }
+        wallIndex = WallIndex(walls, 1200, 1200)
+        query = wallIndex.newQuery()
+    }
+
+    @Benchmark
+    fun perTurnRebuild(blackhole: Blackhole) {
+        val botPartition = LegacySpatialPartition(walls, 20.0)
+        val maxBoundsRadius = walls.maxOf { it.boundsRadius }
+        for (position in botPositions) {
+            for (wall in botPartition.getWallsNear(position, BOT_BOUNDING_CIRCLE_RADIUS + maxBoundsRadius)) {
+                blackhole.consume(wall.intersectsCircle(position, BOT_BOUNDING_CIRCLE_RADIUS))
+            }
+        }
+        val bulletPartition = LegacySpatialPartition(walls, 100.0)
+        for (line in bulletLines) {
+            for (wall in bulletPartition.getWallsNear(line.end, line.start.distanceTo(line.end))) {
+                blackhole.consume(wall.intersects(line))
+            }
+        }
+    }
+
+    @Benchmark
+    fun staticIndex(blackhole: Blackhole) {
+        for (position in botPositions) {
+            val count = query.near(position.x, position.y, BOT_BOUNDING_CIRCLE_RADIUS)
+            for (i in 0 until count) {
+                blackhole.consume(query[i].intersectsCircle(position, BOT_BOUNDING_CIRCLE_RADIUS))
+            }
+        }
+        for (line in bulletLines) {
+            val count = query.alongSegment(line.start.x, line.start.y, line.end.x, line.end.y)
+            for (i in 0 until count) {
+                blackhole.consume(query[i].intersects(line))
+            }
+        }
+    }
+
+    @Benchmark
+    fun buildStaticIndex(): WallIndex = WallIndex(walls, 1200, 1200)
+
+    /** The spatial partition previously created by the ModelUpdater every turn, kept here as the baseline. */
+    private class LegacySpatialPartition(walls: List<Wall>, private val gridSize: Double) {
+        private val grid = mutableMapOf<Pair<Int, Int>, MutableList<Wall>>()
+
+        init {
+            walls.forEach { wall ->
+                val r = wall.boundsRadius
+                for (x in floor((wall.x - r) / gridSize).toInt()..ceil((wall.x + r) / gridSize).toInt()) {
+                    for (y in floor((wall.y - r) / gridSize).toInt()..ceil((wall.y + r) / gridSize).toInt()) {
+                        grid.getOrPut(Pair(x, y)) { mutableListOf() }.add(wall)
+                    }
+                }
+            }
+        }
+
+        fun getWallsNear(point: Point, radius: Double): List<Wall> {
+            val result = mutableSetOf<Wall>()
+            for (x in floor((point.x - radius) / gridSize).toInt()..ceil((point.x + radius) / gridSize).toInt()) {
+                for (y in floor((point.y - radius) / gridSize).toInt()..ceil((point.y + radius) / gridSize).toInt()) {
+                    grid[Pair(x, y)]?.let { result.addAll(it) }
+                }
+            }
+            return result.toList()
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package dev.robocode.tankroyale.server
 
+import dev.robocode.tankroyale.server.connection.SlowConsumerPolicy
 import dev.robocode.tankroyale.server.core.GameServer
+import dev.robocode.tankroyale.server.rules.ALL_TURNS
 import dev.robocode.tankroyale.server.rules.DEFAULT_GAME_TYPE
+import dev.robocode.tankroyale.server.rules.DEFAULT_TURN_HISTORY
 import dev.robocode.tankroyale.server.rules.DEFAULT_TURNS_PER_SECOND
 import dev.robocode.tankroyale.server.util.VersionFileProvider
 import org.slf4j.LoggerFactory
 import picocli.CommandLine
 import picocli.CommandLine.*
 import picocli.CommandLine.Model.CommandSpec
+import java.io.File
 import java.nio.channels.ServerSocketChannel
 import java.util.*
 import kotlin.system.exitProcess
 
 private const val DEFAULT_PORT: Int = 7654
+private const val DEFAULT_OBSERVER_QUEUE_SIZE: Int = 64
 
 fun main(args: Array<String>) {
     Server.cmdLine.apply {
@@ -105,6 +110,81 @@ class Server : Runnable {
         )
         var tps: Int = DEFAULT_TURNS_PER_SECOND
 
+        @Option(
+            names = ["--max-speed"],
+            description = ["Run each turn as soon as all alive bots have sent their intent, falling back to the turn timeout for slow bots. The TPS is ignored, except 0 for pausing the game (default: false)."]
+        )
+        var maxSpeed = false
+
+        @Option(
+            names = ["--turn-threads"],
+            type = [Int::class],
+            description = ["Number of threads running the per-bot phases of each turn in parallel (default: 1). More threads only pay off for battles with many bots."]
+        )
+        var turnThreads: Int = 1
+
+        @Option(
+            names = ["--seed"],
+            type = [Long::class],
+            description = ["Seed of the random generator of each game, so games with the same bots and intents are reproduced exactly. A random seed is used per game if omitted."]
+        )
+        var seed: Long? = null
+
+        @Option(
+            names = ["--turn-history"],
+            type = [Int::class],
+            description = ["Number of turns kept in memory for the current game (default: $DEFAULT_TURN_HISTORY), where $ALL_TURNS means that all turns of the game are kept."]
+        )
+        var turnHistory: Int = DEFAULT_TURN_HISTORY
+
+        @Option(
+            names = ["--tick-score-interval"],
+            type = [Int::class],
+            description = ["Minimum number of turns between tick scores sent to observers (default: 1). Tick scores are only sent when they have changed, where the interval does not apply to the first and last turn of a round."]
+        )
+        var tickScoreInterval: Int = 1
+
+        @Option(
+            names = ["--tick-keyframe-interval"],
+            type = [Int::class],
+            description = ["Number of turns between full ticks sent to observers that enabled tick deltas (default: 100). The ticks in between only contain the changes since the previous tick."]
+        )
+        var tickKeyframeInterval: Int = 100
+
+        @Option(
+            names = ["--record-dir"],
+            type = [String::class],
+            description = ["Directory where the full history of each game is recorded as a gzipped battle file. No recording is made if omitted."]
+        )
+        var recordDir: String? = null
+
+        @Option(
+            names = ["--observer-queue-size"],
+            type = [Int::class],
+            description = ["Maximum number of pending messages per observer and controller (default: $DEFAULT_OBSERVER_QUEUE_SIZE)"]
+        )
+        var observerQueueSize: Int = DEFAULT_OBSERVER_QUEUE_SIZE
+
+        @Option(
+            names = ["--slow-observer-policy"],
+            description = ["Policy for observers and controllers that cannot keep up: \${COMPLETION-CANDIDATES} (default: \${DEFAULT-VALUE})"]
+        )
+        var slowObserverPolicy: SlowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST
+
+        @Option(
+            names = ["--metrics-port"],
+            type = [Int::class],
+            description = ["Port number of a local HTTP listener serving the turn metrics in the Prometheus text format at /metrics, like the turn phase timings and the intent latencies and skipped turns per bot. No metrics are served if omitted."]
+        )
+        var metricsPort: Int? = null
+
+        @Option(
+            names = ["--metrics-log-interval"],
+            type = [Int::class],
+            description = ["Number of seconds between summaries of the turn metrics logged while a game is running (default: 0), where 0 means that no summaries are logged."]
+        )
+        var metricsLogInterval: Int = 0
+
         val cmdLine = CommandLine(Server())
 
         private fun getInheritedPort(): Int {
@@ -126,6 +206,7 @@ class Server : Runnable {
     override fun run() {
         handleCommandLineOptions()
         validatePort()
+        validateRecordDir()
         startExitInputMonitorThread()
         startGameServer()
     }
@@ -180,6 +261,15 @@ class Server : Runnable {
         )
     }
 
+    private fun validateRecordDir() {
+        val dir = File(recordDir ?: return)
+        dir.mkdirs()
+        if (!dir.isDirectory || !dir.canWrite()) {
+            System.err.println("Record directory must be a writable directory: ${dir.absolutePath}")
+            exitProcess(1) // general error
+        }
+    }
+
     private fun startExitInputMonitorThread() {
         // When inheriting a channel, it is passed as FD3, i.e. stdin. In this case, it does not
         // make sense to monitor for an exit command.
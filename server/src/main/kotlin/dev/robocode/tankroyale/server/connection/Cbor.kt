@@ -0,0 +1,40 @@
+package dev.robocode.tankroyale.server.connection
+
+import com.google.gson.Gson
+import com.google.gson.JsonElement
+import com.google.gson.stream.JsonReader
+import dev.robocode.tankroyale.common.cbor.CborReader
+import java.io.StringReader
+import java.nio.ByteBuffer
+
+/**
+ * Encodes and decodes messages as CBOR (RFC 8949) for clients that enabled CBOR in their handshake. The CBOR messages
+ * have the same data model as the JSON messages, so the same message classes are used for both.
+ */
+object Cbor {
+
+    /**
+     * Encodes a message object directly into CBOR.
+     * @param gson is the Gson instance used for serializing the message.
+     * @param message is the message to encode.
+     * @return the CBOR bytes of the message.
+     */
+    fun write(gson: Gson, message: Any): ByteBuffer =
+        CborWriter().apply { gson.toJson(message, message.javaClass, this) }.toByteBuffer()
+
+    /**
+     * Transcodes a JSON message into CBOR, which is used for messages that have already been serialized as JSON.
+     * @param json is the JSON message.
+     * @return the CBOR bytes of the message.
+     */
+    fun transcode(json: String): ByteBuffer =
+        CborWriter().apply { transcode(JsonReader(StringReader(json))) }.toByteBuffer()
+
+    /**
+     * Decodes a CBOR message into a JSON tree.
+     * @param bytes is the CBOR bytes of the message.
+     * @return the JSON tree of the message.
+     * @throws IllegalArgumentException if the CBOR is not supported, malformed, or nested too deep.
+     */
+    fun read(bytes: ByteBuffer): JsonElement = CborReader(bytes, GsonCborTreeBuilder).read()
+}
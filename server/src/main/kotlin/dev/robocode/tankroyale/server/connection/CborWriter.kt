@@ -0,0 +1,283 @@
+package dev.robocode.tankroyale.server.connection
+
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import com.google.gson.stream.JsonWriter
+import java.io.StringReader
+import java.io.Writer
+import java.nio.ByteBuffer
+
+/**
+ * JSON writer that writes CBOR (RFC 8949) instead of JSON text, so Gson can stream any message directly into CBOR
+ * without building a JSON tree or text first.
+ *
+ * Objects and arrays are written with indefinite length, as their sizes are not known up front. Numbers with an
+ * integral value are written as integers, and other numbers as single-precision floats if no precision is lost, and
+ * as double-precision floats otherwise. Like with [JsonWriter], a name followed by a null value is left out unless
+ * nulls are serialized.
+ */
+class CborWriter : JsonWriter(Writer.nullWriter()) {
+
+    private var bytes = ByteArray(INITIAL_CAPACITY)
+    private var size = 0
+
+    /** Name waiting for its value, which is left out if the value is a null that is not serialized */
+    private var deferredName: String? = null
+
+    /** Returns a buffer with a copy of the bytes written. */
+    fun toByteBuffer(): ByteBuffer = ByteBuffer.wrap(bytes.copyOf(size))
+
+    /** Number of bytes written */
+    val byteCount: Int get() = size
+
+    override fun beginObject(): JsonWriter {
+        writeDeferredName()
+        writeByte(INDEFINITE_MAP)
+        return this
+    }
+
+    override fun endObject(): JsonWriter {
+        check(deferredName == null) { "Dangling name: $deferredName" }
+        writeByte(BREAK)
+        return this
+    }
+
+    override fun beginArray(): JsonWriter {
+        writeDeferredName()
+        writeByte(INDEFINITE_ARRAY)
+        return this
+    }
+
+    override fun endArray(): JsonWriter {
+        writeByte(BREAK)
+        return this
+    }
+
+    override fun name(name: String): JsonWriter {
+        check(deferredName == null) { "Name already written: $deferredName" }
+        deferredName = name
+        return this
+    }
+
+    override fun value(value: String?): JsonWriter {
+        if (value == null) return nullValue()
+        writeDeferredName()
+        writeText(value)
+        return this
+    }
+
+    override fun jsonValue(value: String?): JsonWriter {
+        if (value == null) return nullValue()
+        writeDeferredName()
+        transcode(JsonReader(StringReader(value)))
+        return this
+    }
+
+    override fun nullValue(): JsonWriter {
+        if (deferredName != null) {
+            if (!serializeNulls) {
+                deferredName = null // the name is left out together with the null value
+                return this
+            }
+            writeDeferredName()
+        }
+        writeByte(NULL)
+        return this
+    }
+
+    override fun value(value: Boolean): JsonWriter {
+        writeDeferredName()
+        writeByte(if (value) TRUE else FALSE)
+        return this
+    }
+
+    override fun value(value: Boolean?): JsonWriter {
+        if (value == null) return nullValue()
+        writeDeferredName()
+        writeByte(if (value) TRUE else FALSE)
+        return this
+    }
+
+    override fun value(value: Float): JsonWriter {
+        writeDeferredName()
+        writeDouble(value.toDouble())
+        return this
+    }
+
+    override fun value(value: Double): JsonWriter {
+        writeDeferredName()
+        writeDouble(value)
+        return this
+    }
+
+    override fun value(value: Long): JsonWriter {
+        writeDeferredName()
+        writeInteger(value)
+        return this
+    }
+
+    override fun value(value: Number?): JsonWriter {
+        if (value == null) return nullValue()
+        writeDeferredName()
+        when (value) {
+            is Double, is Float -> writeDouble(value.toDouble())
+            is Long, is Int, is Short, is Byte -> writeInteger(value.toLong())
+            else -> writeNumber(value.toString()) // e.g. BigDecimal and Gson's lazily parsed numbers
+        }
+        return this
+    }
+
+    override fun flush() {}
+
+    override fun close() {}
+
+    /** Transcodes JSON read from a reader into CBOR. */
+    fun transcode(reader: JsonReader) {
+        when (reader.peek()) {
+            JsonToken.BEGIN_OBJECT -> {
+                reader.beginObject()
+                beginObject()
+                while (reader.hasNext()) {
+                    name(reader.nextName())
+                    transcode(reader)
+                }
+                reader.endObject()
+                endObject()
+            }
+
+            JsonToken.BEGIN_ARRAY -> {
+                reader.beginArray()
+                beginArray()
+                while (reader.hasNext()) {
+                    transcode(reader)
+                }
+                reader.endArray()
+                endArray()
+            }
+
+            JsonToken.STRING -> value(reader.nextString())
+            JsonToken.NUMBER -> {
+                writeDeferredName()
+                writeNumber(reader.nextString())
+            }
+
+            JsonToken.BOOLEAN -> value(reader.nextBoolean())
+            JsonToken.NULL -> {
+                reader.nextNull()
+                writeDeferredName() // nulls of the JSON are kept
+                writeByte(NULL)
+            }
+
+            else -> throw IllegalStateException("Unexpected JSON token: ${reader.peek()}")
+        }
+    }
+
+    private fun writeDeferredName() {
+        deferredName?.let {
+            deferredName = null
+            writeText(it)
+        }
+    }
+
+    private fun writeNumber(number: String) {
+        val long = number.toLongOrNull()
+        if (long != null) writeInteger(long) else writeDouble(number.toDouble())
+    }
+
+    private fun writeDouble(value: Double) {
+        val long = value.toLong()
+        when {
+            // Integral values are written as integers, except for negative zero, which is not an integer in CBOR
+            long.toDouble() == value && long in -MAX_EXACT_LONG..MAX_EXACT_LONG && !(long == 0L && 1.0 / value < 0) ->
+                writeInteger(long)
+
+            value.toFloat().toDouble() == value || value.isNaN() -> {
+                writeByte(FLOAT32)
+                writeBits(value.toFloat().toRawBits().toLong(), 4)
+            }
+
+            else -> {
+                writeByte(FLOAT64)
+                writeBits(value.toRawBits(), 8)
+            }
+        }
+    }
+
+    private fun writeInteger(value: Long) {
+        if (value >= 0) writeHead(MAJOR_UNSIGNED, value) else writeHead(MAJOR_NEGATIVE, -1 - value)
+    }
+
+    private fun writeText(value: String) {
+        val utf8 = value.toByteArray(Charsets.UTF_8)
+        writeHead(MAJOR_TEXT, utf8.size.toLong())
+        ensureCapacity(utf8.size)
+        System.arraycopy(utf8, 0, bytes, size, utf8.size)
+        size += utf8.size
+    }
+
+    /** Writes the initial byte of a data item with its argument, which is a value or length. */
+    private fun writeHead(majorType: Int, argument: Long) {
+        val major = majorType shl 5
+        when {
+            argument < 24 -> writeByte(major or argument.toInt())
+            argument <= 0xFF -> {
+                writeByte(major or 24)
+                writeBits(argument, 1)
+            }
+
+            argument <= 0xFFFF -> {
+                writeByte(major or 25)
+                writeBits(argument, 2)
+            }
+
+            argument <= 0xFFFFFFFFL -> {
+                writeByte(major or 26)
+                writeBits(argument, 4)
+            }
+
+            else -> {
+                writeByte(major or 27)
+                writeBits(argument, 8)
+            }
+        }
+    }
+
+    /** Writes the lowest bytes of a value in big-endian order. */
+    private fun writeBits(value: Long, byteCount: Int) {
+        ensureCapacity(byteCount)
+        for (i in byteCount - 1 downTo 0) {
+            bytes[size++] = (value ushr (i * 8)).toByte()
+        }
+    }
+
+    private fun writeByte(value: Int) {
+        ensureCapacity(1)
+        bytes[size++] = value.toByte()
+    }
+
+    private fun ensureCapacity(count: Int) {
+        if (size + count > bytes.size) {
+            bytes = bytes.copyOf(maxOf(bytes.size * 2, size + count))
+        }
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 256
+
+        /** Largest integral value of a double that is written as an integer, where all smaller values are exact */
+        const val MAX_EXACT_LONG = 1L shl 53
+
+        const val MAJOR_UNSIGNED = 0
+        const val MAJOR_NEGATIVE = 1
+        const val MAJOR_TEXT = 3
+
+        const val INDEFINITE_ARRAY = 0x9F
+        const val INDEFINITE_MAP = 0xBF
+        const val FALSE = 0xF4
+        const val TRUE = 0xF5
+        const val NULL = 0xF6
+        const val FLOAT32 = 0xFA
+        const val FLOAT64 = 0xFB
+        const val BREAK = 0xFF
+    }
+}
@@ -1,6 +1,5 @@
 package dev.robocode.tankroyale.server.connection
 
-import com.google.gson.Gson
 import com.google.gson.JsonObject
 import com.google.gson.JsonSyntaxException
 import dev.robocode.tankroyale.common.util.Version
@@ -30,6 +29,8 @@ class ClientWebSocketsHandler(
     companion object {
         private const val MISSING_SESSION_ID = "Missing session id"
         private const val INVALID_SECRET = "Invalid secret"
+
+        private val MESSAGE_LANE_COUNT = Runtime.getRuntime().availableProcessors().coerceAtLeast(2)
     }
 
     private val log = LoggerFactory.getLogger(this::class.java)
@@ -40,6 +41,12 @@ class ClientWebSocketsHandler(
     private val observerSockets = ConcurrentHashMap.newKeySet<WebSocket>()
     private val controllerSockets = ConcurrentHashMap.newKeySet<WebSocket>()
 
+    /** Observer and controller sockets that enabled tick deltas in their handshake */
+    private val tickDeltaSockets = ConcurrentHashMap.newKeySet<WebSocket>()
+
+    /** Sockets that enabled CBOR in their handshake, which exchange binary messages instead of JSON text */
+    private val cborSockets = ConcurrentHashMap.newKeySet<WebSocket>()
+
     private val sessionIds = ConcurrentHashMap<WebSocket, String /* sessionId */>()
 
     private val botHandshakes = ConcurrentHashMap<WebSocket, BotHandshake>()
@@ -48,11 +55,15 @@ class ClientWebSocketsHandler(
 
     private val executorService = Executors.newCachedThreadPool()
 
-    private val gson = Gson()
+    /** Lanes for handling incoming messages, where each client is assigned to one lane */
+    private val messageLanes = StripedExecutor(MESSAGE_LANE_COUNT, "ClientMessageLane")
+
+    private val gson = MessageTypeFirstAdapterFactory.createGson()
 
     private var currentGameSetup: GameSetup? = null
 
     override fun close() {
+        messageLanes.close()
         shutdownAndAwaitTermination(executorService)
     }
 
@@ -68,6 +79,10 @@ class ClientWebSocketsHandler(
         processMessage(clientSocket, message)
     }
 
+    override fun onMessage(clientSocket: WebSocket, message: ByteBuffer) {
+        processBinaryMessage(clientSocket, message)
+    }
+
     override fun onError(clientSocket: WebSocket?, exception: Exception) {
         handleException(clientSocket, exception)
     }
@@ -84,7 +99,7 @@ class ClientWebSocketsHandler(
             gameTypes = setup.gameTypes
             gameSetup = currentGameSetup
         }.also {
-            send(clientSocket, Gson().toJson(it))
+            send(clientSocket, gson.toJson(it))
         }
     }
 
@@ -93,43 +108,70 @@ class ClientWebSocketsHandler(
     }
 
     private fun processMessage(clientSocket: WebSocket, message: String) {
-        executorService.submit {
-            try {
-                gson.fromJson(message, JsonObject::class.java)["type"]?.let { jsonType ->
-                    try {
-                        val type = Message.Type.fromValue(jsonType.asString)
-
-                        log.debug("Handling message: {}", type)
-                        when (type) {
-                            Message.Type.BOT_INTENT -> handleIntent(clientSocket, message)
-                            Message.Type.BOT_HANDSHAKE -> handleBotHandshake(clientSocket, message)
-                            Message.Type.OBSERVER_HANDSHAKE -> handleObserverHandshake(clientSocket, message)
-                            Message.Type.CONTROLLER_HANDSHAKE -> handleControllerHandshake(clientSocket, message)
-                            Message.Type.BOT_READY -> handleBotReady(clientSocket)
-                            Message.Type.START_GAME -> handleStartGame(message)
-                            Message.Type.STOP_GAME -> handleStopGame()
-                            Message.Type.PAUSE_GAME -> handlePauseGame()
-                            Message.Type.RESUME_GAME -> handleResumeGame()
-                            Message.Type.NEXT_TURN -> handleNextTurn()
-                            Message.Type.CHANGE_TPS -> handleChangeTps(message)
-                            Message.Type.BOT_POLICY_UPDATE -> handleBotPolicyUpdated(message)
-                            else -> handleException(
-                                clientSocket,
-                                IllegalStateException("Unhandled message type: $type")
-                            )
-                        }
-                    } catch (ex: IllegalArgumentException) {
-                        handleException(
+        // Messages from the same client are handled one at a time in the order they were received
+        messageLanes.execute(clientSocket) {
+            handleMessage(clientSocket, message)
+        }
+    }
+
+    private fun processBinaryMessage(clientSocket: WebSocket, message: ByteBuffer) {
+        val jsonMessage = try {
+            Cbor.read(message) as? JsonObject
+        } catch (exception: IllegalArgumentException) {
+            log.error("Invalid binary message", exception)
+            return
+        } ?: return
+
+        messageLanes.execute(clientSocket) {
+            // Bot intents are by far the most frequent messages, and are read directly from the JSON tree
+            if (jsonMessage["type"]?.asString == Message.Type.BOT_INTENT.value()) {
+                try {
+                    handleIntent(clientSocket, gson.fromJson(jsonMessage, BotIntent::class.java))
+                } catch (exception: Exception) {
+                    log.error("Error when passing binary message: $jsonMessage", exception)
+                }
+            } else {
+                handleMessage(clientSocket, jsonMessage.toString())
+            }
+        }
+    }
+
+    private fun handleMessage(clientSocket: WebSocket, message: String) {
+        try {
+            MessageTypeSniffer.sniffType(message)?.let { jsonType ->
+                try {
+                    val type = Message.Type.fromValue(jsonType)
+
+                    log.debug("Handling message: {}", type)
+                    when (type) {
+                        Message.Type.BOT_INTENT -> handleIntent(clientSocket, message)
+                        Message.Type.BOT_HANDSHAKE -> handleBotHandshake(clientSocket, message)
+                        Message.Type.OBSERVER_HANDSHAKE -> handleObserverHandshake(clientSocket, message)
+                        Message.Type.CONTROLLER_HANDSHAKE -> handleControllerHandshake(clientSocket, message)
+                        Message.Type.BOT_READY -> handleBotReady(clientSocket)
+                        Message.Type.START_GAME -> handleStartGame(message)
+                        Message.Type.STOP_GAME -> handleStopGame()
+                        Message.Type.PAUSE_GAME -> handlePauseGame()
+                        Message.Type.RESUME_GAME -> handleResumeGame()
+                        Message.Type.NEXT_TURN -> handleNextTurn()
+                        Message.Type.CHANGE_TPS -> handleChangeTps(message)
+                        Message.Type.BOT_POLICY_UPDATE -> handleBotPolicyUpdated(message)
+                        else -> handleException(
                             clientSocket,
-                            IllegalStateException("Unhandled message type: ${jsonType.asString}")
+                            IllegalStateException("Unhandled message type: $type")
                         )
                     }
+                } catch (ex: IllegalArgumentException) {
+                    handleException(
+                        clientSocket,
+                        IllegalStateException("Unhandled message type: $jsonType")
+                    )
                 }
-            } catch (exception: JsonSyntaxException) {
-                log.error("Invalid message: $message", exception)
-            } catch (exception: Exception) {
-                log.error("Error when passing message: $message", exception)
             }
+        } catch (exception: JsonSyntaxException) {
+            log.error("Invalid message: $message", exception)
+        } catch (exception: Exception) {
+            log.error("Error when passing message: $message", exception)
         }
     }
 
@@ -137,6 +179,10 @@ class ClientWebSocketsHandler(
 
     fun getObserverAndControllerSockets(): Set<WebSocket> = observerSockets.union(controllerSockets)
 
+    fun getTickDeltaSockets(): Set<WebSocket> = tickDeltaSockets
+
+    fun isCborEnabled(clientSocket: WebSocket): Boolean = clientSocket in cborSockets
+
     fun getBotHandshakes(): Map<WebSocket, BotHandshake> = botHandshakes
 
     private fun shutdownAndAwaitTermination(pool: ExecutorService) {
@@ -161,7 +207,11 @@ class ClientWebSocketsHandler(
 
         executorService.submit {
             try {
-                clientSocket.send(message)
+                if (isCborEnabled(clientSocket)) {
+                    clientSocket.send(Cbor.transcode(message))
+                } else {
+                    clientSocket.send(message)
+                }
             } catch (e: WebsocketNotConnectedException) {
                 closeSocket(clientSocket)
             }
@@ -178,6 +228,8 @@ class ClientWebSocketsHandler(
 
     private fun closeSocket(clientSocket: WebSocket) {
         allSockets -= clientSocket
+        tickDeltaSockets -= clientSocket
+        cborSockets -= clientSocket
         when {
             botSockets.remove(clientSocket) -> handleBotLeft(clientSocket)
             observerSockets.remove(clientSocket) -> handleObserverLeft(clientSocket)
@@ -225,8 +277,11 @@ class ClientWebSocketsHandler(
     }
 
     private fun handleIntent(clientSocket: WebSocket, message: String) {
+        handleIntent(clientSocket, gson.fromJson(message, BotIntent::class.java))
+    }
+
+    private fun handleIntent(clientSocket: WebSocket, intent: BotIntent) {
         botHandshakes[clientSocket]?.let { botHandshake ->
-            val intent = gson.fromJson(message, BotIntent::class.java)
             listener.onBotIntent(clientSocket, botHandshake, intent)
         }
     }
@@ -243,6 +298,7 @@ class ClientWebSocketsHandler(
 
             } else {
                 botSockets += clientSocket
+                if (isCborEnabled == true) cborSockets += clientSocket
                 botHandshakes[clientSocket] = this
                 listener.onBotJoined(clientSocket, this)
             }
@@ -261,6 +317,8 @@ class ClientWebSocketsHandler(
 
             } else {
                 observerSockets += clientSocket
+                if (isTickDeltaEnabled == true) tickDeltaSockets += clientSocket
+                if (isCborEnabled == true) cborSockets += clientSocket
                 observerHandshakes[clientSocket] = this
                 listener.onObserverJoined(clientSocket, this)
             }
@@ -279,6 +337,8 @@ class ClientWebSocketsHandler(
 
             } else {
                 controllerSockets += clientSocket
+                if (isTickDeltaEnabled == true) tickDeltaSockets += clientSocket
+                if (isCborEnabled == true) cborSockets += clientSocket
                 controllerHandshakes[clientSocket] = this
                 listener.onControllerJoined(clientSocket, this)
             }
@@ -1,6 +1,7 @@
 package dev.robocode.tankroyale.server.connection
 
 import dev.robocode.tankroyale.schema.*
+import dev.robocode.tankroyale.server.Server
 import dev.robocode.tankroyale.server.connection.ClientWebSocketsHandler
 import dev.robocode.tankroyale.server.core.ServerSetup
 import org.java_websocket.WebSocket
@@ -20,18 +21,40 @@ class ConnectionHandler(
 
     private val webSocketObserver = WebSocketObserver(clientHandler)
 
+    private val observerBroadcaster =
+        ObserverBroadcaster(
+            Server.observerQueueSize, Server.slowObserverPolicy,
+            WebSocketImplFrameChannel(webSocketObserver::onWriteDemand), clientHandler::isCborEnabled
+        )
+
     fun start() {
         webSocketObserver.start()
     }
 
     fun stop() {
         clientHandler.close()
+        observerBroadcaster.close()
     }
 
     fun broadcastToObserverAndControllers(message: String) {
-        broadcast(clientHandler.getObserverAndControllerSockets(), message)
+        log.debug("Broadcast message to observers and controllers: $message")
+        observerBroadcaster.broadcast(clientHandler.getObserverAndControllerSockets(), message)
+    }
+
+    /**
+     * Broadcasts a tick to observers and controllers, which might be dropped for slow clients. Clients that enabled tick
+     * deltas receive the tick delta instead of the full tick, when available.
+     */
+    fun broadcastTickToObserverAndControllers(message: String, deltaMessage: String? = null) {
+        observerBroadcaster.broadcastTick(
+            clientHandler.getObserverAndControllerSockets(), clientHandler.getTickDeltaSockets(), message, deltaMessage
+        )
     }
 
+    fun hasTickDeltaSockets(): Boolean = clientHandler.getTickDeltaSockets().isNotEmpty()
+
+    fun isCborEnabled(clientSocket: WebSocket): Boolean = clientHandler.isCborEnabled(clientSocket)
+
     fun mapToBotSockets(): Set<WebSocket> = clientHandler.getBotSockets()
 
     fun getBotHandshakes(): Map<WebSocket, BotHandshake> = clientHandler.getBotHandshakes()
@@ -70,11 +93,18 @@ class ConnectionHandler(
 
     fun send(clientSocket: WebSocket, message: String) {
         log.debug("Send message: $message")
-        clientHandler.send(clientSocket, message)
+        if (clientSocket in clientHandler.getObserverAndControllerSockets()) {
+            // Keep the order with the messages broadcast to the observer or controller
+            observerBroadcaster.send(clientSocket, message)
+        } else {
+            clientHandler.send(clientSocket, message)
+        }
     }
 
     fun broadcast(clientSockets: Collection<WebSocket>, message: String) {
         log.debug("Broadcast message: $message")
-        webSocketObserver.broadcast(clientSockets, message)
+        val (cborSockets, jsonSockets) = clientSockets.partition { clientHandler.isCborEnabled(it) }
+        if (jsonSockets.isNotEmpty()) webSocketObserver.broadcast(jsonSockets, message)
+        if (cborSockets.isNotEmpty()) webSocketObserver.broadcast(cborSockets, Cbor.transcode(message))
     }
 }
@@ -0,0 +1,30 @@
+package dev.robocode.tankroyale.server.connection
+
+import org.java_websocket.WebSocket
+import java.nio.ByteBuffer
+
+/**
+ * Channel for writing WebSocket frames that have already been encoded to sockets, which lets the [ObserverBroadcaster]
+ * encode a message once for all sockets.
+ */
+interface FrameChannel {
+
+    /**
+     * Returns the number of buffers waiting in the write queue of a socket.
+     * @param clientSocket is the socket.
+     */
+    fun queuedCount(clientSocket: WebSocket): Int
+
+    /**
+     * Adds the bytes of encoded frames to the write queue of a socket.
+     * @param clientSocket is the socket.
+     * @param frames is the encoded frames, which must not be shared with other sockets.
+     */
+    fun enqueue(clientSocket: WebSocket, frames: ByteBuffer)
+
+    /**
+     * Tells the server that a socket has data to write, after frames have been added to its write queue.
+     * @param clientSocket is the socket.
+     */
+    fun writeDemand(clientSocket: WebSocket)
+}
@@ -0,0 +1,27 @@
+package dev.robocode.tankroyale.server.connection
+
+import com.google.gson.JsonArray
+import com.google.gson.JsonElement
+import com.google.gson.JsonNull
+import com.google.gson.JsonObject
+import com.google.gson.JsonPrimitive
+import dev.robocode.tankroyale.common.cbor.CborTreeBuilder
+
+/** Builds a Gson JSON tree of the data items of a CBOR message, which Gson can turn into a message object. */
+object GsonCborTreeBuilder : CborTreeBuilder<JsonElement> {
+
+    override fun integer(value: Long) = JsonPrimitive(value)
+
+    override fun float(value: Double) = JsonPrimitive(value)
+
+    override fun text(value: String) = JsonPrimitive(value)
+
+    override fun boolean(value: Boolean) = JsonPrimitive(value)
+
+    override fun nullValue(): JsonNull = JsonNull.INSTANCE
+
+    override fun array(items: List<JsonElement>) = JsonArray(items.size).apply { items.forEach(::add) }
+
+    override fun map(entries: Map<String, JsonElement>) =
+        JsonObject().apply { entries.forEach { (key, value) -> add(key, value) } }
+}
@@ -2,6 +2,7 @@ package dev.robocode.tankroyale.server.connection
 
 import org.java_websocket.WebSocket
 import org.java_websocket.handshake.ClientHandshake
+import java.nio.ByteBuffer
 
 interface IClientWebSocketObserver {
     fun onOpen(clientSocket: WebSocket, handshake: ClientHandshake)
@@ -10,6 +11,8 @@ interface IClientWebSocketObserver {
 
     fun onMessage(clientSocket: WebSocket, message: String)
 
+    fun onMessage(clientSocket: WebSocket, message: ByteBuffer)
+
     fun onError(clientSocket: WebSocket?, exception: Exception)
 
     fun send(clientSocket: WebSocket, message: String)
@@ -0,0 +1,156 @@
+package dev.robocode.tankroyale.server.connection
+
+import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import com.google.gson.TypeAdapter
+import com.google.gson.TypeAdapterFactory
+import com.google.gson.reflect.TypeToken
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+import dev.robocode.tankroyale.schema.Message
+import java.io.Writer
+
+/**
+ * Type adapter factory that writes the `type` field of a message as the first field of the message.
+ *
+ * Gson writes the fields of a subclass before the fields of its superclass, so the `type` field declared by [Message]
+ * would otherwise be written last. Clients reading the type first to pick the message class would then have to skip
+ * the whole message before finding it. Only the top-level message is affected, so messages nested in a message, like
+ * events in a tick, keep their field order.
+ */
+object MessageTypeFirstAdapterFactory : TypeAdapterFactory {
+
+    /** Creates a Gson instance writing the type of each message first. */
+    fun createGson(): Gson = GsonBuilder().registerTypeAdapterFactory(this).create()
+
+    override fun <T> create(gson: Gson, type: TypeToken<T>): TypeAdapter<T>? {
+        if (!Message::class.java.isAssignableFrom(type.rawType)) return null
+
+        val delegate = gson.getDelegateAdapter(this, type)
+        return object : TypeAdapter<T>() {
+            override fun write(out: JsonWriter, value: T?) {
+                val messageType = (value as Message?)?.type?.value()
+                if (messageType == null || out is TypeFirstJsonWriter) {
+                    delegate.write(out, value)
+                } else {
+                    delegate.write(TypeFirstJsonWriter(out, messageType), value)
+                }
+            }
+
+            override fun read(reader: JsonReader): T? = delegate.read(reader)
+        }
+    }
+
+    /**
+     * JSON writer that forwards to another writer, where the type is written right after the top-level object has been
+     * begun, and the type written later on at the top level is left out.
+     */
+    private class TypeFirstJsonWriter(private val out: JsonWriter, private val type: String) :
+        JsonWriter(Writer.nullWriter()) {
+
+        private var depth = 0
+        private var isSkippingValue = false
+
+        init {
+            serializeNulls = out.serializeNulls
+            isHtmlSafe = out.isHtmlSafe
+        }
+
+        override fun beginObject(): JsonWriter {
+            out.beginObject()
+            if (++depth == 1) {
+                out.name(TYPE).value(type)
+            }
+            return this
+        }
+
+        override fun endObject(): JsonWriter {
+            depth--
+            out.endObject()
+            return this
+        }
+
+        override fun beginArray(): JsonWriter {
+            depth++
+            out.beginArray()
+            return this
+        }
+
+        override fun endArray(): JsonWriter {
+            depth--
+            out.endArray()
+            return this
+        }
+
+        override fun name(name: String): JsonWriter {
+            if (depth == 1 && name == TYPE) {
+                isSkippingValue = true
+            } else {
+                out.name(name)
+            }
+            return this
+        }
+
+        override fun value(value: String?): JsonWriter {
+            if (!skipValue()) out.value(value)
+            return this
+        }
+
+        override fun jsonValue(value: String?): JsonWriter {
+            if (!skipValue()) out.jsonValue(value)
+            return this
+        }
+
+        override fun nullValue(): JsonWriter {
+            if (!skipValue()) out.nullValue()
+            return this
+        }
+
+        override fun value(value: Boolean): JsonWriter {
+            if (!skipValue()) out.value(value)
+            return this
+        }
+
+        override fun value(value: Boolean?): JsonWriter {
+            if (!skipValue()) out.value(value)
+            return this
+        }
+
+        override fun value(value: Float): JsonWriter {
+            if (!skipValue()) out.value(value)
+            return this
+        }
+
+        override fun value(value: Double): JsonWriter {
+            if (!skipValue()) out.value(value)
+            return this
+        }
+
+        override fun value(value: Long): JsonWriter {
+            if (!skipValue()) out.value(value)
+            return this
+        }
+
+        override fun value(value: Number?): JsonWriter {
+            if (!skipValue()) out.value(value)
+            return this
+        }
+
+        override fun flush() {
+            out.flush()
+        }
+
+        override fun close() {
+            out.close()
+        }
+
+        /** Returns `true` if the value is the type at the top level, which has already been written */
+        private fun skipValue(): Boolean {
+            if (!isSkippingValue) return false
+            isSkippingValue = false
+            return true
+        }
+    }
+
+    private const val TYPE = "type"
+}
@@ -0,0 +1,71 @@
+package dev.robocode.tankroyale.server.connection
+
+/**
+ * Reads the `type` field of a JSON message without parsing the message, so the message only needs to be parsed once
+ * directly into the schema class of its type.
+ *
+ * Only the `type` field of the top-level object is considered. Nested objects and string contents are skipped, and
+ * the message is not validated, which is left to the real parser.
+ */
+object MessageTypeSniffer {
+
+    private const val TYPE_FIELD = "type"
+
+    /**
+     * Finds the value of the top-level `type` field of a JSON message.
+     * @param json is the JSON message.
+     * @return the type, or `null` if the message has no top-level `type` field with a string value.
+     */
+    fun sniffType(json: String): String? {
+        var depth = 0
+        var i = 0
+        while (i < json.length) {
+            when (json[i]) {
+                '{', '[' -> depth++
+                '}', ']' -> depth--
+                '"' -> {
+                    val end = endOfString(json, i)
+                    if (end < 0) return null
+
+                    if (depth == 1 && isTypeField(json, i, end)) {
+                        val colon = skipWhitespace(json, end + 1)
+                        if (colon < json.length && json[colon] == ':') {
+                            return readStringValue(json, skipWhitespace(json, colon + 1))
+                        }
+                    }
+                    i = end
+                }
+            }
+            i++
+        }
+        return null
+    }
+
+    private fun isTypeField(json: String, start: Int, end: Int) =
+        end - start - 1 == TYPE_FIELD.length && json.regionMatches(start + 1, TYPE_FIELD, 0, TYPE_FIELD.length)
+
+    private fun readStringValue(json: String, start: Int): String? {
+        if (start >= json.length || json[start] != '"') return null
+        val end = endOfString(json, start)
+        return if (end < 0) null else json.substring(start + 1, end)
+    }
+
+    /** Returns the index of the quote ending the string starting at [start], or -1 if the string is not ended */
+    private fun endOfString(json: String, start: Int): Int {
+        var i = start + 1
+        while (i < json.length) {
+            when (json[i]) {
+                '\\' -> i++ // skip escaped character
+                '"' -> return i
+            }
+            i++
+        }
+        return -1
+    }
+
+    private fun skipWhitespace(json: String, start: Int): Int {
+        var i = start
+        while (i < json.length && json[i].isWhitespace()) i++
+        return i
+    }
+}
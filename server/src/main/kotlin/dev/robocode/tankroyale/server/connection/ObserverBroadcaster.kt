@@ -0,0 +1,275 @@
+package dev.robocode.tankroyale.server.connection
+
+import dev.robocode.tankroyale.server.core.StatusCode
+import org.java_websocket.WebSocket
+import org.java_websocket.drafts.Draft_6455
+import org.java_websocket.framing.Framedata
+import org.slf4j.LoggerFactory
+import java.io.Closeable
+import java.nio.ByteBuffer
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.locks.LockSupport
+import kotlin.concurrent.thread
+
+/**
+ * Broadcasts messages to observers and controllers by encoding each message into a WebSocket frame only once, and
+ * writing the same frame bytes to all sockets.
+ *
+ * Each socket gets a bounded outbound queue. Frames are handed over to the socket when its own write queue is almost
+ * empty, so a lagging client only builds up a backlog of [queueCapacity] messages. When the queue is full, the
+ * [slowConsumerPolicy] decides if the oldest pending tick is dropped, or the client is disconnected. Messages that are
+ * not droppable, like game started and game ended, are always delivered.
+ *
+ * Clients that enabled tick deltas receive a tick delta instead of the full tick, when available. As a delta builds
+ * on the previous tick, dropping a delta would leave the client with a broken state. Hence, all pending ticks of such
+ * a client are dropped at once, and the client is resynchronized with the next full tick.
+ *
+ * Clients that enabled CBOR receive binary frames with the message transcoded into CBOR, which is likewise done only
+ * once per message for all of them.
+ *
+ * The server only accepts the RFC 6455 draft without extensions, so the unmasked frame bytes are identical for all
+ * clients. The frame bytes are written to the sockets through a [FrameChannel].
+ *
+ * @param queueCapacity is the maximum number of pending messages per socket.
+ * @param slowConsumerPolicy is the policy for sockets with a full outbound queue.
+ * @param frameChannel is the channel used for writing the frame bytes to the sockets.
+ * @param isCborEnabled is the function used for checking if a socket has enabled CBOR.
+ */
+class ObserverBroadcaster(
+    private val queueCapacity: Int,
+    private val slowConsumerPolicy: SlowConsumerPolicy,
+    private val frameChannel: FrameChannel,
+    private val isCborEnabled: (clientSocket: WebSocket) -> Boolean = { false },
+) : Closeable {
+
+    private companion object {
+        /** Number of frames handed over to the write queue of a socket at a time */
+        const val MAX_IN_FLIGHT = 2
+
+        /** Time between attempts to flush backlogged sockets */
+        const val FLUSH_INTERVAL_NANOS = 1_000_000L // 1 ms
+
+        const val SLOW_CONSUMER = "Client too slow to receive messages"
+    }
+
+    private val log = LoggerFactory.getLogger(this::class.java)
+
+    /** Draft used for encoding the frames, which has no role, so frames are not masked like frames sent by a server */
+    private val draft = Draft_6455()
+
+    private val outboxes = ConcurrentHashMap<WebSocket, Outbox>()
+
+    @Volatile
+    private var isRunning = true
+
+    /** Thread flushing the outboxes of sockets that are lagging behind */
+    private val flushThread = thread(name = "ObserverBroadcaster", isDaemon = true) { flushBacklog() }
+
+    override fun close() {
+        isRunning = false
+        LockSupport.unpark(flushThread)
+        outboxes.clear()
+    }
+
+    /**
+     * Broadcasts a message to sockets.
+     * @param clientSockets is the sockets to receive the message.
+     * @param message is the message to send.
+     * @param droppable is `true` if the message may be dropped for slow clients, which is the case for ticks.
+     */
+    fun broadcast(clientSockets: Collection<WebSocket>, message: String, droppable: Boolean = false) {
+        if (clientSockets.isEmpty()) return
+
+        val frames = Frames(message)
+        var backlogged = false
+
+        clientSockets.forEach { clientSocket ->
+            if (clientSocket.isOpen) {
+                val outbox = outboxes.computeIfAbsent(clientSocket) { Outbox(it) }
+                if (outbox.offer(frames.of(clientSocket), droppable)) {
+                    if (!outbox.flush()) backlogged = true
+                } else {
+                    disconnect(clientSocket)
+                }
+            }
+        }
+        outboxes.keys.removeIf { !it.isOpen }
+
+        if (backlogged) LockSupport.unpark(flushThread)
+    }
+
+    /**
+     * Broadcasts a tick to sockets, which might be dropped for slow clients.
+     * @param clientSockets is the sockets to receive the tick.
+     * @param deltaSockets is the sockets that receive the tick delta instead of the full tick, when available.
+     * @param tick is the full tick.
+     * @param deltaTick is the tick delta, or `null` if all sockets must receive the full tick.
+     */
+    fun broadcastTick(
+        clientSockets: Collection<WebSocket>,
+        deltaSockets: Set<WebSocket>,
+        tick: String,
+        deltaTick: String?
+    ) {
+        if (clientSockets.isEmpty()) return
+
+        val frames = Frames(tick)
+        val deltaFrames = deltaTick?.let { Frames(it) }
+        var backlogged = false
+
+        clientSockets.forEach { clientSocket ->
+            if (clientSocket.isOpen) {
+                val outbox = outboxes.computeIfAbsent(clientSocket) { Outbox(it) }
+                val frame = { frames.of(clientSocket) }
+                val deltaFrame = deltaFrames?.let { { it.of(clientSocket) } }
+                if (outbox.offerTick(frame, deltaFrame, clientSocket in deltaSockets)) {
+                    if (!outbox.flush()) backlogged = true
+                } else {
+                    disconnect(clientSocket)
+                }
+            }
+        }
+        outboxes.keys.removeIf { !it.isOpen }
+
+        if (backlogged) LockSupport.unpark(flushThread)
+    }
+
+    /**
+     * Sends a message to a single socket. If the socket is receiving broadcasts, the message is queued after the
+     * pending broadcasts to preserve the order of messages.
+     */
+    fun send(clientSocket: WebSocket, message: String) {
+        broadcast(listOf(clientSocket), message)
+    }
+
+    private fun encode(message: String): ByteBuffer = encode(draft.createFrames(message, false))
+
+    private fun encode(message: ByteBuffer): ByteBuffer = encode(draft.createFrames(message, false))
+
+    private fun encode(frameData: List<Framedata>): ByteBuffer {
+        val frames = frameData.map { draft.createBinaryFrame(it) }
+        if (frames.size == 1) return frames[0]
+
+        val buffer = ByteBuffer.allocate(frames.sumOf { it.remaining() })
+        frames.forEach { buffer.put(it) }
+        return buffer.flip()
+    }
+
+    private fun disconnect(clientSocket: WebSocket) {
+        log.warn("Disconnecting slow client: {}", clientSocket.remoteSocketAddress)
+        outboxes.remove(clientSocket)
+        clientSocket.close(StatusCode.POLICY_VIOLATION.value, SLOW_CONSUMER)
+    }
+
+    private fun flushBacklog() {
+        while (isRunning) {
+            var backlogged = false
+            outboxes.values.forEach { outbox ->
+                if (!outbox.flush()) backlogged = true
+            }
+            // Wait for the next broadcast, or poll the sockets while some of them are lagging behind
+            if (backlogged) LockSupport.parkNanos(FLUSH_INTERVAL_NANOS) else LockSupport.park()
+        }
+    }
+
+    /** Bounded queue of encoded frames waiting to be written to a socket */
+    private inner class Outbox(private val clientSocket: WebSocket) {
+
+        private val pending = ArrayDeque<Frame>()
+
+        /** Number of dropped ticks, which is logged when ticks are dropped */
+        private var droppedCount = 0L
+
+        /** Flag set when the next tick must be a full tick, as the client has no tick to apply a delta to */
+        private var needsFullTick = true
+
+        /**
+         * Adds a frame to the queue, and applies the slow consumer policy if the queue is full.
+         * @return `false` if the socket must be disconnected; `true` otherwise.
+         */
+        @Synchronized
+        fun offer(bytes: ByteBuffer, droppable: Boolean): Boolean {
+            if (pending.size >= queueCapacity) {
+                if (slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT) return false
+
+                val oldest = pending.indexOfFirst { it.droppable }
+                if (oldest >= 0) {
+                    pending.removeAt(oldest)
+                    onDropped()
+                } else if (droppable) { // nothing older can be dropped, so the new tick is dropped instead
+                    onDropped()
+                    return true
+                }
+            }
+            pending.addLast(Frame(bytes, droppable))
+            return true
+        }
+
+        /**
+         * Adds a tick to the queue, and applies the slow consumer policy if the queue is full. For a client with tick
+         * deltas enabled, the tick delta is added if available, unless the client needs a full tick, and all pending
+         * ticks are dropped when a tick must be dropped, as the following deltas cannot be applied without them.
+         * @param frame is the function providing the full tick frame.
+         * @param deltaFrame is the function providing the tick delta frame, or `null` if the full tick must be added.
+         * @param isDeltaEnabled is `true` if the client has enabled tick deltas.
+         * @return `false` if the socket must be disconnected; `true` otherwise.
+         */
+        @Synchronized
+        fun offerTick(frame: () -> ByteBuffer, deltaFrame: (() -> ByteBuffer)?, isDeltaEnabled: Boolean): Boolean {
+            if (!isDeltaEnabled) return offer(frame(), true)
+
+            if (pending.size >= queueCapacity) {
+                if (slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT) return false
+
+                val size = pending.size
+                pending.removeAll { it.droppable }
+                repeat(size - pending.size) { onDropped() }
+                needsFullTick = true
+
+                if (pending.size >= queueCapacity) { // nothing could be dropped, so the new tick is dropped instead
+                    onDropped()
+                    return true
+                }
+            }
+            pending.addLast(Frame(if (needsFullTick || deltaFrame == null) frame() else deltaFrame(), true))
+            needsFullTick = false
+            return true
+        }
+
+        /**
+         * Hands over pending frames to the socket, if its write queue is not lagging behind.
+         * @return `true` if all frames have been handed over; `false` otherwise.
+         */
+        @Synchronized
+        fun flush(): Boolean {
+            if (!clientSocket.isOpen) {
+                pending.clear()
+                return true
+            }
+            var handedOver = false
+            while (pending.isNotEmpty() && frameChannel.queuedCount(clientSocket) < MAX_IN_FLIGHT) {
+                // Each socket needs its own buffer position, but shares the frame bytes
+                frameChannel.enqueue(clientSocket, pending.removeFirst().bytes.duplicate())
+                handedOver = true
+            }
+            if (handedOver) frameChannel.writeDemand(clientSocket)
+            return pending.isEmpty()
+        }
+
+        private fun onDropped() {
+            if (droppedCount++ % 100 == 0L) {
+                log.warn("Dropping ticks for slow client: {}, dropped: {}", clientSocket.remoteSocketAddress, droppedCount)
+            }
+        }
+    }
+
+    private class Frame(val bytes: ByteBuffer, val droppable: Boolean)
+
+    /** Frames of a message, which are encoded on demand, as text for JSON clients and binary for CBOR clients */
+    private inner class Frames(private val message: String) {
+        private val textFrame by lazy(LazyThreadSafetyMode.NONE) { encode(message) }
+        private val binaryFrame by lazy(LazyThreadSafetyMode.NONE) { encode(Cbor.transcode(message)) }
+
+        fun of(clientSocket: WebSocket): ByteBuffer = if (isCborEnabled(clientSocket)) binaryFrame else textFrame
+    }
+}
@@ -0,0 +1,10 @@
+package dev.robocode.tankroyale.server.connection
+
+/** Policy for observers and controllers that cannot keep up with the messages broadcast by the server. */
+enum class SlowConsumerPolicy {
+    /** Drop the oldest pending tick when the outbound queue of a client is full */
+    DROP_OLDEST,
+
+    /** Disconnect the client when its outbound queue is full */
+    DISCONNECT,
+}
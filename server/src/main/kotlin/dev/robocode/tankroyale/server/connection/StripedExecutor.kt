@@ -0,0 +1,54 @@
+package dev.robocode.tankroyale.server.connection
+
+import org.slf4j.LoggerFactory
+import java.io.Closeable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Executor with a fixed number of single-threaded lanes. Tasks submitted with the same key always run on the same
+ * lane, so they are run one at a time in the order they were submitted, while tasks for different keys run in
+ * parallel on the other lanes.
+ *
+ * @param laneCount is the number of lanes, i.e. threads.
+ * @param name is the name prefix of the lane threads.
+ */
+class StripedExecutor(laneCount: Int, name: String) : Closeable {
+
+    private val log = LoggerFactory.getLogger(this::class.java)
+
+    private val lanes: Array<ExecutorService> = Array(laneCount) { index ->
+        Executors.newSingleThreadExecutor { runnable ->
+            Thread(runnable, "$name-$index").apply { isDaemon = true }
+        }
+    }
+
+    /**
+     * Submits a task to the lane of a key.
+     * @param key is the key identifying the order of tasks, which is compared by identity.
+     * @param task is the task to run.
+     */
+    fun execute(key: Any, task: () -> Unit) {
+        lanes[laneOf(key)].execute(task)
+    }
+
+    private fun laneOf(key: Any) = (System.identityHashCode(key) and Int.MAX_VALUE) % lanes.size
+
+    override fun close() {
+        lanes.forEach { it.shutdown() } // Disable new tasks from being submitted
+        try {
+            lanes.forEach { lane ->
+                if (!lane.awaitTermination(5, TimeUnit.SECONDS)) {
+                    lane.shutdownNow()
+                    if (!lane.awaitTermination(5, TimeUnit.SECONDS)) {
+                        log.warn("Lane did not terminate")
+                    }
+                }
+            }
+        } catch (ex: InterruptedException) {
+            lanes.forEach { it.shutdownNow() }
+            Thread.currentThread().interrupt()
+        }
+    }
+}
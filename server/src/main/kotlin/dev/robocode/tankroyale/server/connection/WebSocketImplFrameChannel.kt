@@ -0,0 +1,28 @@
+package dev.robocode.tankroyale.server.connection
+
+import org.java_websocket.WebSocket
+import org.java_websocket.WebSocketImpl
+import java.nio.ByteBuffer
+
+/**
+ * Frame channel writing directly into the write queue of the sockets of the Java-WebSocket library.
+ *
+ * The library has no public API for writing encoded frames, so this class depends on its internals: the public
+ * [WebSocketImpl.outQueue] field, which the selector thread of the server drains, and the write demand of the server,
+ * which makes the selector thread pick up the socket. This is the only place depending on these internals, which must
+ * be checked when upgrading the library.
+ *
+ * @param writeDemand is the function used for telling the server that a socket has data to write.
+ */
+class WebSocketImplFrameChannel(private val writeDemand: (clientSocket: WebSocket) -> Unit) : FrameChannel {
+
+    override fun queuedCount(clientSocket: WebSocket): Int = (clientSocket as WebSocketImpl).outQueue.size
+
+    override fun enqueue(clientSocket: WebSocket, frames: ByteBuffer) {
+        (clientSocket as WebSocketImpl).outQueue.add(frames)
+    }
+
+    override fun writeDemand(clientSocket: WebSocket) {
+        writeDemand.invoke(clientSocket)
+    }
+}
@@ -4,6 +4,7 @@ import dev.robocode.tankroyale.server.Server
 import org.java_websocket.WebSocket
 import org.slf4j.LoggerFactory
 import java.net.InetSocketAddress
+import java.nio.ByteBuffer
 import java.nio.channels.ServerSocketChannel
 import kotlin.system.exitProcess
 
@@ -27,6 +28,14 @@ class WebSocketObserver(observer: IClientWebSocketObserver) {
         webSocketServer.broadcast(message, clientSockets)
     }
 
+    fun broadcast(clientSockets: Collection<WebSocket>, message: ByteBuffer) {
+        webSocketServer.broadcast(message, clientSockets)
+    }
+
+    fun onWriteDemand(clientSocket: WebSocket) {
+        webSocketServer.onWriteDemand(clientSocket)
+    }
+
     private fun validateInheritedChannel() {
         val inheritedChannel = System.inheritedChannel()
         if (inheritedChannel == null) {
@@ -0,0 +1,65 @@
+package dev.robocode.tankroyale.server.core
+
+import java.io.BufferedWriter
+import java.io.File
+import java.io.FileOutputStream
+import java.io.OutputStreamWriter
+import java.time.LocalDateTime
+import java.time.format.DateTimeFormatter
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Streams the game history to a gzipped ND-JSON file using the same format as the Recorder, i.e. one observer message
+ * per line. This allows the server to keep only the latest turns in memory, while the full history is still available.
+ * @param file is the file to write the recording into.
+ */
+class GameHistoryRecorder(val file: File) : AutoCloseable {
+
+    /**
+     * Creates a recorder writing into a new file named `game-<timestamp>.battle.gz` with the current time. If the file
+     * already exists, e.g. for games started within the same second, a counter is added to the name, like
+     * `game-<timestamp>-1.battle.gz`, so an existing recording is never overwritten.
+     * @param dir is the directory to write the recording into, which must exist.
+     */
+    constructor(dir: String) : this(createNewFile(File(dir)))
+
+    private companion object {
+        fun timestamp(): String = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss"))
+
+        fun createNewFile(dir: File): File {
+            val baseName = "game-${timestamp()}"
+            var file = File(dir, "$baseName.battle.gz")
+            var count = 0
+            // Creating the file fails if it exists, which also guards against other servers recording into the dir
+            while (!file.createNewFile()) {
+                file = File(dir, "$baseName-${++count}.battle.gz")
+            }
+            return file
+        }
+    }
+
+    private val output = BufferedWriter(OutputStreamWriter(GZIPOutputStream(FileOutputStream(file)), Charsets.UTF_8))
+
+    // Guarded by the output, as messages are recorded from several threads
+    private var isClosed = false
+
+    /**
+     * Records a JSON message. Messages recorded after the recorder has been closed are ignored.
+     * @param json is the JSON message, which must not contain line breaks.
+     */
+    fun record(json: String) {
+        synchronized(output) {
+            if (isClosed) return
+            output.write(json)
+            output.newLine()
+        }
+    }
+
+    override fun close() {
+        synchronized(output) {
+            if (isClosed) return
+            isClosed = true
+            output.close()
+        }
+    }
+}
@@ -1,20 +1,28 @@
 package dev.robocode.tankroyale.server.core
 
-import com.google.gson.Gson
 import dev.robocode.tankroyale.schema.*
 import dev.robocode.tankroyale.schema.BotIntent
 import dev.robocode.tankroyale.schema.GameSetup
 import dev.robocode.tankroyale.server.Server
+import dev.robocode.tankroyale.server.connection.Cbor
 import dev.robocode.tankroyale.server.connection.ConnectionHandler
 import dev.robocode.tankroyale.server.connection.GameServerConnectionListener
+import dev.robocode.tankroyale.server.connection.MessageTypeFirstAdapterFactory
 import dev.robocode.tankroyale.server.mapper.*
+import dev.robocode.tankroyale.server.metrics.MetricsHttpServer
+import dev.robocode.tankroyale.server.metrics.PrometheusWriter
+import dev.robocode.tankroyale.server.metrics.TurnMetrics
+import dev.robocode.tankroyale.server.metrics.TurnPhase
 import dev.robocode.tankroyale.server.model.*
 import dev.robocode.tankroyale.server.model.InitialPosition
-import dev.robocode.tankroyale.server.score.ResultsView
 import org.java_websocket.WebSocket
 import org.java_websocket.exceptions.WebsocketNotConnectedException
 import org.slf4j.LoggerFactory
+import java.util.Locale
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
 import kotlin.math.roundToInt
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.nanoseconds
@@ -65,8 +73,29 @@ class GameServer(
     /** Timer for 'ready' timeout */
     private lateinit var readyTimeoutTimer: NanoTimer
 
-    /** Timer for 'turn' timeout */
-    private var turnTimeoutTimer: NanoTimer? = null
+    /** Scheduler running the turns with the 'turn' timeout */
+    private val turnScheduler = TurnScheduler { onNextTurn() }
+
+    /** Executor for running the per-bot phases of each turn in parallel, if more than one turn thread is used */
+    private val turnPhaseExecutor = Server.turnThreads.takeIf { it > 1 }?.let { TurnPhaseExecutor(it) }
+
+    /** Latencies from the last intent of a turn being received until the tick has been sent */
+    internal val turnLatency get() = turnScheduler.turnLatency
+
+    /** Phase timings, intent latencies and skipped turns of the turns of the current game */
+    internal val turnMetrics = TurnMetrics()
+
+    /** HTTP server serving the metrics, if enabled */
+    private var metricsServer: MetricsHttpServer? = null
+
+    /** Executor logging a summary of the metrics periodically, if enabled */
+    private var metricsLogExecutor: ScheduledExecutorService? = null
+
+    /** Start time of the current game in nanoseconds, used for reporting the turns per second */
+    private var gameStartTime = 0L
+
+    /** Number of turns run in the current game */
+    private var turnCount = 0L
 
     /** Current TPS setting (Turns Per Second) */
     private var tps = Server.tps
@@ -75,7 +104,19 @@ class GameServer(
     private val log = LoggerFactory.getLogger(this::class.java)
 
     /** JSON handler */
-    private val gson = Gson()
+    private val gson = MessageTypeFirstAdapterFactory.createGson()
+
+    /** Writer for tick events for observers, which reuses its buffer between ticks */
+    private val tickWriter = ObserverTickWriter(gson)
+
+    /** Writer for tick deltas for observers that enabled tick deltas, which keeps the previous tick as base */
+    private val tickDeltaWriter = ObserverTickDeltaWriter(gson)
+
+    /** Version of the tick scores last sent to the observers, or -1 if none have been sent in the current game */
+    private var sentTickScoreVersion = -1L
+
+    /** Turn number of the tick where the tick scores were last sent to the observers */
+    private var sentTickScoreTurnNumber = 0
 
     /** Tick lock for onNextTurn() */
     private val tickLock = Any()
@@ -83,6 +124,9 @@ class GameServer(
     /** Lock for participant-related operations */
     private val participantsLock = Any()
 
+    /** Recorder of the full game history, if enabled */
+    private var historyRecorder: GameHistoryRecorder? = null
+
     /** Map over debug graphics enable flags */
     private val debugGraphicsEnableMap = ConcurrentHashMap<BotId, Boolean /* isDebugEnabled */>()
 
@@ -96,12 +140,33 @@ class GameServer(
     fun start() {
         log.info("Starting server on port ${Server.portNumber} with supporting game type(s): ${gameTypes.joinToString()}")
         connectionHandler.start()
+        startMetricsReporting()
     }
 
     /** Stops this server */
     fun stop() {
         log.info("Stopping server")
         connectionHandler.stop()
+        turnScheduler.close()
+        turnPhaseExecutor?.close()
+        metricsServer?.close()
+        metricsLogExecutor?.shutdownNow()
+    }
+
+    /** Starts serving the metrics over HTTP and logging them periodically, if enabled */
+    private fun startMetricsReporting() {
+        Server.metricsPort?.let { port ->
+            metricsServer = MetricsHttpServer(port, ::prometheusMetrics).apply { start() }
+        }
+        Server.metricsLogInterval.takeIf { it > 0 }?.let { interval ->
+            metricsLogExecutor = Executors.newSingleThreadScheduledExecutor { runnable ->
+                Thread(runnable, "MetricsLogger").apply { isDaemon = true }
+            }.apply {
+                scheduleAtFixedRate({
+                    if (serverState === ServerState.GAME_RUNNING) logTurnMetrics()
+                }, interval.toLong(), interval.toLong(), TimeUnit.SECONDS)
+            }
+        }
     }
 
     /** Prepares the game and wait for participants to become 'ready' */
@@ -120,8 +185,7 @@ class GameServer(
 
         debugGraphicsEnableMap.clear()
 
-        turnTimeoutTimer?.stop()
-        turnTimeoutTimer = null
+        turnScheduler.stop()
 
         prepareParticipantIds()
         prepareModelUpdater()
@@ -205,7 +269,14 @@ class GameServer(
         participantMap.putAll(createParticipantMap())
 
         serverState = ServerState.GAME_RUNNING
-
+        gameStartTime = System.nanoTime()
+        turnCount = 0
+        turnMetrics.reset(
+            participantMap.mapKeys { it.key.value }.mapValues { "${it.value.name} ${it.value.version}" },
+            gameSetup.turnTimeout.inWholeNanoseconds
+        )
+
+        startHistoryRecorder()
         sendGameStartedToObservers()
         prepareModelUpdater()
         resetTurnTimeout()
@@ -215,13 +286,29 @@ class GameServer(
 
     /** Send GameStarted to all participant observers to get them started */
     private fun sendGameStartedToObservers() {
-        broadcastToObserverAndControllers(GameStartedEventForObserver().apply {
+        broadcastAndRecord(GameStartedEventForObserver().apply {
             type = Message.Type.GAME_STARTED_EVENT_FOR_OBSERVER
             gameSetup = GameSetupMapper.map(this@GameServer.gameSetup)
             participants = participantMap.values.toList()
         })
     }
 
+    /** Starts streaming the game history to a file, if a record directory has been specified */
+    private fun startHistoryRecorder() {
+        stopHistoryRecorder()
+        Server.recordDir?.let { dir ->
+            historyRecorder = GameHistoryRecorder(dir).also {
+                log.info("Recording game history to file: ${it.file.absolutePath}")
+            }
+        }
+    }
+
+    /** Stops streaming the game history, if it is being recorded */
+    private fun stopHistoryRecorder() {
+        historyRecorder?.close()
+        historyRecorder = null
+    }
+
     /** Creates a map over participants from the bot connection handshakes */
     private fun createParticipantMap(): Map<BotId, Participant> {
         val participantMap = mutableMapOf<BotId, Participant>()
@@ -261,7 +348,12 @@ class GameServer(
         }
         val droidFlags = participantMap.mapValues { it.value.isDroid == true }
 
-        modelUpdater = ModelUpdater(gameSetup, participantIds, initialPositions, droidFlags)
+        sentTickScoreVersion = -1
+
+        modelUpdater = ModelUpdater(
+            gameSetup.copy(seed = Server.seed), participantIds, initialPositions, droidFlags, Server.turnHistory,
+            turnPhaseExecutor, turnMetrics
+        )
     }
 
     private fun createParticipantIds(): Set<ParticipantId> {
@@ -277,18 +369,17 @@ class GameServer(
         return participantIds
     }
 
-    /** Resets turn timeout timer with min and max bounds */
-    private fun resetTurnTimeout() {
-        turnTimeoutTimer?.stop()
-        turnTimeoutTimer = NanoTimer(
+    /** Resets turn timeout with min and max bounds */
+    private fun resetTurnTimeout() = synchronized(tickLock) {
+        turnScheduler.schedule(
+            turn = turnCount,
             minPeriodInNanos = calculateTurnTimeoutMinPeriod().inWholeNanoseconds,
             maxPeriodInNanos = calculateTurnTimeoutMaxPeriod().inWholeNanoseconds,
-            job = { onNextTurn() }
-        ).apply { start() }
+        )
     }
 
     private fun calculateTurnTimeoutMinPeriod(): Duration {
-        return if (tps <= 0) Duration.ZERO else 1_000_000_000.nanoseconds / tps
+        return if (Server.maxSpeed || tps <= 0) Duration.ZERO else 1_000_000_000.nanoseconds / tps
     }
 
     private fun calculateTurnTimeoutMaxPeriod(): Duration {
@@ -326,43 +417,8 @@ class GameServer(
     }
 
     /** Returns a list of bot results (for observers and controllers) ordered on the score ranks */
-    private fun getResultsForObservers(): List<ResultsForObserver> {
-
-        val results = mutableListOf<ResultsForObserver>()
-
-        val scores = ResultsView.getResults(modelUpdater!!.getResults(), participantMap.values)
-        scores.forEach { score ->
-            participantMap[score.participantId.botId]?.let { participant ->
-
-                val (id, name, version) =
-                    if (participant.teamId == null)
-                        Triple(participant.id, participant.name, participant.version)
-                    else
-                        Triple(participant.teamId, participant.teamName, participant.teamVersion)
-
-                ResultsForObserver().apply {
-                    this.id = id
-                    this.name = name
-                    this.version = version
-                    this.rank = score.rank
-                    survival = score.survivalScore.roundToInt()
-                    lastSurvivorBonus = score.lastSurvivorBonus.roundToInt()
-                    bulletDamage = score.bulletDamageScore.roundToInt()
-                    bulletKillBonus = score.bulletKillBonus.toInt()
-                    ramDamage = score.ramDamageScore.roundToInt()
-                    ramKillBonus = score.ramKillBonus.roundToInt()
-                    totalScore = score.totalScore.roundToInt()
-                    firstPlaces = score.firstPlaces
-                    secondPlaces = score.secondPlaces
-                    thirdPlaces = score.thirdPlaces
-
-                    results += this
-                }
-            }
-        }
-        return results
-    }
-
+    private fun getResultsForObservers(): List<ResultsForObserver> =
+        ResultsForObserverMapper.map(modelUpdater!!.getResults(), participantMap)
 
     /** Broadcast pause event to all observers */
     private fun broadcastGamedPausedToObservers() {
@@ -387,14 +443,16 @@ class GameServer(
     }
 
     private fun updateGameState(): GameState {
-        val botIntentsSnapshot = synchronized(tickLock) {
-            botIntents.mapNotNull { (key, value) ->
-                participantIds[key]?.let { botId ->
-                    botId to dev.robocode.tankroyale.server.model.BotIntent().apply {
-                        update(value)
+        val botIntentsSnapshot = turnMetrics.measure(TurnPhase.INTENT_SNAPSHOT) {
+            synchronized(tickLock) {
+                botIntents.mapNotNull { (key, value) ->
+                    participantIds[key]?.let { botId ->
+                        botId to dev.robocode.tankroyale.server.model.BotIntent().apply {
+                            update(value)
+                        }
                     }
-                }
-            }.toMap()
+                }.toMap()
+            }
         }
 
         return modelUpdater?.update(botIntentsSnapshot)
@@ -437,6 +495,7 @@ class GameServer(
             // Update game state
             updateGameState().apply {
                 onNextTick(lastRound)
+                turnMetrics.endTurn()
 
                 if (isGameEnded) {
                     onGameEnded()
@@ -445,13 +504,16 @@ class GameServer(
 
             // Clear inside synchronized block to prevent race condition
             botsThatSentIntent.clear()
-        }
+            turnCount++
 
-        resetTurnTimeout()
+            // Schedule the next turn before an intent for it can be received, so its ready signal is not lost
+            resetTurnTimeout()
+        }
     }
 
     private fun onGameEnded() {
         log.info("Game ended")
+        logTurnsPerSecond()
 
         broadcastGameEndedToParticipants()
         broadcastGameEndedToObservers()
@@ -483,7 +545,7 @@ class GameServer(
                     botIntents.clear()
                 }
                 sendTickToParticipants(roundNumber, this)
-                broadcastGameTickToObservers(roundNumber, this)
+                broadcastGameTickToObservers(roundNumber, this, roundEnded)
 
                 // Send round ended _after_ tick has been sent
                 if (roundEnded) {
@@ -510,7 +572,7 @@ class GameServer(
     }
 
     private fun broadcastGameEndedToObservers() {
-        broadcastToObserverAndControllers(GameEndedEventForObserver().apply {
+        broadcastAndRecord(GameEndedEventForObserver().apply {
             type = Message.Type.GAME_ENDED_EVENT_FOR_OBSERVER
             numberOfRounds = modelUpdater!!.numberOfRounds
             results = getResultsForObservers() // Use the stored score!
@@ -540,7 +602,7 @@ class GameServer(
     }
 
     private fun broadcastRoundEndedToObservers(roundNumber: Int, turnNumber: Int) {
-        broadcastToObserverAndControllers(RoundEndedEventForObserver().also {
+        broadcastAndRecord(RoundEndedEventForObserver().also {
             it.type = Message.Type.ROUND_ENDED_EVENT_FOR_OBSERVER
             it.roundNumber = roundNumber
             it.turnNumber = turnNumber
@@ -558,8 +620,10 @@ class GameServer(
             val teamId = aliveBotTeamIds[participantId]
             val enemyCount = aliveBotTeamIds.filterValues { it != teamId }.count()
 
-            val event = TurnToTickEventForBotMapper.map(roundNumber, turn, participantId, enemyCount) ?: continue
-            send(conn, event)
+            val event = turnMetrics.measure(TurnPhase.MAPPING) {
+                TurnToTickEventForBotMapper.map(roundNumber, turn, participantId, enemyCount)
+            } ?: continue
+            sendTick(conn, participantId, event)
         }
     }
 
@@ -568,7 +632,7 @@ class GameServer(
             participant.teamId ?: -botId.value
         }
 
-    private fun broadcastGameTickToObservers(roundNumber: Int, turn: ITurn) {
+    private fun broadcastGameTickToObservers(roundNumber: Int, turn: ITurn, roundEnded: Boolean) {
         val enemyCountMap = HashMap<BotId, Int /* enemyCount */>()
 
         val aliveBotTeamIds = aliveBotToTeamIdMap()
@@ -578,22 +642,50 @@ class GameServer(
             enemyCountMap[botId] = aliveBotTeamIds.filterValues { it != teamId }.count()
         }
 
-        val tickEvent = TurnToTickEventForObserverMapper
-            .map(roundNumber, turn, participantMap, enemyCountMap, debugGraphicsEnableMap)
-
-        // Send score updates every 20 ticks to reduce overhead
+        val tickEvent = turnMetrics.measure(TurnPhase.MAPPING) {
+            TurnToTickEventForObserverMapper
+                .map(roundNumber, turn, participantMap, enemyCountMap, debugGraphicsEnableMap)
+        }
 
-            val json = gson.toJson(tickEvent)
-            val jsonObject = gson.fromJson(json, com.google.gson.JsonObject::class.java)
+        val tickScores = modelUpdater?.takeIf { isTickScoreDue(it, turn.turnNumber, roundEnded) }?.getTickScores()
 
-            // Add tick scores to the JSON object
-            modelUpdater?.getTickScores()?.let { tickScores ->
-                jsonObject.add("tickScores", TickScoreMapper.mapToJson(tickScores))
-                // log.info("Sending tick scores for turn: ${turn.turnNumber}, scores count: ${tickScores.size}")
+        val (tick, deltaTick) = turnMetrics.measure(TurnPhase.SERIALIZATION) {
+            val deltaTick = if (connectionHandler.hasTickDeltaSockets()) {
+                tickDeltaWriter.write(tickEvent, tickScores, isTickKeyframe(turn.turnNumber))
+            } else {
+                tickDeltaWriter.reset()
+                null
             }
+            tickWriter.write(tickEvent, tickScores) to deltaTick
+        }
 
-            broadcastToObserverAndControllers(jsonObject.toString())
+        turnMetrics.measure(TurnPhase.SEND) {
+            historyRecorder?.record(tick)
+            connectionHandler.broadcastTickToObserverAndControllers(tick, deltaTick)
+        }
+    }
 
+    /**
+     * Checks if the tick of a turn is a keyframe, which is sent as a full tick to observers that enabled tick deltas.
+     * The first turn of each round is a keyframe, so a delta never spans two rounds.
+     */
+    private fun isTickKeyframe(turnNumber: Int): Boolean =
+        turnNumber == 1 || turnNumber % Server.tickKeyframeInterval.coerceAtLeast(1) == 0
+
+    /**
+     * Checks if the tick scores must be sent with the tick of a turn. The tick scores are only sent when they have
+     * changed since they were last sent, and at most once per tick score interval, except for the first and last turn
+     * of a round. Observers keep showing the last tick scores they received.
+     */
+    private fun isTickScoreDue(modelUpdater: ModelUpdater, turnNumber: Int, roundEnded: Boolean): Boolean {
+        val version = modelUpdater.tickScoreVersion
+        if (version == sentTickScoreVersion) return false
+        if (turnNumber > 1 && !roundEnded && turnNumber - sentTickScoreTurnNumber < Server.tickScoreInterval) {
+            return false
+        }
+        sentTickScoreVersion = version
+        sentTickScoreTurnNumber = turnNumber
+        return true
     }
 
     private fun checkForSkippedTurns(currentTurnNumber: Int) {
@@ -606,7 +698,10 @@ class GameServer(
             }
             val json = gson.toJson(skippedTurn)
 
-            botsSkippingTurn.forEach { bot -> connectionHandler.send(bot, json) }
+            botsSkippingTurn.forEach { bot ->
+                connectionHandler.send(bot, json)
+                participantIds[bot]?.let { turnMetrics.bot(it.value)?.turnSkipped() }
+            }
         }
     }
 
@@ -643,12 +738,34 @@ class GameServer(
 
     private fun send(conn: WebSocket, msg: Message) {
         requireNotNull(msg.type) { TYPE_IS_REQUIRED_ON_MESSAGE }
-        gson.toJson(msg).also {
-            try {
-                conn.send(it)
-            } catch (_: WebsocketNotConnectedException) {
-                // Bot cannot receive events and send new intents.
+        try {
+            if (connectionHandler.isCborEnabled(conn)) {
+                conn.send(Cbor.write(gson, msg))
+            } else {
+                conn.send(gson.toJson(msg))
             }
+        } catch (_: WebsocketNotConnectedException) {
+            // Bot cannot receive events and send new intents.
+        }
+    }
+
+    /** Sends a tick event to a bot, where serializing and sending the event are timed as phases of the turn */
+    private fun sendTick(conn: WebSocket, botId: BotId, event: TickEventForBot) {
+        val botMetrics = turnMetrics.bot(botId.value)
+        try {
+            // The send time is recorded before sending, as the intent of the bot might be handled on another thread
+            // before the send returns
+            if (connectionHandler.isCborEnabled(conn)) {
+                val bytes = turnMetrics.measure(TurnPhase.SERIALIZATION) { Cbor.write(gson, event) }
+                botMetrics?.tickSent()
+                turnMetrics.measure(TurnPhase.SEND) { conn.send(bytes) }
+            } else {
+                val json = turnMetrics.measure(TurnPhase.SERIALIZATION) { gson.toJson(event) }
+                botMetrics?.tickSent()
+                turnMetrics.measure(TurnPhase.SEND) { conn.send(json) }
+            }
+        } catch (_: WebsocketNotConnectedException) {
+            // Bot cannot receive events and send new intents.
         }
     }
 
@@ -661,9 +778,19 @@ class GameServer(
         connectionHandler.broadcastToObserverAndControllers(gson.toJson(msg))
     }
 
+    /** Broadcasts a message to observers and controllers, and records it to the game history if enabled */
+    private fun broadcastAndRecord(msg: Message) {
+        requireNotNull(msg.type) { TYPE_IS_REQUIRED_ON_MESSAGE }
+        val json = gson.toJson(msg)
+        historyRecorder?.record(json)
+        connectionHandler.broadcastToObserverAndControllers(json)
+    }
+
+    /** Broadcasts a message to all, and records it to the game history if enabled */
     private fun broadcastToAll(msg: Message) {
         requireNotNull(msg.type) { TYPE_IS_REQUIRED_ON_MESSAGE }
         val json = gson.toJson(msg)
+        historyRecorder?.record(json)
         connectionHandler.broadcastToObserverAndControllers(json)
         connectionHandler.broadcast(participants, json) // note: it is only participants, not all bots
     }
@@ -724,8 +851,9 @@ class GameServer(
     internal fun handleBotIntent(conn: WebSocket, intent: BotIntent) {
         if (!participants.contains(conn)) return
 
-        // Update bot intent using a synchronized block to ensure atomic operation
-        synchronized(tickLock) {
+        // Update bot intent using a synchronized block to ensure atomic operation.
+        // The turn is read within the same block, so a late intent cannot make the next turn ready.
+        val readyTurn = synchronized(tickLock) {
             // Get existing intent or null if it doesn't exist yet
             val existingIntent = botIntents[conn]
 
@@ -760,11 +888,20 @@ class GameServer(
                 }
             }
 
-            // If all bot intents have been received, we can start next turn
             botsThatSentIntent += conn
-            if (botIntents.size == botsThatSentIntent.size) {
-                turnTimeoutTimer?.notifyReady()
-            }
+
+            // If all bot intents have been received, we can start next turn
+            if (haveAllAliveParticipantsSentIntent()) turnCount else null
+        }
+        participantIds[conn]?.let { turnMetrics.bot(it.value)?.intentReceived() }
+
+        readyTurn?.let { turnScheduler.notifyReady(it) }
+    }
+
+    private fun haveAllAliveParticipantsSentIntent(): Boolean = synchronized(tickLock) {
+        participants.all { participant ->
+            participant in botsThatSentIntent ||
+                    participantIds[participant]?.let { modelUpdater?.isAlive(it) } != true
         }
     }
 
@@ -794,7 +931,7 @@ class GameServer(
         if (serverState === ServerState.GAME_RUNNING) {
             log.info("Pausing game")
             serverState = ServerState.GAME_PAUSED
-            turnTimeoutTimer?.pause()
+            turnScheduler.pause()
             broadcastGamedPausedToObservers()
         }
     }
@@ -803,7 +940,7 @@ class GameServer(
         if (serverState === ServerState.GAME_PAUSED) {
             log.info("Resuming game")
             serverState = ServerState.GAME_RUNNING
-            turnTimeoutTimer?.resume()
+            turnScheduler.resume()
             broadcastGameResumedToObservers()
         }
     }
@@ -841,12 +978,55 @@ class GameServer(
     }
 
     private fun cleanupAfterGameStopped() {
-        turnTimeoutTimer?.stop()
+        turnScheduler.stop()
+        logTurnLatency()
+        stopHistoryRecorder()
 
         modelUpdater = null
         System.gc()
     }
 
+    /** Logs the number of turns per second achieved during the game */
+    private fun logTurnsPerSecond() {
+        val seconds = (System.nanoTime() - gameStartTime) / 1_000_000_000.0
+        if (seconds > 0) {
+            log.info("Turns: $turnCount in ${"%.1f".format(Locale.ROOT, seconds)} s, " +
+                    "turns per second: ${"%.1f".format(Locale.ROOT, turnCount / seconds)}")
+        }
+    }
+
+    /** Logs the turn latencies of the game, and starts over for the next game */
+    private fun logTurnLatency() {
+        if (turnLatency.count > 0) {
+            log.info("Turn latency: ${turnLatency.summary()}, turn timeouts: ${turnScheduler.timeoutCount}")
+        }
+        if (metricsLogExecutor != null) {
+            logTurnMetrics() // final summary of the game
+        }
+        turnScheduler.resetMetrics()
+    }
+
+    /** Logs a summary of the turn metrics of the current game */
+    private fun logTurnMetrics() {
+        if (turnMetrics.turnCount > 0) {
+            log.info(turnMetrics.summary())
+        }
+    }
+
+    /** Returns the metrics of the current game in the Prometheus text format */
+    private fun prometheusMetrics(): String = PrometheusWriter().apply {
+        turnMetrics.writeTo(this)
+        histogram(
+            "robocode_turn_latency_seconds",
+            "Time from the last intent of a turn being received until the tick has been sent", turnLatency
+        )
+        counter(
+            "robocode_turn_timeouts_total",
+            "Number of turns run as the turn timeout passed before all intents were received",
+            turnScheduler.timeoutCount
+        )
+    }.toString()
+
     private fun transferDebugGraphicsFlagToModel() {
         modelUpdater?.botsMap?.forEach { (botId, bot) ->
             bot.isDebuggingEnabled = debugGraphicsEnableMap[botId] ?: false
@@ -11,16 +11,16 @@ import dev.robocode.tankroyale.server.model.Color.Companion.from
 import dev.robocode.tankroyale.server.rules.*
 import dev.robocode.tankroyale.server.score.ScoreTracker
 import dev.robocode.tankroyale.server.Server
-import dev.robocode.tankroyale.server.score.RankDecorator
+import dev.robocode.tankroyale.server.metrics.TurnMetrics
+import dev.robocode.tankroyale.server.metrics.TurnPhase
 import dev.robocode.tankroyale.server.util.WallConfig
 import java.lang.Math.toDegrees
 import java.util.*
 import kotlin.math.abs
 import kotlin.math.atan2
-import kotlin.math.ceil
-import kotlin.math.floor
-import kotlin.math.pow
-import kotlin.math.sqrt
+import kotlin.math.cos
+import kotlin.math.sin
+import kotlin.random.Random
 
 /** Maximum bounding circle diameter of a bullet moving with max speed */
 private val bulletMaxBoundingCircleDiameter: Double = 2 * MAX_BULLET_SPEED
@@ -29,6 +29,9 @@ private val bulletMaxBoundingCircleDiameter: Double = 2 * MAX_BULLET_SPEED
 private val bulletMaxBoundingCircleDiameterSquared: Double =
     bulletMaxBoundingCircleDiameter * bulletMaxBoundingCircleDiameter
 
+/** Minimum number of bullets per chunk when moving the bullets in parallel, as moving a bullet is very cheap */
+private const val MIN_BULLETS_PER_CHUNK = 4096
+
 /** Square of the bounding circle diameter of a bot */
 private const val BOT_BOUNDING_CIRCLE_DIAMETER_SQUARED: Double =
     BOT_BOUNDING_CIRCLE_DIAMETER.toDouble() * BOT_BOUNDING_CIRCLE_DIAMETER
@@ -42,30 +45,54 @@ class ModelUpdater(
     /** Initial positions */
     private val initialPositions: Map<BotId, InitialPosition>,
     /** Droid flags */
-    private val droidFlags: Map<BotId, Boolean /* isDroid */>
+    private val droidFlags: Map<BotId, Boolean /* isDroid */>,
+    /** Number of turns to keep in the game history, where [ALL_TURNS] means that the full history is kept */
+    private val turnsToKeep: Int = ALL_TURNS,
+    /** Executor for running the per-bot phases of a turn in parallel, or `null` to run all phases on the caller */
+    private val phaseExecutor: TurnPhaseExecutor? = null,
+    /** Metrics timing the phases of each turn, or `null` if the phases are not timed */
+    private val turnMetrics: TurnMetrics? = null,
 ) {
     /** Score tracking */
     private val scoreTracker = ScoreTracker(participantIds)
     private val scoreCalculator = ScoreCalculator(participantIds, scoreTracker)
     private val accumulatedScoreCalculator = AccumulatedScoreCalculator()
 
+    /** Seed of the random generator, which is the seed of the game setup, or a random seed if none was given */
+    internal val seed: Long = setup.seed ?: Random.nextLong()
+
+    /** Random generator used for all randomness of the game, so a game is reproduced by using the same seed */
+    private val random = Random(seed)
+
     /** Map over all bots */
     internal val botsMap = mutableMapOf<BotId, MutableBot>()
 
-    /** Map over copied bots from previous turn */
-    private val botsCopies = mutableMapOf<BotId, MutableBot>()
+    /** Physics states of all bots, which are read and written through the bots of the bots map */
+    private val botStates = BotStates()
+
+    /** States of the bots captured at the start of the turn, i.e. the states from the previous turn */
+    private val previousBotStates = BotStates()
 
     /** Map over all bot intents */
     private val botIntentsMap = mutableMapOf<BotId, BotIntent>()
 
     /** Bullets */
-    private val bullets = mutableSetOf<MutableBullet>()
+    private val bullets = BulletStore()
+
+    /** Broad-phase grid over the bullet end positions, which is refilled every turn */
+    private val bulletGrid = PointGrid(setup.arenaWidth, setup.arenaHeight, bulletMaxBoundingCircleDiameter)
+
+    /** Broad-phase grid over the bot positions, which is refilled every turn */
+    private val botGrid = PointGrid(setup.arenaWidth, setup.arenaHeight, BOT_BOUNDING_CIRCLE_DIAMETER.toDouble())
+
+    /** Bots in the order they were added to the [botGrid] */
+    private val botGridBots = ArrayList<MutableBot>()
 
     /** Game state */
     private var gameState = GameState(Arena(setup.arenaWidth, setup.arenaHeight))
 
     /** Round record */
-    private var round = MutableRound(0)
+    private var round = MutableRound(0, turnsToKeep = turnsToKeep)
 
     /** Turn record */
     internal val turn = MutableTurn(0)
@@ -86,19 +113,39 @@ class ModelUpdater(
     internal fun getResults() = accumulatedScoreCalculator.getScores()
 
     /** The current tick scores ordered with higher total scores first */
-    internal fun getTickScores(): List<TickScore> {
-        val scores = participantIds.map { scoreTracker.calculateScore(it) }
-        RankDecorator.updateRanks(scores)
-        return scores.map { TickScore(it) }
-            .sortedByDescending { it.totalScore }
-    }
+    internal fun getTickScores(): List<TickScore> = scoreTracker.getTickScores()
+
+    /** The version of the tick scores, which is changed whenever the tick scores might have changed */
+    internal val tickScoreVersion: Long get() = scoreTracker.version
 
     /** The number of rounds played so far */
-    internal val numberOfRounds: Int get() = gameState.rounds.size
+    internal val numberOfRounds: Int get() = round.roundNumber
 
     internal fun isAlive(botId: BotId) = botsMap[botId]?.isAlive ?: false
 
     private val walls: List<Wall> = listOf()
+
+    /** Static index over the custom walls, which is built once per game as the walls never move */
+    private val wallIndex = WallIndex(walls, setup.arenaWidth, setup.arenaHeight)
+
+    /** Number of chunks the per-bot phases can be split into, which each need their own query cursor and sweep */
+    private val chunkCount = phaseExecutor?.parallelism ?: 1
+
+    /** Reusable query cursors for the wall index, one per chunk */
+    private val wallQueries = Array(chunkCount) { wallIndex.newQuery() }
+
+    /** Reusable query cursor for the wall index used by the phases run on the caller */
+    private val wallQuery = wallQueries[0]
+
+    /** Visibility engines for the radar scans, one per chunk, which are refilled with the bot positions every turn */
+    private val radarSweeps = Array(chunkCount) { RadarSweep(wallIndex, setup.arenaWidth, setup.arenaHeight) }
+
+    /** Bots of the turn in the order used by the per-bot phases, which is also the order added to the radar sweeps */
+    private val turnBots = ArrayList<MutableBot>()
+
+    /** Buffers for the events of each bot in [turnBots], which are used when the per-bot phases are run in parallel */
+    private val botEventBuffers = ArrayList<TurnEventBuffer>()
+
     /**
      * Updates game state.
      * @param botIntents is the bot intents, which gives instructions to the game from the individual bots.
@@ -150,67 +197,87 @@ class ModelUpdater(
         turn.turnNumber++
         turn.resetEvents()
 
-        deepCopyBots()
-
-        coolDownAndFireGuns()
-
-        executeBotIntents()
-
-        checkAndHandleArenaWallCollisions()         // 原有竞技场边界机器人碰撞检测
-        checkAndHandleCustomWallCollisions()       // 新增自定义墙体机器人碰撞检测
-        checkAndHandleBotCollisions()
-        constrainBotPositions()
+        previousBotStates.copyFrom(botStates)
 
-        checkAndHandleScans()                       // 修改扫描逻辑，实现遮挡功能
+        turnBots.clear()
+        turnBots.addAll(botsMap.values)
 
-        updateBulletPositions()
-        checkAndHandleArenaBulletWallCollisions()   // 原有竞技场边界子弹碰撞检测
-        checkAndHandleCustomBulletWallCollisions()  // 新增自定义墙体子弹碰撞检测
-        checkAndHandleBulletHits()
-
-        checkAndHandleInactivity()
-        checkForAndHandleDisabledBots()
-        checkAndHandleDefeatedBots()
-
-        checkAndHandleRoundOrGameOver()
+        measure(TurnPhase.GUNS) {
+            coolDownAndFireGuns()
+        }
+        measure(TurnPhase.MOVEMENT) {
+            executeBotIntents()
+        }
+        measure(TurnPhase.BOT_COLLISIONS) {
+            checkAndHandleArenaWallCollisions()         // 原有竞技场边界机器人碰撞检测
+            checkAndHandleCustomWallCollisions()       // 新增自定义墙体机器人碰撞检测
+            checkAndHandleBotCollisions()
+            constrainBotPositions()
+        }
+        measure(TurnPhase.SCANS) {
+            checkAndHandleScans()                       // 修改扫描逻辑，实现遮挡功能
+        }
+        measure(TurnPhase.BULLETS) {
+            updateBulletPositions()
+            checkAndHandleArenaBulletWallCollisions()   // 原有竞技场边界子弹碰撞检测
+            checkAndHandleCustomBulletWallCollisions()  // 新增自定义墙体子弹碰撞检测
+            checkAndHandleBulletHits()
+        }
+        measure(TurnPhase.RULES) {
+            checkAndHandleInactivity()
+            checkForAndHandleDisabledBots()
+            checkAndHandleDefeatedBots()
 
-        // Store bot and bullet snapshots
-        turn.copyBots(botsMap.values)
-        turn.copyBullets(bullets)
+            checkAndHandleRoundOrGameOver()
+        }
+        measure(TurnPhase.SNAPSHOTS) {
+            // Store bot and bullet snapshots
+            turn.copyBots(botsMap.values)
+            turn.copyBullets(bullets)
+        }
 
         // Remove dead bots
         botsMap.values.removeIf(IBot::isDead)
     }
 
-    private fun deepCopyBots() {
-        botsMap.forEach {
-            botsCopies[it.key] = deepCopy(it.value)
-        }
+    /** Runs a phase of the turn, which is timed if the turn metrics are enabled. */
+    private inline fun measure(phase: TurnPhase, block: () -> Unit) {
+        val metrics = turnMetrics
+        if (metrics != null) metrics.measure(phase, block) else block()
     }
 
-    private fun deepCopy(bot: MutableBot) = MutableBot(
-        id = bot.id,
-        isDroid = bot.isDroid,
-        position = MutablePoint(bot.x, bot.y),
-        direction = bot.direction,
-        gunDirection = bot.gunDirection,
-        radarDirection = bot.radarDirection,
-    )
-
     /**
      * Updates the game state.
      * @return new game state.
      */
     private fun updateGameState(): GameState {
-        round.turns += turn.toTurn()
+        round.addTurn(turn.toTurn())
         if (gameState.rounds.size == 0 || gameState.rounds.last().roundNumber != round.roundNumber) {
             gameState.rounds += round
+
+            // Only the last round is needed, unless the full history must be kept
+            if (turnsToKeep != ALL_TURNS) {
+                while (gameState.rounds.size > 1) gameState.rounds.removeAt(0)
+            }
         }
         return gameState
     }
 
     /** Initializes bot states. */
     private fun initializeBotStates() {
+        // All bots are placed again when a bot was placed on a wall
+        while (!placeBots()) {
+            botsMap.clear()
+        }
+        // Store bot snapshots into the turn
+        turn.copyBots(botsMap.values)
+    }
+
+    /**
+     * Places all bots at their start positions.
+     * @return `true` if all bots were placed; `false` if a bot was placed on a wall.
+     */
+    private fun placeBots(): Boolean {
         val occupiedCells = mutableSetOf<Int>()
         for (teamOrBotId in participantIds) {
             val botId = teamOrBotId.botId
@@ -223,10 +290,10 @@ class ModelUpdater(
             // 检查是否与墙体碰撞
             if (isPositionCollidingWithWalls(position)) {
                 // 如果碰撞，重新生成位置
-                return initializeBotStates()
+                return false
             }
             // note: body, gun, and radar starts in the same direction
-            val randomDirection = randomDirection()
+            val randomDirection = randomDirection(random)
             val direction = adjustForInitialAngle(botId, randomDirection)
 
             val teammateIds: Set<BotId> =
@@ -237,23 +304,26 @@ class ModelUpdater(
 
             botsMap[botId] = MutableBot(
                 id = botId,
+                states = botStates,
                 isDroid = isDroid,
                 energy = energy,
                 teammateIds = teammateIds,
-                position = position.toMutablePoint(),
+                x = position.x,
+                y = position.y,
                 direction = direction,
                 gunDirection = direction,
                 radarDirection = direction,
             )
         }
-        // Store bot snapshots into the turn
-        turn.copyBots(botsMap.values)
+        return true
     }
 
     private fun isPositionCollidingWithWalls(position: Point): Boolean {
-        return walls.any { wall ->
-            wall.intersectsCircle(position, BOT_BOUNDING_CIRCLE_RADIUS)
+        val count = wallQuery.near(position.x, position.y, BOT_BOUNDING_CIRCLE_RADIUS)
+        for (i in 0 until count) {
+            if (wallQuery[i].intersectsCircle(position.x, position.y, BOT_BOUNDING_CIRCLE_RADIUS)) return true
         }
+        return false
     }
 
     private fun adjustForInitialPosition(botId: BotId, point: Point): Point {
@@ -311,11 +381,11 @@ class ModelUpdater(
             val cellWidth = setup.arenaWidth / gridWidth
             val cellHeight = setup.arenaHeight / gridHeight
 
-            return randomBotPoint(occupiedCells, cellCount, gridWidth, cellWidth, cellHeight)
+            return randomBotPoint(occupiedCells, cellCount, gridWidth, cellWidth, cellHeight, random)
         }
         
         // 从可用位置中随机选择一个
-        val selectedPosition = availablePositions.random()
+        val selectedPosition = availablePositions.random(random)
         
         // 标记该位置已被占用
         val selectedIndex = predefinedPositions.indexOf(selectedPosition)
@@ -415,16 +485,45 @@ class ModelUpdater(
 
     /** Execute bot intents for all bots that are not disabled */
     private fun executeBotIntents() {
-        botsMap.values.forEach { bot ->
-            if (bot.isEnabled) executeBotIntent(bot)
+        forEachBot { _, bot, events, _ ->
+            if (bot.isEnabled) executeBotIntent(bot, events)
+        }
+    }
+
+    /**
+     * Runs a per-bot phase for all bots in [turnBots], where the phase must only change the bot it is run for.
+     *
+     * With a [phaseExecutor], the bots are split into chunks that are run in parallel. The events of each bot are then
+     * buffered and added to the turn in bot order afterwards, so the turn ends up the same as when run on the caller.
+     *
+     * @param action is run with the index of the bot in [turnBots], the bot, the sink for the events of the bot, and
+     * the index of the chunk, which selects the scratch state like [wallQueries] to use.
+     */
+    private fun forEachBot(action: (index: Int, bot: MutableBot, events: TurnEventSink, chunk: Int) -> Unit) {
+        val executor = phaseExecutor
+        if (executor == null || executor.chunkCount(turnBots.size) <= 1) {
+            turnBots.forEachIndexed { i, bot -> action(i, bot, turn, 0) }
+            return
+        }
+        while (botEventBuffers.size < turnBots.size) {
+            botEventBuffers += TurnEventBuffer()
+        }
+        executor.forEachChunk(turnBots.size) { chunk, from, to ->
+            for (i in from until to) {
+                action(i, turnBots[i], botEventBuffers[i], chunk)
+            }
+        }
+        for (i in turnBots.indices) {
+            botEventBuffers[i].flushTo(turn)
         }
     }
 
     /**
      * Executes the bot states intent.
      * @param bot is the bot top execute the bot intent for.
+     * @param events is the sink for the events of the bot.
      */
-    private fun executeBotIntent(bot: MutableBot) {
+    private fun executeBotIntent(bot: MutableBot, events: TurnEventSink) {
         botIntentsMap[bot.id]?.apply {
             val oldSpeed = bot.speed
             bot.speed = calcNewBotSpeed(bot.speed, targetSpeed ?: 0.0)
@@ -447,7 +546,7 @@ class ModelUpdater(
             updateBotColors(bot, this)
             updateDebugGraphics(bot, this)
             processStdErrAndStdOut(bot, this)
-            processTeamMessages(bot, this)
+            processTeamMessages(bot, this, events)
         }
     }
 
@@ -455,30 +554,51 @@ class ModelUpdater(
     private fun checkAndHandleBulletHits() {
         val bulletCount = bullets.size
         if (bulletCount > 0) {
-            // Create list of bullet line segments used for checking for bullet hits
-            val bulletLines = mutableListOf<BulletLine>()
-            bullets.forEach { bulletLines += BulletLine(it.toBullet()) }
+            // Broad phase: bin the bullet end positions and bot positions into grids, so each bullet is only tested
+            // against the bullets and bots in the neighbouring cells
+            bulletGrid.clear()
+            for (i in 0 until bulletCount) {
+                val slot = bullets.slotAt(i)
+                bulletGrid.add(bullets.nextX(slot), bullets.nextY(slot))
+            }
+            bulletGrid.build()
+
+            botGridBots.clear()
+            botGrid.clear()
+            botsMap.values.forEach {
+                botGridBots += it
+                botGrid.add(it.x, it.y)
+            }
+            botGrid.build()
 
-            // Check for bullet hits
+            // Check for bullet hits. Candidates are reported in ascending order, so the hits are handled in the same
+            // order as when testing all pairs. Hit bullets are only marked as removed, so the bullet order is kept
+            // while checking
             for (i in 0 until bulletCount) {
-                for (j in i + 1 until bulletCount) {
-                    if (isColliding(bulletLines[i], bulletLines[j])) {
-                        handleBulletHitBullet(bulletLines[i].bullet, bulletLines[j].bullet)
+                val slot = bullets.slotAt(i)
+                val count = bulletGrid.near(bullets.nextX(slot), bullets.nextY(slot), bulletMaxBoundingCircleDiameter)
+                for (k in 0 until count) {
+                    val j = bulletGrid[k]
+                    if (j > i && isColliding(slot, bullets.slotAt(j))) {
+                        handleBulletHitBullet(slot, bullets.slotAt(j))
                     }
                 }
-                checkAndHandleBulletHitBot(bulletLines[i])
+                checkAndHandleBulletHitBot(slot)
             }
+            bullets.compact()
         }
     }
 
     /**
      * Handles when a bullet has hit another bullet.
-     * @param bullet1 is the first bullet.
-     * @param bullet2 is the second bullet.
+     * @param slot1 is the slot of the first bullet in the [bullets].
+     * @param slot2 is the slot of the second bullet in the [bullets].
      */
-    private fun handleBulletHitBullet(bullet1: IBullet, bullet2: IBullet) {
+    private fun handleBulletHitBullet(slot1: Int, slot2: Int) {
+        val bullet1 = bullets.toBullet(slot1)
+        val bullet2 = bullets.toBullet(slot2)
         val event1 = BulletHitBulletEvent(turn.turnNumber, bullet1, bullet2)
-        val event2 = BulletHitBulletEvent(turn.turnNumber, bullet2, bullet1)
+        val event2 = BulletHitBulletEvent(turn.turnNumber, event1.hitBullet, event1.bullet)
 
         turn.apply {
             addPrivateBotEvent(bullet1.botId, event1)
@@ -487,48 +607,57 @@ class ModelUpdater(
             addObserverEvent(event1)
         }
         // Remove bullets from the arena
-        bullets -= (bullet1 as Bullet).toMutableBullet()
-        bullets -= (bullet2 as Bullet).toMutableBullet()
+        bullets.remove(slot1)
+        bullets.remove(slot2)
     }
 
     /**
      * Checks if two bullet bullets are colliding, i.e. if their two line segments are intersecting.
+     * @param i is the slot of the first bullet in the [bullets].
+     * @param j is the slot of the second bullet in the [bullets].
      * @return `true` if the two bullet line segments are intersection; `false` otherwise.
      */
-    private fun isColliding(bulletLine1: BulletLine, bulletLine2: BulletLine): Boolean =
+    private fun isColliding(i: Int, j: Int): Boolean = with(bullets) {
         // Check if the bullets bounding circles intersects (is fast) before
-        isBulletsMaxBoundingCirclesColliding(bulletLine1.end, bulletLine2.end) &&
+        isBulletsMaxBoundingCirclesColliding(nextX(i), nextY(i), nextX(j), nextY(j)) &&
                 // checking if the bullets bounding lines intersect (is slower)
-                isLineIntersectingLine(bulletLine1.line, bulletLine2.line)
+                isLineIntersectingLine(
+                    x(i), y(i), nextX(i), nextY(i),
+                    x(j), y(j), nextX(j), nextY(j)
+                )
+    }
 
     /**
      * Checks and handles if a bullet hits a bot.
-     * @param bulletLine is the bullet line of the bullet.
+     * @param slot is the slot of the bullet in the [bullets].
      */
-    private fun checkAndHandleBulletHitBot(bulletLine: BulletLine) {
+    private fun checkAndHandleBulletHitBot(slot: Int) {
+        val botId = bullets.botId(slot)
+        val startX = bullets.x(slot)
+        val startY = bullets.y(slot)
+        val endX = bullets.nextX(slot)
+        val endY = bullets.nextY(slot)
+        val count = botGrid.within(
+            minOf(startX, endX) - BOT_BOUNDING_CIRCLE_RADIUS,
+            minOf(startY, endY) - BOT_BOUNDING_CIRCLE_RADIUS,
+            maxOf(startX, endX) + BOT_BOUNDING_CIRCLE_RADIUS,
+            maxOf(startY, endY) + BOT_BOUNDING_CIRCLE_RADIUS
+        )
         // Check bullet-hit-bot collision (hit)
-        for (bot in botsMap.values) {
-            if (bulletLine.bullet.botId == bot.id) {
+        for (k in 0 until count) {
+            val bot = botGridBots[botGrid[k]]
+            if (botId == bot.id) {
                 continue // A bot cannot shoot itself
             }
-            if (isBulletHittingBot(bulletLine, bot)) {
-                handleBulletHittingBot(bulletLine.bullet, bot)
+            if (isLineIntersectingCircle(startX, startY, endX, endY, bot.x, bot.y, BOT_BOUNDING_CIRCLE_RADIUS)) {
+                handleBulletHittingBot(bullets.toBullet(slot), bot)
 
                 // Remove bullet from the arena
-                bullets.removeIf { bullet -> bullet.id == bulletLine.bullet.id }
+                bullets.remove(slot)
             }
         }
     }
 
-    /**
-     * Checks if a bullet is hitting a bot.
-     * @param bulletLine is the line of the bullet.
-     * @param bot is the bot that might be hit.
-     * @return `true` if the bot has been hit; `false` otherwise.
-     */
-    private fun isBulletHittingBot(bulletLine: BulletLine, bot: IBot): Boolean =
-        isLineIntersectingCircle(bulletLine.line, bot.position, BOT_BOUNDING_CIRCLE_RADIUS)
-
     /**
      * Handles when a bullet has hit a bot.
      * @param bullet is the bullet that has hit.
@@ -578,8 +707,7 @@ class ModelUpdater(
     /** Constrain all bot positions, so they are kept inside the battle arena. */
     private fun constrainBotPositions() {
         botsMap.values.forEach { bot ->
-            val (previousX, previousY) = botsCopies[bot.id]!!.position
-            val (x, y) = constrainBotPosition(previousX, previousY, bot.x, bot.y)
+            val (x, y) = constrainBotPosition(previousBotStates.x(bot.id), previousBotStates.y(bot.id), bot.x, bot.y)
             bot.x = x
             bot.y = y
         }
@@ -663,14 +791,17 @@ class ModelUpdater(
         val lastTurn = round.lastTurn
         if (turn.turnNumber == 1 || lastTurn == null) {
             // Same position on first turn? => Move the second bot to a random position
-            val x = BOT_BOUNDING_CIRCLE_RADIUS + Math.random() * (setup.arenaWidth - BOT_BOUNDING_CIRCLE_DIAMETER)
-            val y = BOT_BOUNDING_CIRCLE_RADIUS + Math.random() * (setup.arenaHeight - BOT_BOUNDING_CIRCLE_DIAMETER)
-            bot2.position = MutablePoint(x, y)
+            val x = BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (setup.arenaWidth - BOT_BOUNDING_CIRCLE_DIAMETER)
+            val y = BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (setup.arenaHeight - BOT_BOUNDING_CIRCLE_DIAMETER)
+            bot2.x = x
+            bot2.y = y
         } else {
-            val oldPos1 = lastTurn.getBot(bot1.id)!!.position
-            val oldPos2 = lastTurn.getBot(bot2.id)!!.position
-            bot1.position = MutablePoint(oldPos1.x, oldPos1.y)
-            bot2.position = MutablePoint(oldPos2.x, oldPos2.y)
+            val oldBot1 = lastTurn.getBot(bot1.id)!!
+            val oldBot2 = lastTurn.getBot(bot2.id)!!
+            bot1.x = oldBot1.x
+            bot1.y = oldBot1.y
+            bot2.x = oldBot2.x
+            bot2.y = oldBot2.y
         }
 
         // Stop bots by setting speed to 0
@@ -722,46 +853,44 @@ class ModelUpdater(
 
     /** Updates bullet positions */
     private fun updateBulletPositions() {
-        bullets.forEach { bullet -> bullet.incrementTick() }
+        val executor = phaseExecutor
+        if (executor == null) {
+            bullets.incrementTicks()
+        } else {
+            executor.forEachChunk(bullets.size, MIN_BULLETS_PER_CHUNK) { _, from, to ->
+                bullets.incrementTicks(from, to)
+            }
+        }
     }
 
     private fun checkAndHandleCustomWallCollisions() {
-        if (walls.isEmpty()) return // 如果无墙体则直接返回
-
-        val bots = botsMap.values.toList()
-        val walls = this.walls
-        // 使用空间分区优化检测
-        val spatialPartition = SpatialPartition(walls, gridSize = 20.0)
-
-        for (bot in bots) {
-            val botCenter = bot.position.toPoint()
-            val radius = BOT_BOUNDING_CIRCLE_RADIUS
-
-            // 获取可能相交的墙体（考虑机器人半径和墙体外接圆半径）
-            val potentialWalls = spatialPartition.getWallsNear(
-                botCenter,
-                radius + (walls.maxOfOrNull { it.boundsRadius } ?: 0.0)
-            )
-
-            for (wall in potentialWalls) {
-                if (wall.intersectsCircle(botCenter, radius)) {
-                    handleBotHitCustomWall(bot, wall)
+        if (wallIndex.isEmpty()) return // 如果无墙体则直接返回
+
+        val radius = BOT_BOUNDING_CIRCLE_RADIUS
+        forEachBot { _, bot, events, chunk ->
+            // 获取可能相交的墙体（墙体按外接圆登记在网格中，因此只需按机器人半径查询）
+            val query = wallQueries[chunk]
+            val count = query.near(bot.x, bot.y, radius)
+            for (i in 0 until count) {
+                val wall = query[i]
+                if (wall.intersectsCircle(bot.x, bot.y, radius)) {
+                    handleBotHitCustomWall(bot, wall, events)
                     break // 只处理第一个碰撞的墙体
                 }
             }
         }
     }
-    private fun handleBotHitCustomWall(bot: MutableBot, wall: Wall) {
+
+    private fun handleBotHitCustomWall(bot: MutableBot, wall: Wall, events: TurnEventSink) {
 
         // 恢复坦克到上一帧的位置，避免穿透墙体
-        val previousState = botsCopies[bot.id]!!
-        bot.x = previousState.x
-        bot.y = previousState.y
+        bot.x = previousBotStates.x(bot.id)
+        bot.y = previousBotStates.y(bot.id)
         if (round.lastTurn!!.getEvents(bot.id).none { event -> event is BotHitWallEvent }) {
 
             val botHitWallEvent = BotHitWallEvent(turn.turnNumber, bot.id)
-            turn.addPrivateBotEvent(bot.id, botHitWallEvent)
-            turn.addObserverEvent(botHitWallEvent)
+            events.addPrivateBotEvent(bot.id, botHitWallEvent)
+            events.addObserverEvent(botHitWallEvent)
 
             bot.addDamage(calcWallDamage(bot.speed))
         }
@@ -770,15 +899,15 @@ class ModelUpdater(
 
     /** Checks collisions between bots and the walls. */
     private fun checkAndHandleArenaWallCollisions() {
-        for (bot in botsMap.values) {
+        forEachBot { _, bot, events, _ ->
             val hitWall = adjustBotCoordinatesIfHitArenaWall(bot)
             if (hitWall) {
                 // Omit sending hit-wall-event if the bot hit the wall in the previous turn
                 if (round.lastTurn!!.getEvents(bot.id).none { event -> event is BotHitWallEvent }) {
 
                     val botHitWallEvent = BotHitWallEvent(turn.turnNumber, bot.id)
-                    turn.addPrivateBotEvent(bot.id, botHitWallEvent)
-                    turn.addObserverEvent(botHitWallEvent)
+                    events.addPrivateBotEvent(bot.id, botHitWallEvent)
+                    events.addObserverEvent(botHitWallEvent)
 
                     bot.addDamage(calcWallDamage(bot.speed))
                 }
@@ -795,8 +924,7 @@ class ModelUpdater(
     private fun adjustBotCoordinatesIfHitArenaWall(bot: MutableBot): Boolean {
         var hitWall = false
         if (round.lastTurn != null) {
-            val (previousX, previousY) = botsCopies[bot.id]!!.position
-            val (x, y) = constrainBotPosition(previousX, previousY, bot.x, bot.y)
+            val (x, y) = constrainBotPosition(previousBotStates.x(bot.id), previousBotStates.y(bot.id), bot.x, bot.y)
             hitWall = bot.x != x || bot.y != y
             if (hitWall) {
                 bot.x = x
@@ -809,63 +937,64 @@ class ModelUpdater(
 
     /** Checks collisions between the bullets and the walls. */
     private fun checkAndHandleArenaBulletWallCollisions() {
-        val iterator = bullets.iterator() // due to removal
-        while (iterator.hasNext()) {
-            val bullet = iterator.next()
-            if (isPointOutsideArena(bullet.position())) {
+        for (i in 0 until bullets.size) {
+            val slot = bullets.slotAt(i)
+            if (isPointOutsideArena(bullets.x(slot), bullets.y(slot))) {
                 // remove bullet from arena
-                iterator.remove()
+                bullets.remove(slot)
 
-                val bulletHitWallEvent = BulletHitWallEvent(turn.turnNumber, bullet.copy())
-                turn.addPrivateBotEvent(bullet.botId, bulletHitWallEvent)
+                val bulletHitWallEvent = BulletHitWallEvent(turn.turnNumber, bullets.toBullet(slot))
+                turn.addPrivateBotEvent(bullets.botId(slot), bulletHitWallEvent)
                 turn.addObserverEvent(bulletHitWallEvent)
             }
         }
+        bullets.compact()
     }
 
     /**
      * Checks if a point is outside the arena.
-     * @param point is the point
+     * @param x is the x coordinate of the point.
+     * @param y is the y coordinate of the point.
      * @return `true` if the point is outside the arena; `false` otherwise.
      */
-    private fun isPointOutsideArena(point: IPoint): Boolean {
-        return point.x <= 0 ||
-                point.y <= 0 ||
-                point.x >= setup.arenaWidth ||
-                point.y >= setup.arenaHeight
+    private fun isPointOutsideArena(x: Double, y: Double): Boolean {
+        return x <= 0 ||
+                y <= 0 ||
+                x >= setup.arenaWidth ||
+                y >= setup.arenaHeight
     }
 
     private fun checkAndHandleCustomBulletWallCollisions() {
-        val iterator = bullets.iterator()
-        val targetWalls = walls
-        // 使用空间分区优化检测
-        val spatialPartition = SpatialPartition(targetWalls, gridSize = 100.0)
-
-        while (iterator.hasNext()) {
-            val bullet = iterator.next()
-            val bulletLine = Line(
-                bullet.startPosition,
-                bullet.position()
-            )
-
-            val potentialWalls = spatialPartition.getWallsNear(
-                bullet.position(),
-                bullet.startPosition.distanceTo(bullet.position())
-            )
-
-            for (wall in potentialWalls) {
-                if (wall.intersects(bulletLine)) {
-                    handleBulletHitCustomWall(bullet, wall)
-                    iterator.remove()
+        if (wallIndex.isEmpty()) return
+
+        for (i in 0 until bullets.size) {
+            val slot = bullets.slotAt(i)
+
+            // Only the distance travelled in this turn needs to be checked, as the walls are static, and the earlier
+            // part of the bullet path has already been checked in the previous turns
+            val endX = bullets.x(slot)
+            val endY = bullets.y(slot)
+            val angle = Math.toRadians(bullets.direction(slot))
+            val step = bullets.speed(slot)
+            val startX = endX - cos(angle) * step
+            val startY = endY - sin(angle) * step
+
+            val count = wallQuery.alongSegment(startX, startY, endX, endY)
+            for (i in 0 until count) {
+                val wall = wallQuery[i]
+                if (wall.intersects(startX, startY, endX, endY)) {
+                    handleBulletHitCustomWall(slot, wall)
+                    bullets.remove(slot)
                     break // 只处理第一个碰撞的墙体
                 }
             }
         }
+        bullets.compact()
     }
 
-    private fun handleBulletHitCustomWall(bullet: MutableBullet, wall: Wall) {
-        val event = BulletHitWallEvent(turn.turnNumber, bullet.copy())
-        turn.addPrivateBotEvent(bullet.botId, event)
+    private fun handleBulletHitCustomWall(slot: Int, wall: Wall) {
+        val event = BulletHitWallEvent(turn.turnNumber, bullets.toBullet(slot))
+        turn.addPrivateBotEvent(bullets.botId(slot), event)
         turn.addObserverEvent(event)
     }
 
@@ -945,16 +1074,15 @@ class ModelUpdater(
     private fun fireBullet(bot: MutableBot, firepower: Double) {
         val power = firepower.coerceAtMost(MAX_FIREPOWER)
 
-        val previousBotState = botsCopies[bot.id]!!
         var fireDirection = bot.gunDirection
 
         // fire assistance (fireAssist = true, bot is scanning other bot, and gun and radar angle must be the same
         if (botIntentsMap[bot.id]?.fireAssist == true &&
             bot.gunDirection == bot.radarDirection &&
-            previousBotState.gunDirection == previousBotState.radarDirection
+            previousBotStates.gunDirection(bot.id) == previousBotStates.radarDirection(bot.id)
         ) {
             round.lastTurn?.let { previousTurn ->
-                previousTurn.botEvents[bot.id]?.find { it is ScannedBotEvent }?.let {
+                previousTurn.getEvents(bot.id).find { it is ScannedBotEvent }?.let {
                     val scan = (it as ScannedBotEvent)
                     fireDirection = angle(bot.x, bot.y, scan.x, scan.y) // fire assisted angle
                 }
@@ -963,17 +1091,16 @@ class ModelUpdater(
 
         bot.gunHeat = calcGunHeat(power)
 
-        val bullet = MutableBullet(
+        val slot = bullets.add(
             id = BulletId(++nextBulletId),
             botId = bot.id,
-            startPosition = bot.position.toPoint(),
+            startPosition = Point(bot.x, bot.y),
             direction = fireDirection,
             power = power,
             color = bot.bulletColor,
         )
-        bullets += bullet
 
-        val bulletFiredEvent = BulletFiredEvent(turn.turnNumber, bullet.copy())
+        val bulletFiredEvent = BulletFiredEvent(turn.turnNumber, bullets.toBullet(slot))
         turn.addPrivateBotEvent(bot.id, bulletFiredEvent)
         turn.addObserverEvent(bulletFiredEvent)
 
@@ -982,114 +1109,37 @@ class ModelUpdater(
     }
 
 
-    private sealed class ScannedObject {
-        abstract val distance: Double
-    }
-
-    private data class ScannedBot(val bot: IBot, override val distance: Double) : ScannedObject()
-    private data class ScannedWall(val wall: Wall, override val distance: Double) : ScannedObject()
-
     /** Checks the scan field for scanned bots and walls. */
     private fun checkAndHandleScans() {
-        val bots = botsMap.values.toList()
-
-        for (scanningBot in bots) {
-            if (scanningBot.isDroid) continue // droids cannot use scanning
-
-            val (startAngle, endAngle) = getScanAngles(scanningBot)
-
-            // 1. 统一收集扫描范围内的所有物体（机器人和墙体）
-            val scannedObjects = mutableListOf<ScannedObject>()
-
-            // 收集墙体
-            for (wall in walls) {
-                if (isWallScanned(scanningBot, wall, startAngle, endAngle)) {
-                    val distanceToCenter = scanningBot.position.toPoint().distanceTo(wall.position())
-                    // 使用到墙体边缘的最近距离进行排序，确保墙体边缘先于中心被判断
-                    val distance = (distanceToCenter - wall.boundsRadius).coerceAtLeast(0.0)
-                    scannedObjects.add(ScannedWall(wall, distance))
-                }
-            }
-
-            // 收集机器人
-            for (otherBot in bots) {
-                if (otherBot.id == scanningBot.id) continue
-
-                if (isBotScanned(scanningBot, otherBot, startAngle, endAngle)) {
-                    val distance = scanningBot.position.toPoint().distanceTo(otherBot.position.toPoint())
-                    scannedObjects.add(ScannedBot(otherBot, distance))
-                }
+        // Each chunk scans with its own sweep, which all contain the bots in the order of the turn bots
+        val sweepCount = phaseExecutor?.chunkCount(turnBots.size)?.coerceAtLeast(1) ?: 1
+        for (c in 0 until sweepCount) {
+            radarSweeps[c].apply {
+                clear()
+                turnBots.forEach { addBot(it.x, it.y) }
+                build()
             }
+        }
 
-            // 2. 按距离从近到远排序
-            scannedObjects.sortBy { it.distance }
+        forEachBot { i, scanningBot, events, chunk ->
+            if (scanningBot.isDroid) return@forEachBot // droids cannot use scanning
+            if (!isScanningOrMoving(scanningBot.id)) return@forEachBot
 
-            // 3. 迭代处理，实现统一的遮挡逻辑
-            val visibleOccluders = mutableListOf<Wall>() // 只存储可见的墙体作为遮挡物
+            val (startAngle, endAngle) = getScanAngles(scanningBot)
 
-            scannedObjects.forEach { scannedObject ->
-                val objectCenter = when (scannedObject) {
-                    is ScannedBot -> Point(scannedObject.bot.position.x,scannedObject.bot.position.y)
-                    is ScannedWall -> scannedObject.wall.position()
-                }
-                val lineOfSight = Line(scanningBot.position.toPoint(), objectCenter)
-
-                // 检查视线是否被任何已知的、更近的可见墙体遮挡
-                val isOccluded = visibleOccluders.any { occluder -> occluder.intersects(lineOfSight) }
-
-                if (!isOccluded) {
-                    // 如果未被遮挡，则生成事件
-                    when (scannedObject) {
-                        is ScannedBot -> createAndAddScannedBotEventToTurn(scanningBot.id, scannedObject.bot)
-                        is ScannedWall -> {
-                            createAndAddScannedWallEventToTurn(scanningBot.id, scannedObject.wall)
-                            // 并将这个可见的墙体加入遮挡物列表，用于后续判断
-                            visibleOccluders.add(scannedObject.wall)
-                        }
-                    }
+            // Visible bots and walls are reported from near to far, where walls hide the objects behind them
+            val radarSweep = radarSweeps[chunk]
+            val count = radarSweep.scan(i, startAngle, endAngle)
+            for (k in 0 until count) {
+                if (radarSweep.isWall(k)) {
+                    createAndAddScannedWallEventToTurn(scanningBot.id, radarSweep.wallAt(k), events)
+                } else {
+                    createAndAddScannedBotEventToTurn(scanningBot.id, turnBots[radarSweep.botAt(k)], events)
                 }
             }
         }
     }
 
-    /**
-     * Checks if a bot is scanning another bot.
-     * @param scanningBot is the bot performing the scanning.
-     * @param scannedBot is the bot exposed for scanning.
-     * @param scanStartAngle is the start angle of the scan arc.
-     * @param scanEndAngle is the end angle of the scan arc.
-     * @return `true` if the scannedBot was scanned; `false` otherwise.
-     */
-    private fun isBotScanned(
-        scanningBot: IBot,
-        scannedBot: IBot,
-        scanStartAngle: Double,
-        scanEndAngle: Double
-
-    ) = isScanningOrMoving(scanningBot.id) &&
-            isCircleIntersectingCircleSector(
-                scannedBot.position, BOT_BOUNDING_CIRCLE_RADIUS,
-                scanningBot.position, RADAR_RADIUS,
-                scanStartAngle, scanEndAngle
-            )
-
-    private fun isWallScanned(
-        scanningBot: IBot,
-        wall: Wall,
-        scanStartAngle: Double,
-        scanEndAngle: Double
-    ): Boolean {
-        return isScanningOrMoving(scanningBot.id) &&
-                isCircleIntersectingCircleSector(
-                    wall.position(),
-                    wall.boundsRadius,
-                    scanningBot.position,
-                    RADAR_RADIUS,
-                    scanStartAngle,
-                    scanEndAngle
-                )
-    }
-
     /**
      * Checks if a bot is scanning, meaning that it must be either rescanning or moving.
      * @param botId is the id of the bot.
@@ -1115,21 +1165,21 @@ class ModelUpdater(
      */
     private fun isMoving(botId: BotId): Boolean {
         val currentState = botsMap[botId]!!
-        val previousState = botsCopies[botId]!!
 
-        return currentState.x != previousState.x
-                || currentState.y != previousState.y
-                || currentState.direction != previousState.direction
-                || currentState.gunDirection != previousState.gunDirection
-                || currentState.radarDirection != previousState.radarDirection
+        return currentState.x != previousBotStates.x(botId)
+                || currentState.y != previousBotStates.y(botId)
+                || currentState.direction != previousBotStates.direction(botId)
+                || currentState.gunDirection != previousBotStates.gunDirection(botId)
+                || currentState.radarDirection != previousBotStates.radarDirection(botId)
     }
 
     /**
      * Creates and adds scanned-bot-events to the turn.
      * @param scanningBotId is the id of the bot performing the scanning.
      * @param scannedBot is the bot exposed for scanning.
+     * @param events is the sink for the events of the scanning bot.
      */
-    private fun createAndAddScannedBotEventToTurn(scanningBotId: BotId, scannedBot: IBot) {
+    private fun createAndAddScannedBotEventToTurn(scanningBotId: BotId, scannedBot: IBot, events: TurnEventSink) {
         val scannedBotEvent = ScannedBotEvent(
             turn.turnNumber,
             scanningBotId,
@@ -1140,11 +1190,11 @@ class ModelUpdater(
             scannedBot.direction,
             scannedBot.speed
         )
-        turn.addPrivateBotEvent(scanningBotId, scannedBotEvent)
-        turn.addObserverEvent(scannedBotEvent)
+        events.addPrivateBotEvent(scanningBotId, scannedBotEvent)
+        events.addObserverEvent(scannedBotEvent)
     }
 
-    private fun createAndAddScannedWallEventToTurn(scanningBotId: BotId, scannedWall: Wall) {
+    private fun createAndAddScannedWallEventToTurn(scanningBotId: BotId, scannedWall: Wall, events: TurnEventSink) {
         val scannedWallEvent = ScannedWallEvent(
             turnNumber = turn.turnNumber,
             scannedByBotId = scanningBotId,
@@ -1155,8 +1205,8 @@ class ModelUpdater(
             height = scannedWall.height,
             rotation = scannedWall.rotation
         )
-        turn.addPrivateBotEvent(scanningBotId, scannedWallEvent)
-        turn.addObserverEvent(scannedWallEvent)
+        events.addPrivateBotEvent(scanningBotId, scannedWallEvent)
+        events.addObserverEvent(scannedWallEvent)
     }
 
     /**
@@ -1238,19 +1288,19 @@ class ModelUpdater(
         return participantIds.filter { botIds.contains(it.botId) }.distinct()
     }
 
-    private fun processTeamMessages(bot: MutableBot, intent: BotIntent) {
+    private fun processTeamMessages(bot: MutableBot, intent: BotIntent, events: TurnEventSink) {
         intent.teamMessages?.let { teamMessages ->
             for (index in 0 until (teamMessages.size).coerceAtMost(MAX_NUMBER_OF_TEAM_MESSAGES_PER_TURN)) {
                 teamMessages[index].let { teamMessage ->
                     teamMessage.apply {
                         if (message.length <= MAX_TEAM_MESSAGE_SIZE) { // ignore this and follower messages if one message is too big
                             if (receiverId != null) {
-                                turn.addPrivateBotEvent(
+                                events.addPrivateBotEvent(
                                     receiverId, TeamMessageEvent(turn.turnNumber, message, messageType, bot.id)
                                 )
                             } else {
                                 bot.teammateIds.forEach { teammateId ->
-                                    turn.addPrivateBotEvent(
+                                    events.addPrivateBotEvent(
                                         teammateId, TeamMessageEvent(turn.turnNumber, message, messageType, bot.id)
                                     )
                                 }
@@ -1270,16 +1320,18 @@ class ModelUpdater(
         /**
          * Checks if the maximum bounding circles of two bullets are colliding.
          * This is a pre-check if two bullets might be colliding.
-         * @param pos1 is the position of the 1st bullet.
-         * @param pos2 is the position of the 2nd bullet.
+         * @param x1 is the x coordinate of the position of the 1st bullet.
+         * @param y1 is the y coordinate of the position of the 1st bullet.
+         * @param x2 is the x coordinate of the position of the 2nd bullet.
+         * @param y2 is the y coordinate of the position of the 2nd bullet.
          * @return `true` if the bounding circles are colliding; `false` otherwise.
          */
-        private fun isBulletsMaxBoundingCirclesColliding(pos1: IPoint, pos2: IPoint): Boolean {
-            val dx = pos2.x - pos1.x
+        private fun isBulletsMaxBoundingCirclesColliding(x1: Double, y1: Double, x2: Double, y2: Double): Boolean {
+            val dx = x2 - x1
             if (abs(dx) > bulletMaxBoundingCircleDiameter) {
                 return false
             }
-            val dy = pos2.y - pos1.y
+            val dy = y2 - y1
             return abs(dy) <= bulletMaxBoundingCircleDiameter &&
                     ((dx * dx) + (dy * dy) <= bulletMaxBoundingCircleDiameterSquared)
         }
@@ -1328,6 +1380,7 @@ class ModelUpdater(
          * @param gridWidth is the number cells per row.
          * @param cellWidth is the width of each cell measured in virtual pixels.
          * @param cellHeight is the height of each cell measured in virtual pixels.
+         * @param random is the random generator to use.
          * @return a random point on the arena in an unoccupied cell.
          */
         private fun randomBotPoint(
@@ -1335,18 +1388,19 @@ class ModelUpdater(
             cellCount: Int,
             gridWidth: Int,
             cellWidth: Int,
-            cellHeight: Int
+            cellHeight: Int,
+            random: Random,
         ): Point {
             while (true) {
-                val cell = Random().nextInt(cellCount)
+                val cell = random.nextInt(cellCount)
                 if (!occupiedCells.contains(cell)) {
                     occupiedCells += cell
                     var y = (cell / gridWidth).toDouble()
                     var x = cell - y * gridWidth
                     x *= cellWidth.toDouble()
                     y *= cellHeight.toDouble()
-                    x += BOT_BOUNDING_CIRCLE_RADIUS + Math.random() * (cellWidth - BOT_BOUNDING_CIRCLE_DIAMETER)
-                    y += BOT_BOUNDING_CIRCLE_RADIUS + Math.random() * (cellHeight - BOT_BOUNDING_CIRCLE_DIAMETER)
+                    x += BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (cellWidth - BOT_BOUNDING_CIRCLE_DIAMETER)
+                    y += BOT_BOUNDING_CIRCLE_RADIUS + random.nextDouble() * (cellHeight - BOT_BOUNDING_CIRCLE_DIAMETER)
                     return Point(x, y)
                 }
             }
@@ -1432,68 +1486,4 @@ class ModelUpdater(
             }
         }
     }
-    /** 空间布局分割优化碰撞检测 */
-    private class SpatialPartition(walls: List<Wall>, private val gridSize: Double) {
-        private val grid = mutableMapOf<Pair<Int, Int>, MutableList<Wall>>()
-
-        init {
-            walls.forEach { addWall(it) }
-        }
-
-        private fun addWall(wall: Wall) {
-            // 计算矩形墙体的对角距离作为影响半径
-            val halfDiagonal = sqrt(wall.width.pow(2) + wall.height.pow(2)) / 2
-            val (minX, maxX, minY, maxY) = quadrants(
-                wall.x - halfDiagonal,
-                wall.x + halfDiagonal,
-                wall.y - halfDiagonal,
-                wall.y + halfDiagonal
-            )
-
-            // 将墙体添加到覆盖的所有网格单元中
-            for (x in minX..maxX) {
-                for (y in minY..maxY) {
-                    grid.getOrPut(Pair(x, y)) { mutableListOf() }.add(wall)
-                }
-            }
-        }
-
-        /**
-         * 获取指定点附近可能发生碰撞的墙体列表
-         * @param point 中心点坐标
-         * @param radius 搜索半径
-         * @return 可能发生碰撞的墙体列表
-         */
-        fun getWallsNear(point: Point, radius: Double): List<Wall> {
-            val (minX, maxX, minY, maxY) = quadrants(
-                point.x - radius,
-                point.x + radius,
-                point.y - radius,
-                point.y + radius
-            )
-
-            val result = mutableSetOf<Wall>()
-            for (x in minX..maxX) {
-                for (y in minY..maxY) {
-                    grid[Pair(x, y)]?.let { result.addAll(it) }
-                }
-            }
-            return result.toList()
-        }
-
-        /**
-         * 计算坐标范围对应的网格单元范围
-         * @return 四元组(minGridX, maxGridX, minGridY, maxGridY)
-         */
-        private fun quadrants(x1: Double, x2: Double, y1: Double, y2: Double): Quadruple<Int, Int, Int, Int> {
-            return Quadruple(
-                floor(x1 / gridSize).toInt(),
-                ceil(x2 / gridSize).toInt(),
-                floor(y1 / gridSize).toInt(),
-                ceil(y2 / gridSize).toInt()
-            )
-        }
-    }
-
-    private data class Quadruple<A, B, C, D>(val first: A, val second: B, val third: C, val fourth: D)
 }
\ No newline at end of file
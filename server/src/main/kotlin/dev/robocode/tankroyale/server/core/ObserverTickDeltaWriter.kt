@@ -0,0 +1,217 @@
+package dev.robocode.tankroyale.server.core
+
+import com.google.gson.Gson
+import com.google.gson.reflect.TypeToken
+import com.google.gson.stream.JsonWriter
+import dev.robocode.tankroyale.schema.BotStateWithId
+import dev.robocode.tankroyale.schema.BulletState
+import dev.robocode.tankroyale.schema.Event
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.mapper.TickScoreMapper
+import dev.robocode.tankroyale.server.model.TickScore
+import java.io.CharArrayWriter
+
+/**
+ * Serializes tick delta events for observers, which only contain the bot and bullet fields that have changed since
+ * the previous tick.
+ *
+ * The writer keeps the states of the previous tick as the base of the next delta. Hence, every tick must be passed to
+ * the writer, also the keyframes, which are sent as full tick events. Fields are compared by value, and a field that
+ * has been cleared is written as `null`, which is why the delta is written with a [JsonWriter] directly instead of
+ * Gson's reflective adapters. An instance is not thread-safe, so ticks must not be written concurrently.
+ *
+ * @param gson is the Gson instance used for serializing the events of the tick.
+ */
+class ObserverTickDeltaWriter(private val gson: Gson) {
+
+    /** Buffer reused between ticks, which grows to fit the largest delta written so far */
+    private val buffer = CharArrayWriter(INITIAL_BUFFER_SIZE)
+
+    /** Adapter for the events, which serializes each event by its runtime type */
+    private val eventsAdapter = gson.getAdapter(object : TypeToken<List<Event>>() {})
+
+    /** Bot states of the previous tick by bot id */
+    private var botStates = HashMap<Int, BotStateWithId>()
+    private var nextBotStates = HashMap<Int, BotStateWithId>()
+
+    /** Bullet states of the previous tick by bullet id */
+    private var bulletStates = HashMap<Int, BulletState>()
+    private var nextBulletStates = HashMap<Int, BulletState>()
+
+    /** Flag set when the states of a previous tick are kept as base for the next delta */
+    private var hasBase = false
+
+    /** Forgets the previous tick, so the next tick must be sent as a keyframe. */
+    fun reset() {
+        botStates.clear()
+        bulletStates.clear()
+        hasBase = false
+    }
+
+    /**
+     * Serializes a tick event for observers as a delta from the previous tick, and keeps the tick as the base of the
+     * next delta.
+     * @param tickEvent is the tick event to serialize.
+     * @param tickScores is the current tick scores to include, or `null` if no scores are included.
+     * @param keyframe is `true` if the tick is a keyframe, which is sent as a full tick event.
+     * @return the JSON representation of the tick delta event, or `null` if the tick must be sent as a full tick
+     * event, as it is a keyframe, or there is no previous tick.
+     */
+    fun write(tickEvent: TickEventForObserver, tickScores: List<TickScore>?, keyframe: Boolean): String? {
+        nextBotStates.clear()
+        tickEvent.botStates.forEach { nextBotStates[it.id] = it }
+        nextBulletStates.clear()
+        tickEvent.bulletStates.forEach { nextBulletStates[it.bulletId] = it }
+
+        val delta = if (hasBase && !keyframe) writeDelta(tickEvent, tickScores) else null
+
+        botStates = nextBotStates.also { nextBotStates = botStates }
+        bulletStates = nextBulletStates.also { nextBulletStates = bulletStates }
+        hasBase = true
+
+        return delta
+    }
+
+    /** Number of characters written for the last delta */
+    val size: Int get() = buffer.size()
+
+    private fun writeDelta(tickEvent: TickEventForObserver, tickScores: List<TickScore>?): String {
+        buffer.reset()
+        JsonWriter(buffer).apply {
+            serializeNulls = gson.serializeNulls()
+            isHtmlSafe = gson.htmlSafe()
+
+            beginObject()
+            name("type").value(Message.Type.TICK_DELTA_EVENT_FOR_OBSERVER.value())
+            name("turnNumber").value(tickEvent.turnNumber.toLong())
+            name("roundNumber").value(tickEvent.roundNumber.toLong())
+
+            name("botStates").beginArray()
+            tickEvent.botStates.forEach { writeBotDelta(this, botStates[it.id], it) }
+            endArray()
+            name("removedBotIds").beginArray()
+            botStates.keys.forEach { if (it !in nextBotStates) value(it.toLong()) }
+            endArray()
+
+            name("bulletStates").beginArray()
+            tickEvent.bulletStates.forEach { writeBulletDelta(this, bulletStates[it.bulletId], it) }
+            endArray()
+            name("removedBulletIds").beginArray()
+            bulletStates.keys.forEach { if (it !in nextBulletStates) value(it.toLong()) }
+            endArray()
+
+            name("events")
+            eventsAdapter.write(this, tickEvent.events)
+
+            if (tickScores != null) {
+                name("tickScores")
+                TickScoreMapper.write(this, tickScores)
+            }
+            endObject()
+            flush()
+        }
+        return buffer.toString()
+    }
+
+    private fun writeBotDelta(writer: JsonWriter, previous: BotStateWithId?, current: BotStateWithId) {
+        DeltaObject(writer, "id", current.id, previous != null).apply {
+            field("isDroid", previous?.isDroid, current.isDroid)
+            field("sessionId", previous?.sessionId, current.sessionId)
+            field("energy", previous?.energy, current.energy)
+            field("x", previous?.x, current.x)
+            field("y", previous?.y, current.y)
+            field("direction", previous?.direction, current.direction)
+            field("gunDirection", previous?.gunDirection, current.gunDirection)
+            field("radarDirection", previous?.radarDirection, current.radarDirection)
+            field("radarSweep", previous?.radarSweep, current.radarSweep)
+            field("speed", previous?.speed, current.speed)
+            field("turnRate", previous?.turnRate, current.turnRate)
+            field("gunTurnRate", previous?.gunTurnRate, current.gunTurnRate)
+            field("radarTurnRate", previous?.radarTurnRate, current.radarTurnRate)
+            field("gunHeat", previous?.gunHeat, current.gunHeat)
+            field("enemyCount", previous?.enemyCount, current.enemyCount)
+            field("bodyColor", previous?.bodyColor, current.bodyColor)
+            field("turretColor", previous?.turretColor, current.turretColor)
+            field("radarColor", previous?.radarColor, current.radarColor)
+            field("bulletColor", previous?.bulletColor, current.bulletColor)
+            field("scanColor", previous?.scanColor, current.scanColor)
+            field("tracksColor", previous?.tracksColor, current.tracksColor)
+            field("gunColor", previous?.gunColor, current.gunColor)
+            field("stdOut", previous?.stdOut, current.stdOut)
+            field("stdErr", previous?.stdErr, current.stdErr)
+            field("isDebuggingEnabled", previous?.isDebuggingEnabled, current.isDebuggingEnabled)
+            field("debugGraphics", previous?.debugGraphics, current.debugGraphics)
+            end()
+        }
+    }
+
+    private fun writeBulletDelta(writer: JsonWriter, previous: BulletState?, current: BulletState) {
+        DeltaObject(writer, "bulletId", current.bulletId, previous != null).apply {
+            field("ownerId", previous?.ownerId, current.ownerId)
+            field("power", previous?.power, current.power)
+            field("x", previous?.x, current.x)
+            field("y", previous?.y, current.y)
+            field("direction", previous?.direction, current.direction)
+            field("color", previous?.color, current.color)
+            end()
+        }
+    }
+
+    /**
+     * Writes the changed fields of a state object, where the object is only written if it contains a change.
+     * @param writer is the JSON writer.
+     * @param idName is the name of the id field, which is written first.
+     * @param id is the id of the object.
+     * @param hasPrevious is `true` if the object was part of the previous tick; `false` if it is new, where all fields
+     * are written.
+     */
+    private class DeltaObject(
+        private val writer: JsonWriter,
+        private val idName: String,
+        private val id: Int,
+        private val hasPrevious: Boolean,
+    ) {
+        private var isStarted = false
+
+        fun field(name: String, previous: Any?, current: Any?) {
+            if (hasPrevious) {
+                if (previous == current) return
+            } else if (current == null) {
+                return // a new object leaves out missing fields like a full tick event
+            }
+            start()
+            writer.name(name)
+            when (current) {
+                null -> {
+                    val serializeNulls = writer.serializeNulls
+                    writer.serializeNulls = true // a cleared field is written as null instead of being left out
+                    writer.nullValue()
+                    writer.serializeNulls = serializeNulls
+                }
+                is Double -> writer.value(current)
+                is Int -> writer.value(current.toLong())
+                is Boolean -> writer.value(current)
+                is String -> writer.value(current)
+                else -> throw IllegalArgumentException("Unsupported field type: ${current::class.java}")
+            }
+        }
+
+        fun end() {
+            if (!hasPrevious) start() // a new object is always written
+            if (isStarted) writer.endObject()
+        }
+
+        private fun start() {
+            if (isStarted) return
+            writer.beginObject()
+            writer.name(idName).value(id.toLong())
+            isStarted = true
+        }
+    }
+
+    private companion object {
+        /** Initial buffer size, which fits the delta of a typical melee battle */
+        const val INITIAL_BUFFER_SIZE = 8 * 1024
+    }
+}
@@ -0,0 +1,73 @@
+package dev.robocode.tankroyale.server.core
+
+import com.google.gson.Gson
+import com.google.gson.stream.JsonWriter
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.mapper.TickScoreMapper
+import dev.robocode.tankroyale.server.model.TickScore
+import java.io.CharArrayWriter
+
+/**
+ * Serializes tick events for observers including the current tick scores in a single pass.
+ *
+ * The tick scores are not part of the [TickEventForObserver] schema, so they are appended as the last `tickScores`
+ * field of the tick event object while Gson is streaming it. The characters are written into a buffer that is reused
+ * for each tick. An instance is not thread-safe, so ticks must not be written concurrently.
+ *
+ * @param gson is the Gson instance used for serializing the tick event.
+ */
+class ObserverTickWriter(private val gson: Gson) {
+
+    /** Buffer reused between ticks, which grows to fit the largest tick written so far */
+    private val buffer = CharArrayWriter(INITIAL_BUFFER_SIZE)
+
+    /** Adapter for the tick event, which is looked up only once */
+    private val adapter = gson.getAdapter(TickEventForObserver::class.java)
+
+    /**
+     * Serializes a tick event for observers.
+     * @param tickEvent is the tick event to serialize.
+     * @param tickScores is the current tick scores to embed into the tick event, or `null` if no scores are included.
+     * @return the JSON representation of the tick event.
+     */
+    fun write(tickEvent: TickEventForObserver, tickScores: List<TickScore>?): String {
+        buffer.reset()
+        adapter.write(TickWriter(tickScores), tickEvent)
+        return buffer.toString()
+    }
+
+    /** Number of characters written for the last tick */
+    val size: Int get() = buffer.size()
+
+    /**
+     * JSON writer that writes the tick scores right before the tick event object is closed.
+     * The writer is configured like the writers created by Gson itself.
+     */
+    private inner class TickWriter(private val tickScores: List<TickScore>?) : JsonWriter(buffer) {
+        /** Current object nesting depth, where 1 is the tick event object */
+        private var depth = 0
+
+        init {
+            serializeNulls = gson.serializeNulls()
+            isHtmlSafe = gson.htmlSafe()
+        }
+
+        override fun beginObject(): JsonWriter {
+            depth++
+            return super.beginObject()
+        }
+
+        override fun endObject(): JsonWriter {
+            if (--depth == 0 && tickScores != null) {
+                name("tickScores")
+                TickScoreMapper.write(this, tickScores)
+            }
+            return super.endObject()
+        }
+    }
+
+    private companion object {
+        /** Initial buffer size, which fits a tick of a typical melee battle */
+        const val INITIAL_BUFFER_SIZE = 64 * 1024
+    }
+}
@@ -0,0 +1,55 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.server.event.Event
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.TurnEventSink
+
+/**
+ * Buffer of turn events, which keeps the events in the order they were added until they are flushed to another sink.
+ * This is used for collecting the events of a bot when the bots are handled in parallel, so the events can be added
+ * to the turn in a fixed bot order afterwards.
+ */
+internal class TurnEventBuffer : TurnEventSink {
+
+    private val events = ArrayList<Event>()
+
+    /** Bot id of the recipient of each event, where [OBSERVER] is used for observer events */
+    private var recipients = IntArray(INITIAL_CAPACITY)
+
+    override fun addPrivateBotEvent(botId: BotId, event: Event) {
+        add(botId.value, event)
+    }
+
+    override fun addObserverEvent(event: Event) {
+        add(OBSERVER, event)
+    }
+
+    private fun add(recipient: Int, event: Event) {
+        if (events.size == recipients.size) {
+            recipients = recipients.copyOf(recipients.size * 2)
+        }
+        recipients[events.size] = recipient
+        events += event
+    }
+
+    /**
+     * Adds all buffered events to another sink in the order they were added, and clears this buffer.
+     * @param sink is the sink to add the events to.
+     */
+    fun flushTo(sink: TurnEventSink) {
+        for (i in events.indices) {
+            val recipient = recipients[i]
+            if (recipient == OBSERVER) {
+                sink.addObserverEvent(events[i])
+            } else {
+                sink.addPrivateBotEvent(BotId(recipient), events[i])
+            }
+        }
+        events.clear()
+    }
+
+    private companion object {
+        const val OBSERVER = Int.MIN_VALUE
+        const val INITIAL_CAPACITY = 16
+    }
+}
@@ -0,0 +1,85 @@
+package dev.robocode.tankroyale.server.core
+
+import java.io.Closeable
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.RecursiveAction
+import kotlin.math.min
+
+/**
+ * Executor running the data-parallel phases of a turn on a [ForkJoinPool].
+ *
+ * A phase over a number of items is split into contiguous chunks, at most one per thread, which are run in parallel.
+ * Each chunk gets an index in the range [0, parallelism[, so a phase can give each chunk its own reusable scratch
+ * state, like a query cursor. The phase returns when all chunks have completed, after which all writes done by the
+ * chunks are visible to the calling thread.
+ *
+ * @param parallelism is the number of threads.
+ */
+class TurnPhaseExecutor(val parallelism: Int) : Closeable {
+
+    init {
+        require(parallelism >= 1) { "parallelism must be at least 1, but was $parallelism" }
+    }
+
+    private val pool = ForkJoinPool(
+        parallelism,
+        { pool ->
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool).apply { name = "turn-phase-$poolIndex" }
+        },
+        null,
+        false
+    )
+
+    /**
+     * Returns the number of chunks a phase over a number of items is split into.
+     * @param count is the number of items.
+     * @param minChunkSize is the minimum number of items per chunk, as small chunks are not worth a thread.
+     * @return the number of chunks in the range [0, parallelism].
+     */
+    fun chunkCount(count: Int, minChunkSize: Int = 1): Int = min(parallelism, (count + minChunkSize - 1) / minChunkSize)
+
+    /**
+     * Runs a phase over a number of items, where the items of each chunk are run by the same thread in ascending
+     * order. A phase with a single chunk is run on the calling thread.
+     * @param count is the number of items.
+     * @param minChunkSize is the minimum number of items per chunk.
+     * @param action is run for each chunk with the chunk index, and the first (inclusive) and last (exclusive) item.
+     */
+    fun forEachChunk(count: Int, minChunkSize: Int = 1, action: (chunk: Int, from: Int, to: Int) -> Unit) {
+        val chunks = chunkCount(count, minChunkSize)
+        when {
+            chunks == 1 -> action(0, 0, count)
+            chunks > 1 -> pool.invoke(PhaseTask(count, chunks, action))
+        }
+    }
+
+    override fun close() {
+        pool.shutdown()
+    }
+
+    private class PhaseTask(
+        private val count: Int,
+        private val chunks: Int,
+        private val action: (chunk: Int, from: Int, to: Int) -> Unit,
+    ) : RecursiveAction() {
+
+        override fun compute() {
+            ForkJoinTask.invokeAll(List(chunks) { chunk ->
+                ChunkTask(chunk, count * chunk / chunks, count * (chunk + 1) / chunks, action)
+            })
+        }
+    }
+
+    private class ChunkTask(
+        private val chunk: Int,
+        private val from: Int,
+        private val to: Int,
+        private val action: (chunk: Int, from: Int, to: Int) -> Unit,
+    ) : RecursiveAction() {
+
+        override fun compute() {
+            action(chunk, from, to)
+        }
+    }
+}
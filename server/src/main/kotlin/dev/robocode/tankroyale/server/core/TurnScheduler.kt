@@ -0,0 +1,190 @@
+package dev.robocode.tankroyale.server.core
+
+import dev.robocode.tankroyale.server.metrics.LatencyHistogram
+import org.slf4j.LoggerFactory
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Scheduler that runs the turn job on a single long-lived thread.
+ *
+ * Each turn is scheduled with [schedule]. The job is run when the minimum period has passed and the turn is ready, or
+ * when the maximum period has passed, like [NanoTimer] does, but without starting a new thread per turn. Time spent
+ * paused is not counted as part of the periods. The thread is parked between turns and woken up with
+ * [LockSupport.unpark], so scheduling a turn does not allocate.
+ *
+ * Turns are identified by a turn number, which is passed to both [schedule] and [notifyReady]. A turn can be notified
+ * as ready before it has been scheduled, e.g. when the last intent for a tick is received before the next turn has
+ * been scheduled, where the turn is ready as soon as it is scheduled. A late notification for a turn that has already
+ * been run is ignored, so it cannot make the next turn ready.
+ *
+ * @param job is the job to run when a turn is due.
+ */
+class TurnScheduler(private val job: () -> Unit) : AutoCloseable {
+
+    private val log = LoggerFactory.getLogger(this::class.java)
+
+    /**
+     * Time from the turn being ready, i.e. the last intent was received, until the job has run and the tick has been
+     * sent. This includes the time waiting for the minimum period, when the turns per second are limited.
+     */
+    val turnLatency = LatencyHistogram()
+
+    private val timeouts = AtomicLong()
+
+    /** Number of turns run because the maximum period passed before the turn was ready */
+    val timeoutCount: Long get() = timeouts.get()
+
+    // State guarded by the lock
+    private val lock = Any()
+    private var isScheduled = false
+    private var scheduledTurn = NO_TURN
+    private var readyTurn = NO_TURN // latest turn notified as ready
+    private var readyTime = 0L
+    private var startTime = 0L
+    private var minPeriodInNanos = 0L
+    private var maxPeriodInNanos = 0L
+    private var pauseStartTime = 0L // 0 when not paused
+    private var totalPauseDuration = 0L
+
+    @Volatile
+    private var isRunning = true
+
+    // Declared last, as the thread is started when all other properties have been initialized
+    private val thread = Thread(::runLoop, "TurnScheduler").apply {
+        isDaemon = true
+        priority = Thread.MAX_PRIORITY
+        start()
+    }
+
+    /**
+     * Schedules a turn, which replaces the current turn if it has not been run yet. The turn is ready right away if it
+     * has already been notified as ready.
+     * @param turn is the number of the turn, which is increased for each turn of a game.
+     * @param minPeriodInNanos is the minimum time in nanoseconds before the job can be run.
+     * @param maxPeriodInNanos is the maximum time in nanoseconds before the job is definitely run.
+     */
+    fun schedule(turn: Long, minPeriodInNanos: Long, maxPeriodInNanos: Long) {
+        synchronized(lock) {
+            if (turn < scheduledTurn) readyTurn = NO_TURN // turns have been numbered from the start again
+            scheduledTurn = turn
+            this.minPeriodInNanos = minPeriodInNanos
+            this.maxPeriodInNanos = maxPeriodInNanos
+            startTime = System.nanoTime()
+            pauseStartTime = 0
+            totalPauseDuration = 0
+            isScheduled = true
+        }
+        LockSupport.unpark(thread)
+    }
+
+    /** Cancels the current turn, if it has not been run yet, where the turn numbering starts over. */
+    fun stop() {
+        synchronized(lock) {
+            isScheduled = false
+            scheduledTurn = NO_TURN
+            readyTurn = NO_TURN
+        }
+    }
+
+    /** Pauses the current turn. */
+    fun pause() {
+        synchronized(lock) {
+            if (pauseStartTime == 0L) pauseStartTime = System.nanoTime()
+        }
+    }
+
+    /** Resumes the current turn after having been paused. */
+    fun resume() {
+        synchronized(lock) {
+            if (pauseStartTime == 0L) return
+            totalPauseDuration += System.nanoTime() - pauseStartTime
+            pauseStartTime = 0
+        }
+        LockSupport.unpark(thread)
+    }
+
+    /**
+     * Notifies that a turn is ready, so the job can be run when the minimum period has passed. The turn is either the
+     * scheduled turn, or the next turn when it has not been scheduled yet. Notifications for older turns are ignored.
+     *
+     * The job is always run by the scheduler thread, which is woken up right away with [LockSupport.unpark]. This
+     * keeps the calling thread, e.g. a connection thread receiving the last intent, free for its own work.
+     *
+     * @param turn is the number of the turn that is ready.
+     */
+    fun notifyReady(turn: Long) {
+        synchronized(lock) {
+            if (turn < scheduledTurn || turn <= readyTurn) return
+            readyTurn = turn
+            readyTime = System.nanoTime()
+        }
+        LockSupport.unpark(thread)
+    }
+
+    /** Clears the turn latencies and timeout count. */
+    fun resetMetrics() {
+        turnLatency.reset()
+        timeouts.set(0)
+    }
+
+    /** Stops the scheduler thread. */
+    override fun close() {
+        isRunning = false
+        LockSupport.unpark(thread)
+    }
+
+    private fun runLoop() {
+        while (isRunning) {
+            var runJob = false
+            var readyAt = 0L
+            val waitNanos = synchronized(lock) {
+                nanosUntilDue().also { wait ->
+                    if (wait == 0L) {
+                        isScheduled = false
+                        runJob = true
+                        readyAt = if (isReady()) readyTime else 0L
+                    }
+                }
+            }
+            when {
+                runJob -> runJob(readyAt)
+                waitNanos < 0 -> LockSupport.park(this)
+                else -> LockSupport.parkNanos(this, waitNanos)
+            }
+        }
+    }
+
+    /** Returns the nanoseconds until the turn is due, 0 if it is due now, or -1 if it must wait for a signal */
+    private fun nanosUntilDue(): Long {
+        if (!isScheduled || pauseStartTime != 0L) return -1
+
+        val elapsed = System.nanoTime() - startTime - totalPauseDuration
+        return when {
+            elapsed < minPeriodInNanos -> minPeriodInNanos - elapsed
+            isReady() || elapsed >= maxPeriodInNanos -> 0
+            else -> maxPeriodInNanos - elapsed
+        }
+    }
+
+    private fun isReady() = readyTurn == scheduledTurn && scheduledTurn != NO_TURN
+
+    private fun runJob(readyAt: Long) {
+        try {
+            job()
+        } catch (e: Exception) {
+            // Keep the scheduler alive for the next turns
+            log.error("Turn job failed", e)
+        }
+        if (readyAt != 0L) {
+            turnLatency.record(System.nanoTime() - readyAt)
+        } else {
+            timeouts.incrementAndGet()
+        }
+    }
+
+    private companion object {
+        /** Turn number used when no turn has been scheduled or notified as ready */
+        const val NO_TURN = -1L
+    }
+}
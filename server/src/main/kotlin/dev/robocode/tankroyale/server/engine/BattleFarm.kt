@@ -0,0 +1,59 @@
+package dev.robocode.tankroyale.server.engine
+
+import org.slf4j.LoggerFactory
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * Runs many independent [EmbeddedGame]s concurrently inside one JVM. Each game has its own game state and runs on a
+ * single thread of a work-stealing pool, which is sized to the number of cores by default.
+ *
+ * @param parallelism is the maximum number of games running at the same time.
+ */
+class BattleFarm @JvmOverloads constructor(
+    val parallelism: Int = Runtime.getRuntime().availableProcessors(),
+) : AutoCloseable {
+
+    private val log = LoggerFactory.getLogger(this::class.java)
+
+    /** Work-stealing pool in async mode, so queued jobs are started in the order they were submitted */
+    private val pool = ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true)
+
+    /**
+     * Queues a job to be run by the farm.
+     * @param job is the job to run.
+     * @return a future completed with the result of the job, which also holds the error if the game failed.
+     */
+    fun submit(job: BattleJob): CompletableFuture<BattleResult> =
+        CompletableFuture.supplyAsync({ runJob(job) }, pool)
+
+    /**
+     * Runs jobs and waits until all of them have completed.
+     * @param jobs is the jobs to run.
+     * @return the report over all the jobs.
+     */
+    fun runAll(jobs: Collection<BattleJob>): BattleFarmReport {
+        val startTime = System.nanoTime()
+        val futures = jobs.map { submit(it) }
+        val results = futures.map { it.join() }
+
+        return BattleFarmReport(results, System.nanoTime() - startTime, parallelism).also {
+            log.info(it.summary())
+        }
+    }
+
+    private fun runJob(job: BattleJob): BattleResult {
+        val startTime = System.nanoTime()
+        return try {
+            val results = EmbeddedGame(job.gameSetup, job.bots, job.recordingFile).run()
+            BattleResult(job, results, null, System.nanoTime() - startTime)
+        } catch (e: Exception) {
+            log.error("Battle failed: ${job.name}", e)
+            BattleResult(job, null, e, System.nanoTime() - startTime)
+        }
+    }
+
+    override fun close() {
+        pool.shutdown()
+    }
+}
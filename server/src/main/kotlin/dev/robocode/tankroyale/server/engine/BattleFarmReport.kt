@@ -0,0 +1,76 @@
+package dev.robocode.tankroyale.server.engine
+
+import java.util.*
+
+/**
+ * Aggregated results and throughput of the jobs run by a [BattleFarm].
+ *
+ * @param results is the results of the individual jobs in the order the jobs were given.
+ * @param elapsedNanos is the wall-clock time spent running all jobs in nanoseconds.
+ * @param parallelism is the number of games that could run at the same time.
+ */
+class BattleFarmReport(
+    val results: List<BattleResult>,
+    val elapsedNanos: Long,
+    val parallelism: Int,
+) {
+    /** Standing of a bot accumulated over all the games it participated in */
+    data class Standing(
+        val name: String,
+        val games: Int,
+        val totalScore: Long,
+        val firstPlaces: Int,
+        val secondPlaces: Int,
+        val thirdPlaces: Int,
+    )
+
+    /** Jobs that failed */
+    val failures: List<BattleResult> get() = results.filter { it.error != null }
+
+    /** Total number of turns played in all games */
+    val numberOfTurns: Long = results.sumOf { it.results?.numberOfTurns ?: 0 }
+
+    /** Completed games per hour */
+    val gamesPerHour: Double get() = perSecond((results.size - failures.size).toDouble()) * 3600
+
+    /** Turns per second for each core, i.e. divided by the parallelism */
+    val turnsPerSecondPerCore: Double get() = perSecond(numberOfTurns.toDouble()) / parallelism
+
+    /** Standings of the bots accumulated by bot name over all games, ordered with higher total scores first */
+    val standings: List<Standing> by lazy {
+        results.mapNotNull { it.results }
+            .flatMap { it.results }
+            .groupBy { it.name }
+            .map { (name, rows) ->
+                Standing(
+                    name = name,
+                    games = rows.size,
+                    totalScore = rows.sumOf { it.totalScore.toLong() },
+                    firstPlaces = rows.sumOf { it.firstPlaces },
+                    secondPlaces = rows.sumOf { it.secondPlaces },
+                    thirdPlaces = rows.sumOf { it.thirdPlaces },
+                )
+            }
+            .sortedByDescending { it.totalScore }
+    }
+
+    private fun perSecond(count: Double) = if (elapsedNanos > 0) count * 1_000_000_000 / elapsedNanos else 0.0
+
+    /** Returns a one-line summary of the throughput. */
+    fun summary(): String = String.format(
+        Locale.ROOT,
+        "Games: %d (failed: %d), turns: %d, time: %.1f s, games/hour: %.0f, turns/sec per core: %.0f (parallelism: %d)",
+        results.size, failures.size, numberOfTurns, elapsedNanos / 1_000_000_000.0, gamesPerHour,
+        turnsPerSecondPerCore, parallelism
+    )
+
+    /** Returns the standings as CSV with a header line. */
+    fun standingsAsCsv(): String = buildString {
+        appendLine("rank,name,games,totalScore,firstPlaces,secondPlaces,thirdPlaces")
+        standings.forEachIndexed { index, standing ->
+            standing.apply {
+                appendLine("${index + 1},\"${name.replace("\"", "\"\"")}\",$games,$totalScore,$firstPlaces,$secondPlaces,$thirdPlaces")
+            }
+        }
+    }
+}
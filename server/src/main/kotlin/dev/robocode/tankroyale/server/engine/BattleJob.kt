@@ -0,0 +1,20 @@
+package dev.robocode.tankroyale.server.engine
+
+import dev.robocode.tankroyale.server.model.GameSetup
+import java.io.File
+
+/**
+ * Job for a [BattleFarm] describing a single game.
+ *
+ * @param name is the name of the job used in the results.
+ * @param gameSetup is the game setup.
+ * @param bots is the participating bots. Controllers keeping state must not be shared with other jobs, as jobs are
+ * run in parallel.
+ * @param recordingFile is the file to record the game into, or `null` if the game must not be recorded.
+ */
+data class BattleJob @JvmOverloads constructor(
+    val name: String,
+    val gameSetup: GameSetup,
+    val bots: List<EmbeddedBot>,
+    val recordingFile: File? = null,
+)
@@ -0,0 +1,16 @@
+package dev.robocode.tankroyale.server.engine
+
+/**
+ * Result of a [BattleJob] run by a [BattleFarm].
+ *
+ * @param job is the job.
+ * @param results is the results of the game, or `null` if the game failed.
+ * @param error is the error that made the game fail, or `null` if the game succeeded.
+ * @param elapsedNanos is the time spent running the game in nanoseconds.
+ */
+data class BattleResult(
+    val job: BattleJob,
+    val results: EmbeddedGameResults?,
+    val error: Throwable?,
+    val elapsedNanos: Long,
+)
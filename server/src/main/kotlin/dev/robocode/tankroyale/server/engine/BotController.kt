@@ -0,0 +1,17 @@
+package dev.robocode.tankroyale.server.engine
+
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.schema.TickEventForBot
+
+/**
+ * Controller of a bot running inside an [EmbeddedGame], which is called directly by the game loop instead of
+ * exchanging messages with the server over a WebSocket.
+ */
+fun interface BotController {
+    /**
+     * Decides the intent of the bot for the next turn.
+     * @param tickEvent is the tick event for the bot, which is the same tick event as sent to remote bots.
+     * @return the intent of the bot, or `null` to skip the turn.
+     */
+    fun decide(tickEvent: TickEventForBot): BotIntent?
+}
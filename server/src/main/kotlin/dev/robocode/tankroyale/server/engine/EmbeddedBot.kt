@@ -0,0 +1,14 @@
+package dev.robocode.tankroyale.server.engine
+
+/**
+ * Bot participating in an [EmbeddedGame].
+ *
+ * @param name is the name of the bot, which is used for the results and recordings.
+ * @param controller is the controller deciding the intents of the bot.
+ * @param version is the version of the bot.
+ */
+data class EmbeddedBot @JvmOverloads constructor(
+    val name: String,
+    val controller: BotController,
+    val version: String = "1.0",
+)
@@ -0,0 +1,154 @@
+package dev.robocode.tankroyale.server.engine
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.*
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.server.core.GameHistoryRecorder
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.ObserverTickWriter
+import dev.robocode.tankroyale.server.mapper.*
+import dev.robocode.tankroyale.server.model.*
+import dev.robocode.tankroyale.server.model.GameSetup
+import dev.robocode.tankroyale.server.rules.DEFAULT_TURN_HISTORY
+import java.io.File
+
+/**
+ * Game running the full game loop in-process against [BotController]s, without WebSockets, JSON serialization or
+ * separate bot processes. This is meant for batch simulations like AI training, where many games are run.
+ *
+ * The bots receive the same tick events as remote bots, and each turn is run as soon as all bots have decided their
+ * intent. Teams are not supported, so every bot plays for itself. A game is run on the calling thread, and separate
+ * games can be run in parallel on separate threads.
+ *
+ * @param gameSetup is the game setup.
+ * @param bots is the participating bots.
+ * @param recordingFile is the file to record the game into with the same format as the Recorder, or `null` if the
+ * game must not be recorded.
+ * @param intentRecordingFile is the file to record the seed, bot intents and state hashes into, which can be verified
+ * with the [ReplayVerifier], or `null` if the intents must not be recorded.
+ */
+class EmbeddedGame @JvmOverloads constructor(
+    private val gameSetup: GameSetup,
+    private val bots: List<EmbeddedBot>,
+    private val recordingFile: File? = null,
+    private val intentRecordingFile: File? = null,
+) {
+    init {
+        require(bots.isNotEmpty()) { "At least one bot is required" }
+    }
+
+    private val botIds = List(bots.size) { BotId(it + 1) }
+
+    private val participantMap: Map<BotId, Participant> = botIds.associateWith { botId ->
+        val bot = bots[botId.value - 1]
+        Participant().apply {
+            id = botId.value
+            sessionId = "embedded-${botId.value}"
+            name = bot.name
+            version = bot.version
+            authors = emptyList()
+        }
+    }
+
+    /**
+     * Runs the game until all rounds have been played.
+     * @return the results of the game.
+     */
+    fun run(): EmbeddedGameResults {
+        val participantIds = botIds.map { ParticipantId(it) }.toSet()
+        val modelUpdater = ModelUpdater(gameSetup, participantIds, emptyMap(), emptyMap(), DEFAULT_TURN_HISTORY)
+
+        (recordingFile?.let { GameRecording(GameHistoryRecorder(it)) }).use { recording ->
+            (intentRecordingFile?.let { IntentRecorder(it) }).use { intentRecorder ->
+                recording?.gameStarted()
+                intentRecorder?.start(modelUpdater.seed, GameSetupMapper.map(gameSetup), bots.size)
+
+                var numberOfTurns = 0L
+                var intents: Map<BotId, BotIntent> = emptyMap()
+                do {
+                    val gameState = modelUpdater.update(intents.mapValues { BotIntentMapper.map(it.value) })
+                    val round = gameState.lastRound ?: break
+                    val turn = round.lastTurn ?: break
+                    numberOfTurns++
+
+                    recording?.turn(modelUpdater, round, turn)
+                    intentRecorder?.turn(intents.mapKeys { it.key.value }, StateHash.of(turn))
+
+                    // No intents are needed for the turn after a round has ended, as the next round starts all over
+                    intents = if (round.roundEnded) emptyMap() else decideIntents(modelUpdater, round.roundNumber, turn)
+                } while (!gameState.isGameEnded)
+
+                val results = ResultsForObserverMapper.map(modelUpdater.getResults(), participantMap)
+                recording?.gameEnded(modelUpdater.numberOfRounds, results)
+
+                return EmbeddedGameResults(modelUpdater.numberOfRounds, numberOfTurns, results)
+            }
+        }
+    }
+
+    private fun decideIntents(modelUpdater: ModelUpdater, roundNumber: Int, turn: ITurn): Map<BotId, BotIntent> {
+        val intents = HashMap<BotId, BotIntent>()
+        val aliveCount = botIds.count { modelUpdater.isAlive(it) }
+
+        botIds.forEach { botId ->
+            val tickEvent =
+                TurnToTickEventForBotMapper.map(roundNumber, turn, botId, aliveCount - 1) ?: return@forEach
+            bots[botId.value - 1].controller.decide(tickEvent)?.let { intent ->
+                intents[botId] = intent
+            }
+        }
+        return intents
+    }
+
+    /** Records the game with the same observer messages as sent by the server */
+    private inner class GameRecording(private val recorder: GameHistoryRecorder) : AutoCloseable {
+
+        private val gson = Gson()
+
+        private val tickWriter = ObserverTickWriter(gson)
+
+        fun gameStarted() {
+            recorder.record(gson.toJson(GameStartedEventForObserver().apply {
+                type = Message.Type.GAME_STARTED_EVENT_FOR_OBSERVER
+                gameSetup = GameSetupMapper.map(this@EmbeddedGame.gameSetup)
+                participants = participantMap.values.toList()
+            }))
+        }
+
+        fun turn(modelUpdater: ModelUpdater, round: IRound, turn: ITurn) {
+            if (turn.turnNumber == 1) {
+                recorder.record(gson.toJson(RoundStartedEvent().apply {
+                    type = Message.Type.ROUND_STARTED_EVENT
+                    roundNumber = round.roundNumber
+                }))
+            }
+
+            val aliveCount = botIds.count { modelUpdater.isAlive(it) }
+            val enemyCountMap = botIds.associateWith { aliveCount - if (modelUpdater.isAlive(it)) 1 else 0 }
+            val tickEvent = TurnToTickEventForObserverMapper
+                .map(round.roundNumber, turn, participantMap, enemyCountMap, emptyMap())
+            recorder.record(tickWriter.write(tickEvent, modelUpdater.getTickScores()))
+
+            if (round.roundEnded) {
+                recorder.record(gson.toJson(RoundEndedEventForObserver().apply {
+                    type = Message.Type.ROUND_ENDED_EVENT_FOR_OBSERVER
+                    roundNumber = round.roundNumber
+                    turnNumber = turn.turnNumber
+                    results = ResultsForObserverMapper.map(modelUpdater.getResults(), participantMap)
+                }))
+            }
+        }
+
+        fun gameEnded(numberOfRounds: Int, results: List<ResultsForObserver>) {
+            recorder.record(gson.toJson(GameEndedEventForObserver().apply {
+                type = Message.Type.GAME_ENDED_EVENT_FOR_OBSERVER
+                this.numberOfRounds = numberOfRounds
+                this.results = results
+            }))
+        }
+
+        override fun close() {
+            recorder.close()
+        }
+    }
+}
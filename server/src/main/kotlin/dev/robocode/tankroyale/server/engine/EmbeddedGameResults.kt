@@ -0,0 +1,16 @@
+package dev.robocode.tankroyale.server.engine
+
+import dev.robocode.tankroyale.schema.ResultsForObserver
+
+/**
+ * Results of an [EmbeddedGame].
+ *
+ * @param numberOfRounds is the number of rounds played.
+ * @param numberOfTurns is the total number of turns played in all rounds.
+ * @param results is the results of the bots ordered on the score ranks.
+ */
+data class EmbeddedGameResults(
+    val numberOfRounds: Int,
+    val numberOfTurns: Long,
+    val results: List<ResultsForObserver>,
+)
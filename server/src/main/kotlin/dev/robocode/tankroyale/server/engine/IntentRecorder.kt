@@ -0,0 +1,67 @@
+package dev.robocode.tankroyale.server.engine
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.schema.GameSetup
+import dev.robocode.tankroyale.server.core.GameHistoryRecorder
+import java.io.File
+
+/**
+ * Records the intents of the bots of an [EmbeddedGame] together with the state hash of each turn into a gzipped
+ * ND-JSON file. The first line is an [IntentRecordingHeader] and each following line is an [IntentRecordingTurn].
+ * As the game is deterministic for a given seed, the recording is all that is needed for re-simulating the game with
+ * the [ReplayVerifier].
+ *
+ * @param file is the file to write the recording into.
+ */
+internal class IntentRecorder(file: File) : AutoCloseable {
+
+    private val recorder = GameHistoryRecorder(file)
+
+    private val gson = Gson()
+
+    /**
+     * Records the header of the recording, which must be done before recording any turns.
+     * @param seed is the seed of the random generator of the game.
+     * @param gameSetup is the game setup.
+     * @param botCount is the number of bots, which have the bot ids 1 to [botCount].
+     */
+    fun start(seed: Long, gameSetup: GameSetup, botCount: Int) {
+        recorder.record(gson.toJson(IntentRecordingHeader(seed, gameSetup, botCount)))
+    }
+
+    /**
+     * Records a turn.
+     * @param intents is the intents sent by the bots, which were given to the game for simulating the turn.
+     * @param stateHash is the state hash of the turn.
+     */
+    fun turn(intents: Map<Int, BotIntent>, stateHash: Long) {
+        recorder.record(gson.toJson(IntentRecordingTurn(intents, stateHash)))
+    }
+
+    override fun close() {
+        recorder.close()
+    }
+}
+
+/**
+ * Header of an intent recording.
+ * @param seed is the seed of the random generator of the game.
+ * @param gameSetup is the game setup.
+ * @param botCount is the number of bots, which have the bot ids 1 to [botCount].
+ */
+internal data class IntentRecordingHeader(
+    val seed: Long,
+    val gameSetup: GameSetup,
+    val botCount: Int,
+)
+
+/**
+ * Turn of an intent recording.
+ * @param intents is the intents of the bots, keyed by bot id, which were given to the game for simulating the turn.
+ * @param stateHash is the state hash of the turn.
+ */
+internal data class IntentRecordingTurn(
+    val intents: Map<Int, BotIntent>,
+    val stateHash: Long,
+)
@@ -0,0 +1,32 @@
+package dev.robocode.tankroyale.server.engine
+
+/**
+ * Result of verifying an intent recording with the [ReplayVerifier].
+ *
+ * @param numberOfTurns is the number of turns that were re-simulated.
+ * @param elapsedNanos is the time spent on re-simulating the turns in nanoseconds.
+ * @param mismatch is the first turn where the state hash did not match the recording, or `null` if all turns matched.
+ */
+data class ReplayVerification(
+    val numberOfTurns: Long,
+    val elapsedNanos: Long,
+    val mismatch: ReplayMismatch?,
+) {
+    /** Flag specifying if the replay matched the recording in all turns */
+    val isVerified: Boolean get() = mismatch == null
+}
+
+/**
+ * Turn where a replay diverged from the recording.
+ *
+ * @param roundNumber is the round number.
+ * @param turnNumber is the turn number.
+ * @param expectedHash is the state hash of the recording.
+ * @param actualHash is the state hash of the replay.
+ */
+data class ReplayMismatch(
+    val roundNumber: Int,
+    val turnNumber: Int,
+    val expectedHash: Long,
+    val actualHash: Long,
+)
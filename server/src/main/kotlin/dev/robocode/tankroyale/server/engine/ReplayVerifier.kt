@@ -0,0 +1,61 @@
+package dev.robocode.tankroyale.server.engine
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.mapper.BotIntentMapper
+import dev.robocode.tankroyale.server.mapper.GameSetupMapper
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.ParticipantId
+import dev.robocode.tankroyale.server.model.StateHash
+import dev.robocode.tankroyale.server.rules.DEFAULT_TURN_HISTORY
+import java.io.File
+import java.util.zip.GZIPInputStream
+
+/**
+ * Verifies an intent recording made by an [EmbeddedGame] by re-simulating the game from the recorded seed and intents,
+ * and comparing the state hash of each turn with the recorded one. The bots are not run, so a replay runs at the
+ * speed of the game model alone. This is used for checking that changes to the game model do not change the outcome
+ * of games.
+ */
+object ReplayVerifier {
+
+    /**
+     * Verifies an intent recording. The verification stops at the first turn where the state hash does not match.
+     * @param file is the intent recording file.
+     * @return the result of the verification.
+     */
+    fun verify(file: File): ReplayVerification {
+        val gson = Gson()
+
+        GZIPInputStream(file.inputStream()).bufferedReader().use { reader ->
+            val header = gson.fromJson(reader.readLine(), IntentRecordingHeader::class.java)
+                ?: throw IllegalArgumentException("Intent recording is empty: $file")
+
+            val gameSetup = GameSetupMapper.map(header.gameSetup).copy(seed = header.seed)
+            val participantIds = (1..header.botCount).map { ParticipantId(BotId(it)) }.toSet()
+            val modelUpdater = ModelUpdater(gameSetup, participantIds, emptyMap(), emptyMap(), DEFAULT_TURN_HISTORY)
+
+            var numberOfTurns = 0L
+            val startTime = System.nanoTime()
+
+            for (line in reader.lineSequence()) {
+                val recordedTurn = gson.fromJson(line, IntentRecordingTurn::class.java)
+                val botIntents = recordedTurn.intents.entries.associate { (botId, intent) ->
+                    BotId(botId) to BotIntentMapper.map(intent)
+                }
+                val round = modelUpdater.update(botIntents).lastRound
+                val turn = round?.lastTurn
+                numberOfTurns++
+
+                val actualHash = turn?.let { StateHash.of(it) } ?: 0L
+                if (actualHash != recordedTurn.stateHash) {
+                    val mismatch = ReplayMismatch(
+                        round?.roundNumber ?: 0, turn?.turnNumber ?: 0, recordedTurn.stateHash, actualHash
+                    )
+                    return ReplayVerification(numberOfTurns, System.nanoTime() - startTime, mismatch)
+                }
+            }
+            return ReplayVerification(numberOfTurns, System.nanoTime() - startTime, null)
+        }
+    }
+}
@@ -3,9 +3,11 @@ package dev.robocode.tankroyale.server.mapper
 import dev.robocode.tankroyale.schema.*
 
 object EventsMapper {
-    fun map(events: Set<dev.robocode.tankroyale.server.event.Event>): List<Event> {
-        val mappedEvents = mutableListOf<Event>()
-        events.forEach { mappedEvents += map(it) }
+    fun map(events: List<dev.robocode.tankroyale.server.event.Event>): List<Event> {
+        val mappedEvents = ArrayList<Event>(events.size)
+        for (i in events.indices) {
+            mappedEvents += map(events[i])
+        }
         return mappedEvents
     }
 
@@ -0,0 +1,45 @@
+package dev.robocode.tankroyale.server.mapper
+
+import dev.robocode.tankroyale.schema.Participant
+import dev.robocode.tankroyale.schema.ResultsForObserver
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.Score
+import dev.robocode.tankroyale.server.score.ResultsView
+import kotlin.math.roundToInt
+
+object ResultsForObserverMapper {
+    fun map(scores: Collection<Score>, participantMap: Map<BotId, Participant>): List<ResultsForObserver> {
+        val results = mutableListOf<ResultsForObserver>()
+
+        ResultsView.getResults(scores, participantMap.values).forEach { score ->
+            participantMap[score.participantId.botId]?.let { participant ->
+
+                val (id, name, version) =
+                    if (participant.teamId == null)
+                        Triple(participant.id, participant.name, participant.version)
+                    else
+                        Triple(participant.teamId, participant.teamName, participant.teamVersion)
+
+                ResultsForObserver().apply {
+                    this.id = id
+                    this.name = name
+                    this.version = version
+                    this.rank = score.rank
+                    survival = score.survivalScore.roundToInt()
+                    lastSurvivorBonus = score.lastSurvivorBonus.roundToInt()
+                    bulletDamage = score.bulletDamageScore.roundToInt()
+                    bulletKillBonus = score.bulletKillBonus.toInt()
+                    ramDamage = score.ramDamageScore.roundToInt()
+                    ramKillBonus = score.ramKillBonus.roundToInt()
+                    totalScore = score.totalScore.roundToInt()
+                    firstPlaces = score.firstPlaces
+                    secondPlaces = score.secondPlaces
+                    thirdPlaces = score.thirdPlaces
+
+                    results += this
+                }
+            }
+        }
+        return results
+    }
+}
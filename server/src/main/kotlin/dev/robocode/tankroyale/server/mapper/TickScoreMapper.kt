@@ -2,6 +2,7 @@ package dev.robocode.tankroyale.server.mapper
 
 import com.google.gson.JsonArray
 import com.google.gson.JsonObject
+import com.google.gson.stream.JsonWriter
 import dev.robocode.tankroyale.server.model.TickScore
 
 object TickScoreMapper {
@@ -25,4 +26,26 @@ object TickScoreMapper {
         }
         return jsonArray
     }
+
+    /** Streams the tick scores as a JSON array with the same fields as [mapToJson]. */
+    fun write(writer: JsonWriter, tickScores: List<TickScore>) {
+        writer.beginArray()
+        tickScores.forEach { tickScore ->
+            writer.beginObject()
+            writer.name("participantId").value(tickScore.participantId.botId.value.toLong())
+            tickScore.participantId.teamId?.let { teamId ->
+                writer.name("teamId").value(teamId.id.toLong())
+            }
+            writer.name("bulletDamageScore").value(tickScore.bulletDamageScore)
+            writer.name("bulletKillBonus").value(tickScore.bulletKillBonus)
+            writer.name("ramDamageScore").value(tickScore.ramDamageScore)
+            writer.name("ramKillBonus").value(tickScore.ramKillBonus)
+            writer.name("survivalScore").value(tickScore.survivalScore)
+            writer.name("lastSurvivorBonus").value(tickScore.lastSurvivorBonus)
+            writer.name("totalScore").value(tickScore.totalScore)
+            writer.name("rank").value(tickScore.rank.toLong())
+            writer.endObject()
+        }
+        writer.endArray()
+    }
 }
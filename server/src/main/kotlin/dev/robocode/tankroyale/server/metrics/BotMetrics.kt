@@ -0,0 +1,42 @@
+package dev.robocode.tankroyale.server.metrics
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Metrics of a bot participating in the current game.
+ *
+ * @param botId is the id of the bot.
+ * @param name is the name and version of the bot.
+ */
+class BotMetrics(val botId: Int, val name: String) {
+
+    /** Time from the tick being sent to the bot until its intent for the turn is received */
+    val intentLatency = LatencyHistogram()
+
+    private val skippedTurns = AtomicLong()
+
+    /** Number of turns skipped by the bot, as no intent was received within the turn */
+    val skippedTurnCount: Long get() = skippedTurns.get()
+
+    /** Time in nanoseconds when the last tick was sent to the bot, or 0 if its intent has been received */
+    private val tickSentTime = AtomicLong()
+
+    /** Notifies that a tick has been sent to the bot. */
+    fun tickSent() {
+        tickSentTime.set(System.nanoTime())
+    }
+
+    /** Notifies that an intent has been received from the bot, where only the first intent per tick is timed. */
+    fun intentReceived() {
+        // Read and clear in one step, so a tick sent in between is not cleared, and an intent is not timed twice
+        val sentTime = tickSentTime.getAndSet(0)
+        if (sentTime != 0L) {
+            intentLatency.record(System.nanoTime() - sentTime)
+        }
+    }
+
+    /** Notifies that the bot skipped a turn. */
+    fun turnSkipped() {
+        skippedTurns.incrementAndGet()
+    }
+}
@@ -0,0 +1,105 @@
+package dev.robocode.tankroyale.server.metrics
+
+import java.util.*
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import kotlin.math.ceil
+
+/**
+ * Thread-safe histogram of latencies with fixed bucket bounds. Recording a latency does not allocate, so it can be
+ * used on the hot path of every turn.
+ *
+ * @param bucketBoundsInMicros is the inclusive upper bounds of the buckets in microseconds in ascending order.
+ * Latencies above the last bound are counted in an extra overflow bucket.
+ */
+class LatencyHistogram(private val bucketBoundsInMicros: LongArray = DEFAULT_BUCKET_BOUNDS_IN_MICROS) {
+
+    companion object {
+        /** Default bucket bounds in microseconds, which covers turns from 50 µs up to 1 second */
+        val DEFAULT_BUCKET_BOUNDS_IN_MICROS = longArrayOf(
+            50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000
+        )
+    }
+
+    private val bucketBoundsInNanos = LongArray(bucketBoundsInMicros.size) {
+        TimeUnit.MICROSECONDS.toNanos(bucketBoundsInMicros[it])
+    }
+
+    private val bucketCounts = AtomicLongArray(bucketBoundsInMicros.size + 1)
+
+    private val totalCount = AtomicLong()
+
+    private val totalNanos = AtomicLong()
+
+    private val maxNanos = AtomicLong()
+
+    /** Number of recorded latencies */
+    val count: Long get() = totalCount.get()
+
+    /** Sum of all recorded latencies in nanoseconds */
+    val sumInNanos: Long get() = totalNanos.get()
+
+    /** Largest recorded latency in nanoseconds */
+    val maxInNanos: Long get() = maxNanos.get()
+
+    /** Upper bounds of the buckets in microseconds, excluding the overflow bucket */
+    val bucketBounds: List<Long> get() = bucketBoundsInMicros.asList()
+
+    /**
+     * Records a latency.
+     * @param nanos is the latency in nanoseconds.
+     */
+    fun record(nanos: Long) {
+        var bucket = 0
+        while (bucket < bucketBoundsInNanos.size && nanos > bucketBoundsInNanos[bucket]) bucket++
+
+        bucketCounts.incrementAndGet(bucket)
+        totalCount.incrementAndGet()
+        totalNanos.addAndGet(nanos)
+        maxNanos.accumulateAndGet(nanos, Math::max)
+    }
+
+    /**
+     * Returns the number of latencies recorded in a bucket.
+     * @param bucket is the bucket index, where the last index is the overflow bucket.
+     */
+    fun bucketCount(bucket: Int): Long = bucketCounts[bucket]
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket containing it, or the max latency for the overflow
+     * bucket.
+     * @param percentile is the percentile in the range [0, 100].
+     * @return the estimated latency in nanoseconds, or 0 if nothing has been recorded.
+     */
+    fun percentileInNanos(percentile: Double): Long {
+        val total = count
+        if (total == 0L) return 0
+
+        val rank = ceil(percentile / 100 * total).toLong().coerceIn(1, total)
+        var cumulative = 0L
+        for (bucket in bucketBoundsInNanos.indices) {
+            cumulative += bucketCounts[bucket]
+            if (cumulative >= rank) return minOf(bucketBoundsInNanos[bucket], maxInNanos)
+        }
+        return maxInNanos
+    }
+
+    /** Clears all recorded latencies. */
+    fun reset() {
+        for (bucket in 0 until bucketCounts.length()) bucketCounts[bucket] = 0
+        totalCount.set(0)
+        totalNanos.set(0)
+        maxNanos.set(0)
+    }
+
+    /** Returns a one-line summary with count, mean, p50, p99 and max in milliseconds. */
+    fun summary(): String {
+        val total = count
+        val mean = if (total == 0L) 0.0 else sumInNanos.toDouble() / total
+        return "count: $total, mean: ${toMillis(mean)} ms, p50: ${toMillis(percentileInNanos(50.0).toDouble())} ms, " +
+                "p99: ${toMillis(percentileInNanos(99.0).toDouble())} ms, max: ${toMillis(maxInNanos.toDouble())} ms"
+    }
+
+    private fun toMillis(nanos: Double) = String.format(Locale.ROOT, "%.3f", nanos / 1_000_000)
+}
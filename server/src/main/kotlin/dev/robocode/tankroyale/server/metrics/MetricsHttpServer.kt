@@ -0,0 +1,68 @@
+package dev.robocode.tankroyale.server.metrics
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import org.slf4j.LoggerFactory
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.util.concurrent.Executors
+
+/**
+ * Small HTTP server serving the metrics in the Prometheus text format at the `/metrics` path.
+ *
+ * The server only listens on the loopback address, so the metrics are only available on the local machine. Requests
+ * are handled one at a time on a single daemon thread, as the metrics are only scraped now and then.
+ *
+ * @param port is the port number to listen on.
+ * @param metrics is the supplier of the metrics in the Prometheus text format.
+ */
+class MetricsHttpServer(private val port: Int, private val metrics: () -> String) : AutoCloseable {
+
+    private val log = LoggerFactory.getLogger(this::class.java)
+
+    private val executor = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "MetricsHttpServer").apply { isDaemon = true }
+    }
+
+    private val server = HttpServer.create(InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0).apply {
+        createContext(METRICS_PATH, ::handle)
+        executor = this@MetricsHttpServer.executor
+    }
+
+    /** Starts the server. */
+    fun start() {
+        server.start()
+        log.info("Serving metrics on http://localhost:$port$METRICS_PATH")
+    }
+
+    /** Stops the server. */
+    override fun close() {
+        server.stop(0)
+        executor.shutdown()
+    }
+
+    private fun handle(exchange: HttpExchange) {
+        try {
+            val method = exchange.requestMethod
+            if (method != "GET" && method != "HEAD") {
+                exchange.sendResponseHeaders(405, -1) // method not allowed
+                return
+            }
+            val body = metrics().toByteArray(Charsets.UTF_8)
+            exchange.responseHeaders.add("Content-Type", CONTENT_TYPE)
+            if (method == "HEAD") {
+                exchange.sendResponseHeaders(200, -1)
+            } else {
+                exchange.sendResponseHeaders(200, body.size.toLong())
+                exchange.responseBody.write(body)
+            }
+        } finally {
+            exchange.close()
+        }
+    }
+
+    private companion object {
+        const val METRICS_PATH = "/metrics"
+        const val CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8"
+    }
+}
@@ -0,0 +1,102 @@
+package dev.robocode.tankroyale.server.metrics
+
+import java.math.BigDecimal
+
+/**
+ * Writer of metrics in the Prometheus text exposition format.
+ *
+ * A metric is written as a family of samples, where each sample is identified by its labels, e.g. one sample per bot.
+ */
+class PrometheusWriter {
+
+    private val builder = StringBuilder()
+
+    /**
+     * Writes a counter with a single sample.
+     * @param name is the name of the counter.
+     * @param help is the description of the counter.
+     * @param value is the value of the counter.
+     */
+    fun counter(name: String, help: String, value: Long) {
+        counter(name, help, listOf(emptyMap<String, String>() to value))
+    }
+
+    /**
+     * Writes a counter with a sample per set of labels.
+     * @param name is the name of the counter.
+     * @param help is the description of the counter.
+     * @param samples is the labels and value of each sample.
+     */
+    fun counter(name: String, help: String, samples: List<Pair<Map<String, String>, Long>>) {
+        header(name, help, "counter")
+        samples.forEach { (labels, value) -> sample(name, labels, value.toString()) }
+    }
+
+    /**
+     * Writes a gauge with a single sample.
+     * @param name is the name of the gauge.
+     * @param help is the description of the gauge.
+     * @param value is the value of the gauge.
+     */
+    fun gauge(name: String, help: String, value: Double) {
+        header(name, help, "gauge")
+        sample(name, emptyMap(), value.toString())
+    }
+
+    /**
+     * Writes a histogram of latencies in seconds with a single sample.
+     * @param name is the name of the histogram.
+     * @param help is the description of the histogram.
+     * @param histogram is the latency histogram.
+     */
+    fun histogram(name: String, help: String, histogram: LatencyHistogram) {
+        histogram(name, help, listOf(emptyMap<String, String>() to histogram))
+    }
+
+    /**
+     * Writes a histogram of latencies in seconds with a sample per set of labels.
+     * @param name is the name of the histogram.
+     * @param help is the description of the histogram.
+     * @param samples is the labels and latency histogram of each sample.
+     */
+    fun histogram(name: String, help: String, samples: List<Pair<Map<String, String>, LatencyHistogram>>) {
+        header(name, help, "histogram")
+        samples.forEach { (labels, histogram) ->
+            // The buckets are cumulative, and the count is taken from the buckets, so they are consistent even when
+            // latencies are recorded while writing
+            var cumulativeCount = 0L
+            histogram.bucketBounds.forEachIndexed { bucket, boundInMicros ->
+                cumulativeCount += histogram.bucketCount(bucket)
+                sample("${name}_bucket", labels + ("le" to microsToSeconds(boundInMicros)), cumulativeCount.toString())
+            }
+            cumulativeCount += histogram.bucketCount(histogram.bucketBounds.size)
+            sample("${name}_bucket", labels + ("le" to "+Inf"), cumulativeCount.toString())
+            sample("${name}_sum", labels, (histogram.sumInNanos / NANOS_PER_SECOND).toString())
+            sample("${name}_count", labels, cumulativeCount.toString())
+        }
+    }
+
+    /** Returns the metrics written in the Prometheus text format */
+    override fun toString() = builder.toString()
+
+    private fun header(name: String, help: String, type: String) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n')
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n')
+    }
+
+    private fun sample(name: String, labels: Map<String, String>, value: String) {
+        builder.append(name)
+        if (labels.isNotEmpty()) {
+            labels.entries.joinTo(builder, ",", "{", "}") { (key, value) -> "$key=\"${escape(value)}\"" }
+        }
+        builder.append(' ').append(value).append('\n')
+    }
+
+    private fun escape(value: String) = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+
+    private fun microsToSeconds(micros: Long) = BigDecimal.valueOf(micros, 6).stripTrailingZeros().toPlainString()
+
+    private companion object {
+        const val NANOS_PER_SECOND = 1_000_000_000.0
+    }
+}
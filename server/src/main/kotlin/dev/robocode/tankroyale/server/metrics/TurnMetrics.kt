@@ -0,0 +1,146 @@
+package dev.robocode.tankroyale.server.metrics
+
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Metrics of the turns of the current game: the time spent in each [TurnPhase] per turn, and the intent latencies and
+ * skipped turns of each bot.
+ *
+ * The phases of a turn are timed with [measure] by the thread running the turn, where the times of a phase measured
+ * several times within a turn, e.g. once per bot, are added up. The phase times are recorded in the histograms when
+ * the turn ends with [endTurn], so each histogram holds the time spent in its phase per turn.
+ */
+class TurnMetrics {
+
+    private val phaseLatencies = TurnPhase.values().associateWith { LatencyHistogram() }
+
+    /** Time spent in each phase within the current turn, where -1 means that the phase has not been measured */
+    private val phaseNanos = LongArray(TurnPhase.values().size) { -1 }
+
+    private val bots = ConcurrentHashMap<Int, BotMetrics>()
+
+    private val turns = AtomicLong()
+
+    /** Number of turns run in the current game */
+    val turnCount: Long get() = turns.get()
+
+    /** Turn timeout of the current game in nanoseconds */
+    @Volatile
+    var turnTimeoutInNanos = 0L
+        private set
+
+    /** Metrics of the bots in the current game ordered by bot id */
+    val botMetrics: List<BotMetrics> get() = bots.values.sortedBy { it.botId }
+
+    /**
+     * Starts over with the metrics for a new game.
+     *
+     * @param botNames is the names of the bots participating in the game by bot id.
+     * @param turnTimeoutInNanos is the turn timeout of the game in nanoseconds.
+     */
+    fun reset(botNames: Map<Int, String>, turnTimeoutInNanos: Long) {
+        phaseLatencies.values.forEach { it.reset() }
+        phaseNanos.fill(-1)
+        turns.set(0)
+        bots.clear()
+        botNames.forEach { (botId, name) -> bots[botId] = BotMetrics(botId, name) }
+        this.turnTimeoutInNanos = turnTimeoutInNanos
+    }
+
+    /**
+     * Returns the histogram of the time spent in a phase per turn.
+     * @param phase is the turn phase.
+     */
+    fun phaseLatency(phase: TurnPhase): LatencyHistogram = phaseLatencies.getValue(phase)
+
+    /**
+     * Returns the metrics of a bot.
+     * @param botId is the id of the bot.
+     * @return the metrics of the bot, or `null` if the bot does not participate in the current game.
+     */
+    fun bot(botId: Int): BotMetrics? = bots[botId]
+
+    /**
+     * Runs a block of code and adds the time spent to a phase of the current turn.
+     * @param phase is the turn phase the code belongs to.
+     * @param block is the code to run.
+     * @return the result of the block.
+     */
+    inline fun <T> measure(phase: TurnPhase, block: () -> T): T {
+        val startTime = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            addPhaseTime(phase, System.nanoTime() - startTime)
+        }
+    }
+
+    @PublishedApi
+    internal fun addPhaseTime(phase: TurnPhase, nanos: Long) {
+        val index = phase.ordinal
+        phaseNanos[index] = phaseNanos[index].coerceAtLeast(0) + nanos
+    }
+
+    /** Ends the current turn, where the time spent in each phase measured within the turn is recorded. */
+    fun endTurn() {
+        for (phase in TurnPhase.values()) {
+            val nanos = phaseNanos[phase.ordinal]
+            if (nanos >= 0) {
+                phaseLatencies.getValue(phase).record(nanos)
+                phaseNanos[phase.ordinal] = -1
+            }
+        }
+        turns.incrementAndGet()
+    }
+
+    /** Returns a multi-line summary with the mean and p99 time of each phase, and the intent latencies of each bot. */
+    fun summary(): String {
+        val phases = TurnPhase.values().filter { phaseLatency(it).count > 0 }.joinToString(", ") { phase ->
+            val histogram = phaseLatency(phase)
+            "${phase.label}: ${toMillis(histogram.sumInNanos / histogram.count)}/" +
+                    toMillis(histogram.percentileInNanos(99.0))
+        }
+        val lines = mutableListOf("Turns: $turnCount, phase mean/p99 ms: $phases")
+        botMetrics.forEach { bot ->
+            val p99 = bot.intentLatency.percentileInNanos(99.0)
+            val deadline = if (turnTimeoutInNanos > 0) " (${p99 * 100 / turnTimeoutInNanos}% of turn timeout)" else ""
+            lines += "Bot ${bot.botId} ${bot.name}: intent latency p99: ${toMillis(p99)} ms$deadline, " +
+                    "max: ${toMillis(bot.intentLatency.maxInNanos)} ms, skipped turns: ${bot.skippedTurnCount}"
+        }
+        return lines.joinToString("\n")
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format.
+     * @param writer is the writer to write the metrics to.
+     */
+    fun writeTo(writer: PrometheusWriter) {
+        writer.counter("robocode_turns_total", "Number of turns run in the current game", turnCount)
+        writer.gauge(
+            "robocode_turn_timeout_seconds", "Turn timeout of the current game", turnTimeoutInNanos / NANOS_PER_SECOND
+        )
+        writer.histogram(
+            "robocode_turn_phase_duration_seconds", "Time spent in each phase per turn",
+            TurnPhase.values().map { mapOf("phase" to it.label) to phaseLatency(it) }
+        )
+        val bots = botMetrics
+        val botLabels = bots.map { mapOf("bot_id" to it.botId.toString(), "bot_name" to it.name) }
+        writer.histogram(
+            "robocode_bot_intent_latency_seconds",
+            "Time from the tick being sent to a bot until its intent is received",
+            botLabels.zip(bots.map { it.intentLatency })
+        )
+        writer.counter(
+            "robocode_bot_skipped_turns_total", "Number of turns skipped by a bot",
+            botLabels.zip(bots.map { it.skippedTurnCount })
+        )
+    }
+
+    private fun toMillis(nanos: Long) = String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0)
+
+    private companion object {
+        const val NANOS_PER_SECOND = 1_000_000_000.0
+    }
+}
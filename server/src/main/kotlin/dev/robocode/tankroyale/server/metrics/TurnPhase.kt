@@ -0,0 +1,41 @@
+package dev.robocode.tankroyale.server.metrics
+
+/**
+ * Phases of a turn, which are timed by the [TurnMetrics].
+ *
+ * @param label is the label of the phase used in the metrics.
+ */
+enum class TurnPhase(val label: String) {
+    /** Copying the intents received from the bots for the turn */
+    INTENT_SNAPSHOT("intent_snapshot"),
+
+    /** Cooling down and firing the guns of the bots */
+    GUNS("guns"),
+
+    /** Executing the intents of the bots, i.e. turning and moving the bots */
+    MOVEMENT("movement"),
+
+    /** Handling bots colliding with walls and other bots */
+    BOT_COLLISIONS("bot_collisions"),
+
+    /** Scanning for other bots */
+    SCANS("scans"),
+
+    /** Moving the bullets, and handling bullets hitting walls, bullets and bots */
+    BULLETS("bullets"),
+
+    /** Handling inactivity, disabled and defeated bots, and the end of the round or game */
+    RULES("rules"),
+
+    /** Storing the snapshots of the bots and bullets of the turn */
+    SNAPSHOTS("snapshots"),
+
+    /** Mapping the turn into the tick events for the bots and observers */
+    MAPPING("mapping"),
+
+    /** Serializing the tick events into JSON or CBOR */
+    SERIALIZATION("serialization"),
+
+    /** Sending the tick events to the bots, and handing over the tick to the observers */
+    SEND("send"),
+}
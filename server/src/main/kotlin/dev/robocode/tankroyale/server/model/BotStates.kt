@@ -0,0 +1,156 @@
+package dev.robocode.tankroyale.server.model
+
+/**
+ * Physics states of the bots stored as structure of arrays, where each state field is kept in a parallel primitive
+ * array indexed by the bot id. The states are read and written through [MutableBot] views, so the turn phases iterating
+ * over all bots read the fields from contiguous arrays.
+ *
+ * A snapshot of the states, e.g. of the previous turn, is taken with [copyFrom], which overwrites the snapshot in place,
+ * so no objects are created per turn. The arrays only grow when a bot id larger than any before is added.
+ */
+class BotStates {
+
+    private var x = DoubleArray(INITIAL_CAPACITY)
+    private var y = DoubleArray(INITIAL_CAPACITY)
+    private var direction = DoubleArray(INITIAL_CAPACITY)
+    private var gunDirection = DoubleArray(INITIAL_CAPACITY)
+    private var radarDirection = DoubleArray(INITIAL_CAPACITY)
+    private var speed = DoubleArray(INITIAL_CAPACITY)
+    private var energy = DoubleArray(INITIAL_CAPACITY)
+    private var gunHeat = DoubleArray(INITIAL_CAPACITY)
+
+    /**
+     * Adds the state of a bot, which replaces the state added for the bot before.
+     * @param botId is the id of the bot.
+     * @param x is the x coordinate.
+     * @param y is the y coordinate.
+     * @param direction is the driving direction in degrees.
+     * @param gunDirection is the gun direction in degrees.
+     * @param radarDirection is the radar direction in degrees.
+     * @param speed is the speed.
+     * @param energy is the energy level.
+     * @param gunHeat is the gun heat.
+     */
+    fun add(
+        botId: BotId,
+        x: Double,
+        y: Double,
+        direction: Double,
+        gunDirection: Double,
+        radarDirection: Double,
+        speed: Double,
+        energy: Double,
+        gunHeat: Double,
+    ) {
+        val i = botId.value
+        ensureCapacity(i + 1)
+
+        this.x[i] = x
+        this.y[i] = y
+        this.direction[i] = direction
+        this.gunDirection[i] = gunDirection
+        this.radarDirection[i] = radarDirection
+        this.speed[i] = speed
+        this.energy[i] = energy
+        this.gunHeat[i] = gunHeat
+    }
+
+    /**
+     * Copies all states from other bot states, which replaces the states copied before.
+     * @param states are the bot states to copy.
+     */
+    fun copyFrom(states: BotStates) {
+        ensureCapacity(states.x.size)
+
+        states.x.copyInto(x)
+        states.y.copyInto(y)
+        states.direction.copyInto(direction)
+        states.gunDirection.copyInto(gunDirection)
+        states.radarDirection.copyInto(radarDirection)
+        states.speed.copyInto(speed)
+        states.energy.copyInto(energy)
+        states.gunHeat.copyInto(gunHeat)
+    }
+
+    /** Returns the x coordinate of a bot. */
+    fun x(botId: BotId) = x[botId.value]
+
+    /** Sets the x coordinate of a bot. */
+    fun setX(botId: BotId, value: Double) {
+        x[botId.value] = value
+    }
+
+    /** Returns the y coordinate of a bot. */
+    fun y(botId: BotId) = y[botId.value]
+
+    /** Sets the y coordinate of a bot. */
+    fun setY(botId: BotId, value: Double) {
+        y[botId.value] = value
+    }
+
+    /** Returns the driving direction of a bot in degrees. */
+    fun direction(botId: BotId) = direction[botId.value]
+
+    /** Sets the driving direction of a bot in degrees. */
+    fun setDirection(botId: BotId, value: Double) {
+        direction[botId.value] = value
+    }
+
+    /** Returns the gun direction of a bot in degrees. */
+    fun gunDirection(botId: BotId) = gunDirection[botId.value]
+
+    /** Sets the gun direction of a bot in degrees. */
+    fun setGunDirection(botId: BotId, value: Double) {
+        gunDirection[botId.value] = value
+    }
+
+    /** Returns the radar direction of a bot in degrees. */
+    fun radarDirection(botId: BotId) = radarDirection[botId.value]
+
+    /** Sets the radar direction of a bot in degrees. */
+    fun setRadarDirection(botId: BotId, value: Double) {
+        radarDirection[botId.value] = value
+    }
+
+    /** Returns the speed of a bot. */
+    fun speed(botId: BotId) = speed[botId.value]
+
+    /** Sets the speed of a bot. */
+    fun setSpeed(botId: BotId, value: Double) {
+        speed[botId.value] = value
+    }
+
+    /** Returns the energy level of a bot. */
+    fun energy(botId: BotId) = energy[botId.value]
+
+    /** Sets the energy level of a bot. */
+    fun setEnergy(botId: BotId, value: Double) {
+        energy[botId.value] = value
+    }
+
+    /** Returns the gun heat of a bot. */
+    fun gunHeat(botId: BotId) = gunHeat[botId.value]
+
+    /** Sets the gun heat of a bot. */
+    fun setGunHeat(botId: BotId, value: Double) {
+        gunHeat[botId.value] = value
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (capacity <= x.size) return
+
+        val newCapacity = maxOf(capacity, x.size * 2)
+        x = x.copyOf(newCapacity)
+        y = y.copyOf(newCapacity)
+        direction = direction.copyOf(newCapacity)
+        gunDirection = gunDirection.copyOf(newCapacity)
+        radarDirection = radarDirection.copyOf(newCapacity)
+        speed = speed.copyOf(newCapacity)
+        energy = energy.copyOf(newCapacity)
+        gunHeat = gunHeat.copyOf(newCapacity)
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 64
+    }
+}
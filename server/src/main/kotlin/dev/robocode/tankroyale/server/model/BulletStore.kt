@@ -0,0 +1,212 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.rules.calcBulletSpeed
+import kotlin.math.cos
+import kotlin.math.sin
+
+/**
+ * Dense pool of the bullets in the arena stored as structure of arrays, where each bullet field is kept in a parallel
+ * primitive array indexed by the slot of the bullet.
+ *
+ * Slots of removed bullets are put on a free list and reused by bullets fired later, so the arrays only grow when more
+ * bullets are in the arena than before. The bullets are kept in the order they were fired, and the i-th bullet in
+ * this order is found with [slotAt].
+ *
+ * Bullets are removed in two steps, so the order does not change while iterating over the bullets: [remove] marks a
+ * bullet as removed, and [compact] drops the marked bullets from the order and frees their slots.
+ */
+class BulletStore {
+
+    private var ids = IntArray(INITIAL_CAPACITY)
+    private var botIds = IntArray(INITIAL_CAPACITY)
+    private var power = DoubleArray(INITIAL_CAPACITY)
+    private var direction = DoubleArray(INITIAL_CAPACITY)
+    private var speed = DoubleArray(INITIAL_CAPACITY)
+    private var cosines = DoubleArray(INITIAL_CAPACITY)
+    private var sines = DoubleArray(INITIAL_CAPACITY)
+    private var startX = DoubleArray(INITIAL_CAPACITY)
+    private var startY = DoubleArray(INITIAL_CAPACITY)
+    private var ticks = IntArray(INITIAL_CAPACITY)
+    private var colors = arrayOfNulls<Color>(INITIAL_CAPACITY)
+    private var startPositions = arrayOfNulls<Point>(INITIAL_CAPACITY)
+    private var removed = BooleanArray(INITIAL_CAPACITY)
+
+    /** Slots of the bullets in the order they were fired */
+    private var order = IntArray(INITIAL_CAPACITY)
+
+    /** Slots that are free for reuse */
+    private var freeSlots = IntArray(INITIAL_CAPACITY)
+    private var freeCount = 0
+
+    /** Number of slots that have been taken into use */
+    private var slotCount = 0
+
+    /** Number of bullets marked as removed since the last [compact] */
+    private var removedCount = 0
+
+    /** Number of bullets, which includes bullets marked as removed until [compact] is called */
+    var size = 0
+        private set
+
+    /** Removes all bullets. */
+    fun clear() {
+        colors.fill(null, 0, slotCount)
+        startPositions.fill(null, 0, slotCount)
+        removed.fill(false, 0, slotCount)
+        slotCount = 0
+        freeCount = 0
+        removedCount = 0
+        size = 0
+    }
+
+    /**
+     * Adds a newly fired bullet with a tick of 0.
+     * @param id is the id of the bullet.
+     * @param botId is the id of the bot that fired the bullet.
+     * @param power is the power of the bullet.
+     * @param direction is the direction of the bullet in degrees.
+     * @param color is the color of the bullet.
+     * @param startPosition is the position the bullet was fired from.
+     * @return the slot of the bullet.
+     */
+    fun add(id: BulletId, botId: BotId, power: Double, direction: Double, color: Color?, startPosition: Point): Int {
+        val slot = if (freeCount > 0) freeSlots[--freeCount] else newSlot()
+
+        ids[slot] = id.value
+        botIds[slot] = botId.value
+        this.power[slot] = power
+        this.direction[slot] = direction
+        speed[slot] = calcBulletSpeed(power)
+        val angle = Math.toRadians(direction)
+        cosines[slot] = cos(angle)
+        sines[slot] = sin(angle)
+        startX[slot] = startPosition.x
+        startY[slot] = startPosition.y
+        ticks[slot] = 0
+        colors[slot] = color
+        startPositions[slot] = startPosition
+        removed[slot] = false
+
+        if (size == order.size) {
+            order = order.copyOf(size * 2)
+        }
+        order[size++] = slot
+        return slot
+    }
+
+    /**
+     * Marks a bullet as removed. The bullet is kept in the order until [compact] is called, and marking it again has
+     * no effect.
+     * @param slot is the slot of the bullet.
+     */
+    fun remove(slot: Int) {
+        if (!removed[slot]) {
+            removed[slot] = true
+            removedCount++
+        }
+    }
+
+    /** Checks if a bullet has been marked as removed. */
+    fun isRemoved(slot: Int) = removed[slot]
+
+    /** Drops the bullets marked as removed from the order, and frees their slots for reuse. */
+    fun compact() {
+        if (removedCount == 0) return
+
+        var newSize = 0
+        for (i in 0 until size) {
+            val slot = order[i]
+            if (removed[slot]) {
+                colors[slot] = null
+                startPositions[slot] = null
+                freeSlots[freeCount++] = slot
+            } else {
+                order[newSize++] = slot
+            }
+        }
+        size = newSize
+        removedCount = 0
+    }
+
+    /**
+     * Moves bullets a turn ahead by incrementing their ticks, which are all bullets by default.
+     * @param from is the position of the first bullet in the order (inclusive).
+     * @param to is the position of the last bullet in the order (exclusive).
+     */
+    fun incrementTicks(from: Int = 0, to: Int = size) {
+        for (i in from until to) {
+            ticks[order[i]]++
+        }
+    }
+
+    /** Returns the slot of the i-th bullet in the order the bullets were fired. */
+    fun slotAt(i: Int) = order[i]
+
+    /** Returns the id of the bot that fired a bullet. */
+    fun botId(slot: Int) = BotId(botIds[slot])
+
+    /** Returns the direction of a bullet in degrees. */
+    fun direction(slot: Int) = direction[slot]
+
+    /** Returns the speed of a bullet. */
+    fun speed(slot: Int) = speed[slot]
+
+    /** Returns the x coordinate of a bullet at a tick, which is the current tick by default. */
+    fun x(slot: Int, tick: Int = ticks[slot]) = startX[slot] + cosines[slot] * (speed[slot] * tick)
+
+    /** Returns the y coordinate of a bullet at a tick, which is the current tick by default. */
+    fun y(slot: Int, tick: Int = ticks[slot]) = startY[slot] + sines[slot] * (speed[slot] * tick)
+
+    /** Returns the x coordinate of the next position of a bullet. */
+    fun nextX(slot: Int) = x(slot, ticks[slot] + 1)
+
+    /** Returns the y coordinate of the next position of a bullet. */
+    fun nextY(slot: Int) = y(slot, ticks[slot] + 1)
+
+    /** Returns an immutable copy of a bullet. */
+    fun toBullet(slot: Int) = Bullet(
+        id = BulletId(ids[slot]),
+        botId = BotId(botIds[slot]),
+        power = power[slot],
+        direction = direction[slot],
+        color = colors[slot],
+        startPosition = startPositions[slot]!!,
+        tick = ticks[slot],
+    )
+
+    /**
+     * Adds immutable copies of all bullets not marked as removed to a collection in the order they were fired.
+     * @param dest is the collection to add the bullets to.
+     */
+    fun copyTo(dest: MutableCollection<in Bullet>) {
+        for (i in 0 until size) {
+            val slot = order[i]
+            if (!removed[slot]) dest += toBullet(slot)
+        }
+    }
+
+    private fun newSlot(): Int {
+        if (slotCount == ids.size) {
+            val capacity = slotCount * 2
+            ids = ids.copyOf(capacity)
+            botIds = botIds.copyOf(capacity)
+            power = power.copyOf(capacity)
+            direction = direction.copyOf(capacity)
+            speed = speed.copyOf(capacity)
+            cosines = cosines.copyOf(capacity)
+            sines = sines.copyOf(capacity)
+            startX = startX.copyOf(capacity)
+            startY = startY.copyOf(capacity)
+            ticks = ticks.copyOf(capacity)
+            colors = colors.copyOf(capacity)
+            startPositions = startPositions.copyOf(capacity)
+            removed = removed.copyOf(capacity)
+            freeSlots = freeSlots.copyOf(capacity)
+        }
+        return slotCount++
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 64
+    }
+}
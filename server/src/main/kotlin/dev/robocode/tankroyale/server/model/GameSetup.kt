@@ -64,4 +64,7 @@ data class GameSetup(
 
     /** Flag specifying if the ready timeout is locked */
     val isReadyTimeoutLocked: Boolean,
+
+    /** Seed of the random generator of the game, or `null` if a random seed must be used */
+    val seed: Long? = null,
 )
\ No newline at end of file
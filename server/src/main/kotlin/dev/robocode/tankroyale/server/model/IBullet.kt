@@ -49,6 +49,20 @@ interface IBullet {
      */
     fun nextPosition(): Point = calcPosition(true)
 
+    /**
+     * Returns the x coordinate of this bullet at a tick without creating a point.
+     * @param tick is the tick, which is the current tick by default.
+     * @return the x coordinate at the tick.
+     */
+    fun x(tick: Int = this.tick): Double = startPosition.x + cos(Math.toRadians(direction)) * (speed() * tick)
+
+    /**
+     * Returns the y coordinate of this bullet at a tick without creating a point.
+     * @param tick is the tick, which is the current tick by default.
+     * @return the y coordinate at the tick.
+     */
+    fun y(tick: Int = this.tick): Double = startPosition.y + sin(Math.toRadians(direction)) * (speed() * tick)
+
     /**
      * Calculates the current position of this bullet based on [startPosition] and [tick].
      * @param calcNextPosition set to `true` to calc next position or `false` to calc current position.
@@ -56,11 +70,6 @@ interface IBullet {
      */
     private fun calcPosition(calcNextPosition: Boolean = false): Point {
         val tick = if (calcNextPosition) tick + 1 else tick
-
-        val angle = Math.toRadians(direction)
-        val distance = speed() * tick
-        val x = startPosition.x + cos(angle) * distance
-        val y = startPosition.y + sin(angle) * distance
-        return Point(x, y)
+        return Point(x(tick), y(tick))
     }
 }
\ No newline at end of file
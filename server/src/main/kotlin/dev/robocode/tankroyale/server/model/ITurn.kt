@@ -13,11 +13,11 @@ interface ITurn {
     /** Bullets */
     val bullets: Set<IBullet>
 
-    /** Observer events  */
-    val observerEvents: Set<Event>
+    /** Events of the turn */
+    val events: ITurnEvents
 
-    /** Map over bot events  */
-    val botEvents: Map<BotId, Set<Event>>
+    /** Observer events  */
+    val observerEvents: List<Event> get() = events.observerEvents
 
     /**
      * Returns a bot instance by id.
@@ -29,7 +29,7 @@ interface ITurn {
     /**
      * Returns the event for a specific bot.
      * @param botId is the id of the bot.
-     * @return a set of bot events.
+     * @return a list of bot events.
      */
-    fun getEvents(botId: BotId): Set<Event> = botEvents[botId] ?: HashSet()
+    fun getEvents(botId: BotId): List<Event> = events.botEvents(botId)
 }
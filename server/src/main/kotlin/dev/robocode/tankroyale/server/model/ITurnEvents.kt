@@ -0,0 +1,16 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.event.Event
+
+/** Events of a game turn, in the order they occurred. */
+interface ITurnEvents {
+    /** Observer events */
+    val observerEvents: List<Event>
+
+    /**
+     * Returns the events for a specific bot.
+     * @param botId is the id of the bot.
+     * @return a list of bot events, which is empty if the bot has no events.
+     */
+    fun botEvents(botId: BotId): List<Event>
+}
@@ -5,11 +5,17 @@ import dev.robocode.tankroyale.server.rules.INITIAL_GUN_HEAT
 import kotlin.math.cos
 import kotlin.math.sin
 
-/** Mutable Bot instance. */
-data class MutableBot(
+/**
+ * Mutable Bot instance, which is a view of the bot, where the physics state (position, directions, speed, energy, and
+ * gun heat) is kept in [BotStates] and the remaining state is kept in this instance.
+ */
+class MutableBot(
     /** Bot id */
     override val id: BotId,
 
+    /** Store of the physics states of the bots, which the state of this bot is added to */
+    private val states: BotStates,
+
     /** Teammate ids */
     override val teammateIds: Set<BotId> = HashSet(),
 
@@ -20,25 +26,28 @@ data class MutableBot(
     override var sessionId: String? = null,
 
     /** Energy level */
-    override var energy: Double = INITIAL_BOT_ENERGY,
+    energy: Double = INITIAL_BOT_ENERGY,
+
+    /** X coordinate */
+    x: Double,
 
-    /** Position (x, y) */
-    override var position: MutablePoint,
+    /** Y coordinate */
+    y: Double,
 
     /** Driving direction in degrees */
-    override var direction: Double,
+    direction: Double,
 
     /** Gun direction in degrees */
-    override var gunDirection: Double,
+    gunDirection: Double,
 
     /** Radar direction in degrees */
-    override var radarDirection: Double,
+    radarDirection: Double,
 
     /** Radar spread angle in degrees */
     override var radarSpreadAngle: Double = 0.0,
 
     /** Speed */
-    override var speed: Double = 0.0,
+    speed: Double = 0.0,
 
     /** Turn rate */
     override var turnRate: Double = 0.0,
@@ -50,7 +59,7 @@ data class MutableBot(
     override var radarTurnRate: Double = 0.0,
 
     /** Gun heat */
-    override var gunHeat: Double = INITIAL_GUN_HEAT,
+    gunHeat: Double = INITIAL_GUN_HEAT,
 
     /** Body color */
     override var bodyColor: Color? = null,
@@ -87,18 +96,68 @@ data class MutableBot(
 
 ) : IBot {
 
+    init {
+        states.add(id, x, y, direction, gunDirection, radarDirection, speed, energy, gunHeat)
+    }
+
+    /** Energy level */
+    override var energy: Double
+        get() = states.energy(id)
+        set(value) {
+            states.setEnergy(id, value)
+        }
+
+    /** Position (x, y), which is a copy of the current coordinates */
+    override val position: IPoint
+        get() = Point(x, y)
+
     /** X coordinate */
     override var x: Double
-        get() = position.x
+        get() = states.x(id)
         set(value) {
-            position.x = value
+            states.setX(id, value)
         }
 
     /** Y coordinate */
     override var y: Double
-        get() = position.y
+        get() = states.y(id)
+        set(value) {
+            states.setY(id, value)
+        }
+
+    /** Driving direction in degrees */
+    override var direction: Double
+        get() = states.direction(id)
+        set(value) {
+            states.setDirection(id, value)
+        }
+
+    /** Gun direction in degrees */
+    override var gunDirection: Double
+        get() = states.gunDirection(id)
+        set(value) {
+            states.setGunDirection(id, value)
+        }
+
+    /** Radar direction in degrees */
+    override var radarDirection: Double
+        get() = states.radarDirection(id)
+        set(value) {
+            states.setRadarDirection(id, value)
+        }
+
+    /** Speed */
+    override var speed: Double
+        get() = states.speed(id)
+        set(value) {
+            states.setSpeed(id, value)
+        }
+
+    /** Gun heat */
+    override var gunHeat: Double
+        get() = states.gunHeat(id)
         set(value) {
-            position.y = value
+            states.setGunHeat(id, value)
         }
 
     /**
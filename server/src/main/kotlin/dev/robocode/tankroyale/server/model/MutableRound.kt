@@ -1,14 +1,33 @@
 package dev.robocode.tankroyale.server.model
 
+import dev.robocode.tankroyale.server.rules.ALL_TURNS
+
 /** Mutable state of a round in a battle. */
 data class MutableRound(
     /** Round number */
     override var roundNumber: Int,
 
     /** List of turns */
-    override val turns: MutableList<ITurn> = mutableListOf(),
+    override val turns: MutableList<ITurn> = ArrayDeque(),
 
     /** Flag specifying if round has ended yet */
     override var roundEnded: Boolean = false,
 
-    ) : IRound
\ No newline at end of file
+    /** Maximum number of turns to keep, where [ALL_TURNS] means that no turns are discarded */
+    val turnsToKeep: Int = ALL_TURNS,
+
+    ) : IRound {
+
+    /**
+     * Adds a turn to this round, and discards the oldest turns exceeding [turnsToKeep].
+     * @param turn is the turn to add.
+     */
+    fun addTurn(turn: ITurn) {
+        turns += turn
+        if (turnsToKeep != ALL_TURNS) {
+            while (turns.size > turnsToKeep.coerceAtLeast(1)) {
+                turns.removeAt(0)
+            }
+        }
+    }
+}
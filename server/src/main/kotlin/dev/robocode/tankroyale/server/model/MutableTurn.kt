@@ -13,23 +13,20 @@ data class MutableTurn(
     /** Bullets */
     override val bullets: MutableSet<IBullet> = mutableSetOf(),
 
-    /** Map over bot events  */
-    override val botEvents: MutableMap<BotId, MutableSet<Event>> = mutableMapOf(),
+    /** Events of the turn, which are reused between turns */
+    override val events: MutableTurnEvents = MutableTurnEvents(),
 
-    /** Observer events  */
-    override val observerEvents: MutableSet<Event> = mutableSetOf(),
-
-    ) : ITurn {
+    ) : ITurn, TurnEventSink {
 
     /** Returns an immutable copy of this turn */
-    fun toTurn() = Turn(turnNumber, copyBots(), copyBullets(), observerEvents.toSet(), copyBotEvents())
+    fun toTurn() = Turn(turnNumber, copyBots(), copyBullets(), events.toTurnEvents())
 
     /**
      * Adds an observer event.
      * @param event is the observer event to add.
      */
-    fun addObserverEvent(event: Event) {
-        observerEvents += event
+    override fun addObserverEvent(event: Event) {
+        events.addObserverEvent(event)
     }
 
     /**
@@ -37,22 +34,21 @@ data class MutableTurn(
      * @param botId is the bot id.
      * @param event is the bot event, only given to the specified bot.
      */
-    fun addPrivateBotEvent(botId: BotId, event: Event) {
-        botEvents.getOrPut(botId) { HashSet() }.add(event)
+    override fun addPrivateBotEvent(botId: BotId, event: Event) {
+        events.addPrivateBotEvent(botId, event)
     }
 
     /**
-     * Adds a public bot event to every bot.
+     * Adds a public bot event to every bot, where the event is only stored once.
      * @param event is the bot event.
      */
     fun addPublicBotEvent(event: Event) {
-        bots.forEach { addPrivateBotEvent(it.id, event) }
+        events.addPublicBotEvent(bots, event)
     }
 
     /** Reset all events. */
     fun resetEvents() {
-        botEvents.clear()
-        observerEvents.clear()
+        events.clear()
     }
 
     /** Returns a deep copy of the bots */
@@ -65,11 +61,6 @@ data class MutableTurn(
         return bullets.map { copyBullet(it) }.toSet()
     }
 
-    /** Returns a deep copy of the bot events */
-    private fun copyBotEvents(): Map<BotId, Set<Event>> {
-        return botEvents.mapValues { (_, events) -> events.toSet() }
-    }
-
     /**
      * Replaces all bullets with a collection of bullet copies.
      * @param srcBullets is the collection of bullets to copy.
@@ -79,6 +70,15 @@ data class MutableTurn(
         srcBullets.forEach { bullet -> bullets += copyBullet(bullet) }
     }
 
+    /**
+     * Replaces all bullets with copies of the bullets in a bullet store.
+     * @param srcBullets is the bullet store with the bullets to copy.
+     */
+    fun copyBullets(srcBullets: BulletStore) {
+        bullets.clear()
+        srcBullets.copyTo(bullets)
+    }
+
     /**
      * Replaces all bots with a collection of bot copies.
      * @param srcBots is the collection of bots to copy.
@@ -97,7 +97,7 @@ data class MutableTurn(
                 bot.isDroid,
                 bot.sessionId,
                 bot.energy,
-                Point(bot.position.x, bot.position.y),
+                Point(bot.x, bot.y),
                 bot.direction,
                 bot.gunDirection,
                 bot.radarDirection,
@@ -0,0 +1,130 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.event.Event
+
+/**
+ * Mutable events of a game turn stored as an append-only log. Each event is stored once in the log, and each recipient
+ * has an index array into the log, so an event sent to all bots is stored once and referenced by every bot.
+ *
+ * The log is meant to be reused between turns with [clear], which keeps the arrays, so no objects are created per
+ * turn once the arrays have grown to the number of events of a busy turn. The lists returned for reading the events
+ * are views of the log, which are only valid until the log is cleared.
+ */
+class MutableTurnEvents : ITurnEvents, TurnEventSink {
+
+    private var events = arrayOfNulls<Event>(INITIAL_CAPACITY)
+    private var eventCount = 0
+
+    private var observerIndices = IntArray(INITIAL_CAPACITY)
+    private var observerEventCount = 0
+
+    /** Index array per bot id */
+    private var botIndices = arrayOfNulls<IntArray>(INITIAL_BOT_CAPACITY)
+    private var botEventCounts = IntArray(INITIAL_BOT_CAPACITY)
+
+    /** Largest bot id that has been given events since the last clear plus one */
+    private var botIdBound = 0
+
+    /** Total number of bot event indices of all bots */
+    private var botIndexCount = 0
+
+    override val observerEvents: List<Event> get() = EventList(events, observerIndices, 0, observerEventCount)
+
+    override fun botEvents(botId: BotId): List<Event> {
+        val i = botId.value
+        if (i < 0 || i >= botIdBound) return emptyList()
+        return EventList(events, botIndices[i] ?: return emptyList(), 0, botEventCounts[i])
+    }
+
+    override fun addObserverEvent(event: Event) {
+        val index = append(event)
+        if (observerEventCount == observerIndices.size) {
+            observerIndices = observerIndices.copyOf(observerEventCount * 2)
+        }
+        observerIndices[observerEventCount++] = index
+    }
+
+    override fun addPrivateBotEvent(botId: BotId, event: Event) {
+        addBotIndex(botId.value, append(event))
+    }
+
+    /**
+     * Adds a public bot event, which is stored once and given to every bot.
+     * @param bots is the bots receiving the event.
+     * @param event is the bot event.
+     */
+    fun addPublicBotEvent(bots: Collection<IBot>, event: Event) {
+        val index = append(event)
+        bots.forEach { addBotIndex(it.id.value, index) }
+    }
+
+    /** Removes all events, but keeps the arrays for the next turn. */
+    fun clear() {
+        events.fill(null, 0, eventCount) // release the events for garbage collection
+        eventCount = 0
+        observerEventCount = 0
+        botEventCounts.fill(0, 0, botIdBound)
+        botIdBound = 0
+        botIndexCount = 0
+    }
+
+    /** Returns an immutable copy of the events, where the index arrays of the bots are packed into one array. */
+    fun toTurnEvents(): TurnEvents {
+        if (eventCount == 0) return TurnEvents.EMPTY
+
+        val botOffsets = IntArray(botIdBound + 1)
+        val packedBotIndices = IntArray(botIndexCount)
+        var offset = 0
+        for (i in 0 until botIdBound) {
+            botOffsets[i] = offset
+            val count = botEventCounts[i]
+            if (count > 0) {
+                System.arraycopy(botIndices[i]!!, 0, packedBotIndices, offset, count)
+                offset += count
+            }
+        }
+        botOffsets[botIdBound] = offset
+
+        return TurnEvents(
+            events.copyOf(eventCount), observerIndices.copyOf(observerEventCount), botOffsets, packedBotIndices
+        )
+    }
+
+    /** Appends an event to the log and returns its index. */
+    private fun append(event: Event): Int {
+        if (eventCount == events.size) {
+            events = events.copyOf(eventCount * 2)
+        }
+        events[eventCount] = event
+        return eventCount++
+    }
+
+    private fun addBotIndex(botIdValue: Int, index: Int) {
+        if (botIdValue >= botIndices.size) {
+            val capacity = maxOf(botIndices.size * 2, botIdValue + 1)
+            botIndices = botIndices.copyOf(capacity)
+            botEventCounts = botEventCounts.copyOf(capacity)
+        }
+        var indices = botIndices[botIdValue] ?: IntArray(INITIAL_BOT_EVENT_CAPACITY).also {
+            botIndices[botIdValue] = it
+        }
+        val count = botEventCounts[botIdValue]
+        if (count == indices.size) {
+            indices = indices.copyOf(count * 2)
+            botIndices[botIdValue] = indices
+        }
+        indices[count] = index
+        botEventCounts[botIdValue] = count + 1
+
+        if (botIdValue >= botIdBound) {
+            botIdBound = botIdValue + 1
+        }
+        botIndexCount++
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 64
+        const val INITIAL_BOT_CAPACITY = 64
+        const val INITIAL_BOT_EVENT_CAPACITY = 8
+    }
+}
@@ -0,0 +1,132 @@
+package dev.robocode.tankroyale.server.model
+
+import kotlin.math.floor
+import kotlin.math.max
+
+/**
+ * Uniform grid over points used as broad phase for collision checks between moving objects like bullets and bots.
+ *
+ * The grid is meant to be refilled every turn: [clear] it, [add] the points, and [build] it. All storage is kept in
+ * primitive arrays, which are reused between turns and only grow when more points are added than before. Each point
+ * is identified by the index it was added with.
+ *
+ * @param width is the width of the covered area. Points outside the area are put into the border cells.
+ * @param height is the height of the covered area.
+ * @param cellSize is the width and height of each grid cell.
+ */
+class PointGrid(width: Int, height: Int, private val cellSize: Double) {
+
+    /** Number of cells per row */
+    private val columns = max(1, (width / cellSize).toInt() + 1)
+
+    /** Number of cells per column */
+    private val rows = max(1, (height / cellSize).toInt() + 1)
+
+    /** Offset of each cell into [items]. Cell `c` owns the range `cellStart[c] until cellStart[c + 1]` */
+    private val cellStart = IntArray(columns * rows + 1)
+
+    /** Fill position per cell used while building */
+    private val cursor = IntArray(columns * rows)
+
+    /** Point indices sorted by cell */
+    private var items = IntArray(INITIAL_CAPACITY)
+
+    /** Cell of each point */
+    private var cells = IntArray(INITIAL_CAPACITY)
+
+    /** Point indices found by the last query */
+    private var hits = IntArray(INITIAL_CAPACITY)
+
+    /** Number of points added since the last [clear] */
+    var size = 0
+        private set
+
+    /** Number of points found by the last query */
+    var count = 0
+        private set
+
+    /** Removes all points from the grid. */
+    fun clear() {
+        size = 0
+        count = 0
+    }
+
+    /**
+     * Adds a point to the grid. [build] must be called after the last point has been added.
+     * @param x is the x coordinate of the point.
+     * @param y is the y coordinate of the point.
+     * @return the index of the point.
+     */
+    fun add(x: Double, y: Double): Int {
+        if (size == cells.size) {
+            val capacity = size * 2
+            cells = cells.copyOf(capacity)
+            items = items.copyOf(capacity)
+            hits = hits.copyOf(capacity)
+        }
+        cells[size] = column(x) + row(y) * columns
+        return size++
+    }
+
+    /** Sorts the added points into their cells using a counting sort. */
+    fun build() {
+        cellStart.fill(0)
+        for (i in 0 until size) {
+            cellStart[cells[i] + 1]++
+        }
+        for (c in 1 until cellStart.size) {
+            cellStart[c] += cellStart[c - 1]
+        }
+        // Points keep the order they were added within each cell
+        cellStart.copyInto(cursor, 0, 0, cursor.size)
+        for (i in 0 until size) {
+            items[cursor[cells[i]]++] = i
+        }
+    }
+
+    /**
+     * Returns a point index found by the last query.
+     * @param i is the index of the hit, which must be in the range [0, count[.
+     * @return the index of the point as returned by [add].
+     */
+    operator fun get(i: Int): Int = hits[i]
+
+    /**
+     * Finds the points that might be inside an axis-aligned box. The result is a superset of the points inside the
+     * box, and the point indices are reported in ascending order.
+     * @return the number of points found.
+     */
+    fun within(minX: Double, minY: Double, maxX: Double, maxY: Double): Int {
+        count = 0
+        if (size == 0) return 0
+
+        val minCol = column(minX)
+        val maxCol = column(maxX)
+        val minRow = row(minY)
+        val maxRow = row(maxY)
+        for (row in minRow..maxRow) {
+            for (col in minCol..maxCol) {
+                val cell = row * columns + col
+                for (k in cellStart[cell] until cellStart[cell + 1]) {
+                    hits[count++] = items[k]
+                }
+            }
+        }
+        if (count > 1) hits.sort(0, count)
+        return count
+    }
+
+    /**
+     * Finds the points that might be within a distance of a point.
+     * @return the number of points found.
+     */
+    fun near(x: Double, y: Double, distance: Double): Int = within(x - distance, y - distance, x + distance, y + distance)
+
+    private fun column(x: Double) = floor(x / cellSize).toInt().coerceIn(0, columns - 1)
+
+    private fun row(y: Double) = floor(y / cellSize).toInt().coerceIn(0, rows - 1)
+
+    private companion object {
+        const val INITIAL_CAPACITY = 64
+    }
+}
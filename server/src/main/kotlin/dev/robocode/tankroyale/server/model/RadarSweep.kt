@@ -0,0 +1,345 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_RADIUS
+import dev.robocode.tankroyale.server.rules.RADAR_RADIUS
+import kotlin.math.*
+
+/**
+ * Visibility engine for the radar scans of a turn, which finds the bots and walls seen by a scanning bot, where walls
+ * closer to the scanning bot hide the objects behind them.
+ *
+ * The bot positions are refilled every turn: [clear] the bots, [addBot] the positions, and [build] the engine. Each
+ * [scan] collects the bots and walls overlapping the radar sector from the cells of a [PointGrid] and the [WallIndex]
+ * that overlap the bounding box of the sector, and sorts them by distance. The objects are then swept from near to
+ * far, where each visible wall adds its shadow, i.e. the angular interval it covers as seen from the scanning bot, to
+ * a list of intervals sorted by start angle. An object is hidden when the line of sight to its center is blocked by a
+ * visible wall, and only the walls with a shadow containing the angle of the line of sight are checked.
+ *
+ * All storage is kept in primitive arrays, which are reused between scans, so scanning does not allocate. An engine
+ * is not thread-safe, so each thread must use its own engine.
+ *
+ * @param wallIndex is the index over the walls of the arena.
+ * @param arenaWidth is the width of the arena.
+ * @param arenaHeight is the height of the arena.
+ */
+class RadarSweep(wallIndex: WallIndex, arenaWidth: Int, arenaHeight: Int) {
+
+    private companion object {
+        /** Cell size of the bot grid, where a radar sector covers about 12 x 12 cells at most */
+        const val BOT_CELL_SIZE = 100.0
+
+        /** Margin in radians added to each side of a shadow, so rounding never hides a wall blocking the sight */
+        const val SHADOW_MARGIN = 1e-9
+
+        const val INITIAL_CAPACITY = 64
+    }
+
+    private val wallQuery = wallIndex.newQuery()
+
+    private val botGrid = PointGrid(arenaWidth, arenaHeight, BOT_CELL_SIZE)
+
+    // Walls never move, so their positions and corners are computed once
+    private val wallCount = wallIndex.size
+    private val walls = Array(wallCount) { wallIndex[it] }
+    private val wallX = DoubleArray(wallCount) { walls[it].x }
+    private val wallY = DoubleArray(wallCount) { walls[it].y }
+    private val wallBoundsRadius = DoubleArray(wallCount) { walls[it].boundsRadius }
+
+    /** Corner `c` of wall `w` is stored at `8 * w + 2 * c` (x) and `8 * w + 2 * c + 1` (y) */
+    private val wallCorners = DoubleArray(8 * wallCount).also { corners ->
+        for (w in 0 until wallCount) {
+            val wall = walls[w]
+            val cos = cos(Math.toRadians(wall.rotation))
+            val sin = sin(Math.toRadians(wall.rotation))
+            for (c in 0 until 4) {
+                val lx = if (c == 0 || c == 3) -wall.width / 2 else wall.width / 2
+                val ly = if (c < 2) -wall.height / 2 else wall.height / 2
+                corners[8 * w + 2 * c] = wall.x + lx * cos - ly * sin
+                corners[8 * w + 2 * c + 1] = wall.y + lx * sin + ly * cos
+            }
+        }
+    }
+
+    private var botX = DoubleArray(INITIAL_CAPACITY)
+    private var botY = DoubleArray(INITIAL_CAPACITY)
+
+    /** Number of bots added since the last [clear] */
+    var botCount = 0
+        private set
+
+    // Objects overlapping the radar sector, where bots are stored as their index and walls as -(index + 1)
+    private var candidates = IntArray(INITIAL_CAPACITY)
+    private var distances = DoubleArray(INITIAL_CAPACITY)
+    private var order = IntArray(INITIAL_CAPACITY)
+    private var sortBuffer = IntArray(INITIAL_CAPACITY)
+
+    /** Visible objects found by the last scan, encoded like the candidates */
+    private var visible = IntArray(INITIAL_CAPACITY)
+
+    /** Number of visible objects found by the last scan */
+    var count = 0
+        private set
+
+    // Shadows of the visible walls sorted by start angle, where a shadow wrapping around ±π is split in two
+    private val shadowStart = DoubleArray(max(1, 2 * wallCount))
+    private val shadowEnd = DoubleArray(max(1, 2 * wallCount))
+    private val shadowMaxEnd = DoubleArray(max(1, 2 * wallCount)) // max end of all shadows up to and including this
+    private val shadowWall = IntArray(max(1, 2 * wallCount))
+    private var shadowCount = 0
+
+    // State of the current scan
+    private var scanX = 0.0
+    private var scanY = 0.0
+    private var startArmX = 0.0
+    private var startArmY = 0.0
+    private var endArmX = 0.0
+    private var endArmY = 0.0
+
+    /** Removes all bots. */
+    fun clear() {
+        botCount = 0
+        botGrid.clear()
+    }
+
+    /**
+     * Adds the position of a bot. [build] must be called after the last bot has been added.
+     * @param x is the x coordinate of the bot.
+     * @param y is the y coordinate of the bot.
+     * @return the index of the bot.
+     */
+    fun addBot(x: Double, y: Double): Int {
+        if (botCount == botX.size) {
+            botX = botX.copyOf(botCount * 2)
+            botY = botY.copyOf(botCount * 2)
+        }
+        botX[botCount] = x
+        botY[botCount] = y
+        botGrid.add(x, y)
+        return botCount++
+    }
+
+    /** Prepares the engine for scanning with the added bots. */
+    fun build() {
+        botGrid.build()
+
+        val capacity = botCount + wallCount
+        if (capacity > candidates.size) {
+            candidates = IntArray(capacity)
+            distances = DoubleArray(capacity)
+            order = IntArray(capacity)
+            sortBuffer = IntArray(capacity)
+            visible = IntArray(capacity)
+        }
+    }
+
+    /**
+     * Checks if a visible object found by the last scan is a wall.
+     * @param i is the index of the visible object, which must be in the range [0, count[.
+     */
+    fun isWall(i: Int): Boolean = visible[i] < 0
+
+    /**
+     * Returns a visible bot found by the last scan.
+     * @param i is the index of the visible object, which must be a bot in the range [0, count[.
+     * @return the index of the bot as returned by [addBot].
+     */
+    fun botAt(i: Int): Int = visible[i]
+
+    /**
+     * Returns a visible wall found by the last scan.
+     * @param i is the index of the visible object, which must be a wall in the range [0, count[.
+     * @return the wall.
+     */
+    fun wallAt(i: Int): Wall = walls[-visible[i] - 1]
+
+    /**
+     * Scans the radar sector of a bot for other bots and walls.
+     *
+     * Bots and walls are scanned when their bounding circles overlap the sector. The visible objects are reported from
+     * near to far, where the distance of a wall is the distance to its bounding circle, and objects at the same
+     * distance are reported with the walls first.
+     *
+     * @param scanner is the index of the scanning bot as returned by [addBot].
+     * @param startAngle is the start angle of the radar sector in degrees.
+     * @param endAngle is the end angle of the radar sector in degrees, which is counter-clockwise of the start angle.
+     * @return the number of visible objects.
+     */
+    fun scan(scanner: Int, startAngle: Double, endAngle: Double): Int {
+        scanX = botX[scanner]
+        scanY = botY[scanner]
+        Math.toRadians(startAngle).let {
+            startArmX = cos(it) * RADAR_RADIUS
+            startArmY = sin(it) * RADAR_RADIUS
+        }
+        Math.toRadians(endAngle).let {
+            endArmX = cos(it) * RADAR_RADIUS
+            endArmY = sin(it) * RADAR_RADIUS
+        }
+
+        // Bounding box of the sector relative to the scanning bot, which includes the arc extremes on the axes
+        var minX = min(0.0, min(startArmX, endArmX))
+        var minY = min(0.0, min(startArmY, endArmY))
+        var maxX = max(0.0, max(startArmX, endArmX))
+        var maxY = max(0.0, max(startArmY, endArmY))
+        val span = normalizeAbsoluteDegrees(endAngle - startAngle)
+        if (normalizeAbsoluteDegrees(0.0 - startAngle) <= span) maxX = RADAR_RADIUS
+        if (normalizeAbsoluteDegrees(90.0 - startAngle) <= span) maxY = RADAR_RADIUS
+        if (normalizeAbsoluteDegrees(180.0 - startAngle) <= span) minX = -RADAR_RADIUS
+        if (normalizeAbsoluteDegrees(270.0 - startAngle) <= span) minY = -RADAR_RADIUS
+
+        // Walls are registered in all cells overlapped by their bounding circles, so the box needs no margin
+        var n = 0
+        val wallHits = wallQuery.within(scanX + minX, scanY + minY, scanX + maxX, scanY + maxY)
+        for (k in 0 until wallHits) {
+            val w = wallQuery.indexAt(k)
+            if (isCircleInSector(wallX[w], wallY[w], wallBoundsRadius[w])) {
+                candidates[n] = -w - 1
+                distances[n] = (distance(wallX[w], wallY[w]) - wallBoundsRadius[w]).coerceAtLeast(0.0)
+                n++
+            }
+        }
+        val r = BOT_BOUNDING_CIRCLE_RADIUS
+        val botHits = botGrid.within(scanX + minX - r, scanY + minY - r, scanX + maxX + r, scanY + maxY + r)
+        for (k in 0 until botHits) {
+            val b = botGrid[k]
+            if (b != scanner && isCircleInSector(botX[b], botY[b], r)) {
+                candidates[n] = b
+                distances[n] = distance(botX[b], botY[b])
+                n++
+            }
+        }
+        sortByDistance(n)
+
+        // Sweep from near to far, where only visible walls cast shadows
+        count = 0
+        shadowCount = 0
+        for (k in 0 until n) {
+            val candidate = candidates[order[k]]
+            val isWall = candidate < 0
+            val targetX = if (isWall) wallX[-candidate - 1] else botX[candidate]
+            val targetY = if (isWall) wallY[-candidate - 1] else botY[candidate]
+
+            if (!isHidden(targetX, targetY)) {
+                visible[count++] = candidate
+                if (isWall) addShadow(-candidate - 1)
+            }
+        }
+        return count
+    }
+
+    private fun distance(x: Double, y: Double): Double {
+        val dx = scanX - x
+        val dy = scanY - y
+        return sqrt(dx * dx + dy * dy)
+    }
+
+    private fun isCircleInSector(x: Double, y: Double, radius: Double): Boolean {
+        val vx = x - scanX
+        val vy = y - scanY
+        val maxRadiusToPoint = RADAR_RADIUS + radius
+        return vx * vx + vy * vy <= maxRadiusToPoint * maxRadiusToPoint &&
+                isCircleIntersectingCircleSectorArms(x, y, radius, scanX, scanY, startArmX, startArmY, endArmX, endArmY)
+    }
+
+    /** Stable bottom-up merge sort of the candidate positions into [order] by ascending distance */
+    private fun sortByDistance(n: Int) {
+        for (i in 0 until n) order[i] = i
+
+        var src = order
+        var dst = sortBuffer
+        var width = 1
+        while (width < n) {
+            var lo = 0
+            while (lo < n) {
+                val mid = min(lo + width, n)
+                val hi = min(lo + 2 * width, n)
+                var i = lo
+                var j = mid
+                var k = lo
+                while (i < mid && j < hi) {
+                    dst[k++] = if (distances[src[j]] < distances[src[i]]) src[j++] else src[i++]
+                }
+                while (i < mid) dst[k++] = src[i++]
+                while (j < hi) dst[k++] = src[j++]
+                lo = hi
+            }
+            val swap = src
+            src = dst
+            dst = swap
+            width *= 2
+        }
+        if (src !== order) src.copyInto(order, 0, 0, n)
+    }
+
+    /** Checks if the line of sight to a point is blocked by a visible wall */
+    private fun isHidden(targetX: Double, targetY: Double): Boolean {
+        if (shadowCount == 0) return false
+        val angle = atan2(targetY - scanY, targetX - scanX)
+
+        // Find the last shadow starting at or before the angle
+        var lo = 0
+        var hi = shadowCount
+        while (lo < hi) {
+            val mid = (lo + hi) ushr 1
+            if (shadowStart[mid] <= angle) lo = mid + 1 else hi = mid
+        }
+        // Walk back until no earlier shadow reaches the angle
+        var i = lo - 1
+        while (i >= 0 && shadowMaxEnd[i] >= angle) {
+            if (shadowEnd[i] >= angle && walls[shadowWall[i]].intersects(scanX, scanY, targetX, targetY)) return true
+            i--
+        }
+        return false
+    }
+
+    /** Adds the shadow of a visible wall, which covers every direction when the scanning bot is inside the wall */
+    private fun addShadow(w: Int) {
+        if (walls[w].contains(scanX, scanY)) {
+            insertShadow(-PI, PI, w)
+            return
+        }
+        // Seen from outside, a rectangle covers less than π, so the corners are measured from the wall center
+        val centerAngle = atan2(wallY[w] - scanY, wallX[w] - scanX)
+        var lo = 0.0
+        var hi = 0.0
+        for (c in 0 until 4) {
+            var delta = atan2(wallCorners[8 * w + 2 * c + 1] - scanY, wallCorners[8 * w + 2 * c] - scanX) - centerAngle
+            if (delta > PI) delta -= 2 * PI else if (delta < -PI) delta += 2 * PI
+            lo = min(lo, delta)
+            hi = max(hi, delta)
+        }
+        lo += centerAngle - SHADOW_MARGIN
+        hi += centerAngle + SHADOW_MARGIN
+        when {
+            lo < -PI -> {
+                insertShadow(lo + 2 * PI, PI, w)
+                insertShadow(-PI, hi, w)
+            }
+            hi > PI -> {
+                insertShadow(lo, PI, w)
+                insertShadow(-PI, hi - 2 * PI, w)
+            }
+            else -> insertShadow(lo, hi, w)
+        }
+    }
+
+    private fun insertShadow(start: Double, end: Double, w: Int) {
+        var pos = shadowCount
+        while (pos > 0 && shadowStart[pos - 1] > start) {
+            shadowStart[pos] = shadowStart[pos - 1]
+            shadowEnd[pos] = shadowEnd[pos - 1]
+            shadowWall[pos] = shadowWall[pos - 1]
+            pos--
+        }
+        shadowStart[pos] = start
+        shadowEnd[pos] = end
+        shadowWall[pos] = w
+        shadowCount++
+
+        var maxEnd = if (pos > 0) shadowMaxEnd[pos - 1] else Double.NEGATIVE_INFINITY
+        for (i in pos until shadowCount) {
+            maxEnd = max(maxEnd, shadowEnd[i])
+            shadowMaxEnd[i] = maxEnd
+        }
+    }
+}
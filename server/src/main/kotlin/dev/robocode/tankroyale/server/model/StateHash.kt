@@ -0,0 +1,60 @@
+package dev.robocode.tankroyale.server.model
+
+/**
+ * 64-bit hash of the simulated state of a turn, i.e. the bot states and bullets, but not the events or cosmetic
+ * state like colors and debug graphics. Two games running the same setup, seed and intents must have the same hash in
+ * each turn, which is used for verifying that a recorded game is replayed exactly.
+ */
+object StateHash {
+
+    /**
+     * Calculates the state hash of a turn. The bots and bullets are hashed in the order of their ids, and doubles are
+     * hashed by their exact bits, so any deviation of the state changes the hash.
+     * @param turn is the turn.
+     * @return the state hash.
+     */
+    fun of(turn: ITurn): Long {
+        var hash = mix(SEED, turn.turnNumber.toLong())
+
+        turn.bots.sortedBy { it.id.value }.forEach { bot ->
+            hash = mix(hash, bot.id.value.toLong())
+            hash = mix(hash, bot.energy)
+            hash = mix(hash, bot.x)
+            hash = mix(hash, bot.y)
+            hash = mix(hash, bot.direction)
+            hash = mix(hash, bot.gunDirection)
+            hash = mix(hash, bot.radarDirection)
+            hash = mix(hash, bot.radarSpreadAngle)
+            hash = mix(hash, bot.speed)
+            hash = mix(hash, bot.turnRate)
+            hash = mix(hash, bot.gunTurnRate)
+            hash = mix(hash, bot.radarTurnRate)
+            hash = mix(hash, bot.gunHeat)
+        }
+        turn.bullets.sortedBy { it.id.value }.forEach { bullet ->
+            hash = mix(hash, bullet.id.value.toLong())
+            hash = mix(hash, bullet.botId.value.toLong())
+            hash = mix(hash, bullet.power)
+            hash = mix(hash, bullet.direction)
+            hash = mix(hash, bullet.startPosition.x)
+            hash = mix(hash, bullet.startPosition.y)
+            hash = mix(hash, bullet.tick.toLong())
+        }
+        return hash
+    }
+
+    private fun mix(hash: Long, value: Double): Long = mix(hash, value.toRawBits())
+
+    /** Mixes a value into the hash using the finalizer of MurmurHash3 */
+    private fun mix(hash: Long, value: Long): Long {
+        var h = (hash xor value) * MULTIPLIER
+        h = h xor (h ushr 33)
+        h *= 0xff51afd7ed558ccdUL.toLong()
+        h = h xor (h ushr 33)
+        h *= 0xc4ceb9fe1a85ec53UL.toLong()
+        return h xor (h ushr 33)
+    }
+
+    private const val SEED = 0x5bd1e995L
+    private val MULTIPLIER = 0x9e3779b97f4a7c15UL.toLong()
+}
@@ -1,7 +1,5 @@
 package dev.robocode.tankroyale.server.model
 
-import dev.robocode.tankroyale.server.event.Event
-
 /** Mutable state of a game turn in a round. */
 data class Turn(
     /** Turn number */
@@ -13,10 +11,7 @@ data class Turn(
     /** Bullets */
     override val bullets: Set<IBullet>,
 
-    /** Observer events  */
-    override val observerEvents: Set<Event>,
-
-    /** Map over bot events  */
-    override val botEvents: Map<BotId, Set<Event>>,
+    /** Events of the turn */
+    override val events: TurnEvents,
 
     ) : ITurn
\ No newline at end of file
@@ -0,0 +1,20 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.event.Event
+
+/** Receiver of the events occurring in a turn. */
+interface TurnEventSink {
+
+    /**
+     * Adds a private bot event to for a specific bot.
+     * @param botId is the bot id.
+     * @param event is the bot event, only given to the specified bot.
+     */
+    fun addPrivateBotEvent(botId: BotId, event: Event)
+
+    /**
+     * Adds an observer event.
+     * @param event is the observer event to add.
+     */
+    fun addObserverEvent(event: Event)
+}
@@ -0,0 +1,56 @@
+package dev.robocode.tankroyale.server.model
+
+import dev.robocode.tankroyale.server.event.Event
+
+/**
+ * Immutable events of a game turn. Each event is stored once, and each recipient has a range of indices into the
+ * events, where the ranges of the bots are packed into a single index array ordered by bot id. Hence, a turn holds the
+ * same few arrays no matter how many bots there are, and an event sent to all bots is not copied per bot.
+ *
+ * @param events is the events of the turn.
+ * @param observerIndices is the indices of the observer events.
+ * @param botOffsets is the start offset into [botIndices] per bot id, where the last element is the end offset.
+ * @param botIndices is the indices of the bot events, packed in bot id order.
+ */
+class TurnEvents internal constructor(
+    private val events: Array<Event?>,
+    private val observerIndices: IntArray,
+    private val botOffsets: IntArray,
+    private val botIndices: IntArray,
+) : ITurnEvents {
+
+    override val observerEvents: List<Event> get() = EventList(events, observerIndices, 0, observerIndices.size)
+
+    override fun botEvents(botId: BotId): List<Event> {
+        val i = botId.value
+        if (i < 0 || i + 1 >= botOffsets.size) return emptyList()
+        return EventList(events, botIndices, botOffsets[i], botOffsets[i + 1])
+    }
+
+    companion object {
+        /** Turn events without any events */
+        val EMPTY = TurnEvents(emptyArray(), IntArray(0), IntArray(0), IntArray(0))
+    }
+}
+
+/**
+ * Read-only list view of the events at a range of indices.
+ * @param events is the events.
+ * @param indices is the indices of the events in the list.
+ * @param from is the first (inclusive) position in [indices].
+ * @param to is the last (exclusive) position in [indices].
+ */
+internal class EventList(
+    private val events: Array<Event?>,
+    private val indices: IntArray,
+    private val from: Int,
+    private val to: Int,
+) : AbstractList<Event>(), RandomAccess {
+
+    override val size: Int get() = to - from
+
+    override fun get(index: Int): Event {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("index: $index, size: $size")
+        return events[indices[from + index]]!!
+    }
+}
@@ -18,11 +18,11 @@ import kotlin.math.sqrt
  */
 data class Wall(
     val id: Int,
-    var x: Double,
-    var y: Double,
+    val x: Double,
+    val y: Double,
     val width: Double,
     val height: Double,
-    var rotation: Double = 0.0,
+    val rotation: Double = 0.0,
     val color: Color? = Color.from("#000000")
 ) {
     override fun equals(other: Any?): Boolean {
@@ -34,77 +34,69 @@ data class Wall(
     // 矩形外接圆半径（对角线的一半）
     val boundsRadius: Double = sqrt((width / 2).pow(2) + (height / 2).pow(2))
 
-    // 判断线段是否与旋转后的矩形相交
-    fun intersects(line: Line): Boolean {
-        val p1 = translateAndRotatePoint(line.start)
-        val p2 = translateAndRotatePoint(line.end)
+    // Cosine and sine of the negated rotation, which transforms points into the local coordinates of this wall
+    private val localCos = cos(Math.toRadians(-rotation))
+    private val localSin = sin(Math.toRadians(-rotation))
+
+    private val halfWidth = width / 2
+    private val halfHeight = height / 2
 
-        val halfWidth = width / 2
-        val halfHeight = height / 2
-        val rectLeft = -halfWidth
-        val rectRight = halfWidth
-        val rectTop = -halfHeight
-        val rectBottom = halfHeight
+    // 判断线段是否与旋转后的矩形相交
+    fun intersects(line: Line): Boolean = intersects(line.start.x, line.start.y, line.end.x, line.end.y)
+
+    /**
+     * Checks if the line segment defined by the two points (x1,y1) and (x2,y2) intersects this wall.
+     * @return `true` if the line segment intersects or is inside this wall; `false` otherwise.
+     */
+    fun intersects(x1: Double, y1: Double, x2: Double, y2: Double): Boolean {
+        val lx1 = localX(x1, y1)
+        val ly1 = localY(x1, y1)
+        val lx2 = localX(x2, y2)
+        val ly2 = localY(x2, y2)
 
         // 检查端点是否在矩形内
-        if (isPointInsideAxisAlignedRect(p1, rectLeft, rectRight, rectTop, rectBottom) ||
-            isPointInsideAxisAlignedRect(p2, rectLeft, rectRight, rectTop, rectBottom)) {
+        if (isInsideLocal(lx1, ly1) || isInsideLocal(lx2, ly2)) {
             return true
         }
 
-        // 检查线段是否与四边相交
-        val edges = listOf(
-            Line(rectLeft, rectTop, rectLeft, rectBottom),   // 左边
-            Line(rectRight, rectTop, rectRight, rectBottom), // 右边
-            Line(rectLeft, rectTop, rectRight, rectTop),     // 上边
-            Line(rectLeft, rectBottom, rectRight, rectBottom) // 下边
-        )
-
-        val localLine = Line(p1, p2)
-        return edges.any { edge ->
-            isLineIntersectingLine(localLine, edge)
-        }
+        // 检查线段是否与四边相交（左边、右边、上边、下边）
+        return isLineIntersectingLine(lx1, ly1, lx2, ly2, -halfWidth, -halfHeight, -halfWidth, halfHeight) ||
+                isLineIntersectingLine(lx1, ly1, lx2, ly2, halfWidth, -halfHeight, halfWidth, halfHeight) ||
+                isLineIntersectingLine(lx1, ly1, lx2, ly2, -halfWidth, -halfHeight, halfWidth, -halfHeight) ||
+                isLineIntersectingLine(lx1, ly1, lx2, ly2, -halfWidth, halfHeight, halfWidth, halfHeight)
     }
 
     // 判断圆是否与旋转后的矩形相交
-    fun intersectsCircle(center: Point, radius: Double): Boolean {
-        val localCenter = translateAndRotatePoint(center)
+    fun intersectsCircle(center: Point, radius: Double): Boolean = intersectsCircle(center.x, center.y, radius)
 
-        val halfWidth = width / 2
-        val halfHeight = height / 2
+    /**
+     * Checks if the circle defined by the center point (centerX,centerY) and radius intersects this wall.
+     * @return `true` if the circle intersects or is inside this wall; `false` otherwise.
+     */
+    fun intersectsCircle(centerX: Double, centerY: Double, radius: Double): Boolean {
+        val lx = localX(centerX, centerY)
+        val ly = localY(centerX, centerY)
 
-        val closestX = localCenter.x.coerceIn(-halfWidth, halfWidth)
-        val closestY = localCenter.y.coerceIn(-halfHeight, halfHeight)
+        val closestX = lx.coerceIn(-halfWidth, halfWidth)
+        val closestY = ly.coerceIn(-halfHeight, halfHeight)
 
-        val dx = localCenter.x - closestX
-        val dy = localCenter.y - closestY
+        val dx = lx - closestX
+        val dy = ly - closestY
         return dx * dx + dy * dy <= radius * radius
     }
 
+    /**
+     * Checks if the point (px,py) is inside or on the edges of this wall.
+     * @return `true` if the point is inside this wall; `false` otherwise.
+     */
+    fun contains(px: Double, py: Double): Boolean = isInsideLocal(localX(px, py), localY(px, py))
+
     // 获取墙体的中心坐标
     fun position() = Point(x, y)
 
-    private fun translateAndRotatePoint(point: Point): Point {
-        val translatedX = point.x - x
-        val translatedY = point.y - y
-
-        val rad = Math.toRadians(-rotation)
-        val cos = cos(rad)
-        val sin = sin(rad)
+    private fun localX(px: Double, py: Double) = (px - x) * localCos - (py - y) * localSin
 
-        return Point(
-            translatedX * cos - translatedY * sin,
-            translatedX * sin + translatedY * cos
-        )
-    }
+    private fun localY(px: Double, py: Double) = (px - x) * localSin + (py - y) * localCos
 
-    private fun isPointInsideAxisAlignedRect(
-        point: Point,
-        left: Double,
-        right: Double,
-        top: Double,
-        bottom: Double
-    ): Boolean {
-        return point.x in left..right && point.y in top..bottom
-    }
+    private fun isInsideLocal(lx: Double, ly: Double) = lx in -halfWidth..halfWidth && ly in -halfHeight..halfHeight
 }
\ No newline at end of file
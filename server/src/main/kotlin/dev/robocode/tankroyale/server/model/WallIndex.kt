@@ -0,0 +1,187 @@
+package dev.robocode.tankroyale.server.model
+
+import kotlin.math.floor
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * Static uniform-grid index over the custom walls of an arena.
+ *
+ * The walls never move during a game, so the index is built once and shared by every turn. Cells are stored in a
+ * flat compressed layout: [cellStart] holds the offset of each cell into [cellWalls], which holds the wall indices
+ * overlapped by the bounding circle of each wall. Queries are done through a [Query] cursor that reuses its own
+ * buffers, so looking up walls does not allocate.
+ *
+ * @param walls is the walls to index.
+ * @param arenaWidth is the width of the arena.
+ * @param arenaHeight is the height of the arena.
+ * @param cellSize is the width and height of each grid cell.
+ */
+class WallIndex(
+    walls: List<Wall>,
+    arenaWidth: Int,
+    arenaHeight: Int,
+    private val cellSize: Double = DEFAULT_CELL_SIZE,
+) {
+    companion object {
+        /** Default cell size, which is a bit larger than the bot bounding circle diameter */
+        const val DEFAULT_CELL_SIZE = 50.0
+    }
+
+    /** The indexed walls */
+    private val walls: Array<Wall> = walls.toTypedArray()
+
+    /** Number of cells per row */
+    private val columns = max(1, (arenaWidth / cellSize).toInt() + 1)
+
+    /** Number of cells per column */
+    private val rows = max(1, (arenaHeight / cellSize).toInt() + 1)
+
+    /** Offset of each cell into [cellWalls]. Cell `c` owns the range `cellStart[c] until cellStart[c + 1]` */
+    private val cellStart = IntArray(columns * rows + 1)
+
+    /** Wall indices per cell */
+    private val cellWalls: IntArray
+
+    /** The largest bounding circle radius of all walls */
+    val maxBoundsRadius: Double = walls.maxOfOrNull { it.boundsRadius } ?: 0.0
+
+    /** Number of indexed walls */
+    val size: Int get() = walls.size
+
+    /** Checks if the index contains no walls */
+    fun isEmpty() = walls.isEmpty()
+
+    /**
+     * Returns an indexed wall.
+     * @param index is the index of the wall in the list of walls given to this index.
+     * @return the wall.
+     */
+    operator fun get(index: Int): Wall = walls[index]
+
+    init {
+        // First pass counts the walls per cell, second pass fills in the wall indices
+        val counts = IntArray(columns * rows)
+        forEachCellOfWall { _, cell -> counts[cell]++ }
+
+        for (cell in counts.indices) {
+            cellStart[cell + 1] = cellStart[cell] + counts[cell]
+        }
+        cellWalls = IntArray(cellStart[counts.size])
+
+        val fill = cellStart.copyOf(counts.size)
+        forEachCellOfWall { wallIndex, cell -> cellWalls[fill[cell]++] = wallIndex }
+    }
+
+    private inline fun forEachCellOfWall(action: (wallIndex: Int, cell: Int) -> Unit) {
+        for (i in walls.indices) {
+            val wall = walls[i]
+            val r = wall.boundsRadius
+            val minCol = column(wall.x - r)
+            val maxCol = column(wall.x + r)
+            val minRow = row(wall.y - r)
+            val maxRow = row(wall.y + r)
+            for (row in minRow..maxRow) {
+                for (col in minCol..maxCol) {
+                    action(i, row * columns + col)
+                }
+            }
+        }
+    }
+
+    private fun column(x: Double) = floor(x / cellSize).toInt().coerceIn(0, columns - 1)
+
+    private fun row(y: Double) = floor(y / cellSize).toInt().coerceIn(0, rows - 1)
+
+    /**
+     * Creates a new query cursor. A cursor is not thread-safe, so each thread must use its own cursor.
+     * @return a new [Query] for this index.
+     */
+    fun newQuery() = Query()
+
+    /**
+     * Reusable cursor holding the result of the last query on a [WallIndex].
+     * Walls are reported once per query even when they overlap several of the visited cells.
+     */
+    inner class Query internal constructor() {
+        /** Stamp per wall used for de-duplicating walls found in multiple cells */
+        private val visited = IntArray(walls.size)
+
+        /** Current stamp, which is incremented for each query */
+        private var stamp = 0
+
+        /** Wall indices found by the last query */
+        private val hits = IntArray(walls.size)
+
+        /** Number of walls found by the last query */
+        var count = 0
+            private set
+
+        /**
+         * Returns a wall found by the last query.
+         * @param i is the index of the hit, which must be in the range [0, count[.
+         * @return the wall.
+         */
+        operator fun get(i: Int): Wall = walls[hits[i]]
+
+        /**
+         * Returns the index of a wall found by the last query.
+         * @param i is the index of the hit, which must be in the range [0, count[.
+         * @return the index of the wall in the list of walls given to the [WallIndex].
+         */
+        fun indexAt(i: Int): Int = hits[i]
+
+        /**
+         * Finds the walls with a bounding circle that might overlap a circle.
+         * @param x is the x coordinate of the circle center.
+         * @param y is the y coordinate of the circle center.
+         * @param radius is the radius of the circle.
+         * @return the number of walls found.
+         */
+        fun near(x: Double, y: Double, radius: Double): Int = within(x - radius, y - radius, x + radius, y + radius)
+
+        /**
+         * Finds the walls with a bounding circle that might overlap a line segment.
+         * @param x1 is the x coordinate of the segment start.
+         * @param y1 is the y coordinate of the segment start.
+         * @param x2 is the x coordinate of the segment end.
+         * @param y2 is the y coordinate of the segment end.
+         * @return the number of walls found.
+         */
+        fun alongSegment(x1: Double, y1: Double, x2: Double, y2: Double): Int =
+            within(min(x1, x2), min(y1, y2), max(x1, x2), max(y1, y2))
+
+        /**
+         * Finds the walls registered in the cells overlapping an axis-aligned box.
+         * @return the number of walls found.
+         */
+        fun within(minX: Double, minY: Double, maxX: Double, maxY: Double): Int {
+            count = 0
+            if (walls.isEmpty()) return 0
+
+            if (++stamp == 0) { // stamp has wrapped around
+                visited.fill(0)
+                stamp = 1
+            }
+            val minCol = column(minX)
+            val maxCol = column(maxX)
+            val minRow = row(minY)
+            val maxRow = row(maxY)
+            for (row in minRow..maxRow) {
+                for (col in minCol..maxCol) {
+                    val cell = row * columns + col
+                    for (k in cellStart[cell] until cellStart[cell + 1]) {
+                        val wallIndex = cellWalls[k]
+                        if (visited[wallIndex] != stamp) {
+                            visited[wallIndex] = stamp
+                            hits[count++] = wallIndex
+                        }
+                    }
+                }
+            }
+            // Keep the original wall order, so results do not depend on the cell layout
+            if (count > 1) hits.sort(0, count)
+            return count
+        }
+    }
+}
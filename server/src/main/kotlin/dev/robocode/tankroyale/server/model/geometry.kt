@@ -0,0 +1,191 @@
+package dev.robocode.tankroyale.server.model
+
+import kotlin.math.abs
+import kotlin.math.cos
+import kotlin.math.sin
+
+// Geometry kernel working on raw coordinates, so the collision and scan checks of a turn do not allocate points or
+// lines. The functions in math.kt taking points and lines delegate to these functions.
+
+/**
+ * Checks if the point (px,py) is inside or on the circle defined by the center point (cx,cy) and radius.
+ * @return `true` if the point is inside or on the circle; `false` otherwise.
+ * @see isPointInsideCircle
+ */
+fun isPointInsideCircle(px: Double, py: Double, cx: Double, cy: Double, radius: Double): Boolean {
+    val dx = px - cx
+    val dy = py - cy
+
+    // If the distance is less or equal than the circle's radius the point is considered to be inside the circle
+    return dx * dx + dy * dy <= radius * radius
+}
+
+/**
+ * Checks if the point (px,py) is on the line segment defined by the two points (x1,y1) and (x2,y2).
+ * @return `true` if the point is on the line segment; `false` otherwise.
+ * @see isPointOnLine
+ */
+fun isPointOnLine(px: Double, py: Double, x1: Double, y1: Double, x2: Double, y2: Double): Boolean {
+    // Calculate cross product of vectors
+    val dxp = px - x1
+    val dyp = py - y1
+    val dxl = x2 - x1
+    val dyl = y2 - y1
+    val cross = dxp * dyl - dyp * dxl
+
+    // Point lies on the line, if and only if, cross-product is equal to zero.
+    if (!cross.isNearTo(0.0)) {
+        return false
+    }
+
+    // Check whether it lies between the original points
+    return if (abs(dxl) >= abs(dyl))
+        if (dxl > 0) px in x1..x2 else px in x2..x1
+    else
+        if (dyl > 0) py in y1..y2 else py in y2..y1
+}
+
+/**
+ * Checks if the line segment defined by the two points (x1,y1) and (x2,y2) is intersecting the circle defined by the
+ * center point (cx,cy) and radius.
+ * @return `true` if the line is intersecting the circle; `false` otherwise.
+ * @see isLineIntersectingCircle
+ */
+fun isLineIntersectingCircle(
+    x1: Double, y1: Double, x2: Double, y2: Double,
+    cx: Double, cy: Double, radius: Double
+): Boolean {
+    // Check if one of the line ends is within the circle
+    if (isPointInsideCircle(x1, y1, cx, cy, radius) || isPointInsideCircle(x2, y2, cx, cy, radius)) {
+        return true
+    }
+
+    // Get the squared length of the line
+    val dx = x2 - x1
+    val dy = y2 - y1
+    val len2 = dx * dx + dy * dy
+
+    // Get dot product of the line and circle
+    val dot = ((cx - x1) * dx + (cy - y1) * dy) / len2
+
+    // Find the closest point on the line from the circle
+    val closestX = x1 + dot * dx
+    val closestY = y1 + dot * dy
+
+    // Check that the closest point is on the line segment and inside the circle
+    return isPointOnLine(closestX, closestY, x1, y1, x2, y2) && isPointInsideCircle(closestX, closestY, cx, cy, radius)
+}
+
+/**
+ * Checks if the line segment a defined by the points (ax1,ay1) and (ax2,ay2) is intersecting the line segment b
+ * defined by the points (bx1,by1) and (bx2,by2).
+ * @return `true` if the two lines are intersecting; `false` otherwise.
+ * @see isLineIntersectingLine
+ */
+fun isLineIntersectingLine(
+    ax1: Double, ay1: Double, ax2: Double, ay2: Double,
+    bx1: Double, by1: Double, bx2: Double, by2: Double
+): Boolean {
+    // Fastest method, based on Franklin Antonio's "Faster Line Segment Intersection" topic "in Graphics Gems III"
+    // book (http://www.graphicsgems.org/)
+    val ax = ax2 - ax1
+    val ay = ay2 - ay1
+    val bx = bx1 - bx2
+    val by = by1 - by2
+    val cx = ax1 - bx1
+    val cy = ay1 - by1
+    val alphaNumerator = by * cx - bx * cy
+    val commonDenominator = ay * bx - ax * by
+    if (commonDenominator > 0 && (alphaNumerator < 0 || alphaNumerator > commonDenominator)) {
+        return false
+    } else if (commonDenominator < 0 && (alphaNumerator > 0 || alphaNumerator < commonDenominator)) {
+        return false
+    }
+    val betaNumerator = ax * cy - ay * cx
+    if (commonDenominator > 0 && (betaNumerator < 0 || betaNumerator > commonDenominator)) {
+        return false
+    } else if (commonDenominator < 0 && (betaNumerator > 0 || betaNumerator < commonDenominator)) {
+        return false
+    }
+    if (commonDenominator == 0.0) {
+        // This code wasn't in Franklin Antonio's method. It was added by Keith Woodward.
+        // The lines are parallel.
+        // Check if they're collinear.
+        val y3LessY1 = by1 - ay1
+        // see http://mathworld.wolfram.com/Collinear.html
+        val collinearityTestForP3 = ax1 * (ay2 - by1) + ax2 * y3LessY1 + bx1 * (ay1 - ay2)
+        // If p3 is collinear with p1 and p2 then p4 will also be collinear, since p1-p2 is parallel with p3-p4
+        if (collinearityTestForP3 == 0.0) {
+            // The lines are collinear. Now check if they overlap.
+            if (ax1 >= bx1 && ax1 <= bx2 || ax1 <= bx1 && ax1 >= bx2 || ax2 >= bx1 && ax2 <= bx2 ||
+                ax2 <= bx1 && ax2 >= bx2 || bx1 >= ax1 && bx1 <= ax2 || bx1 <= ax1 && bx1 >= ax2
+            ) {
+                return ay1 >= by1 && ay1 <= by2 || ay1 <= by1 && ay1 >= by2 || ay2 >= by1 && ay2 <= by2 ||
+                        ay2 <= by1 && ay2 >= by2 || by1 >= ay1 && by1 <= ay2 || by1 <= ay1 && by1 >= ay2
+            }
+        }
+        return false
+    }
+    return true
+}
+
+/**
+ * Checks if the circle defined by the center point (circleX,circleY) and radius is intersecting/inside the circle
+ * sector defined by the center point (sectorX,sectorY), the sector radius, and the arc going counter-clockwise from
+ * the arc start angle to the arc end angle.
+ * @param arcStartAngle is the arc start angle in degrees.
+ * @param arcEndAngle is the arc end angle in degrees.
+ * @return `true` if the circle is intersecting/inside the circle sector; `false` otherwise.
+ * @see isCircleIntersectingCircleSector
+ */
+fun isCircleIntersectingCircleSector(
+    circleX: Double, circleY: Double, circleRadius: Double,
+    sectorX: Double, sectorY: Double, sectorRadius: Double,
+    arcStartAngle: Double, arcEndAngle: Double
+): Boolean {
+    val maxRadiusToPoint = sectorRadius + circleRadius
+    val vx = circleX - sectorX
+    val vy = circleY - sectorY
+
+    // Check if point is outside max radius to point
+    if (vx * vx + vy * vy > maxRadiusToPoint * maxRadiusToPoint) {
+        return false // outside radius
+    }
+    val arcStartRad = Math.toRadians(arcStartAngle)
+    val arcEndRad = Math.toRadians(arcEndAngle)
+    val x = cos(arcStartRad) * sectorRadius
+    val y = sin(arcStartRad) * sectorRadius
+    val x1 = cos(arcEndRad) * sectorRadius
+    val y1 = sin(arcEndRad) * sectorRadius
+
+    return isCircleIntersectingCircleSectorArms(circleX, circleY, circleRadius, sectorX, sectorY, x, y, x1, y1)
+}
+
+/**
+ * Checks if a circle is intersecting/inside a circle sector like [isCircleIntersectingCircleSector], where the arc
+ * is given by its arms, i.e. the vectors from the sector center to the arc start and end, which lets callers compute
+ * the arms once for many circles. The circle must be within the sector radius plus the circle radius.
+ * @param startArmX is the x coordinate of the vector from the sector center to the arc start.
+ * @param startArmY is the y coordinate of the vector from the sector center to the arc start.
+ * @param endArmX is the x coordinate of the vector from the sector center to the arc end.
+ * @param endArmY is the y coordinate of the vector from the sector center to the arc end.
+ * @return `true` if the circle is intersecting/inside the circle sector; `false` otherwise.
+ */
+fun isCircleIntersectingCircleSectorArms(
+    circleX: Double, circleY: Double, circleRadius: Double,
+    sectorX: Double, sectorY: Double,
+    startArmX: Double, startArmY: Double, endArmX: Double, endArmY: Double
+): Boolean {
+    val vx = circleX - sectorX
+    val vy = circleY - sectorY
+
+    // Check if circle center is within the circle sector arms
+    return (!isClockwise(startArmX, startArmY, vx, vy) && isClockwise(endArmX, endArmY, vx, vy)) ||
+            // Check if circle is intersecting one of the arms
+            isLineIntersectingCircle(
+                sectorX, sectorY, sectorX + startArmX, sectorY + startArmY, circleX, circleY, circleRadius
+            ) ||
+            isLineIntersectingCircle(
+                sectorX, sectorY, sectorX + endArmX, sectorY + endArmY, circleX, circleY, circleRadius
+            )
+}
@@ -2,8 +2,7 @@ package dev.robocode.tankroyale.server.model
 
 import kotlin.math.abs
 import kotlin.math.atan2
-import kotlin.math.cos
-import kotlin.math.sin
+import kotlin.random.Random
 
 /**
  * Normalizes an angle to an absolute angle into the range [0,360[
@@ -69,34 +68,8 @@ fun Double.isNotNearTo(value: Double): Boolean {
  * @return `true` if the line is intersecting the circle; `false` otherwise.
  */
 fun isLineIntersectingCircle(line: Line, center: IPoint, radius: Double): Boolean {
-    val x1 = line.start.x
-    val y1 = line.start.y
-    val x2 = line.end.x
-    val y2 = line.end.y
-    val cx = center.x
-    val cy = center.y
-
-    // Check if one of the line ends is within the circle
-    if (isPointInsideCircle(line.start, center, radius) || isPointInsideCircle(line.end, center, radius)) {
-        return true
-    }
-
-    // Get the squared length of the line
-    val dx = x2 - x1
-    val dy = y2 - y1
-    val len2 = dx * dx + dy * dy
-
-    // Get dot product of the line and circle
-    val dot = ((cx - x1) * dx + (cy - y1) * dy) / len2
-
-    // Find the closest point on the line from the circle
-    val closest = Point(
-        x1 + dot * dx,
-        y1 + dot * dy
-    )
-
-    // Check that the closest point is on the line segment and inside the circle
-    return isPointOnLine(closest, Line(x1, y1, x2, y2)) && isPointInsideCircle(closest, center, radius)
+    val (start, end) = line
+    return isLineIntersectingCircle(start.x, start.y, end.x, end.y, center.x, center.y, radius)
 }
 
 /**
@@ -111,11 +84,7 @@ fun isLineIntersectingCircle(line: Line, center: IPoint, radius: Double): Boolea
  * @return `true` if the point is inside or on the circle; `false` otherwise.
  */
 fun isPointInsideCircle(point: Point, center: IPoint, radius: Double): Boolean {
-    val dx = point.x - center.x
-    val dy = point.y - center.y
-
-    // If the distance is less or equal than the circle's radius the point is considered to be inside the circle
-    return dx * dx + dy * dy <= radius * radius
+    return isPointInsideCircle(point.x, point.y, center.x, center.y, radius)
 }
 
 /**
@@ -134,31 +103,8 @@ fun isPointInsideCircle(point: Point, center: IPoint, radius: Double): Boolean {
  * @return `true` if the point is on the line segment; `false` otherwise.
  */
 fun isPointOnLine(point: Point, line: Line): Boolean {
-    val px = point.x
-    val py = point.y
-
-    val x1 = line.start.x
-    val y1 = line.start.y
-    val x2 = line.end.x
-    val y2 = line.end.y
-
-    // Calculate cross product of vectors
-    val dxp = px - x1
-    val dyp = py - y1
-    val dxl = x2 - x1
-    val dyl = y2 - y1
-    val cross = dxp * dyl - dyp * dxl
-
-    // Point lies on the line, if and only if, cross-product is equal to zero.
-    if (!cross.isNearTo(0.0)) {
-        return false
-    }
-
-    // Check whether it lies between the original points
-    return if (abs(dxl) >= abs(dyl))
-        if (dxl > 0) px in x1..x2 else px in x2..x1
-    else
-        if (dyl > 0) py in y1..y2 else py in y2..y1
+    val (start, end) = line
+    return isPointOnLine(point.x, point.y, start.x, start.y, end.x, end.y)
 }
 
 /**
@@ -177,54 +123,14 @@ fun isPointOnLine(point: Point, line: Line): Boolean {
  * @return `true` if the two lines are intersecting; `false` otherwise.
  */
 fun isLineIntersectingLine(line1: Line, line2: Line): Boolean {
-    val a1 = line1.start
-    val a2 = line1.end
-    val b1 = line2.start
-    val b2 = line2.end
-
-    // Fastest method, based on Franklin Antonio's "Faster Line Segment Intersection" topic "in Graphics Gems III"
-    // book (http://www.graphicsgems.org/)
-    val ax = a2.x - a1.x
-    val ay = a2.y - a1.y
-    val bx = b1.x - b2.x
-    val by = b1.y - b2.y
-    val cx = a1.x - b1.x
-    val cy = a1.y - b1.y
-    val alphaNumerator = by * cx - bx * cy
-    val commonDenominator = ay * bx - ax * by
-    if (commonDenominator > 0 && (alphaNumerator < 0 || alphaNumerator > commonDenominator)) {
-        return false
-    } else if (commonDenominator < 0 && (alphaNumerator > 0 || alphaNumerator < commonDenominator)) {
-        return false
-    }
-    val betaNumerator = ax * cy - ay * cx
-    if (commonDenominator > 0 && (betaNumerator < 0 || betaNumerator > commonDenominator)) {
-        return false
-    } else if (commonDenominator < 0 && (betaNumerator > 0 || betaNumerator < commonDenominator)) {
-        return false
-    }
-    if (commonDenominator == 0.0) {
-        // This code wasn't in Franklin Antonio's method. It was added by Keith Woodward.
-        // The lines are parallel.
-        // Check if they're collinear.
-        val y3LessY1 = b1.y - a1.y
-        // see http://mathworld.wolfram.com/Collinear.html
-        val collinearityTestForP3 = a1.x * (a2.y - b1.y) + a2.x * y3LessY1 + b1.x * (a1.y - a2.y)
-        // If p3 is collinear with p1 and p2 then p4 will also be collinear, since p1-p2 is parallel with p3-p4
-        if (collinearityTestForP3 == 0.0) {
-            // The lines are collinear. Now check if they overlap.
-            if (a1.x >= b1.x && a1.x <= b2.x || a1.x <= b1.x && a1.x >= b2.x || a2.x >= b1.x && a2.x <= b2.x || a2.x <= b1.x && a2.x >= b2.x || b1.x >= a1.x && b1.x <= a2.x || b1.x <= a1.x && b1.x >= a2.x) {
-                return a1.y >= b1.y && a1.y <= b2.y || a1.y <= b1.y && a1.y >= b2.y || a2.y >= b1.y && a2.y <= b2.y || a2.y <= b1.y && a2.y >= b2.y || b1.y >= a1.y && b1.y <= a2.y || b1.y <= a1.y && b1.y >= a2.y
-            }
-        }
-        return false
-    }
-    return true
+    val (a1, a2) = line1
+    val (b1, b2) = line2
+    return isLineIntersectingLine(a1.x, a1.y, a2.x, a2.y, b1.x, b1.y, b2.x, b2.y)
 }
 
 /**
  * Checks if a circle is intersecting/inside a circle sector. The circle sector is defined by a sector center,
- * sector radius, a arc start angle, and arc end angle. The arc end angle must be greater that the arc start angle.
+ * sector radius, a arc start angle, and arc end angle. The arc goes counter-clockwise from the start to the end angle.
  *
  * The algorithm used in this method is based on Oren Trutner algorithm:
  * http://stackoverflow.com/questions/13652518/efficiently-find-points-inside-a-circle-sector
@@ -242,39 +148,11 @@ fun isCircleIntersectingCircleSector(
     sectorCenter: IPoint, sectorRadius: Double,
     arcStartAngle: Double, arcEndAngle: Double
 ): Boolean {
-    assert(arcEndAngle > arcStartAngle)
-    val maxRadiusToPoint = sectorRadius + circleRadius
-    val vx = circleCenter.x - sectorCenter.x
-    val vy = circleCenter.y - sectorCenter.y
-
-    // Check if point is outside max radius to point
-    if (vx * vx + vy * vy > maxRadiusToPoint * maxRadiusToPoint) {
-        return false // outside radius
-    }
-    val arcStartRad = Math.toRadians(arcStartAngle)
-    val arcEndRad = Math.toRadians(arcEndAngle)
-    var dx = cos(arcStartRad) * sectorRadius
-    var dy = sin(arcStartRad) * sectorRadius
-    val (x, y) = Point(dx, dy)
-    dx = cos(arcEndRad) * sectorRadius
-    dy = sin(arcEndRad) * sectorRadius
-    val (x1, y1) = Point(dx, dy)
-
-    // Check if circle center is within the circle sector arms
-    return if (!isClockwise(x, y, vx, vy) && isClockwise(x1, y1, vx, vy)) {
-        true
-    } else {
-        // Check if circle is intersecting one of the arms
-        isLineIntersectingCircle(
-            Line(sectorCenter.x, sectorCenter.y, sectorCenter.x + x, sectorCenter.y + y),
-            circleCenter,
-            circleRadius
-        ) || isLineIntersectingCircle(
-            Line(sectorCenter.x, sectorCenter.y, sectorCenter.x + x1, sectorCenter.y + y1),
-            circleCenter,
-            circleRadius
-        )
-    }
+    return isCircleIntersectingCircleSector(
+        circleCenter.x, circleCenter.y, circleRadius,
+        sectorCenter.x, sectorCenter.y, sectorRadius,
+        arcStartAngle, arcEndAngle
+    )
 }
 
 /**
@@ -289,9 +167,10 @@ fun isClockwise(v1x: Double, v1y: Double, v2x: Double, v2y: Double): Boolean = v
 
 /**
  * Returns a random direction in the range 0 up to 360 degrees.
+ * @param random is the random generator to use.
  * @return direction in degrees in the range [0;360[ degrees.
  */
-fun randomDirection(): Double = Math.random() * 360
+fun randomDirection(random: Random = Random): Double = random.nextDouble() * 360
 
 /**
  * Calculates the direction in degrees to point (targetX, targetY) from point (sourceX, sourceY).
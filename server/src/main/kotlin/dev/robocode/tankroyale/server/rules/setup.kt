@@ -31,4 +31,9 @@ val DEFAULT_TURN_TIMEOUT = 5.milliseconds
 val DEFAULT_READY_TIMEOUT = 1.seconds
 
 /** Default turns per second (TPS) */
-const val DEFAULT_TURNS_PER_SECOND = 15
\ No newline at end of file
+const val DEFAULT_TURNS_PER_SECOND = 15
+/** Default number of turns kept in the game history. Only the previous turn is needed for running the game */
+const val DEFAULT_TURN_HISTORY = 1
+
+/** Turn history value meaning that all turns of the game are kept */
+const val ALL_TURNS = -1
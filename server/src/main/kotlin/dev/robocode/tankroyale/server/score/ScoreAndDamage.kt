@@ -3,7 +3,11 @@ package dev.robocode.tankroyale.server.score
 import dev.robocode.tankroyale.server.model.ParticipantId
 import dev.robocode.tankroyale.server.rules.RAM_DAMAGE
 
-/** Bot record that tracks damage and survival of a bot, and can calculate score. */
+/**
+ * Bot record that tracks damage and survival of a bot, and can calculate score. The totals used for the score are kept
+ * as running totals, which are updated when damage and kills are added, so the score is read without summing up the
+ * damage per enemy.
+ */
 class ScoreAndDamage {
 
     private val bulletDamage = mutableMapOf<ParticipantId, Double>()
@@ -11,6 +15,17 @@ class ScoreAndDamage {
     private val bulletKillEnemyIds = mutableSetOf<ParticipantId>()
     private val ramKillEnemyIds = mutableSetOf<ParticipantId>()
 
+    private var totalBulletDamage = 0.0
+    private var totalRamHits = 0
+
+    /** The total damage dealt to the enemies killed by bullets from this bot. */
+    var bulletKillDamage: Double = 0.0
+        private set
+
+    /** The total damage dealt to the enemies killed by ramming by this bot. */
+    var ramKillDamage: Double = 0.0
+        private set
+
     /** The survival count, which is the number of rounds where the bot has survived. */
     var survivalCount: Int = 0
         private set
@@ -25,15 +40,19 @@ class ScoreAndDamage {
         ramHits.clear()
         bulletKillEnemyIds.clear()
         ramKillEnemyIds.clear()
+        totalBulletDamage = 0.0
+        totalRamHits = 0
+        bulletKillDamage = 0.0
+        ramKillDamage = 0.0
         survivalCount = 0
         lastSurvivorCount = 0
     }
 
     /** The total bullet damage dealt by this bot to other bots. */
-    fun getTotalBulletDamage() = bulletDamage.keys.sumOf { getBulletDamage(it) }
+    fun getTotalBulletDamage() = totalBulletDamage
 
     /** The total ram damage dealt by this bot to other bots. */
-    fun getTotalRamDamage() = ramHits.keys.sumOf { getRamHits(it) } * RAM_DAMAGE
+    fun getTotalRamDamage() = totalRamHits * RAM_DAMAGE
 
     /** Returns the bullet kill enemy ids. */
     fun getBulletKillEnemyIds(): Set<ParticipantId> = bulletKillEnemyIds
@@ -69,6 +88,8 @@ class ScoreAndDamage {
      */
     fun addBulletDamage(enemyId: ParticipantId, damage: Double) {
         bulletDamage[enemyId] = getBulletDamage(enemyId) + damage
+        totalBulletDamage += damage
+        addKillDamage(enemyId, damage)
     }
 
     /**
@@ -77,6 +98,8 @@ class ScoreAndDamage {
      */
     fun incrementRamHit(id: ParticipantId) {
         ramHits[id] = getRamHits(id) + 1
+        totalRamHits++
+        addKillDamage(id, RAM_DAMAGE)
     }
 
     /**
@@ -99,7 +122,9 @@ class ScoreAndDamage {
      * @param enemyId is the identifier of the enemy bot that was killed by this bot
      */
     fun addBulletKillEnemyId(enemyId: ParticipantId) {
-        bulletKillEnemyIds += enemyId
+        if (bulletKillEnemyIds.add(enemyId)) {
+            bulletKillDamage += getTotalDamage(enemyId)
+        }
     }
 
     /**
@@ -107,6 +132,14 @@ class ScoreAndDamage {
      * @param enemyId is the identifier of the enemy bot that was killed by this bot
      */
     fun addRamKillEnemyId(enemyId: ParticipantId) {
-        ramKillEnemyIds += enemyId
+        if (ramKillEnemyIds.add(enemyId)) {
+            ramKillDamage += getTotalDamage(enemyId)
+        }
+    }
+
+    /** Adds damage dealt to an enemy that has already been killed by this bot to the kill damage. */
+    private fun addKillDamage(enemyId: ParticipantId, damage: Double) {
+        if (enemyId in bulletKillEnemyIds) bulletKillDamage += damage
+        if (enemyId in ramKillEnemyIds) ramKillDamage += damage
     }
 }
\ No newline at end of file
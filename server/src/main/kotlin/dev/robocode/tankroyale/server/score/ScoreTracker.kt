@@ -2,10 +2,16 @@ package dev.robocode.tankroyale.server.score
 
 import dev.robocode.tankroyale.server.model.ParticipantId
 import dev.robocode.tankroyale.server.model.Score
+import dev.robocode.tankroyale.server.model.TickScore
 import dev.robocode.tankroyale.server.rules.*
 
 /**
  * Utility class used for keeping track of the score for an individual bot and/or team in a game.
+ *
+ * The current tick scores are maintained incrementally: only the scores of participants affected by a registered hit
+ * or death are recalculated, and the rank order is kept between turns, where it is only re-sorted for the changed
+ * scores. The tick scores are reused as long as nothing has been registered.
+ *
  * @param participantIds is the ids of all participant bots and teams.
  */
 class ScoreTracker(private val participantIds: Set<ParticipantId>) {
@@ -18,10 +24,31 @@ class ScoreTracker(private val participantIds: Set<ParticipantId>) {
 
     private var lastSurvivors: Set<ParticipantId>? = null
 
+    // Order of the participants used for ordering participants with the same total score
+    private val participantOrder: Map<ParticipantId, Int> =
+        participantIds.withIndex().associate { (index, participantId) -> participantId to index }
+
+    // Participants ordered by rank, i.e. with higher total scores first
+    private val rankOrder: Array<ParticipantId> = participantIds.toTypedArray()
+
+    // Latest calculated score per participant
+    private val scores = mutableMapOf<ParticipantId, Score>()
+
+    // Participants whose score must be recalculated
+    private val changedParticipants = mutableSetOf<ParticipantId>()
+
+    // Current tick scores, or null if these must be recalculated
+    private var tickScores: List<TickScore>? = null
+
+    /** The version of the scores, which is incremented whenever a score might have changed. */
+    var version: Long = 0
+        private set
+
     init {
         participantIds.forEach { scoreAndDamages[it] = ScoreAndDamage() }
 
         aliveParticipants.addAll(participantIds)
+        changedParticipants.addAll(participantIds)
     }
 
     /**
@@ -31,6 +58,76 @@ class ScoreTracker(private val participantIds: Set<ParticipantId>) {
         aliveParticipants.apply { clear(); addAll(participantIds) }
         lastSurvivors = null
         scoreAndDamages.values.forEach { it.clear() }
+
+        participantIds.forEachIndexed { index, participantId -> rankOrder[index] = participantId }
+        changedAll()
+    }
+
+    /**
+     * Returns the current tick scores ordered with higher total scores first, where participants sharing the same
+     * total score share the same rank.
+     * @return the list of tick scores, which is the same list until a hit or death is registered.
+     */
+    fun getTickScores(): List<TickScore> {
+        tickScores?.let { return it }
+
+        changedParticipants.forEach { scores[it] = calculateScore(it) }
+        changedParticipants.clear()
+
+        sortRankOrder()
+
+        // Shared placement, where participants with the same total score get the same rank like the RankDecorator
+        var lastTotalScore = 0.0
+        var lastRank = 0
+
+        val tickScores = ArrayList<TickScore>(rankOrder.size)
+        rankOrder.forEachIndexed { index, participantId ->
+            val score = scores[participantId]!!
+            val totalScore = score.totalScore
+            if (totalScore != lastTotalScore) {
+                lastRank = index + 1
+            }
+            score.rank = lastRank
+            lastTotalScore = totalScore
+
+            tickScores += TickScore(score)
+        }
+        return tickScores.also { this.tickScores = it }
+    }
+
+    /**
+     * Sorts the rank order with an insertion sort, which is close to linear as the order changes little between
+     * turns. Participants with the same total score are kept in the order of the participant ids.
+     */
+    private fun sortRankOrder() {
+        for (i in 1 until rankOrder.size) {
+            val participantId = rankOrder[i]
+            var j = i - 1
+            while (j >= 0 && isRankedBefore(participantId, rankOrder[j])) {
+                rankOrder[j + 1] = rankOrder[j]
+                j--
+            }
+            rankOrder[j + 1] = participantId
+        }
+    }
+
+    private fun isRankedBefore(participantId1: ParticipantId, participantId2: ParticipantId): Boolean {
+        val totalScore1 = scores[participantId1]!!.totalScore
+        val totalScore2 = scores[participantId2]!!.totalScore
+        return totalScore1 > totalScore2 ||
+                (totalScore1 == totalScore2 && participantOrder[participantId1]!! < participantOrder[participantId2]!!)
+    }
+
+    private fun changed(participantId: ParticipantId) {
+        changedParticipants += participantId
+        tickScores = null
+        version++
+    }
+
+    private fun changedAll() {
+        changedParticipants.addAll(participantIds)
+        tickScores = null
+        version++
     }
 
     /**
@@ -56,9 +153,9 @@ class ScoreTracker(private val participantIds: Set<ParticipantId>) {
             return Score(
                 participantId = participantId,
                 bulletDamageScore = SCORE_PER_BULLET_DAMAGE * getTotalBulletDamage(),
-                bulletKillBonus = BONUS_PER_BULLET_KILL * getBulletKillEnemyIds().sumOf { getTotalDamage(it) },
+                bulletKillBonus = BONUS_PER_BULLET_KILL * bulletKillDamage,
                 ramDamageScore = SCORE_PER_RAM_DAMAGE * getTotalRamDamage(),
-                ramKillBonus = BONUS_PER_RAM_KILL * getRamKillEnemyIds().sumOf { getTotalDamage(it) },
+                ramKillBonus = BONUS_PER_RAM_KILL * ramKillDamage,
                 survivalScore = SCORE_PER_SURVIVAL * survivalCount,
                 lastSurvivorBonus = lastSurvivorBonusValue,
             )
@@ -79,6 +176,7 @@ class ScoreTracker(private val participantIds: Set<ParticipantId>) {
                 addBulletKillEnemyId(victimId)
             }
         }
+        changed(offenderId)
     }
 
     /**
@@ -94,6 +192,7 @@ class ScoreTracker(private val participantIds: Set<ParticipantId>) {
                 addRamKillEnemyId(victimId)
             }
         }
+        changed(offenderId)
     }
 
     /**
@@ -118,6 +217,8 @@ class ScoreTracker(private val participantIds: Set<ParticipantId>) {
                     lastSurvivors?.forEach { scoreAndDamages[it]?.addLastSurvivorCount(deadCount) }
                 }
             }
+            // The survival scores of all survivors have changed
+            changedAll()
         }
     }
 
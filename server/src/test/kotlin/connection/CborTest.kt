@@ -0,0 +1,88 @@
+package connection
+
+import com.google.gson.Gson
+import com.google.gson.JsonParser
+import dev.robocode.tankroyale.schema.BotState
+import dev.robocode.tankroyale.schema.BulletState
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.TickEventForBot
+import dev.robocode.tankroyale.server.connection.Cbor
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.ints.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import java.nio.ByteBuffer
+
+class CborTest : StringSpec({
+
+    val gson = Gson()
+
+    fun tickEvent() = TickEventForBot().apply {
+        type = Message.Type.TICK_EVENT_FOR_BOT
+        roundNumber = 3
+        turnNumber = 1234
+        botState = BotState().apply {
+            energy = 87.35
+            x = 412.123456789
+            y = 20.25
+            direction = -0.0
+            gunDirection = 359.9
+            speed = -8.0
+            enemyCount = 7
+            bodyColor = "#FF0000"
+            isDebuggingEnabled = false
+        }
+        bulletStates = (1..5).map { i ->
+            BulletState().apply {
+                bulletId = i * 1000
+                ownerId = 1
+                power = 0.1 * i
+                x = 11.0 + i
+                y = 21.0 / i
+                direction = 45.0
+            }
+        }
+        events = emptyList()
+    }
+
+    fun bytes(vararg values: Int): ByteBuffer = ByteBuffer.wrap(values.map { it.toByte() }.toByteArray())
+
+    "encoded message must decode into the same JSON tree as its JSON" {
+        val tickEvent = tickEvent()
+
+        Cbor.read(Cbor.write(gson, tickEvent)) shouldBe gson.toJsonTree(tickEvent)
+    }
+
+    "decoded message must be equal to the message" {
+        val json = gson.toJson(tickEvent())
+
+        gson.toJson(gson.fromJson(Cbor.read(Cbor.write(gson, tickEvent())), TickEventForBot::class.java)) shouldBe json
+    }
+
+    "transcoded JSON must decode into the same JSON tree, including nulls" {
+        val json = """{"type":"Test","text":"æøå ☃","n":-1,"big":4294967296,"f":0.5,"d":0.1,"e":1e300,""" +
+                """"none":null,"flags":[true,false],"nested":{"list":[]}}"""
+
+        Cbor.read(Cbor.transcode(json)) shouldBe JsonParser.parseString(json)
+    }
+
+    "encoded message must be smaller than its JSON" {
+        val tickEvent = tickEvent()
+
+        Cbor.write(gson, tickEvent).remaining() shouldBeLessThan gson.toJson(tickEvent).length
+    }
+
+    "definite lengths and half-precision floats written by other encoders must be read" {
+        // {"a": [1, -2], "b": 1.5 (half), "c": null}
+        val cbor = bytes(0xA3, 0x61, 0x61, 0x82, 0x01, 0x21, 0x61, 0x62, 0xF9, 0x3E, 0x00, 0x61, 0x63, 0xF6)
+
+        Cbor.read(cbor) shouldBe JsonParser.parseString("""{"a":[1,-2],"b":1.5,"c":null}""")
+    }
+
+    "deeply nested arrays must be rejected instead of overflowing the stack" {
+        // 100,000 nested arrays of one item, which is a small message, but far deeper than any real message
+        val cbor = ByteBuffer.wrap(ByteArray(100_000) { 0x81.toByte() } + 0x01)
+
+        shouldThrow<IllegalArgumentException> { Cbor.read(cbor) }
+    }
+})
@@ -0,0 +1,53 @@
+package connection
+
+import com.google.gson.Gson
+import com.google.gson.JsonParser
+import dev.robocode.tankroyale.schema.BotState
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.ScannedBotEvent
+import dev.robocode.tankroyale.schema.TickEventForBot
+import dev.robocode.tankroyale.server.connection.Cbor
+import dev.robocode.tankroyale.server.connection.MessageTypeFirstAdapterFactory
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldStartWith
+
+class MessageTypeFirstAdapterFactoryTest : StringSpec({
+
+    val gson = MessageTypeFirstAdapterFactory.createGson()
+
+    fun tickEvent() = TickEventForBot().apply {
+        type = Message.Type.TICK_EVENT_FOR_BOT
+        roundNumber = 1
+        turnNumber = 42
+        botState = BotState().apply {
+            energy = 100.0
+            x = 10.0
+            y = 20.0
+        }
+        events = listOf(ScannedBotEvent().apply {
+            type = Message.Type.SCANNED_BOT_EVENT
+            turnNumber = 42
+            scannedByBotId = 1
+            scannedBotId = 2
+        })
+    }
+
+    "type must be written as the first field of a message" {
+        gson.toJson(tickEvent()) shouldStartWith "{\"type\":\"TickEventForBot\","
+    }
+
+    "type must be written once and the message must be unchanged otherwise" {
+        val json = gson.toJson(tickEvent())
+
+        json.split("\"type\":\"TickEventForBot\"").size shouldBe 2
+        JsonParser.parseString(json) shouldBe JsonParser.parseString(Gson().toJson(tickEvent()))
+    }
+
+    "type must be written first into CBOR" {
+        val json = Cbor.read(Cbor.write(gson, tickEvent())).asJsonObject
+
+        json.keySet().first() shouldBe "type"
+        json shouldBe JsonParser.parseString(Gson().toJson(tickEvent()))
+    }
+})
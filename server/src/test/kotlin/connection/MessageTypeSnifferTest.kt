@@ -0,0 +1,30 @@
+package connection
+
+import dev.robocode.tankroyale.server.connection.MessageTypeSniffer
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+
+class MessageTypeSnifferTest : StringSpec({
+
+    "type must be found independent of its position in the message" {
+        MessageTypeSniffer.sniffType("""{"type":"BotIntent","turnRate":1.0}""") shouldBe "BotIntent"
+        MessageTypeSniffer.sniffType("""{"turnRate":1.0, "type" : "BotIntent"}""") shouldBe "BotIntent"
+    }
+
+    "type fields of nested objects must be ignored" {
+        val json = """{"gameSetup":{"type":"Nested","gameType":"classic"},"type":"StartGame"}"""
+        MessageTypeSniffer.sniffType(json) shouldBe "StartGame"
+    }
+
+    "type inside string values must be ignored" {
+        val json = """{"name":"type","debug":"{\"type\":\"Fake\"}","type":"BotHandshake"}"""
+        MessageTypeSniffer.sniffType(json) shouldBe "BotHandshake"
+    }
+
+    "null must be returned when there is no top-level type field" {
+        MessageTypeSniffer.sniffType("""{"messageType":"Foo","data":{"type":"Nested"}}""") shouldBe null
+        MessageTypeSniffer.sniffType("""{"type":42}""") shouldBe null
+        MessageTypeSniffer.sniffType("""{"type":"Unterminated""") shouldBe null
+        MessageTypeSniffer.sniffType("") shouldBe null
+    }
+})
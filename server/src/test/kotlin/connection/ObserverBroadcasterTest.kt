@@ -0,0 +1,121 @@
+package connection
+
+import dev.robocode.tankroyale.server.connection.FrameChannel
+import dev.robocode.tankroyale.server.connection.ObserverBroadcaster
+import dev.robocode.tankroyale.server.connection.SlowConsumerPolicy
+import dev.robocode.tankroyale.server.core.StatusCode
+import io.kotest.assertions.nondeterministic.eventually
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.java_websocket.WebSocket
+import java.nio.ByteBuffer
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import kotlin.time.Duration.Companion.seconds
+
+class ObserverBroadcasterTest : StringSpec({
+
+    /** Frame channel recording the text of the frames written to each socket, which can be stalled like a slow client */
+    class RecordingFrameChannel : FrameChannel {
+        @Volatile
+        var isStalled = false
+
+        val written = ConcurrentHashMap<WebSocket, MutableList<String>>()
+
+        fun writtenTo(clientSocket: WebSocket): List<String> = written[clientSocket] ?: emptyList()
+
+        override fun queuedCount(clientSocket: WebSocket) = if (isStalled) Int.MAX_VALUE else 0
+
+        override fun enqueue(clientSocket: WebSocket, frames: ByteBuffer) {
+            // Unmasked text frame with a payload shorter than 126 bytes: opcode byte, length byte, payload
+            val payload = ByteArray(frames.get(1).toInt() and 0x7F)
+            frames.position(2).get(payload)
+            written.computeIfAbsent(clientSocket) { CopyOnWriteArrayList() } += String(payload, Charsets.UTF_8)
+        }
+
+        override fun writeDemand(clientSocket: WebSocket) {}
+    }
+
+    fun openSocket() = mockk<WebSocket>(relaxed = true) { every { isOpen } returns true }
+
+    "messages must be written in the order they were broadcast" {
+        val channel = RecordingFrameChannel()
+        val socket = openSocket()
+        ObserverBroadcaster(8, SlowConsumerPolicy.DROP_OLDEST, channel).use { broadcaster ->
+            broadcaster.broadcast(listOf(socket), "started")
+            (1..5).forEach { broadcaster.broadcast(listOf(socket), "tick $it", droppable = true) }
+            broadcaster.send(socket, "ended")
+
+            channel.writtenTo(socket) shouldContainExactly
+                    listOf("started", "tick 1", "tick 2", "tick 3", "tick 4", "tick 5", "ended")
+        }
+    }
+
+    "pending messages of a stalled client must be bounded by dropping the oldest ticks" {
+        val channel = RecordingFrameChannel().apply { isStalled = true }
+        val socket = openSocket()
+        ObserverBroadcaster(3, SlowConsumerPolicy.DROP_OLDEST, channel).use { broadcaster ->
+            (1..5).forEach { broadcaster.broadcast(listOf(socket), "tick $it", droppable = true) }
+            channel.writtenTo(socket) shouldBe emptyList()
+
+            channel.isStalled = false
+            eventually(5.seconds) {
+                channel.writtenTo(socket) shouldContainExactly listOf("tick 3", "tick 4", "tick 5")
+            }
+        }
+    }
+
+    "messages that are not droppable must be delivered when the queue is full" {
+        val channel = RecordingFrameChannel().apply { isStalled = true }
+        val socket = openSocket()
+        ObserverBroadcaster(2, SlowConsumerPolicy.DROP_OLDEST, channel).use { broadcaster ->
+            broadcaster.broadcast(listOf(socket), "started")
+            broadcaster.broadcast(listOf(socket), "tick 1", droppable = true)
+            broadcaster.broadcast(listOf(socket), "tick 2", droppable = true) // drops tick 1
+            broadcaster.broadcast(listOf(socket), "ended") // drops tick 2
+            broadcaster.broadcast(listOf(socket), "tick 3", droppable = true) // nothing older to drop
+
+            channel.isStalled = false
+            eventually(5.seconds) {
+                channel.writtenTo(socket) shouldContainExactly listOf("started", "ended")
+            }
+        }
+    }
+
+    "stalled client must be disconnected when its queue is full with the disconnect policy" {
+        val channel = RecordingFrameChannel().apply { isStalled = true }
+        val slowSocket = openSocket()
+        val fastSocket = openSocket()
+        ObserverBroadcaster(2, SlowConsumerPolicy.DISCONNECT, channel).use { broadcaster ->
+            (1..3).forEach { broadcaster.broadcast(listOf(slowSocket), "tick $it", droppable = true) }
+
+            verify(exactly = 1) { slowSocket.close(StatusCode.POLICY_VIOLATION.value, any()) }
+
+            channel.isStalled = false
+            broadcaster.broadcast(listOf(fastSocket), "tick 4", droppable = true)
+            channel.writtenTo(fastSocket) shouldContainExactly listOf("tick 4")
+            verify(exactly = 0) { fastSocket.close(any(), any()) }
+        }
+    }
+
+    "client with tick deltas must be resynchronized with a full tick after ticks have been dropped" {
+        val channel = RecordingFrameChannel().apply { isStalled = true }
+        val socket = openSocket()
+        val deltaSockets = setOf(socket)
+        ObserverBroadcaster(2, SlowConsumerPolicy.DROP_OLDEST, channel).use { broadcaster ->
+            (1..3).forEach { broadcaster.broadcastTick(listOf(socket), deltaSockets, "tick $it", "delta $it") }
+
+            channel.isStalled = false
+            broadcaster.broadcastTick(listOf(socket), deltaSockets, "tick 4", "delta 4")
+
+            eventually(5.seconds) {
+                // tick 1 and delta 2 are dropped when tick 3 is offered, so tick 3 is sent as a full tick
+                channel.writtenTo(socket) shouldContainExactly listOf("tick 3", "delta 4")
+            }
+        }
+    }
+})
@@ -0,0 +1,71 @@
+package core
+
+import dev.robocode.tankroyale.server.core.GameHistoryRecorder
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import io.kotest.matchers.string.shouldEndWith
+import io.kotest.matchers.string.shouldMatch
+import java.io.File
+import java.nio.file.Files
+import java.time.LocalDateTime
+import java.time.format.DateTimeFormatter
+import java.util.zip.GZIPInputStream
+
+class GameHistoryRecorderTest : StringSpec({
+
+    fun readLines(file: File) = GZIPInputStream(file.inputStream()).bufferedReader().use { it.readLines() }
+
+    "recorders created within the same second must write into separate files" {
+        val dir = Files.createTempDirectory("history").toFile()
+        try {
+            val first = GameHistoryRecorder(dir.path)
+            val second = GameHistoryRecorder(dir.path)
+            first.use { it.record("{\"turn\":1}") }
+            second.use { it.record("{\"turn\":2}") }
+
+            first.file shouldNotBe second.file
+            // The second file gets a counter, unless the games are started in different seconds
+            val namePattern = Regex("""game-\d{4}(-\d{2}){5}(-1)?\.battle\.gz""")
+            listOf(first, second).forEach { it.file.name shouldMatch namePattern }
+            readLines(first.file) shouldBe listOf("{\"turn\":1}")
+            readLines(second.file) shouldBe listOf("{\"turn\":2}")
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    "existing recordings must not be overwritten" {
+        val dir = Files.createTempDirectory("history").toFile()
+        try {
+            val format = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss")
+            val now = LocalDateTime.now()
+            // Recordings for this second and the next ones, in case the recorder is created in a later second
+            val existing = (0L..2L).map { File(dir, "game-${now.plusSeconds(it).format(format)}.battle.gz") }
+            existing.forEach { it.writeText("existing") }
+
+            val recorder = GameHistoryRecorder(dir.path)
+            recorder.close()
+
+            recorder.file.name shouldEndWith "-1.battle.gz"
+            existing.forEach { it.readText() shouldBe "existing" }
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    "messages recorded after closing must be ignored" {
+        val file = File.createTempFile("game", ".battle.gz")
+        try {
+            val recorder = GameHistoryRecorder(file)
+            recorder.record("{\"turn\":1}")
+            recorder.close()
+            recorder.record("{\"turn\":2}")
+            recorder.close()
+
+            readLines(file) shouldBe listOf("{\"turn\":1}")
+        } finally {
+            file.delete()
+        }
+    }
+})
@@ -0,0 +1,167 @@
+package core
+
+import com.google.gson.Gson
+import com.google.gson.JsonParser
+import dev.robocode.tankroyale.client.TickDeltaDecoder
+import dev.robocode.tankroyale.schema.BotStateWithId
+import dev.robocode.tankroyale.schema.BulletState
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.Participant
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.ObserverTickDeltaWriter
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForObserverMapper
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.BotIntent
+import dev.robocode.tankroyale.server.model.ParticipantId
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.longs.shouldBeLessThan
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import kotlinx.serialization.json.Json
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.int
+import kotlinx.serialization.json.jsonArray
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import model.factory.GameSetupFactory
+import java.util.Random
+
+class ObserverTickDeltaWriterTest : StringSpec({
+
+    val gson = Gson()
+
+    fun botState(id: Int, x: Double, stdOut: String?) = BotStateWithId().apply {
+        this.id = id
+        sessionId = "session-$id"
+        energy = 100.0
+        this.x = x
+        y = 20.25
+        direction = 90.0
+        bodyColor = "#FF0000"
+        this.stdOut = stdOut
+        debugGraphics = "<svg/>"
+    }
+
+    fun bulletState(bulletId: Int, x: Double) = BulletState().apply {
+        this.bulletId = bulletId
+        ownerId = 1
+        power = 0.1
+        this.x = x
+        y = 21.0
+        direction = 45.0
+    }
+
+    fun tickEvent(turnNumber: Int, botStates: List<BotStateWithId>, bulletStates: List<BulletState>) =
+        TickEventForObserver().apply {
+            type = Message.Type.TICK_EVENT_FOR_OBSERVER
+            roundNumber = 1
+            this.turnNumber = turnNumber
+            this.botStates = botStates
+            this.bulletStates = bulletStates
+            events = emptyList()
+        }
+
+    /** Parses a message like a client does */
+    fun parse(json: String): JsonObject = Json.parseToJsonElement(json).jsonObject
+
+    /** Compares ticks with the states ordered by id, as the order of the states is not significant */
+    fun normalized(tick: JsonObject): JsonObject {
+        fun sorted(name: String, idName: String): Pair<String, JsonArray> {
+            val states = tick.getValue(name).jsonArray
+            return name to JsonArray(states.sortedBy { it.jsonObject.getValue(idName).jsonPrimitive.int })
+        }
+
+        return JsonObject(tick + sorted("botStates", "id") + sorted("bulletStates", "bulletId"))
+    }
+
+    "first tick and keyframes must not be written as deltas" {
+        val writer = ObserverTickDeltaWriter(gson)
+        val tick = tickEvent(1, listOf(botState(1, 10.0, null)), emptyList())
+
+        writer.write(tick, null, false).shouldBeNull()
+        writer.write(tickEvent(2, tick.botStates, emptyList()), null, true).shouldBeNull()
+        writer.write(tickEvent(3, tick.botStates, emptyList()), null, false).shouldNotBeNull()
+
+        writer.reset()
+        writer.write(tickEvent(4, tick.botStates, emptyList()), null, false).shouldBeNull()
+    }
+
+    "delta must only contain the changed fields, and cleared fields as null" {
+        val writer = ObserverTickDeltaWriter(gson)
+        writer.write(tickEvent(1, listOf(botState(1, 10.0, "out"), botState(2, 50.0, null)), emptyList()), null, false)
+
+        val json = writer.write(
+            tickEvent(2, listOf(botState(1, 11.0, null), botState(2, 50.0, null)), emptyList()), null, false
+        )!!
+
+        val delta = JsonParser.parseString(json).asJsonObject
+        delta["type"].asString shouldBe Message.Type.TICK_DELTA_EVENT_FOR_OBSERVER.value()
+        delta["botStates"] shouldBe JsonParser.parseString("""[{"id":1,"x":11.0,"stdOut":null}]""")
+        delta["removedBotIds"].asJsonArray.size() shouldBe 0
+    }
+
+    "decoding the deltas with the client decoder must give the full ticks" {
+        val writer = ObserverTickDeltaWriter(gson)
+        val decoder = TickDeltaDecoder()
+        val ticks = listOf(
+            tickEvent(1, listOf(botState(1, 10.0, null), botState(2, 50.0, "a")), listOf(bulletState(1, 5.0))),
+            tickEvent(2, listOf(botState(1, 12.0, null), botState(2, 50.0, null)), listOf(bulletState(1, 7.0))),
+            tickEvent(3, listOf(botState(1, 12.0, "b"), botState(3, 80.0, null)), listOf(bulletState(2, 1.0))),
+            tickEvent(4, listOf(botState(3, 81.0, null)), emptyList()),
+        )
+
+        ticks.forEach { tick ->
+            val full = gson.toJson(tick)
+            val delta = writer.write(tick, null, false)
+            normalized(decoder.decode(parse(delta ?: full))!!) shouldBe normalized(parse(full))
+        }
+    }
+
+    "decoding the deltas of a played game must give the full ticks" {
+        val botCount = 10
+        val participantIds = (1..botCount).map { ParticipantId(BotId(it)) }.toSet()
+        val participantsMap = participantIds.associate { it.botId to Participant().apply { id = it.botId.value } }
+        val gameSetup = GameSetupFactory.createGameSetup(arenaWidth = 800, arenaHeight = 600, seed = 3)
+        val modelUpdater = ModelUpdater(gameSetup, participantIds, emptyMap(), emptyMap())
+        val keyframeInterval = 100
+        val writer = ObserverTickDeltaWriter(gson)
+        val decoder = TickDeltaDecoder()
+        val random = Random(3)
+
+        var fullBytes = 0L
+        var streamBytes = 0L
+        var turns = 0
+        repeat(500) { turn ->
+            val intents = participantIds.associate {
+                it.botId to BotIntent(
+                    targetSpeed = random.nextDouble() * 16 - 8,
+                    turnRate = random.nextDouble() * 20 - 10,
+                    gunTurnRate = random.nextDouble() * 40 - 20,
+                    radarTurnRate = random.nextDouble() * 90 - 45,
+                    firepower = if (random.nextInt(8) == 0) 1.0 else 0.0,
+                )
+            }
+            val round = modelUpdater.update(intents).lastRound ?: return@repeat
+            val tick = TurnToTickEventForObserverMapper
+                .map(round.roundNumber, round.lastTurn!!, participantsMap, emptyMap(), emptyMap())
+
+            val keyframe = turn % keyframeInterval == 0
+            val full = gson.toJson(tick)
+            val delta = writer.write(tick, null, keyframe)
+            fullBytes += full.length
+            streamBytes += (delta ?: full).length
+            turns++
+
+            normalized(decoder.decode(parse(delta ?: full))!!) shouldBe normalized(parse(full))
+        }
+
+        streamBytes shouldBeLessThan fullBytes
+        println(
+            "Bytes per tick for $botCount bots with a keyframe every $keyframeInterval turns: " +
+                    "full ticks: ${fullBytes / turns}, tick deltas: ${streamBytes / turns}"
+        )
+    }
+})
@@ -0,0 +1,79 @@
+package core
+
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import dev.robocode.tankroyale.schema.BotStateWithId
+import dev.robocode.tankroyale.schema.BulletState
+import dev.robocode.tankroyale.schema.Message
+import dev.robocode.tankroyale.schema.TickEventForObserver
+import dev.robocode.tankroyale.server.core.ObserverTickWriter
+import dev.robocode.tankroyale.server.mapper.TickScoreMapper
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.ParticipantId
+import dev.robocode.tankroyale.server.model.TeamId
+import dev.robocode.tankroyale.server.model.TickScore
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldNotContain
+
+class ObserverTickWriterTest : StringSpec({
+
+    val gson = Gson()
+
+    fun tickEvent(turnNumber: Int) = TickEventForObserver().apply {
+        type = Message.Type.TICK_EVENT_FOR_OBSERVER
+        roundNumber = 1
+        this.turnNumber = turnNumber
+        botStates = listOf(BotStateWithId().apply {
+            id = 1
+            sessionId = "session-1"
+            energy = 100.0
+            x = 10.5
+            y = 20.25
+            bodyColor = "#FF0000"
+        })
+        bulletStates = listOf(BulletState().apply {
+            bulletId = 1
+            ownerId = 1
+            power = 0.1
+            x = 11.0
+            y = 21.0
+            direction = 45.0
+        })
+        events = emptyList()
+    }
+
+    val tickScores = listOf(
+        TickScore(ParticipantId(BotId(1), TeamId(5)), 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 21.0, 1),
+        TickScore(ParticipantId(BotId(2)), 0.0, 0.0, 0.0, 0.0, 5.0, 0.0, 5.0, 2),
+    )
+
+    "written tick must be equal to the tick event with tick scores added to the JSON tree" {
+        val tickEvent = tickEvent(7)
+
+        val expected = gson.fromJson(gson.toJson(tickEvent), JsonObject::class.java).apply {
+            add("tickScores", TickScoreMapper.mapToJson(tickScores))
+        }
+        val json = ObserverTickWriter(gson).write(tickEvent, tickScores)
+
+        JsonParser.parseString(json) shouldBe expected
+    }
+
+    "tick scores must be left out when there are no tick scores" {
+        val json = ObserverTickWriter(gson).write(tickEvent(1), null)
+
+        json shouldNotContain "tickScores"
+        JsonParser.parseString(json) shouldBe gson.toJsonTree(tickEvent(1))
+    }
+
+    "the buffer must be reused without leftovers from the previous tick" {
+        val writer = ObserverTickWriter(gson)
+        writer.write(tickEvent(1), tickScores)
+
+        val json = writer.write(tickEvent(2), null)
+
+        JsonParser.parseString(json) shouldBe gson.toJsonTree(tickEvent(2))
+        writer.size shouldBe json.length
+    }
+})
@@ -0,0 +1,101 @@
+package core
+
+import com.google.gson.Gson
+import dev.robocode.tankroyale.schema.Participant
+import dev.robocode.tankroyale.server.Server
+import dev.robocode.tankroyale.server.core.ModelUpdater
+import dev.robocode.tankroyale.server.core.TurnPhaseExecutor
+import dev.robocode.tankroyale.server.mapper.EventsMapper
+import dev.robocode.tankroyale.server.mapper.TurnToTickEventForObserverMapper
+import dev.robocode.tankroyale.server.model.*
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import java.util.*
+import java.util.concurrent.atomic.AtomicIntegerArray
+import model.factory.GameSetupFactory
+
+class TurnPhaseExecutorTest : StringSpec({
+
+    val gameSetup = GameSetupFactory.createGameSetup(arenaWidth = 2000, arenaHeight = 2000, numberOfRounds = 10)
+
+    "each item must be run exactly once by the chunk it belongs to" {
+        TurnPhaseExecutor(4).use { executor ->
+            val runs = AtomicIntegerArray(1000)
+            val chunkOfItem = IntArray(1000) { -1 }
+
+            executor.forEachChunk(1000) { chunk, from, to ->
+                for (i in from until to) {
+                    runs.incrementAndGet(i)
+                    chunkOfItem[i] = chunk
+                }
+            }
+
+            (0 until 1000).all { runs[it] == 1 } shouldBe true
+            chunkOfItem.toList() shouldBe chunkOfItem.sorted() // chunks are contiguous and in order
+            chunkOfItem.toSet() shouldBe setOf(0, 1, 2, 3)
+        }
+    }
+
+    "chunks must hold at least the minimum number of items" {
+        TurnPhaseExecutor(8).use { executor ->
+            executor.chunkCount(0) shouldBe 0
+            executor.chunkCount(3) shouldBe 3
+            executor.chunkCount(100) shouldBe 8
+            executor.chunkCount(100, minChunkSize = 40) shouldBe 3
+        }
+    }
+
+    "turns must be the same when the per-bot phases are run in parallel" {
+        val botCount = 60
+        val participantIds = (1..botCount).map { ParticipantId(BotId(it)) }.toSet()
+        val participantsMap = participantIds.associate { it.botId to Participant().apply { id = it.botId.value } }
+
+        // Fixed start positions, so both games start out the same
+        val initialPositions = participantIds.associate {
+            val i = it.botId.value - 1
+            it.botId to InitialPosition(100.0 + (i % 10) * 180, 100.0 + (i / 10) * 180, i * 37.0 % 360)
+        }
+
+        fun playTurns(executor: TurnPhaseExecutor?): List<String> {
+            val gson = Gson()
+            val random = Random(7)
+            val modelUpdater =
+                ModelUpdater(gameSetup, participantIds, initialPositions, emptyMap(), phaseExecutor = executor)
+            val turns = mutableListOf<String>()
+            repeat(300) {
+                val intents = participantIds.associate {
+                    it.botId to BotIntent(
+                        targetSpeed = random.nextDouble() * 16 - 8,
+                        turnRate = random.nextDouble() * 20 - 10,
+                        gunTurnRate = random.nextDouble() * 40 - 20,
+                        radarTurnRate = random.nextDouble() * 90 - 45,
+                        firepower = if (random.nextInt(4) == 0) 1.0 else 0.0,
+                        rescan = random.nextBoolean(),
+                    )
+                }
+                val round = modelUpdater.update(intents).lastRound!!
+                val turn = round.lastTurn!!
+
+                val tickEvent = TurnToTickEventForObserverMapper
+                    .map(round.roundNumber, turn, participantsMap, emptyMap(), emptyMap())
+                turns += gson.toJson(tickEvent)
+                // Only the content of the events of each bot is compared, not the order they were added in
+                turns += participantIds.map { (botId) ->
+                    "$botId: " + EventsMapper.map(turn.getEvents(botId)).map { gson.toJson(it) }.sorted()
+                }.toString()
+            }
+            return turns
+        }
+
+        val wasInitialPositionEnabled = Server.initialPositionEnabled
+        Server.initialPositionEnabled = true
+        try {
+            val expected = playTurns(null)
+            TurnPhaseExecutor(4).use { executor ->
+                playTurns(executor) shouldBe expected
+            }
+        } finally {
+            Server.initialPositionEnabled = wasInitialPositionEnabled
+        }
+    }
+})
@@ -0,0 +1,98 @@
+package core
+
+import dev.robocode.tankroyale.server.core.TurnScheduler
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.longs.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class TurnSchedulerTest : StringSpec({
+
+    "job must run when ready, but not before the minimum period has passed" {
+        val jobRun = CountDownLatch(1)
+        TurnScheduler { jobRun.countDown() }.use { scheduler ->
+            val start = System.nanoTime()
+            scheduler.schedule(0, TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.SECONDS.toNanos(10))
+            scheduler.notifyReady(0)
+
+            jobRun.await(5, TimeUnit.SECONDS) shouldBe true
+            System.nanoTime() - start shouldBeGreaterThanOrEqual TimeUnit.MILLISECONDS.toNanos(50)
+            scheduler.turnLatency.count shouldBe 1
+        }
+    }
+
+    "job must run when the maximum period has passed without being ready" {
+        val jobRun = CountDownLatch(1)
+        TurnScheduler { jobRun.countDown() }.use { scheduler ->
+            val start = System.nanoTime()
+            scheduler.schedule(0, 0, TimeUnit.MILLISECONDS.toNanos(20))
+
+            jobRun.await(5, TimeUnit.SECONDS) shouldBe true
+            System.nanoTime() - start shouldBeLessThan TimeUnit.SECONDS.toNanos(5)
+            scheduler.timeoutCount shouldBe 1
+        }
+    }
+
+    "job must not run while paused or after being stopped" {
+        val runs = AtomicInteger()
+        TurnScheduler { runs.incrementAndGet() }.use { scheduler ->
+            scheduler.schedule(0, 0, TimeUnit.MILLISECONDS.toNanos(50))
+            scheduler.pause()
+            scheduler.notifyReady(0)
+            Thread.sleep(100)
+            runs.get() shouldBe 0
+
+            scheduler.stop()
+            scheduler.resume()
+            Thread.sleep(100)
+            runs.get() shouldBe 0
+        }
+    }
+
+    "job must be run on the scheduler thread right away when ready and due" {
+        val jobRun = CountDownLatch(1)
+        var jobThread: Thread? = null
+        TurnScheduler {
+            jobThread = Thread.currentThread()
+            jobRun.countDown()
+        }.use { scheduler ->
+            scheduler.schedule(0, 0, TimeUnit.SECONDS.toNanos(10))
+            scheduler.notifyReady(0)
+
+            jobRun.await(5, TimeUnit.SECONDS) shouldBe true
+            jobThread?.name shouldBe "TurnScheduler"
+        }
+    }
+
+    "job must not be run by a ready signal for a turn that has already been run" {
+        val runs = AtomicInteger()
+        TurnScheduler { runs.incrementAndGet() }.use { scheduler ->
+            scheduler.schedule(1, 0, TimeUnit.SECONDS.toNanos(10))
+            scheduler.notifyReady(0) // late signal for the previous turn
+            Thread.sleep(100)
+            runs.get() shouldBe 0
+
+            scheduler.notifyReady(1)
+            Thread.sleep(100)
+            runs.get() shouldBe 1
+        }
+    }
+
+    "job must run right away when the turn was ready before it was scheduled" {
+        val jobRun = CountDownLatch(1)
+        TurnScheduler { jobRun.countDown() }.use { scheduler ->
+            // The last intent is received after the tick has been sent, but before the turn has been scheduled
+            scheduler.notifyReady(1)
+            val start = System.nanoTime()
+            scheduler.schedule(1, 0, TimeUnit.SECONDS.toNanos(10))
+
+            jobRun.await(5, TimeUnit.SECONDS) shouldBe true
+            System.nanoTime() - start shouldBeLessThan TimeUnit.SECONDS.toNanos(5)
+            scheduler.turnLatency.count shouldBe 1
+            scheduler.timeoutCount shouldBe 0
+        }
+    }
+})
@@ -0,0 +1,53 @@
+package engine
+
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.server.engine.BattleFarm
+import dev.robocode.tankroyale.server.engine.BattleJob
+import dev.robocode.tankroyale.server.engine.BotController
+import dev.robocode.tankroyale.server.engine.EmbeddedBot
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.longs.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
+import model.factory.GameSetupFactory
+
+class BattleFarmTest : StringSpec({
+
+    val gameSetup = GameSetupFactory.createGameSetup(maxInactivityTurns = 100)
+
+    val shooter = BotController {
+        BotIntent().apply {
+            turnRate = 5.0
+            gunTurnRate = 20.0
+            firepower = 1.0
+        }
+    }
+
+    fun job(name: String, vararg bots: EmbeddedBot) = BattleJob(name, gameSetup, bots.toList())
+
+    "all jobs must be run and the results must be aggregated per bot" {
+        val jobs = (1..4).map { job("job $it", EmbeddedBot("A", shooter), EmbeddedBot("B", shooter)) }
+
+        val report = BattleFarm(2).use { it.runAll(jobs) }
+
+        report.results shouldHaveSize 4
+        report.failures.shouldBeEmpty()
+        report.numberOfTurns shouldBeGreaterThan 0
+        report.standings.map { it.name }.toSet() shouldBe setOf("A", "B")
+        report.standings.forEach { it.games shouldBe 4 }
+    }
+
+    "a failing game must be reported without stopping the other games" {
+        val failing = BotController { throw IllegalStateException("Bot crashed") }
+        val jobs = listOf(
+            job("ok", EmbeddedBot("A", shooter), EmbeddedBot("B", shooter)),
+            job("failing", EmbeddedBot("A", shooter), EmbeddedBot("C", failing)),
+        )
+
+        val report = BattleFarm(2).use { it.runAll(jobs) }
+
+        report.failures.map { it.job.name } shouldBe listOf("failing")
+        report.results[0].results!!.results shouldHaveSize 2
+    }
+})
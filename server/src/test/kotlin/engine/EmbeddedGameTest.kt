@@ -0,0 +1,60 @@
+package engine
+
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.server.engine.BotController
+import dev.robocode.tankroyale.server.engine.EmbeddedBot
+import dev.robocode.tankroyale.server.engine.EmbeddedGame
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.ints.shouldBeGreaterThan
+import io.kotest.matchers.longs.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import java.io.File
+import java.util.zip.GZIPInputStream
+import model.factory.GameSetupFactory
+
+class EmbeddedGameTest : StringSpec({
+
+    val gameSetup = GameSetupFactory.createGameSetup(numberOfRounds = 2, maxInactivityTurns = 100)
+
+    val spinningShooter = BotController {
+        BotIntent().apply {
+            targetSpeed = 5.0
+            turnRate = 5.0
+            gunTurnRate = 20.0
+            firepower = 1.0
+        }
+    }
+
+    "all rounds must be played and every bot must get results" {
+        var decisions = 0
+        val counting = BotController { decisions++; null }
+
+        val results = EmbeddedGame(
+            gameSetup,
+            listOf(EmbeddedBot("Shooter", spinningShooter), EmbeddedBot("Idle", counting))
+        ).run()
+
+        results.numberOfRounds shouldBe 2
+        results.numberOfTurns shouldBeGreaterThan 0
+        results.results shouldHaveSize 2
+        results.results.map { it.name }.toSet() shouldBe setOf("Shooter", "Idle")
+        decisions shouldBeGreaterThan 0
+    }
+
+    "game must be recorded from game started until game ended" {
+        val file = File.createTempFile("embedded", ".battle.gz").apply { deleteOnExit() }
+
+        EmbeddedGame(
+            gameSetup,
+            listOf(EmbeddedBot("Shooter 1", spinningShooter), EmbeddedBot("Shooter 2", spinningShooter)),
+            file
+        ).run()
+
+        val lines = GZIPInputStream(file.inputStream()).bufferedReader().readLines()
+        lines.first() shouldContain "GameStartedEventForObserver"
+        lines.last() shouldContain "GameEndedEventForObserver"
+        lines.count { it.contains("RoundEndedEventForObserver") } shouldBe 2
+    }
+})
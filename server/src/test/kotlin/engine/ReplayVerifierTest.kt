@@ -0,0 +1,76 @@
+package engine
+
+import dev.robocode.tankroyale.schema.BotIntent
+import dev.robocode.tankroyale.server.engine.BotController
+import dev.robocode.tankroyale.server.engine.EmbeddedBot
+import dev.robocode.tankroyale.server.engine.EmbeddedGame
+import dev.robocode.tankroyale.server.engine.ReplayVerifier
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import java.io.File
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+import model.factory.GameSetupFactory
+
+class ReplayVerifierTest : StringSpec({
+
+    val gameSetup = GameSetupFactory.createGameSetup(
+        arenaWidth = 600, arenaHeight = 600, numberOfRounds = 2, maxInactivityTurns = 100, seed = 42
+    )
+
+    fun bots() = List(4) { i ->
+        EmbeddedBot("Shooter $i", BotController { tickEvent ->
+            BotIntent().apply {
+                targetSpeed = if ((tickEvent.turnNumber / 20 + i) % 2 == 0) 8.0 else -8.0
+                turnRate = 3.0 + i
+                gunTurnRate = 10.0
+                radarTurnRate = 45.0
+                firepower = 1.0 + i % 3
+            }
+        })
+    }
+
+    fun tempFile() = File.createTempFile("replay", ".gz").apply { deleteOnExit() }
+
+    fun readLines(file: File) = GZIPInputStream(file.inputStream()).bufferedReader().readLines()
+
+    "games with the same seed must be the same" {
+        val file1 = tempFile()
+        val file2 = tempFile()
+
+        EmbeddedGame(gameSetup, bots(), file1).run()
+        EmbeddedGame(gameSetup, bots(), file2).run()
+
+        readLines(file1) shouldBe readLines(file2)
+    }
+
+    "replay of an intent recording must match every turn" {
+        val file = tempFile()
+
+        val results = EmbeddedGame(gameSetup, bots(), intentRecordingFile = file).run()
+        val verification = ReplayVerifier.verify(file)
+
+        verification.isVerified shouldBe true
+        verification.numberOfTurns shouldBe results.numberOfTurns
+    }
+
+    "replay must report the first turn that does not match the recording" {
+        val file = tempFile()
+        EmbeddedGame(gameSetup, bots(), intentRecordingFile = file).run()
+
+        // Tamper with the state hash of the 10th turn
+        val lines = readLines(file).toMutableList()
+        lines[10] = lines[10].replace(Regex("\"stateHash\":-?\\d+"), "\"stateHash\":1")
+        GZIPOutputStream(file.outputStream()).bufferedWriter().use { writer ->
+            lines.forEach { writer.write(it); writer.newLine() }
+        }
+
+        val mismatch = ReplayVerifier.verify(file).mismatch.shouldNotBeNull()
+        mismatch.roundNumber shouldBe 1
+        mismatch.turnNumber shouldBe 10
+        mismatch.expectedHash shouldBe 1L
+        mismatch.actualHash shouldNotBe 1L
+    }
+})
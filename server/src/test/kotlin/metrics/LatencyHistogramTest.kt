@@ -0,0 +1,45 @@
+package metrics
+
+import dev.robocode.tankroyale.server.metrics.LatencyHistogram
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+
+class LatencyHistogramTest : StringSpec({
+
+    "latencies must be counted in the bucket with the smallest upper bound not below the latency" {
+        val histogram = LatencyHistogram(longArrayOf(10, 100))
+
+        histogram.record(10_000) // 10 µs
+        histogram.record(10_001)
+        histogram.record(1_000_000) // 1 ms
+
+        histogram.bucketCount(0) shouldBe 1
+        histogram.bucketCount(1) shouldBe 1
+        histogram.bucketCount(2) shouldBe 1
+        histogram.count shouldBe 3
+        histogram.sumInNanos shouldBe 1_020_001
+        histogram.maxInNanos shouldBe 1_000_000
+    }
+
+    "percentiles must be estimated by the upper bound of the bucket, or the max for the overflow bucket" {
+        val histogram = LatencyHistogram(longArrayOf(10, 100))
+        repeat(98) { histogram.record(5_000) }
+        histogram.record(50_000)
+        histogram.record(2_000_000)
+
+        histogram.percentileInNanos(50.0) shouldBe 10_000
+        histogram.percentileInNanos(99.0) shouldBe 100_000
+        histogram.percentileInNanos(100.0) shouldBe 2_000_000
+    }
+
+    "reset must clear all recorded latencies" {
+        val histogram = LatencyHistogram()
+        histogram.record(123)
+
+        histogram.reset()
+
+        histogram.count shouldBe 0
+        histogram.maxInNanos shouldBe 0
+        histogram.percentileInNanos(99.0) shouldBe 0
+    }
+})
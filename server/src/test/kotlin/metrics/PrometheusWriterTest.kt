@@ -0,0 +1,43 @@
+package metrics
+
+import dev.robocode.tankroyale.server.metrics.LatencyHistogram
+import dev.robocode.tankroyale.server.metrics.PrometheusWriter
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+
+class PrometheusWriterTest : StringSpec({
+
+    "counters must be written with escaped labels" {
+        val writer = PrometheusWriter()
+
+        writer.counter("skipped_total", "Skipped turns", listOf(mapOf("bot_name" to "My \"Bot\"") to 3L))
+
+        writer.toString() shouldBe """
+            # HELP skipped_total Skipped turns
+            # TYPE skipped_total counter
+            skipped_total{bot_name="My \"Bot\""} 3
+
+        """.trimIndent()
+    }
+
+    "histograms must be written with cumulative buckets in seconds" {
+        val histogram = LatencyHistogram(longArrayOf(50, 1_000))
+        histogram.record(10_000) // 10 µs
+        histogram.record(500_000) // 500 µs
+        histogram.record(2_000_000) // 2 ms
+
+        val writer = PrometheusWriter()
+        writer.histogram("latency_seconds", "Latency", histogram)
+
+        writer.toString() shouldBe """
+            # HELP latency_seconds Latency
+            # TYPE latency_seconds histogram
+            latency_seconds_bucket{le="0.00005"} 1
+            latency_seconds_bucket{le="0.001"} 2
+            latency_seconds_bucket{le="+Inf"} 3
+            latency_seconds_sum 0.00251
+            latency_seconds_count 3
+
+        """.trimIndent()
+    }
+})
@@ -0,0 +1,98 @@
+package metrics
+
+import dev.robocode.tankroyale.server.metrics.TurnMetrics
+import dev.robocode.tankroyale.server.metrics.TurnPhase
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+class TurnMetricsTest : StringSpec({
+
+    "phase times measured several times within a turn must be recorded once per turn" {
+        val metrics = TurnMetrics()
+
+        repeat(3) { metrics.addPhaseTime(TurnPhase.SEND, 1_000) }
+        metrics.addPhaseTime(TurnPhase.SCANS, 2_000)
+        metrics.endTurn()
+
+        metrics.phaseLatency(TurnPhase.SEND).count shouldBe 1
+        metrics.phaseLatency(TurnPhase.SEND).sumInNanos shouldBe 3_000
+        metrics.phaseLatency(TurnPhase.SCANS).sumInNanos shouldBe 2_000
+        metrics.phaseLatency(TurnPhase.MAPPING).count shouldBe 0
+        metrics.turnCount shouldBe 1
+    }
+
+    "measure must return the result of the block and time the phase" {
+        val metrics = TurnMetrics()
+
+        metrics.measure(TurnPhase.MAPPING) { 42 } shouldBe 42
+        metrics.endTurn()
+
+        metrics.phaseLatency(TurnPhase.MAPPING).count shouldBe 1
+    }
+
+    "intent latency must only be recorded for the first intent after a tick has been sent" {
+        val metrics = TurnMetrics()
+        metrics.reset(mapOf(1 to "Bot 1.0"), 30_000_000)
+        val bot = metrics.bot(1)!!
+
+        bot.intentReceived() // no tick sent yet
+        bot.tickSent()
+        bot.intentReceived()
+        bot.intentReceived()
+
+        bot.intentLatency.count shouldBe 1
+    }
+
+    "intent received while the tick is still being sent must be timed" {
+        val metrics = TurnMetrics()
+        metrics.reset(mapOf(1 to "Bot 1.0"), 30_000_000)
+        val bot = metrics.bot(1)!!
+
+        bot.tickSent()
+        // the intent is handled on another thread before the send of the tick has returned
+        thread { bot.intentReceived() }.join()
+
+        bot.intentLatency.count shouldBe 1
+    }
+
+    "intents received concurrently for the same tick must be timed once" {
+        val metrics = TurnMetrics()
+        metrics.reset(mapOf(1 to "Bot 1.0"), 30_000_000)
+        val bot = metrics.bot(1)!!
+
+        repeat(100) {
+            bot.tickSent()
+            val start = CountDownLatch(1)
+            List(4) { thread { start.await(); bot.intentReceived() } }.also { start.countDown() }.forEach { it.join() }
+        }
+
+        bot.intentLatency.count shouldBe 100
+    }
+
+    "reset must start over with the bots of the new game" {
+        val metrics = TurnMetrics()
+        metrics.reset(mapOf(1 to "Bot 1.0"), 30_000_000)
+        metrics.bot(1)!!.turnSkipped()
+        metrics.endTurn()
+
+        metrics.reset(mapOf(2 to "Other 2.0"), 30_000_000)
+
+        metrics.bot(1).shouldBeNull()
+        metrics.bot(2)!!.skippedTurnCount shouldBe 0
+        metrics.turnCount shouldBe 0
+    }
+
+    "summary must contain the skipped turns of each bot" {
+        val metrics = TurnMetrics()
+        metrics.reset(mapOf(1 to "Bot 1.0"), 30_000_000)
+        metrics.bot(1)!!.turnSkipped()
+        metrics.endTurn()
+
+        metrics.summary() shouldContain "Bot 1 Bot 1.0: intent latency p99: 0.000 ms (0% of turn timeout)"
+        metrics.summary() shouldContain "skipped turns: 1"
+    }
+})
@@ -0,0 +1,67 @@
+package model
+
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.BotStates
+import dev.robocode.tankroyale.server.model.MutableBot
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+
+class BotStatesTest : StringSpec({
+
+    fun createBot(states: BotStates, id: Int) =
+        MutableBot(
+            id = BotId(id),
+            states = states,
+            energy = 100.0 + id,
+            x = 10.0 * id,
+            y = 20.0 * id,
+            direction = 1.0 * id,
+            gunDirection = 2.0 * id,
+            radarDirection = 3.0 * id,
+            speed = 4.0,
+            gunHeat = 0.5,
+        )
+
+    "bots must read and write their state in the store" {
+        val states = BotStates()
+        val bot = createBot(states, 1)
+        val other = createBot(states, 2)
+
+        bot.moveToNewPosition()
+        bot.addDamage(30.0)
+        bot.gunHeat = 0.0
+
+        states.x(BotId(1)) shouldBe bot.x
+        states.y(BotId(1)) shouldBe bot.y
+        states.energy(BotId(1)) shouldBe 71.0
+        states.gunHeat(BotId(1)) shouldBe 0.0
+        bot.position.x shouldBe bot.x
+
+        other.x shouldBe 20.0
+        other.energy shouldBe 102.0
+    }
+
+    "bot ids beyond the initial capacity must be stored" {
+        val states = BotStates()
+        val bots = (1..200).map { createBot(states, it) }
+
+        bots.forEach { bot ->
+            bot.x shouldBe 10.0 * bot.id.value
+            bot.radarDirection shouldBe 3.0 * bot.id.value
+        }
+    }
+
+    "copy must keep the states from the time of copying" {
+        val states = BotStates()
+        val bot = createBot(states, 100)
+        val previousStates = BotStates()
+
+        previousStates.copyFrom(states)
+        bot.x = 1.0
+        bot.speed = 8.0
+
+        previousStates.x(bot.id) shouldBe 1000.0
+        previousStates.speed(bot.id) shouldBe 4.0
+        previousStates.direction(bot.id) shouldBe 100.0
+    }
+})
@@ -0,0 +1,85 @@
+package model
+
+import dev.robocode.tankroyale.server.model.BulletId
+import dev.robocode.tankroyale.server.model.BulletStore
+import dev.robocode.tankroyale.server.model.IBullet
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import model.factory.BulletFactory
+
+class BulletStoreTest : StringSpec({
+
+    fun BulletStore.add(bullet: IBullet) =
+        add(bullet.id, bullet.botId, bullet.power, bullet.direction, bullet.color, bullet.startPosition)
+
+    fun BulletStore.bullets() = mutableListOf<IBullet>().also { copyTo(it) }
+
+    "positions must be the same as calculated by the bullets" {
+        val store = BulletStore()
+        val bullets = (1..100).map {
+            BulletFactory.createBullet(id = BulletId(it), direction = it * 3.6, tick = 0).toMutableBullet()
+        }
+        bullets.forEach { store.add(it) }
+
+        repeat(20) {
+            store.incrementTicks()
+            bullets.forEach { it.incrementTick() }
+        }
+
+        store.size shouldBe 100
+        bullets.forEachIndexed { i, bullet ->
+            val slot = store.slotAt(i)
+            store.x(slot) shouldBe bullet.position().x
+            store.y(slot) shouldBe bullet.position().y
+            store.nextX(slot) shouldBe bullet.nextPosition().x
+            store.nextY(slot) shouldBe bullet.nextPosition().y
+            store.toBullet(slot) shouldBe bullet.toBullet()
+            store.toBullet(slot).tick shouldBe 20
+        }
+    }
+
+    "removed bullets must be kept until compacted, and then their slots must be reused" {
+        val store = BulletStore()
+        (1..5).forEach { store.add(BulletFactory.createBullet(id = BulletId(it))) }
+
+        val slot2 = store.slotAt(1)
+        val slot4 = store.slotAt(3)
+        store.remove(slot2)
+        store.remove(slot4)
+        store.remove(slot4)
+
+        store.size shouldBe 5
+        store.isRemoved(slot2) shouldBe true
+        store.bullets().map { it.id.value } shouldBe listOf(1, 3, 5)
+
+        store.compact()
+
+        store.size shouldBe 3
+        store.bullets().map { it.id.value } shouldBe listOf(1, 3, 5)
+
+        val slot6 = store.add(BulletFactory.createBullet(id = BulletId(6)))
+        val slot7 = store.add(BulletFactory.createBullet(id = BulletId(7)))
+
+        setOf(slot6, slot7) shouldBe setOf(slot2, slot4)
+        store.isRemoved(slot6) shouldBe false
+        store.bullets().map { it.id.value } shouldBe listOf(1, 3, 5, 6, 7)
+    }
+
+    "the store must grow when more bullets are added than its initial capacity" {
+        val store = BulletStore()
+        (1..1000).forEach { store.add(BulletFactory.createBullet(id = BulletId(it))) }
+
+        store.size shouldBe 1000
+        store.bullets().map { it.id.value } shouldBe (1..1000).toList()
+    }
+
+    "clear() must remove all bullets" {
+        val store = BulletStore()
+        store.add(BulletFactory.createBullet())
+
+        store.clear()
+
+        store.size shouldBe 0
+        store.bullets() shouldBe emptyList()
+    }
+})
@@ -0,0 +1,72 @@
+package model
+
+import dev.robocode.tankroyale.server.event.BotDeathEvent
+import dev.robocode.tankroyale.server.event.WonRoundEvent
+import dev.robocode.tankroyale.server.model.Bot
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.MutableTurnEvents
+import dev.robocode.tankroyale.server.model.Point
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+
+class MutableTurnEventsTest : StringSpec({
+
+    fun bot(id: Int) = Bot(
+        id = BotId(id), sessionId = null, position = Point(0.0, 0.0), direction = 0.0, gunDirection = 0.0,
+        radarDirection = 0.0
+    )
+
+    "events must be kept per recipient in the order they were added" {
+        val events = MutableTurnEvents()
+        val won1 = WonRoundEvent(1)
+        val won2 = WonRoundEvent(1)
+        val death = BotDeathEvent(1, BotId(3))
+
+        events.addPrivateBotEvent(BotId(2), won1)
+        events.addObserverEvent(death)
+        events.addPublicBotEvent(listOf(bot(1), bot(2), bot(100)), death)
+        events.addPrivateBotEvent(BotId(2), won2)
+
+        events.botEvents(BotId(1)) shouldBe listOf(death)
+        events.botEvents(BotId(2)) shouldBe listOf(won1, death, won2)
+        events.botEvents(BotId(100)) shouldBe listOf(death)
+        events.botEvents(BotId(3)).shouldBeEmpty()
+        events.botEvents(BotId(1000)).shouldBeEmpty()
+        events.observerEvents shouldBe listOf(death)
+    }
+
+    "immutable copy must hold the same events and be unaffected by clearing the log" {
+        val events = MutableTurnEvents()
+        val wonEvents = (1..200).map { WonRoundEvent(it) }
+        wonEvents.forEach { event ->
+            events.addPrivateBotEvent(BotId(event.turnNumber % 5 + 1), event)
+            events.addObserverEvent(event)
+        }
+
+        val turnEvents = events.toTurnEvents()
+        events.clear()
+        events.addPrivateBotEvent(BotId(1), WonRoundEvent(0))
+
+        for (botId in 1..5) {
+            turnEvents.botEvents(BotId(botId)) shouldBe wonEvents.filter { it.turnNumber % 5 + 1 == botId }
+        }
+        turnEvents.botEvents(BotId(6)).shouldBeEmpty()
+        turnEvents.observerEvents shouldBe wonEvents
+
+        events.botEvents(BotId(1)).size shouldBe 1
+        events.botEvents(BotId(2)).shouldBeEmpty()
+        events.observerEvents.shouldBeEmpty()
+    }
+
+    "a public event must be stored once for all bots" {
+        val events = MutableTurnEvents()
+        val death = BotDeathEvent(1, BotId(1))
+
+        events.addPublicBotEvent((1..50).map { bot(it) }, death)
+        val turnEvents = events.toTurnEvents()
+
+        (1..50).forEach { turnEvents.botEvents(BotId(it)).single() shouldBeSameInstanceAs death }
+    }
+})
@@ -0,0 +1,106 @@
+package model
+
+import dev.robocode.tankroyale.server.model.*
+import dev.robocode.tankroyale.server.rules.BOT_BOUNDING_CIRCLE_RADIUS
+import dev.robocode.tankroyale.server.rules.RADAR_RADIUS
+import dev.robocode.tankroyale.server.util.WallConfig
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import java.util.*
+
+class RadarSweepTest : StringSpec({
+
+    /** Scans by checking every object against every visible wall, like the ModelUpdater did before */
+    fun bruteForceScan(
+        walls: List<Wall>, bots: List<Point>, scanner: Int, startAngle: Double, endAngle: Double
+    ): List<Any> {
+        val position = bots[scanner]
+        val scanned = mutableListOf<Pair<Any, Double>>()
+        walls.forEach { wall ->
+            if (isCircleIntersectingCircleSector(
+                    wall.position(), wall.boundsRadius, position, RADAR_RADIUS, startAngle, endAngle
+                )
+            ) {
+                scanned += wall to (position.distanceTo(wall.position()) - wall.boundsRadius).coerceAtLeast(0.0)
+            }
+        }
+        bots.forEachIndexed { i, bot ->
+            if (i != scanner && isCircleIntersectingCircleSector(
+                    bot, BOT_BOUNDING_CIRCLE_RADIUS, position, RADAR_RADIUS, startAngle, endAngle
+                )
+            ) {
+                scanned += i to position.distanceTo(bot)
+            }
+        }
+        scanned.sortBy { it.second }
+
+        val visible = mutableListOf<Any>()
+        val occluders = mutableListOf<Wall>()
+        scanned.forEach { (scannedObject, _) ->
+            val center = if (scannedObject is Wall) scannedObject.position() else bots[scannedObject as Int]
+            if (occluders.none { it.intersects(Line(position, center)) }) {
+                visible += scannedObject
+                if (scannedObject is Wall) occluders += scannedObject
+            }
+        }
+        return visible
+    }
+
+    fun RadarSweep.visibleObjects(): List<Any> = (0 until count).map { if (isWall(it)) wallAt(it) else botAt(it) }
+
+    "scans must find the same visible bots and walls in the same order as checking all objects" {
+        val walls = WallConfig.MAP4_WALLS
+        val radarSweep = RadarSweep(WallIndex(walls, 1200, 1200), 1200, 1200)
+        val random = Random(1)
+
+        repeat(100) {
+            val bots = List(50) { Point(random.nextDouble() * 1200, random.nextDouble() * 1200) }
+            radarSweep.clear()
+            bots.forEach { radarSweep.addBot(it.x, it.y) }
+            radarSweep.build()
+
+            bots.indices.forEach { scanner ->
+                val endAngle = random.nextDouble() * 360
+                val startAngle = normalizeAbsoluteDegrees(endAngle - random.nextDouble() * 45)
+
+                radarSweep.scan(scanner, startAngle, endAngle)
+
+                radarSweep.visibleObjects() shouldBe bruteForceScan(walls, bots, scanner, startAngle, endAngle)
+            }
+        }
+    }
+
+    "a wall must hide a bot behind it, but not a bot in front of it" {
+        val wall = Wall(id = 1, x = 500.0, y = 300.0, width = 20.0, height = 200.0)
+        val radarSweep = RadarSweep(WallIndex(listOf(wall), 1000, 600), 1000, 600)
+        radarSweep.addBot(300.0, 300.0) // scanner
+        radarSweep.addBot(400.0, 300.0) // in front of the wall
+        radarSweep.addBot(700.0, 300.0) // behind the wall
+        radarSweep.build()
+
+        radarSweep.scan(0, 350.0, 10.0)
+
+        radarSweep.visibleObjects() shouldBe listOf(wall, 1)
+    }
+
+    "a rotated wall must hide bots in the direction of its shadow that wraps around 180 degrees" {
+        val wall = Wall(id = 1, x = 300.0, y = 300.0, width = 20.0, height = 200.0, rotation = 30.0)
+        val radarSweep = RadarSweep(WallIndex(listOf(wall), 1000, 600), 1000, 600)
+        radarSweep.addBot(500.0, 300.0) // scanner
+        radarSweep.addBot(100.0, 300.0) // behind the wall
+        radarSweep.addBot(100.0, 0.0) // beside the wall
+        radarSweep.build()
+
+        radarSweep.scan(0, 170.0, 225.0)
+
+        radarSweep.visibleObjects() shouldBe listOf(wall, 2)
+    }
+
+    "a scan without other bots and walls must find nothing" {
+        val radarSweep = RadarSweep(WallIndex(emptyList(), 800, 600), 800, 600)
+        radarSweep.addBot(400.0, 300.0)
+        radarSweep.build()
+
+        radarSweep.scan(0, 0.0, 45.0) shouldBe 0
+    }
+})
@@ -0,0 +1,50 @@
+package model
+
+import dev.robocode.tankroyale.server.model.Wall
+import dev.robocode.tankroyale.server.model.WallIndex
+import dev.robocode.tankroyale.server.util.WallConfig
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldContainAll
+import io.kotest.matchers.shouldBe
+import java.util.*
+
+class WallIndexTest : StringSpec({
+
+    "near() must find every wall whose bounding circle overlaps the query circle" {
+        val walls = WallConfig.MAP4_WALLS
+        val query = WallIndex(walls, 1200, 1200).newQuery()
+        val random = Random(1)
+
+        repeat(1000) {
+            val x = random.nextDouble() * 1200
+            val y = random.nextDouble() * 1200
+            val radius = random.nextDouble() * 100
+
+            val expected = walls.filter { wall ->
+                val dx = wall.x - x
+                val dy = wall.y - y
+                val r = wall.boundsRadius + radius
+                dx * dx + dy * dy <= r * r
+            }
+            val count = query.near(x, y, radius)
+            val found = (0 until count).map { query[it] }
+
+            found shouldContainAll expected
+            found.toSet().size shouldBe count // no duplicates
+        }
+    }
+
+    "walls outside the arena must be found by queries at the arena border" {
+        val wall = Wall(id = 1, x = -20.0, y = 300.0, width = 10.0, height = 10.0)
+        val query = WallIndex(listOf(wall), 800, 600).newQuery()
+
+        query.near(5.0, 300.0, 18.0) shouldBe 1
+        query[0] shouldBe wall
+    }
+
+    "an empty index must not find any walls" {
+        val query = WallIndex(emptyList(), 800, 600).newQuery()
+
+        query.near(400.0, 300.0, 1000.0) shouldBe 0
+    }
+})
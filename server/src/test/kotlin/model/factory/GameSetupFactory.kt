@@ -0,0 +1,33 @@
+package model.factory
+
+import dev.robocode.tankroyale.server.model.GameSetup
+import dev.robocode.tankroyale.server.rules.DEFAULT_INACTIVITY_TURNS
+
+class GameSetupFactory {
+    companion object {
+
+        fun createGameSetup(
+            arenaWidth: Int = 400,
+            arenaHeight: Int = 400,
+            numberOfRounds: Int = 1,
+            maxInactivityTurns: Int = DEFAULT_INACTIVITY_TURNS,
+            seed: Long? = null
+        ) = GameSetup(
+            arenaWidth = arenaWidth,
+            arenaHeight = arenaHeight,
+            maxNumberOfParticipants = null,
+            numberOfRounds = numberOfRounds,
+            maxInactivityTurns = maxInactivityTurns,
+            isArenaWidthLocked = false,
+            isArenaHeightLocked = false,
+            isMinNumberOfParticipantsLocked = false,
+            isMaxNumberOfParticipantsLocked = false,
+            isNumberOfRoundsLocked = false,
+            isGunCoolingRateLocked = false,
+            isMaxInactivityTurnsLocked = false,
+            isTurnTimeoutLocked = false,
+            isReadyTimeoutLocked = false,
+            seed = seed
+        )
+    }
+}
@@ -0,0 +1,69 @@
+package score
+
+import dev.robocode.tankroyale.server.model.BotId
+import dev.robocode.tankroyale.server.model.ParticipantId
+import dev.robocode.tankroyale.server.model.TickScore
+import dev.robocode.tankroyale.server.score.RankDecorator
+import dev.robocode.tankroyale.server.score.ScoreTracker
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import java.util.*
+
+class ScoreTrackerTest : StringSpec({
+
+    val participantIds = (1..20).map { ParticipantId(BotId(it)) }.toSet()
+
+    /** Recalculates the tick scores from scratch like before they were maintained incrementally */
+    fun recalculatedTickScores(scoreTracker: ScoreTracker): List<TickScore> {
+        val scores = participantIds.map { scoreTracker.calculateScore(it) }
+        RankDecorator.updateRanks(scores)
+        return scores.map { TickScore(it) }.sortedByDescending { it.totalScore }
+    }
+
+    "incremental tick scores must match the recalculated tick scores" {
+        val scoreTracker = ScoreTracker(participantIds)
+        val random = Random(1)
+
+        repeat(3) {
+            val alive = participantIds.toMutableList()
+            while (alive.size > 1) {
+                val offender = alive[random.nextInt(alive.size)]
+                val victim = alive[random.nextInt(alive.size)]
+                if (offender != victim) {
+                    val kill = random.nextInt(10) == 0
+                    if (random.nextBoolean()) {
+                        // Damage in quarters, which are summed up exactly no matter the order of the additions
+                        scoreTracker.registerBulletHit(offender, victim, random.nextInt(64) / 4.0, kill)
+                    } else {
+                        scoreTracker.registerRamHit(offender, victim, kill)
+                    }
+                    if (kill) {
+                        alive -= victim
+                        scoreTracker.registerDeaths(setOf(victim))
+                    }
+                }
+                scoreTracker.getTickScores() shouldBe recalculatedTickScores(scoreTracker)
+            }
+            scoreTracker.clear()
+            scoreTracker.getTickScores() shouldBe recalculatedTickScores(scoreTracker)
+        }
+    }
+
+    "tick scores and version must be kept until something is registered" {
+        val scoreTracker = ScoreTracker(participantIds)
+        val version = scoreTracker.version
+        val tickScores = scoreTracker.getTickScores()
+
+        scoreTracker.getTickScores() shouldBeSameInstanceAs tickScores
+        scoreTracker.registerDeaths(emptySet())
+        scoreTracker.version shouldBe version
+        scoreTracker.getTickScores() shouldBeSameInstanceAs tickScores
+
+        scoreTracker.registerBulletHit(ParticipantId(BotId(5)), ParticipantId(BotId(6)), 4.0, false)
+        scoreTracker.version shouldNotBe version
+        scoreTracker.getTickScores().first().participantId shouldBe ParticipantId(BotId(5))
+        scoreTracker.getTickScores().first().rank shouldBe 1
+    }
+})